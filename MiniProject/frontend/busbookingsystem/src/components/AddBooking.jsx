@@ -22,6 +22,7 @@ const AddBooking = () => {
   });
   const [buses, setBuses] = useState([]);
   const [users, setUsers] = useState([]);
+  const [userSearch, setUserSearch] = useState('');
   const [selectedBus, setSelectedBus] = useState(null);
   const [availableSeats, setAvailableSeats] = useState([]);
   const [loading, setLoading] = useState(false);
@@ -30,12 +31,8 @@ const AddBooking = () => {
   useEffect(() => {
     const fetchData = async () => {
       try {
-        const [busesResponse, usersResponse] = await Promise.all([
-          getBuses(),
-          getUsers()
-        ]);
+        const busesResponse = await getBuses();
         setBuses(busesResponse.data);
-        setUsers(usersResponse.data);
         
         // If busId was provided, find the selected bus to display info
         if (busIdFromUrl) {
@@ -54,12 +51,33 @@ const AddBooking = () => {
         }
       } catch (err) {
         console.error('Error fetching data:', err);
-        setError('Failed to load buses and users');
+        setError('Failed to load buses');
       }
     };
     fetchData();
   }, [busIdFromUrl]);
 
+  // Admins pick the user from a page of the directory matching a name prefix
+  useEffect(() => {
+    if (currentUser?.role !== 'ADMIN') {
+      return;
+    }
+    const timer = setTimeout(async () => {
+      try {
+        const params = { limit: 50 };
+        if (userSearch.trim()) {
+          params.name = userSearch.trim();
+        }
+        const response = await getUsers(params);
+        setUsers(response.data.users);
+      } catch (err) {
+        console.error('Error fetching users:', err);
+        setError('Failed to load users');
+      }
+    }, 300);
+    return () => clearTimeout(timer);
+  }, [userSearch, currentUser]);
+
   const fetchSeatsForBus = async (busId) => {
     try {
       // Fetch all seats and seat counts for the selected bus
@@ -206,6 +224,13 @@ const AddBooking = () => {
           {currentUser?.role === 'ADMIN' ? (
             <div className="premium-form-group">
               <label className="premium-label" htmlFor="userId">User</label>
+              <input
+                type="text"
+                className="premium-input"
+                placeholder="Search users by name"
+                value={userSearch}
+                onChange={(e) => setUserSearch(e.target.value)}
+              />
               <select
                 id="userId"
                 name="userId"
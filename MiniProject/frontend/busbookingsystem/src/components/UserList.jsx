@@ -4,6 +4,7 @@ import { getUsers, deleteUser } from '../services/api';
 
 const UserList = () => {
   const [users, setUsers] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState(null);
   const navigate = useNavigate();
@@ -12,11 +13,12 @@ const UserList = () => {
     fetchUsers();
   }, []);
 
-  const fetchUsers = async () => {
+  // The directory is paginated; a cursor appends the next page
+  const fetchUsers = async (cursor) => {
     try {
-      const response = await getUsers();
-      console.log('Users data:', response.data); // Log the response to see the actual structure
-      setUsers(response.data);
+      const response = await getUsers(cursor ? { cursor } : undefined);
+      setUsers(cursor ? (current) => [...current, ...response.data.users] : response.data.users);
+      setNextCursor(response.data.nextCursor);
       setLoading(false);
     } catch (err) {
       console.error('Error fetching users:', err);
@@ -112,6 +114,14 @@ const UserList = () => {
           </tbody>
         </table>
       </div>
+
+      {nextCursor && (
+        <div className="text-center">
+          <button className="btn btn-secondary" onClick={() => fetchUsers(nextCursor)}>
+            Load More
+          </button>
+        </div>
+      )}
     </div>
   );
 };
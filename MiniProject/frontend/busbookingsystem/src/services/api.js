@@ -31,7 +31,7 @@ export const cancelBooking = (bookingId) => api.put(`/booking/${bookingId}/cance
 export const getAvailableSeats = (busId) => api.get(`/seat/bus/${busId}/available`);
 
 // User endpoints
-export const getUsers = () => api.get('/users');
+export const getUsers = (params) => api.get('/users', { params });
 export const addUser = (userData) => api.post('/users', userData);
 export const deleteUser = (id) => api.delete(`/users/${id}`);
 export const getUserPriorityInfo = (userId) => api.get(`/users/${userId}/priority`);
@@ -0,0 +1,35 @@
+#!/usr/bin/env bash
+# Runs the booking benchmark against clusters of 1 to 4 local nodes sharing
+# one H2 file database (profile "cluster"). Run from the MiniProject directory.
+set -euo pipefail
+
+BUSES=${BUSES:-40}
+THREADS=${THREADS:-32}
+
+./mvnw -q -DskipTests package test-compile
+JAR=$(ls target/bus-*.jar | grep -v original | head -n 1)
+
+for NODES in 1 2 3 4; do
+    rm -f data/cluster-busdb*
+    PIDS=()
+    URLS=()
+    for ((i = 1; i <= NODES; i++)); do
+        PORT=$((8080 + i))
+        java -jar "$JAR" --spring.profiles.active=cluster --server.port=$PORT \
+            --bus.cluster.node-id=node-$i > "target/cluster-node-$i.log" 2>&1 &
+        PIDS+=($!)
+        URLS+=("http://localhost:$PORT")
+    done
+
+    for URL in "${URLS[@]}"; do
+        until curl -sf "$URL/booking/health" > /dev/null; do sleep 0.5; done
+    done
+    # Let every node see the full membership before measuring
+    sleep 4
+
+    java -cp target/test-classes BusManagementBooking.bus.cluster.ClusterScalingBenchmark \
+        "$(IFS=,; echo "${URLS[*]}")" "$BUSES" "$THREADS"
+
+    kill "${PIDS[@]}"
+    wait "${PIDS[@]}" 2> /dev/null || true
+done
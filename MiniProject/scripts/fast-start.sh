@@ -0,0 +1,17 @@
+#!/usr/bin/env bash
+# Starts the startup-optimized build (profile "fast-start"): AOT-processed
+# beans, the AppCDS archive from the build's training run, lazy non-critical
+# controllers and a background seat-map check. Run from the
+# MiniProject directory:
+#   scripts/fast-start.sh [extra spring arguments]
+set -euo pipefail
+
+DIR=target/fast-start
+JAR=$(ls $DIR/bus-*.jar 2>/dev/null | head -n 1 || true)
+if [ -z "$JAR" ] || [ ! -f "$DIR/application.jsa" ]; then
+    ./mvnw -q -Pfast-start -DskipTests package
+    JAR=$(ls $DIR/bus-*.jar | head -n 1)
+fi
+
+exec java -XX:SharedArchiveFile="$DIR/application.jsa" -Dspring.aot.enabled=true \
+    -jar "$JAR" --spring.profiles.active=fast-start "$@"
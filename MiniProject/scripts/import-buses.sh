@@ -0,0 +1,21 @@
+#!/usr/bin/env bash
+# Imports a CSV (with header) or NDJSON timetable into the configured database
+# without starting the web server. Run from the MiniProject directory:
+#   scripts/import-buses.sh timetable.csv [extra spring arguments]
+set -euo pipefail
+
+if [ $# -lt 1 ]; then
+    echo "usage: $0 <file.csv|file.ndjson> [spring arguments]" >&2
+    exit 2
+fi
+
+FILE=$1
+shift
+
+JAR=$(ls target/bus-*.jar 2>/dev/null | grep -v original | head -n 1 || true)
+if [ -z "$JAR" ]; then
+    ./mvnw -q -DskipTests package
+    JAR=$(ls target/bus-*.jar | grep -v original | head -n 1)
+fi
+
+exec java -jar "$JAR" --spring.main.web-application-type=none --bus.import.file="$FILE" "$@"
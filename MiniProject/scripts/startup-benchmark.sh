@@ -0,0 +1,26 @@
+#!/usr/bin/env bash
+# Compares time-to-first-request (GET /bus) of the default build and the
+# fast-start build (AOT + AppCDS + lazy controllers + background seat check).
+# Both run against the same H2 file database, created by a default run
+# first. Run from the MiniProject directory.
+set -euo pipefail
+
+RUNS=${RUNS:-5}
+PORT=${PORT:-8090}
+DB="jdbc:h2:file:./data/startup-bench;AUTO_SERVER=TRUE"
+ARGS=(--server.port=$PORT --spring.datasource.url=$DB --spring.datasource.username=sa
+      --spring.datasource.password= --spring.datasource.driver-class-name=org.h2.Driver
+      --spring.jpa.database-platform=org.hibernate.dialect.H2Dialect)
+
+./mvnw -q -Pfast-start -DskipTests package test-compile
+JAR=$(ls target/bus-*.jar | grep -v original | head -n 1)
+FAST_JAR=$(ls target/fast-start/bus-*.jar | head -n 1)
+BENCH=(java -cp target/test-classes BusManagementBooking.bus.StartupBenchmark "http://localhost:$PORT/bus" "$RUNS")
+
+rm -f data/startup-bench*
+echo "== default (eager seat check, SQL logging) =="
+"${BENCH[@]}" target/startup-default.log java -jar "$JAR" "${ARGS[@]}"
+
+echo "== fast-start =="
+"${BENCH[@]}" target/startup-fast.log java -XX:SharedArchiveFile=target/fast-start/application.jsa \
+    -Dspring.aot.enabled=true -jar "$FAST_JAR" --spring.profiles.active=fast-start "${ARGS[@]}"
@@ -1,16 +1,24 @@
 package BusManagementBooking.bus;
 
+import BusManagementBooking.bus.buses.BusImportCommand;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @SpringBootApplication
+@EnableScheduling
 public class BusApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(BusApplication.class, args);
+		ConfigurableApplicationContext context = SpringApplication.run(BusApplication.class, args);
+		// A command line import is done once the context has started
+		if (context.getBeanNamesForType(BusImportCommand.class).length > 0) {
+			System.exit(SpringApplication.exit(context));
+		}
 	}
 
 	@Bean
@@ -0,0 +1,19 @@
+package BusManagementBooking.bus.admission;
+
+/**
+ * Thrown when a request is turned away by admission control; controllers
+ * answer it with 429 and a Retry-After header
+ */
+public class AdmissionRejectedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public AdmissionRejectedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,23 @@
+package BusManagementBooking.bus.admission;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+public interface AdmissionService {
+    /**
+     * Takes a token from the user's and the bus's bucket; either key may be null
+     */
+    void acquireTokens(Long userId, Long busId);
+
+    /**
+     * Runs the work under the adaptive concurrency limit
+     */
+    <T> T withinLimit(Callable<T> work) throws Exception;
+
+    /**
+     * True while the concurrency limit is fully used
+     */
+    boolean isSaturated();
+
+    Map<String, Object> getStats();
+}
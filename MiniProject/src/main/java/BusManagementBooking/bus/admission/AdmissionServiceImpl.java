@@ -0,0 +1,138 @@
+package BusManagementBooking.bus.admission;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admission control for the booking write endpoints. Token buckets per user
+ * and per bus stop retry storms and bots before they cost anything, and an
+ * AIMD concurrency limit keeps the requests that are let in from queueing on
+ * Tomcat threads and database connections. Rejections are immediate, so an
+ * overloaded instance keeps completing the requests it accepted.
+ */
+@Service
+public class AdmissionServiceImpl implements AdmissionService {
+
+    private final boolean enabled;
+    private final double userBurst;
+    private final double userRatePerSecond;
+    private final double busBurst;
+    private final double busRatePerSecond;
+    private final AimdConcurrencyLimiter limiter;
+
+    private final Map<Long, TokenBucket> userBuckets = new ConcurrentHashMap<>();
+    private final Map<Long, TokenBucket> busBuckets = new ConcurrentHashMap<>();
+
+    private final AtomicLong admitted = new AtomicLong();
+    private final AtomicLong rejectedUser = new AtomicLong();
+    private final AtomicLong rejectedBus = new AtomicLong();
+    private final AtomicLong rejectedConcurrency = new AtomicLong();
+
+    public AdmissionServiceImpl(
+            @Value("${bus.admission.enabled:true}") boolean enabled,
+            @Value("${bus.admission.user.burst:5}") double userBurst,
+            @Value("${bus.admission.user.rate-per-second:1}") double userRatePerSecond,
+            @Value("${bus.admission.bus.burst:200}") double busBurst,
+            @Value("${bus.admission.bus.rate-per-second:100}") double busRatePerSecond,
+            @Value("${bus.admission.concurrency.initial-limit:20}") int initialLimit,
+            @Value("${bus.admission.concurrency.min-limit:4}") int minLimit,
+            @Value("${bus.admission.concurrency.max-limit:200}") int maxLimit,
+            @Value("${bus.admission.concurrency.latency-target-ms:250}") long latencyTargetMs,
+            @Value("${bus.admission.concurrency.backoff-ratio:0.9}") double backoffRatio) {
+        this.enabled = enabled;
+        this.userBurst = userBurst;
+        this.userRatePerSecond = userRatePerSecond;
+        this.busBurst = busBurst;
+        this.busRatePerSecond = busRatePerSecond;
+        this.limiter = new AimdConcurrencyLimiter(initialLimit, minLimit, maxLimit,
+                TimeUnit.MILLISECONDS.toNanos(latencyTargetMs), backoffRatio);
+    }
+
+    @Override
+    public void acquireTokens(Long userId, Long busId) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        TokenBucket userBucket = null;
+        if (userId != null) {
+            userBucket = userBuckets.computeIfAbsent(userId, id -> new TokenBucket(userBurst, userRatePerSecond, now));
+            long waitNanos = userBucket.tryAcquire(now);
+            if (waitNanos > 0) {
+                rejectedUser.incrementAndGet();
+                throw new AdmissionRejectedException("Too many booking requests for user " + userId, toRetryAfter(waitNanos));
+            }
+        }
+        if (busId != null) {
+            long waitNanos = busBuckets.computeIfAbsent(busId, id -> new TokenBucket(busBurst, busRatePerSecond, now)).tryAcquire(now);
+            if (waitNanos > 0) {
+                if (userBucket != null) {
+                    userBucket.refund();
+                }
+                rejectedBus.incrementAndGet();
+                throw new AdmissionRejectedException("Too many booking requests for bus " + busId, toRetryAfter(waitNanos));
+            }
+        }
+    }
+
+    @Override
+    public <T> T withinLimit(Callable<T> work) throws Exception {
+        if (!enabled) {
+            return work.call();
+        }
+        if (!limiter.tryAcquire()) {
+            rejectedConcurrency.incrementAndGet();
+            throw new AdmissionRejectedException("Booking service is at capacity, please retry", 1);
+        }
+        admitted.incrementAndGet();
+        long start = System.nanoTime();
+        try {
+            return work.call();
+        } finally {
+            long now = System.nanoTime();
+            limiter.release(now - start, now);
+        }
+    }
+
+    @Override
+    public boolean isSaturated() {
+        return enabled && limiter.getInFlight() >= limiter.getLimit();
+    }
+
+    private static long toRetryAfter(long waitNanos) {
+        return Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+    }
+
+    /**
+     * Drops refilled buckets so the maps only hold recently active users and buses
+     */
+    @Scheduled(fixedDelayString = "${bus.admission.cleanup-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        userBuckets.values().removeIf(bucket -> bucket.isFull(now));
+        busBuckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("admitted", admitted.get());
+        stats.put("rejectedUser", rejectedUser.get());
+        stats.put("rejectedBus", rejectedBus.get());
+        stats.put("rejectedConcurrency", rejectedConcurrency.get());
+        stats.put("concurrencyLimit", limiter.getLimit());
+        stats.put("inFlight", limiter.getInFlight());
+        stats.put("trackedUsers", userBuckets.size());
+        stats.put("trackedBuses", busBuckets.size());
+        return stats;
+    }
+}
@@ -0,0 +1,71 @@
+package BusManagementBooking.bus.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit adjusted by observed latency (additive increase,
+ * multiplicative decrease). Completions under the latency target raise the
+ * limit by one per limit's worth of requests, as long as the limit is
+ * actually being used; a completion over the target cuts it by the backoff
+ * ratio, at most once per target interval so one slow burst counts once.
+ */
+class AimdConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyTargetNanos;
+    private final double backoffRatio;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+    private double estimatedLimit;
+    private long lastDecrease;
+
+    AimdConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long latencyTargetNanos, double backoffRatio) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTargetNanos = latencyTargetNanos;
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.estimatedLimit = limit;
+    }
+
+    boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Ends a request admitted by tryAcquire and feeds its latency back
+     */
+    void release(long latencyNanos, long now) {
+        int before = inFlight.getAndDecrement();
+        synchronized (this) {
+            if (latencyNanos > latencyTargetNanos) {
+                if (now - lastDecrease >= latencyTargetNanos) {
+                    estimatedLimit = Math.max(minLimit, estimatedLimit * backoffRatio);
+                    lastDecrease = now;
+                }
+            } else if (before * 2 >= limit) {
+                // Only grow while at least half the limit is in use, otherwise idle periods inflate it
+                estimatedLimit = Math.min(maxLimit, estimatedLimit + 1.0 / estimatedLimit);
+            }
+            limit = (int) estimatedLimit;
+        }
+    }
+
+    int getLimit() {
+        return limit;
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,66 @@
+package BusManagementBooking.bus.analytics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("analytics")
+@CrossOrigin(origins = "http://localhost:5173", allowCredentials = "true")
+public class AnalyticsController {
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @GetMapping("/health")
+    public String checkAlive() {
+        return "Analytics Controller is alive!";
+    }
+
+    @GetMapping("/revenue")
+    public ResponseEntity<?> getRevenue(
+            @RequestParam(defaultValue = "bus") String groupBy,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        switch (groupBy) {
+            case "bus":
+                return ResponseEntity.ok(analyticsService.getRevenueByBus());
+            case "route":
+                return ResponseEntity.ok(analyticsService.getRevenueByRoute());
+            case "day":
+                return ResponseEntity.ok(analyticsService.getRevenueByDay(from, to));
+            default:
+                return ResponseEntity.badRequest().body("Invalid groupBy: " + groupBy + ". Valid values are: bus, route, day");
+        }
+    }
+
+    @GetMapping("/occupancy")
+    public ResponseEntity<List<OccupancyDTO>> getOccupancy() {
+        return ResponseEntity.ok(analyticsService.getOccupancyBySeatType());
+    }
+
+    @GetMapping("/occupancy/bus/{busId}")
+    public ResponseEntity<List<OccupancyDTO>> getOccupancyByBus(@PathVariable Long busId) {
+        return ResponseEntity.ok(analyticsService.getOccupancyBySeatType(busId));
+    }
+
+    @GetMapping("/occupancy/fleet")
+    public ResponseEntity<List<BusOccupancyDTO>> getFleetOccupancy() {
+        return ResponseEntity.ok(analyticsService.getFleetOccupancy());
+    }
+
+    @PostMapping("/recompute")
+    public ResponseEntity<Map<String, Object>> recompute() {
+        return ResponseEntity.ok(analyticsService.recompute());
+    }
+
+    @GetMapping("/status")
+    public ResponseEntity<Map<String, Object>> getStatus() {
+        return ResponseEntity.ok(analyticsService.getStatus());
+    }
+}
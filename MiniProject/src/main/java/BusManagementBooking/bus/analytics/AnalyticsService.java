@@ -0,0 +1,16 @@
+package BusManagementBooking.bus.analytics;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+public interface AnalyticsService {
+    List<RevenueDTO> getRevenueByBus();
+    List<RevenueDTO> getRevenueByRoute();
+    List<RevenueDTO> getRevenueByDay(LocalDate from, LocalDate to);
+    List<OccupancyDTO> getOccupancyBySeatType();
+    List<OccupancyDTO> getOccupancyBySeatType(Long busId);
+    List<BusOccupancyDTO> getFleetOccupancy();
+    Map<String, Object> recompute();
+    Map<String, Object> getStatus();
+}
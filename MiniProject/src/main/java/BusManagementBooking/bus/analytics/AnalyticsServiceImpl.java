@@ -0,0 +1,532 @@
+package BusManagementBooking.bus.analytics;
+
+import BusManagementBooking.bus.archive.ArchiveService;
+import BusManagementBooking.bus.booking.Booking;
+import BusManagementBooking.bus.booking.BookingEvent;
+import BusManagementBooking.bus.booking.BookingRepository;
+import BusManagementBooking.bus.buses.BusRepository;
+import BusManagementBooking.bus.cache.CacheInvalidationBus;
+import BusManagementBooking.bus.cluster.ClusterMembership;
+import BusManagementBooking.bus.datasource.ReplicaRoutingDataSource;
+import BusManagementBooking.bus.seats.Seat;
+import BusManagementBooking.bus.seats.SeatInventoryEvent;
+import BusManagementBooking.bus.seats.SeatRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Keeps revenue and occupancy aggregates in memory. Every committed booking,
+ * cancel and transfer event updates them incrementally, so dashboards never
+ * scan the bookings table. A full recompute runs at startup and nightly as a
+ * fork-join job over booking id ranges and replaces the aggregates.
+ *
+ * The recompute also counts archived bookings, which have left the bookings
+ * table. Every booking event received during a recompute is buffered and
+ * replayed unless the scan already read its change: bookings are marked
+ * before their change commits, and the scan reports the state it read for
+ * marked bookings, which tells which of their events it has seen. The rollup
+ * keeps those states, so an event of a marked booking that only arrives after
+ * the replay is checked the same way instead of being waited for.
+ *
+ * Booking events are only published on the node that ran the booking, so in
+ * cluster mode revenue between two recomputes is the database as of the last
+ * recompute plus this node's own bookings. Clustered nodes therefore recompute
+ * periodically, as occupancy is verified periodically.
+ * Occupancy counters also follow seat changes made outside bookings, and are
+ * checked against one grouped seat query at startup, on every recompute and
+ * periodically. A bus is only corrected if none of its changes was applied
+ * since the query started, so a change racing with the check is never counted
+ * twice; such a bus is checked again next time.
+ */
+@Service
+public class AnalyticsServiceImpl implements AnalyticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalyticsServiceImpl.class);
+
+    private static final Seat.SeatType[] SEAT_TYPES = Seat.SeatType.values();
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private SeatRepository seatRepository;
+
+    @Autowired
+    private BusRepository busRepository;
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Autowired
+    private ArchiveService archiveService;
+
+    @Autowired
+    private ClusterMembership membership;
+
+    @Value("${bus.analytics.recompute-parallelism:4}")
+    private int parallelism;
+
+    @Value("${bus.analytics.recompute-leaf-size:50000}")
+    private long leafSize;
+
+    private ForkJoinPool recomputePool;
+
+    private volatile RevenueRollup revenue = new RevenueRollup();
+    // Per bus: total and booked seats for every seat type, indexed by occupancyIndex
+    private final Map<Long, AtomicLongArray> occupancy = new ConcurrentHashMap<>();
+    // Sequence number of the last occupancy change applied per bus, guarded by recomputeLock
+    private final Map<Long, Long> occupancyChangedAt = new HashMap<>();
+    private long occupancySequence;
+    private final Map<Long, String> routes = new ConcurrentHashMap<>();
+
+    private final Object recomputeLock = new Object();
+    private boolean recomputing;
+    private List<BookingEvent> eventsDuringRecompute;
+    // Bookings changed since the running recompute started, null while none runs
+    private volatile Set<Long> changedDuringRecompute;
+    // Bookings with a change between BEFORE_COMMIT and completion, counted per transaction
+    private final Map<Long, Integer> committing = new ConcurrentHashMap<>();
+
+    private final AtomicLong eventsApplied = new AtomicLong();
+    private volatile LocalDateTime lastRecomputeAt;
+    private volatile long lastRecomputeMs;
+    private final AtomicLong occupancyCorrections = new AtomicLong();
+    private volatile LocalDateTime lastVerifyAt;
+    private volatile long lastVerifyMs;
+    private volatile int lastVerifyCorrected;
+    private volatile int lastVerifyDeferred;
+
+    @PostConstruct
+    public void init() {
+        recomputePool = new ForkJoinPool(parallelism);
+        cacheInvalidationBus.register(CacheInvalidationBus.BUS, this::refreshRoute);
+        cacheInvalidationBus.register(CacheInvalidationBus.SEATS, this::trackNewBus);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        recomputePool.shutdown();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recomputeOnStartup() {
+        // Runs in the background so startup does not wait for a full scan
+        Thread thread = new Thread(this::recompute, "analytics-recompute");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Scheduled(cron = "${bus.analytics.recompute-cron:0 30 3 * * *}")
+    public void scheduledRecompute() {
+        recompute();
+    }
+
+    // Bookings made on other nodes only reach this node's revenue through a recompute
+    @Scheduled(fixedDelayString = "${bus.analytics.cluster-recompute-interval-ms:300000}",
+               initialDelayString = "${bus.analytics.cluster-recompute-interval-ms:300000}")
+    public void clusterRecompute() {
+        if (membership.isEnabled()) {
+            recompute();
+        }
+    }
+
+    /**
+     * Marks the booking before its change becomes visible, so a scan that
+     * reads the change always finds the booking marked
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onBookingCommitting(BookingEvent event) {
+        Long bookingId = event.bookingId();
+        committing.merge(bookingId, 1, Integer::sum);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                // Runs after the AFTER_COMMIT listeners, so the event is applied or buffered by now
+                committing.computeIfPresent(bookingId, (id, count) -> count == 1 ? null : count - 1);
+            }
+        });
+        Set<Long> changed = changedDuringRecompute;
+        if (changed != null) {
+            changed.add(bookingId);
+        }
+    }
+
+    @TransactionalEventListener
+    public void onBookingEvent(BookingEvent event) {
+        synchronized (recomputeLock) {
+            if (recomputing) {
+                eventsDuringRecompute.add(event);
+            }
+            if (!seenByScan(event, revenue.scanned.get(event.bookingId()))) {
+                applyRevenue(revenue, event);
+            }
+            applyOccupancy(occupancy, event);
+        }
+        eventsApplied.incrementAndGet();
+    }
+
+    @TransactionalEventListener
+    public void onSeatInventoryEvent(SeatInventoryEvent event) {
+        if (event.seatType() == null) {
+            // Seat map replaced, re-read the bus
+            List<Object[]> rows = ReplicaRoutingDataSource.onPrimary(() -> seatRepository.countGroupedByBusTypeAndStatus(event.busId()));
+            synchronized (recomputeLock) {
+                occupancy.remove(event.busId());
+                putSeatCounts(occupancy, rows);
+                markOccupancyChanged(event.busId());
+            }
+            return;
+        }
+        synchronized (recomputeLock) {
+            AtomicLongArray busCounts = occupancy.computeIfAbsent(event.busId(), id -> new AtomicLongArray(SEAT_TYPES.length * 2));
+            busCounts.addAndGet(occupancyIndex(Seat.SeatType.valueOf(event.seatType()), true), event.bookedDelta());
+            markOccupancyChanged(event.busId());
+        }
+    }
+
+    // Called with recomputeLock held, after the change is applied
+    private void markOccupancyChanged(Long busId) {
+        occupancyChangedAt.put(busId, ++occupancySequence);
+    }
+
+    private void applyRevenue(RevenueRollup rollup, BookingEvent event) {
+        int delta = event.seatDelta();
+        rollup.add(event.busId(), event.bookingDate().toLocalDate(), delta * toCents(event.amount()), delta);
+    }
+
+    private void applyOccupancy(Map<Long, AtomicLongArray> counts, BookingEvent event) {
+        if (event.seatType() == null) {
+            return;
+        }
+        AtomicLongArray busCounts = counts.computeIfAbsent(event.busId(), id -> new AtomicLongArray(SEAT_TYPES.length * 2));
+        busCounts.addAndGet(occupancyIndex(Seat.SeatType.valueOf(event.seatType()), true), event.seatDelta());
+        markOccupancyChanged(event.busId());
+    }
+
+    private void refreshRoute(Long busId) {
+        ReplicaRoutingDataSource.onPrimary(() -> busRepository.findById(busId)).ifPresentOrElse(
+            bus -> routes.put(busId, bus.getRoute()),
+            () -> {
+                routes.remove(busId);
+                synchronized (recomputeLock) {
+                    occupancy.remove(busId);
+                    markOccupancyChanged(busId);
+                }
+            });
+    }
+
+    // Seats of a bus created after the last recompute are counted once, when first
+    // initialized; later changes arrive as booking events
+    private void trackNewBus(Long busId) {
+        if (!routes.containsKey(busId)) {
+            refreshRoute(busId);
+        }
+        AtomicLongArray busCounts = occupancy.get(busId);
+        if (busCounts != null && totalSeats(busCounts) > 0) {
+            return;
+        }
+        List<Object[]> rows = ReplicaRoutingDataSource.onPrimary(() -> seatRepository.countGroupedByBusTypeAndStatus(busId));
+        synchronized (recomputeLock) {
+            putSeatCounts(occupancy, rows);
+            markOccupancyChanged(busId);
+        }
+    }
+
+    private static long totalSeats(AtomicLongArray busCounts) {
+        long total = 0;
+        for (Seat.SeatType type : SEAT_TYPES) {
+            total += busCounts.get(occupancyIndex(type, false));
+        }
+        return total;
+    }
+
+    private static void putSeatCounts(Map<Long, AtomicLongArray> counts, List<Object[]> rows) {
+        rows.forEach(row -> counts.remove((Long) row[0]));
+        for (Object[] row : rows) {
+            AtomicLongArray busCounts = counts.computeIfAbsent((Long) row[0], id -> new AtomicLongArray(SEAT_TYPES.length * 2));
+            Seat.SeatType type = (Seat.SeatType) row[1];
+            long count = (Long) row[3];
+            busCounts.addAndGet(occupancyIndex(type, false), count);
+            if (row[2] == Seat.SeatStatus.BOOKED) {
+                busCounts.addAndGet(occupancyIndex(type, true), count);
+            }
+        }
+    }
+
+    @Override
+    public Map<String, Object> recompute() {
+        synchronized (recomputeLock) {
+            if (recomputing) {
+                return getStatus();
+            }
+            recomputing = true;
+            eventsDuringRecompute = new ArrayList<>();
+        }
+        // Changes already past BEFORE_COMMIT count as changed during the run, they may commit under the scan
+        Set<Long> changed = ConcurrentHashMap.newKeySet();
+        changedDuringRecompute = changed;
+        changed.addAll(committing.keySet());
+
+        long start = System.nanoTime();
+        try {
+            // Departed trips only live in the archive; its ids are skipped in the table in case a delete failed
+            RevenueRollup archivedRevenue = new RevenueRollup();
+            Set<Long> archivedIds = new HashSet<>();
+            for (Booking booking : archiveService.findArchivedBookings(null, null, null)) {
+                archivedIds.add(booking.getId());
+                if ("CONFIRMED".equals(booking.getStatus())) {
+                    archivedRevenue.add(booking.getBusId(), booking.getBookingDate().toLocalDate(), toCents(booking.getAmount()), 1);
+                }
+            }
+
+            long minId = bookingRepository.findMinId();
+            long maxId = bookingRepository.findMaxId();
+            RevenueRollup freshRevenue = maxId == 0
+                ? new RevenueRollup()
+                : recomputePool.invoke(new RevenueRecomputeTask(bookingRepository, minId, maxId, leafSize, archivedIds, changed));
+            freshRevenue.merge(archivedRevenue);
+
+            verifyOccupancy();
+
+            for (Object[] row : busRepository.findAllRoutes()) {
+                routes.put((Long) row[0], (String) row[1]);
+            }
+
+            synchronized (recomputeLock) {
+                for (BookingEvent event : eventsDuringRecompute) {
+                    if (!seenByScan(event, freshRevenue.scanned.get(event.bookingId()))) {
+                        applyRevenue(freshRevenue, event);
+                    }
+                }
+                revenue = freshRevenue;
+            }
+
+            lastRecomputeMs = (System.nanoTime() - start) / 1_000_000;
+            lastRecomputeAt = LocalDateTime.now();
+            logger.info("Analytics recomputed over booking ids {}..{} in {} ms", minId, maxId, lastRecomputeMs);
+        } catch (Exception e) {
+            logger.error("Analytics recompute failed: {}", e.getMessage());
+        } finally {
+            synchronized (recomputeLock) {
+                recomputing = false;
+                eventsDuringRecompute = null;
+            }
+            changedDuringRecompute = null;
+        }
+        return getStatus();
+    }
+
+    /**
+     * A booking only ever goes from confirmed to cancelled or transferred, so
+     * the state the scan read for it tells which of its events it has seen.
+     * Bookings the scan did not report were read before they were changed.
+     */
+    static boolean seenByScan(BookingEvent event, Boolean confirmedAtScan) {
+        if (confirmedAtScan == null) {
+            return false;
+        }
+        // Events adding a seat create the booking, the others end it
+        return event.seatDelta() > 0 || !confirmedAtScan;
+    }
+
+    @Override
+    public List<RevenueDTO> getRevenueByBus() {
+        List<RevenueDTO> result = new ArrayList<>();
+        revenue.byBus.forEach((busId, totals) -> result.add(toDTO(String.valueOf(busId), totals)));
+        result.sort(Comparator.comparing(RevenueDTO::getRevenue).reversed());
+        return result;
+    }
+
+    @Override
+    public List<RevenueDTO> getRevenueByRoute() {
+        Map<String, RevenueRollup.Totals> byRoute = new HashMap<>();
+        revenue.byBus.forEach((busId, totals) ->
+            byRoute.computeIfAbsent(routes.getOrDefault(busId, "UNKNOWN"), r -> new RevenueRollup.Totals()).add(totals));
+
+        List<RevenueDTO> result = new ArrayList<>();
+        byRoute.forEach((route, totals) -> result.add(toDTO(route, totals)));
+        result.sort(Comparator.comparing(RevenueDTO::getRevenue).reversed());
+        return result;
+    }
+
+    @Override
+    public List<RevenueDTO> getRevenueByDay(LocalDate from, LocalDate to) {
+        List<RevenueDTO> result = new ArrayList<>();
+        revenue.byDay.forEach((day, totals) -> {
+            if ((from == null || !day.isBefore(from)) && (to == null || !day.isAfter(to))) {
+                result.add(toDTO(day.toString(), totals));
+            }
+        });
+        result.sort(Comparator.comparing(RevenueDTO::getKey));
+        return result;
+    }
+
+    @Override
+    public List<OccupancyDTO> getOccupancyBySeatType() {
+        long[] totals = new long[SEAT_TYPES.length * 2];
+        for (AtomicLongArray busCounts : occupancy.values()) {
+            for (int i = 0; i < totals.length; i++) {
+                totals[i] += busCounts.get(i);
+            }
+        }
+        return toOccupancy(totals);
+    }
+
+    @Override
+    public List<OccupancyDTO> getOccupancyBySeatType(Long busId) {
+        long[] totals = new long[SEAT_TYPES.length * 2];
+        AtomicLongArray busCounts = occupancy.get(busId);
+        if (busCounts != null) {
+            for (int i = 0; i < totals.length; i++) {
+                totals[i] = busCounts.get(i);
+            }
+        }
+        return toOccupancy(totals);
+    }
+
+    /**
+     * Compares the counters with one grouped seat query and corrects buses
+     * that drifted, skipping buses changed while the query ran
+     */
+    @Scheduled(fixedDelayString = "${bus.analytics.occupancy-verify-interval-ms:300000}",
+               initialDelayString = "${bus.analytics.occupancy-verify-interval-ms:300000}")
+    public synchronized void verifyOccupancy() {
+        long start = System.nanoTime();
+        long startSequence;
+        synchronized (recomputeLock) {
+            startSequence = occupancySequence;
+        }
+        Map<Long, long[]> actual = new HashMap<>();
+        for (Object[] row : ReplicaRoutingDataSource.onPrimary(() -> seatRepository.countGroupedByBusTypeAndStatus())) {
+            long[] busCounts = actual.computeIfAbsent((Long) row[0], id -> new long[SEAT_TYPES.length * 2]);
+            Seat.SeatType type = (Seat.SeatType) row[1];
+            long count = (Long) row[3];
+            busCounts[occupancyIndex(type, false)] += count;
+            if (row[2] == Seat.SeatStatus.BOOKED) {
+                busCounts[occupancyIndex(type, true)] += count;
+            }
+        }
+
+        int corrected = 0;
+        int deferred = 0;
+        synchronized (recomputeLock) {
+            for (Map.Entry<Long, long[]> entry : actual.entrySet()) {
+                Long busId = entry.getKey();
+                if (occupancyChangedAt.getOrDefault(busId, 0L) > startSequence) {
+                    deferred++;
+                    continue;
+                }
+                AtomicLongArray busCounts = occupancy.get(busId);
+                if (busCounts == null) {
+                    occupancy.put(busId, new AtomicLongArray(entry.getValue()));
+                    continue;
+                }
+                boolean drifted = false;
+                for (int i = 0; i < entry.getValue().length; i++) {
+                    if (busCounts.get(i) != entry.getValue()[i]) {
+                        busCounts.set(i, entry.getValue()[i]);
+                        drifted = true;
+                    }
+                }
+                if (drifted) {
+                    corrected++;
+                }
+            }
+            // Buses without seats any more
+            for (Long busId : new ArrayList<>(occupancy.keySet())) {
+                if (!actual.containsKey(busId) && occupancyChangedAt.getOrDefault(busId, 0L) <= startSequence) {
+                    occupancy.remove(busId);
+                }
+            }
+            occupancyChangedAt.values().removeIf(sequence -> sequence <= startSequence);
+        }
+
+        occupancyCorrections.addAndGet(corrected);
+        lastVerifyCorrected = corrected;
+        lastVerifyDeferred = deferred;
+        lastVerifyMs = (System.nanoTime() - start) / 1_000_000;
+        lastVerifyAt = LocalDateTime.now();
+        if (corrected > 0) {
+            logger.warn("Occupancy counters of {} buses drifted from the seats table and were corrected", corrected);
+        }
+    }
+
+    @Override
+    public List<BusOccupancyDTO> getFleetOccupancy() {
+        List<BusOccupancyDTO> result = new ArrayList<>(occupancy.size());
+        long[] totals = new long[SEAT_TYPES.length * 2];
+        occupancy.forEach((busId, busCounts) -> {
+            for (int i = 0; i < totals.length; i++) {
+                totals[i] = busCounts.get(i);
+            }
+            result.add(new BusOccupancyDTO(busId, routes.get(busId), toOccupancy(totals)));
+        });
+        result.sort(Comparator.comparing(BusOccupancyDTO::getBusId));
+        return result;
+    }
+
+    @Override
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("recomputing", recomputing);
+        status.put("lastRecomputeAt", lastRecomputeAt);
+        status.put("lastRecomputeMs", lastRecomputeMs);
+        status.put("eventsApplied", eventsApplied.get());
+        status.put("busesTracked", revenue.byBus.size());
+        status.put("occupancyBuses", occupancy.size());
+        status.put("occupancyCorrections", occupancyCorrections.get());
+        status.put("lastVerifyAt", lastVerifyAt);
+        status.put("lastVerifyMs", lastVerifyMs);
+        status.put("lastVerifyCorrected", lastVerifyCorrected);
+        status.put("lastVerifyDeferred", lastVerifyDeferred);
+        return status;
+    }
+
+    private List<OccupancyDTO> toOccupancy(long[] totals) {
+        List<OccupancyDTO> result = new ArrayList<>();
+        for (Seat.SeatType type : SEAT_TYPES) {
+            result.add(new OccupancyDTO(type.toString(), totals[occupancyIndex(type, false)], totals[occupancyIndex(type, true)]));
+        }
+        return result;
+    }
+
+    private static int occupancyIndex(Seat.SeatType type, boolean booked) {
+        return type.ordinal() * 2 + (booked ? 1 : 0);
+    }
+
+    private static RevenueDTO toDTO(String key, RevenueRollup.Totals totals) {
+        return new RevenueDTO(key, BigDecimal.valueOf(totals.cents.get(), 2), totals.bookings.get());
+    }
+
+    static long toCents(BigDecimal amount) {
+        return amount == null ? 0 : amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+}
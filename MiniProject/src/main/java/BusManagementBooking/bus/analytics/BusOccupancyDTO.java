@@ -0,0 +1,42 @@
+package BusManagementBooking.bus.analytics;
+
+import java.util.List;
+
+public class BusOccupancyDTO {
+    private Long busId;
+    private String route;
+    private List<OccupancyDTO> seatTypes;
+
+    public BusOccupancyDTO() {}
+
+    public BusOccupancyDTO(Long busId, String route, List<OccupancyDTO> seatTypes) {
+        this.busId = busId;
+        this.route = route;
+        this.seatTypes = seatTypes;
+    }
+
+    // Getters and Setters
+    public Long getBusId() {
+        return busId;
+    }
+
+    public void setBusId(Long busId) {
+        this.busId = busId;
+    }
+
+    public String getRoute() {
+        return route;
+    }
+
+    public void setRoute(String route) {
+        this.route = route;
+    }
+
+    public List<OccupancyDTO> getSeatTypes() {
+        return seatTypes;
+    }
+
+    public void setSeatTypes(List<OccupancyDTO> seatTypes) {
+        this.seatTypes = seatTypes;
+    }
+}
@@ -0,0 +1,54 @@
+package BusManagementBooking.bus.analytics;
+
+public class OccupancyDTO {
+    private String seatType;
+    private long totalSeats;
+    private long bookedSeats;
+    private double occupancyRate;
+
+    public OccupancyDTO() {}
+
+    public OccupancyDTO(String seatType, long totalSeats, long bookedSeats) {
+        this.seatType = seatType;
+        this.totalSeats = totalSeats;
+        this.bookedSeats = bookedSeats;
+        this.occupancyRate = totalSeats == 0 ? 0 : (double) bookedSeats / totalSeats;
+    }
+
+    // Getters and Setters
+    public String getSeatType() {
+        return seatType;
+    }
+
+    public void setSeatType(String seatType) {
+        this.seatType = seatType;
+    }
+
+    public long getTotalSeats() {
+        return totalSeats;
+    }
+
+    public void setTotalSeats(long totalSeats) {
+        this.totalSeats = totalSeats;
+    }
+
+    public long getBookedSeats() {
+        return bookedSeats;
+    }
+
+    public void setBookedSeats(long bookedSeats) {
+        this.bookedSeats = bookedSeats;
+    }
+
+    public long getAvailableSeats() {
+        return totalSeats - bookedSeats;
+    }
+
+    public double getOccupancyRate() {
+        return occupancyRate;
+    }
+
+    public void setOccupancyRate(double occupancyRate) {
+        this.occupancyRate = occupancyRate;
+    }
+}
@@ -0,0 +1,42 @@
+package BusManagementBooking.bus.analytics;
+
+import java.math.BigDecimal;
+
+public class RevenueDTO {
+    private String key;
+    private BigDecimal revenue;
+    private long bookings;
+
+    public RevenueDTO() {}
+
+    public RevenueDTO(String key, BigDecimal revenue, long bookings) {
+        this.key = key;
+        this.revenue = revenue;
+        this.bookings = bookings;
+    }
+
+    // Getters and Setters
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(BigDecimal revenue) {
+        this.revenue = revenue;
+    }
+
+    public long getBookings() {
+        return bookings;
+    }
+
+    public void setBookings(long bookings) {
+        this.bookings = bookings;
+    }
+}
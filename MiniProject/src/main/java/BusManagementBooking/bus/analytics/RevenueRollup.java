@@ -0,0 +1,44 @@
+package BusManagementBooking.bus.analytics;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Revenue in cents and confirmed booking counts per bus and per booking day.
+ * Updated in place by booking events and merged by the recompute job.
+ */
+final class RevenueRollup {
+
+    final Map<Long, Totals> byBus = new ConcurrentHashMap<>();
+    final Map<LocalDate, Totals> byDay = new ConcurrentHashMap<>();
+    // Whether the recompute's scan read a booking changed during the run as confirmed,
+    // kept so events of those bookings arriving after the swap are not counted twice
+    final Map<Long, Boolean> scanned = new ConcurrentHashMap<>();
+
+    void add(Long busId, LocalDate day, long cents, long bookings) {
+        byBus.computeIfAbsent(busId, id -> new Totals()).add(cents, bookings);
+        byDay.computeIfAbsent(day, d -> new Totals()).add(cents, bookings);
+    }
+
+    void merge(RevenueRollup other) {
+        other.byBus.forEach((busId, totals) -> byBus.computeIfAbsent(busId, id -> new Totals()).add(totals));
+        other.byDay.forEach((day, totals) -> byDay.computeIfAbsent(day, d -> new Totals()).add(totals));
+        scanned.putAll(other.scanned);
+    }
+
+    static final class Totals {
+        final AtomicLong cents = new AtomicLong();
+        final AtomicLong bookings = new AtomicLong();
+
+        void add(long centsDelta, long bookingsDelta) {
+            cents.addAndGet(centsDelta);
+            bookings.addAndGet(bookingsDelta);
+        }
+
+        void add(Totals other) {
+            add(other.cents.get(), other.bookings.get());
+        }
+    }
+}
@@ -0,0 +1,381 @@
+package BusManagementBooking.bus.archive;
+
+import BusManagementBooking.bus.booking.Booking;
+import BusManagementBooking.bus.seats.Seat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Immutable columnar file holding archived bookings or seats.
+ *
+ * Layout: a header with row count, min/max of the key column (user id for
+ * bookings, bus id for seats), min/max booking time, a bloom filter over the
+ * key column and the compressed length of every column, followed by the
+ * column blocks. Opening a segment only reads the header, which is enough to
+ * skip it for most predicates; matching segments inflate the key and time
+ * columns first and the remaining columns only when some rows match.
+ */
+final class ArchiveSegment {
+
+    static final byte BOOKINGS = 1;
+    static final byte SEATS = 2;
+
+    private static final int MAGIC = 0x42555341;
+    private static final short VERSION = 1;
+
+    // Booking columns
+    private static final int BOOKING_ID = 0;
+    private static final int BOOKING_USER = 1;
+    private static final int BOOKING_BUS = 2;
+    private static final int BOOKING_DATE = 3;
+    private static final int BOOKING_SEAT = 4;
+    private static final int BOOKING_AMOUNT = 5;
+    private static final int BOOKING_STATUS = 6;
+
+    // Seat columns
+    private static final int SEAT_BUS = 0;
+    private static final int SEAT_NUMBER = 1;
+    private static final int SEAT_TYPE = 2;
+    private static final int SEAT_STATUS = 3;
+
+    private final Path path;
+    private final byte kind;
+    private final int rowCount;
+    private final long minKey;
+    private final long maxKey;
+    private final long minTime;
+    private final long maxTime;
+    private final long[] bloom;
+    private final long[] columnOffsets;
+    private final int[] columnLengths;
+
+    private ArchiveSegment(Path path, byte kind, int rowCount, long minKey, long maxKey, long minTime, long maxTime,
+                           long[] bloom, long[] columnOffsets, int[] columnLengths) {
+        this.path = path;
+        this.kind = kind;
+        this.rowCount = rowCount;
+        this.minKey = minKey;
+        this.maxKey = maxKey;
+        this.minTime = minTime;
+        this.maxTime = maxTime;
+        this.bloom = bloom;
+        this.columnOffsets = columnOffsets;
+        this.columnLengths = columnLengths;
+    }
+
+    byte getKind() {
+        return kind;
+    }
+
+    int getRowCount() {
+        return rowCount;
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    /**
+     * Predicate pushdown on the header: false means no row can match
+     */
+    boolean mightContain(Long key, Long fromMillis, Long toMillis) {
+        if (key != null && (key < minKey || key > maxKey || !bloomContains(bloom, key))) {
+            return false;
+        }
+        if (fromMillis != null && maxTime < fromMillis) {
+            return false;
+        }
+        return toMillis == null || minTime <= toMillis;
+    }
+
+    static ArchiveSegment open(Path path) throws IOException {
+        try (InputStream file = Files.newInputStream(path); DataInputStream in = new DataInputStream(file)) {
+            if (in.readInt() != MAGIC || in.readShort() != VERSION) {
+                throw new IOException("Not an archive segment: " + path);
+            }
+            byte kind = in.readByte();
+            int rowCount = in.readInt();
+            long minKey = in.readLong();
+            long maxKey = in.readLong();
+            long minTime = in.readLong();
+            long maxTime = in.readLong();
+            long[] bloom = new long[in.readInt()];
+            for (int i = 0; i < bloom.length; i++) {
+                bloom[i] = in.readLong();
+            }
+            int columnCount = in.readInt();
+            int[] lengths = new int[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                lengths[i] = in.readInt();
+            }
+
+            long offset = headerSize(bloom.length, columnCount);
+            long[] offsets = new long[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                offsets[i] = offset;
+                offset += lengths[i];
+            }
+            return new ArchiveSegment(path, kind, rowCount, minKey, maxKey, minTime, maxTime, bloom, offsets, lengths);
+        }
+    }
+
+    static void writeBookings(Path target, List<Booking> bookings) throws IOException {
+        List<Booking> rows = new ArrayList<>(bookings);
+        rows.sort(Comparator.comparing(Booking::getId));
+
+        int count = rows.size();
+        long[] ids = new long[count];
+        long[] users = new long[count];
+        long[] buses = new long[count];
+        long[] dates = new long[count];
+        String[] seats = new String[count];
+        long[] amounts = new long[count];
+        String[] statuses = new String[count];
+        long[] bloom = newBloom(count);
+        long minUser = Long.MAX_VALUE, maxUser = Long.MIN_VALUE, minDate = Long.MAX_VALUE, maxDate = Long.MIN_VALUE;
+
+        for (int i = 0; i < count; i++) {
+            Booking booking = rows.get(i);
+            ids[i] = booking.getId();
+            users[i] = booking.getUserId();
+            buses[i] = booking.getBusId();
+            dates[i] = toMillis(booking.getBookingDate());
+            seats[i] = booking.getSeatNumber();
+            amounts[i] = booking.getAmount().setScale(2).unscaledValue().longValueExact();
+            statuses[i] = booking.getStatus();
+
+            bloomAdd(bloom, users[i]);
+            minUser = Math.min(minUser, users[i]);
+            maxUser = Math.max(maxUser, users[i]);
+            minDate = Math.min(minDate, dates[i]);
+            maxDate = Math.max(maxDate, dates[i]);
+        }
+
+        write(target, BOOKINGS, count, minUser, maxUser, minDate, maxDate, bloom, List.of(
+            ColumnCodec.encodeLongs(ids, true),
+            ColumnCodec.encodeLongs(users, false),
+            ColumnCodec.encodeLongs(buses, false),
+            ColumnCodec.encodeLongs(dates, false),
+            ColumnCodec.encodeStrings(seats),
+            ColumnCodec.encodeLongs(amounts, false),
+            ColumnCodec.encodeStrings(statuses)
+        ));
+    }
+
+    static void writeSeats(Path target, List<Seat> seatList) throws IOException {
+        List<Seat> rows = new ArrayList<>(seatList);
+        rows.sort(Comparator.comparing((Seat seat) -> seat.getBus().getId()).thenComparing(Seat::getSeatNumber));
+
+        int count = rows.size();
+        long[] buses = new long[count];
+        String[] numbers = new String[count];
+        String[] types = new String[count];
+        String[] statuses = new String[count];
+        long[] bloom = newBloom(count);
+        long minBus = Long.MAX_VALUE, maxBus = Long.MIN_VALUE;
+
+        for (int i = 0; i < count; i++) {
+            Seat seat = rows.get(i);
+            buses[i] = seat.getBus().getId();
+            numbers[i] = seat.getSeatNumber();
+            types[i] = seat.getSeatType().toString();
+            statuses[i] = seat.getStatus().toString();
+
+            bloomAdd(bloom, buses[i]);
+            minBus = Math.min(minBus, buses[i]);
+            maxBus = Math.max(maxBus, buses[i]);
+        }
+
+        write(target, SEATS, count, minBus, maxBus, 0, 0, bloom, List.of(
+            ColumnCodec.encodeLongs(buses, true),
+            ColumnCodec.encodeStrings(numbers),
+            ColumnCodec.encodeStrings(types),
+            ColumnCodec.encodeStrings(statuses)
+        ));
+    }
+
+    /**
+     * Reads the bookings of a user within an optional booking date range
+     */
+    List<Booking> readBookings(Long userId, Long fromMillis, Long toMillis) throws IOException {
+        long[] users = ColumnCodec.decodeLongs(readColumn(BOOKING_USER), rowCount, false);
+        long[] dates = ColumnCodec.decodeLongs(readColumn(BOOKING_DATE), rowCount, false);
+
+        List<Integer> matches = new ArrayList<>();
+        for (int i = 0; i < rowCount; i++) {
+            if ((userId == null || users[i] == userId)
+                    && (fromMillis == null || dates[i] >= fromMillis)
+                    && (toMillis == null || dates[i] <= toMillis)) {
+                matches.add(i);
+            }
+        }
+        if (matches.isEmpty()) {
+            return List.of();
+        }
+
+        long[] ids = ColumnCodec.decodeLongs(readColumn(BOOKING_ID), rowCount, true);
+        long[] buses = ColumnCodec.decodeLongs(readColumn(BOOKING_BUS), rowCount, false);
+        String[] seats = ColumnCodec.decodeStrings(readColumn(BOOKING_SEAT), rowCount);
+        long[] amounts = ColumnCodec.decodeLongs(readColumn(BOOKING_AMOUNT), rowCount, false);
+        String[] statuses = ColumnCodec.decodeStrings(readColumn(BOOKING_STATUS), rowCount);
+
+        List<Booking> bookings = new ArrayList<>(matches.size());
+        for (int i : matches) {
+            Booking booking = new Booking(
+                users[i],
+                buses[i],
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(dates[i]), ZoneOffset.UTC),
+                seats[i],
+                BigDecimal.valueOf(amounts[i], 2),
+                statuses[i]
+            );
+            booking.setId(ids[i]);
+            bookings.add(booking);
+        }
+        return bookings;
+    }
+
+    /**
+     * Reads the archived seat map of one bus
+     */
+    List<Seat> readSeats(long busId) throws IOException {
+        long[] buses = ColumnCodec.decodeLongs(readColumn(SEAT_BUS), rowCount, true);
+        String[] numbers = null;
+        String[] types = null;
+        String[] statuses = null;
+
+        List<Seat> seats = new ArrayList<>();
+        for (int i = 0; i < rowCount; i++) {
+            if (buses[i] != busId) {
+                continue;
+            }
+            if (numbers == null) {
+                numbers = ColumnCodec.decodeStrings(readColumn(SEAT_NUMBER), rowCount);
+                types = ColumnCodec.decodeStrings(readColumn(SEAT_TYPE), rowCount);
+                statuses = ColumnCodec.decodeStrings(readColumn(SEAT_STATUS), rowCount);
+            }
+            seats.add(new Seat(numbers[i], Seat.SeatType.valueOf(types[i]), Seat.SeatStatus.valueOf(statuses[i]), null));
+        }
+        return seats;
+    }
+
+    /**
+     * Reads the ids of the buses whose seat maps this segment holds
+     */
+    Set<Long> readSeatBusIds() throws IOException {
+        Set<Long> busIds = new HashSet<>();
+        for (long busId : ColumnCodec.decodeLongs(readColumn(SEAT_BUS), rowCount, true)) {
+            busIds.add(busId);
+        }
+        return busIds;
+    }
+
+    static long toMillis(LocalDateTime dateTime) {
+        return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private byte[] readColumn(int column) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(columnLengths[column]);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long position = columnOffsets[column];
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    throw new IOException("Truncated archive segment: " + path);
+                }
+                position += read;
+            }
+        }
+        return buffer.array();
+    }
+
+    private static void write(Path target, byte kind, int rowCount, long minKey, long maxKey, long minTime, long maxTime,
+                              long[] bloom, List<byte[]> columns) throws IOException {
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(header)) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeByte(kind);
+            out.writeInt(rowCount);
+            out.writeLong(minKey);
+            out.writeLong(maxKey);
+            out.writeLong(minTime);
+            out.writeLong(maxTime);
+            out.writeInt(bloom.length);
+            for (long word : bloom) {
+                out.writeLong(word);
+            }
+            out.writeInt(columns.size());
+            for (byte[] column : columns) {
+                out.writeInt(column.length);
+            }
+        }
+
+        // Write next to the target and move it in place so readers never see a partial segment
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            header.writeTo(out);
+            for (byte[] column : columns) {
+                out.write(column);
+            }
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static long headerSize(int bloomLongs, int columnCount) {
+        return 4 + 2 + 1 + 4 + 4 * 8 + 4 + bloomLongs * 8L + 4 + columnCount * 4L;
+    }
+
+    // Bloom filter with about 8 bits per row and three probes
+    private static long[] newBloom(int rowCount) {
+        return new long[Math.max(1, rowCount / 8 + 1)];
+    }
+
+    private static void bloomAdd(long[] bloom, long key) {
+        long hash = mix(key);
+        long bits = bloom.length * 64L;
+        for (int i = 0; i < 3; i++) {
+            long bit = Math.floorMod(hash + i * (hash >>> 32), bits);
+            bloom[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    private static boolean bloomContains(long[] bloom, long key) {
+        long hash = mix(key);
+        long bits = bloom.length * 64L;
+        for (int i = 0; i < 3; i++) {
+            long bit = Math.floorMod(hash + i * (hash >>> 32), bits);
+            if ((bloom[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
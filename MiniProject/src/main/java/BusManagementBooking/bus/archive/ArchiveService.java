@@ -0,0 +1,17 @@
+package BusManagementBooking.bus.archive;
+
+import BusManagementBooking.bus.booking.Booking;
+import BusManagementBooking.bus.seats.Seat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public interface ArchiveService {
+    Map<String, Object> archiveDepartedTrips();
+    List<Booking> findArchivedBookings(Long userId, LocalDateTime from, LocalDateTime to);
+    List<Seat> findArchivedSeats(Long busId);
+    Set<Long> findArchivedBusIds();
+    Map<String, Object> getStats();
+}
@@ -0,0 +1,299 @@
+package BusManagementBooking.bus.archive;
+
+import BusManagementBooking.bus.booking.Booking;
+import BusManagementBooking.bus.booking.BookingRepository;
+import BusManagementBooking.bus.buses.BusRepository;
+import BusManagementBooking.bus.buses.DepartureDates;
+import BusManagementBooking.bus.cache.CacheInvalidationBus;
+import BusManagementBooking.bus.cluster.ClusterMembership;
+import BusManagementBooking.bus.seats.Seat;
+import BusManagementBooking.bus.seats.SeatInventoryEvent;
+import BusManagementBooking.bus.seats.SeatRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Moves bookings and seats of departed buses out of the hot tables into
+ * columnar archive segments on disk. The bus rows themselves stay so that
+ * history can still show bus details.
+ *
+ * In cluster mode every node archives the buses it owns, so the archive
+ * directory has to be shared storage; segments written by other nodes are
+ * picked up by the periodic directory rescan.
+ */
+@Service
+public class ArchiveServiceImpl implements ArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArchiveServiceImpl.class);
+
+    @Autowired
+    private BusRepository busRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private SeatRepository seatRepository;
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ClusterMembership membership;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${bus.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${bus.archive.directory:./data/archive}")
+    private String directory;
+
+    @Value("${bus.archive.buses-per-segment:200}")
+    private int busesPerSegment;
+
+    private final Map<Path, ArchiveSegment> segments = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void loadSegments() {
+        refreshSegments();
+    }
+
+    @Scheduled(cron = "${bus.archive.cron:0 0 3 * * *}")
+    public void scheduledArchive() {
+        if (enabled) {
+            archiveDepartedTrips();
+        }
+    }
+
+    @Override
+    public synchronized Map<String, Object> archiveDepartedTrips() {
+        LocalDate today = LocalDate.now();
+        List<Long> departedBusIds = new ArrayList<>();
+        for (Object[] row : busRepository.findAllDepartureDates()) {
+            Long busId = (Long) row[0];
+            Optional<LocalDate> departure = DepartureDates.parse((String) row[1]);
+            if (departure.isPresent() && departure.get().isBefore(today) && membership.isLocal(busId)) {
+                departedBusIds.add(busId);
+            }
+        }
+
+        int archivedBookings = 0;
+        int archivedSeats = 0;
+        for (int start = 0; start < departedBusIds.size(); start += busesPerSegment) {
+            List<Long> chunk = departedBusIds.subList(start, Math.min(start + busesPerSegment, departedBusIds.size()));
+            try {
+                int[] counts = archiveChunk(chunk);
+                archivedBookings += counts[0];
+                archivedSeats += counts[1];
+            } catch (Exception e) {
+                // The rows stay in the hot tables and are retried on the next run
+                logger.error("Archiving buses {}..{} failed: {}", chunk.get(0), chunk.get(chunk.size() - 1), e.getMessage());
+            }
+        }
+
+        logger.info("Archived {} bookings and {} seats of {} departed buses", archivedBookings, archivedSeats, departedBusIds.size());
+        Map<String, Object> result = new HashMap<>();
+        result.put("departedBuses", departedBusIds.size());
+        result.put("archivedBookings", archivedBookings);
+        result.put("archivedSeats", archivedSeats);
+        return result;
+    }
+
+    /**
+     * Reads, archives and deletes the rows of a chunk of buses in one
+     * transaction. The rows are read with row locks, so cancellations and
+     * transfers wait until the chunk is archived; a booking inserted after
+     * the read makes the delete count differ, which rolls everything back
+     * for the next run to retry.
+     */
+    private int[] archiveChunk(List<Long> busIds) {
+        List<Path> written = new ArrayList<>();
+        try {
+            return new TransactionTemplate(transactionManager).execute(status -> {
+                // Bookings before seats, the order cancellations lock them in
+                List<Booking> bookings = bookingRepository.lockByBusIdIn(busIds);
+                List<Seat> seats = seatRepository.lockByBusIdIn(busIds);
+                if (bookings.isEmpty() && seats.isEmpty()) {
+                    return new int[] {0, 0};
+                }
+
+                // Segments are written before the rows are deleted. If the node dies before the commit the
+                // next run archives the rows again and readers drop the duplicates by id.
+                try {
+                    Path dir = Files.createDirectories(Paths.get(directory));
+                    String name = System.currentTimeMillis() + "-" + busIds.get(0);
+                    if (!bookings.isEmpty()) {
+                        Path path = dir.resolve("bookings-" + name + ".seg");
+                        ArchiveSegment.writeBookings(path, bookings);
+                        written.add(path);
+                        segments.put(path, ArchiveSegment.open(path));
+                    }
+                    if (!seats.isEmpty()) {
+                        Path path = dir.resolve("seats-" + name + ".seg");
+                        ArchiveSegment.writeSeats(path, seats);
+                        written.add(path);
+                        segments.put(path, ArchiveSegment.open(path));
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+
+                if (bookingRepository.deleteByBusIds(busIds) != bookings.size()
+                        || seatRepository.deleteByBusIds(busIds) != seats.size()) {
+                    throw new IllegalStateException("rows were added while the chunk was archived");
+                }
+                for (Long busId : busIds) {
+                    cacheInvalidationBus.publish(CacheInvalidationBus.SEATS, busId);
+                    eventPublisher.publishEvent(SeatInventoryEvent.replaced(busId));
+                }
+                return new int[] {bookings.size(), seats.size()};
+            });
+        } catch (RuntimeException e) {
+            // The rows are still in the hot tables, so their segments must go
+            for (Path path : written) {
+                segments.remove(path);
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException deleteFailed) {
+                    logger.error("Removing archive segment {} failed: {}", path, deleteFailed.getMessage());
+                }
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Booking> findArchivedBookings(Long userId, LocalDateTime from, LocalDateTime to) {
+        Long fromMillis = from != null ? ArchiveSegment.toMillis(from) : null;
+        Long toMillis = to != null ? ArchiveSegment.toMillis(to) : null;
+
+        Map<Long, Booking> bookings = new LinkedHashMap<>();
+        for (ArchiveSegment segment : segments.values()) {
+            if (segment.getKind() != ArchiveSegment.BOOKINGS || !segment.mightContain(userId, fromMillis, toMillis)) {
+                continue;
+            }
+            try {
+                for (Booking booking : segment.readBookings(userId, fromMillis, toMillis)) {
+                    bookings.putIfAbsent(booking.getId(), booking);
+                }
+            } catch (IOException e) {
+                logger.error("Reading archive segment {} failed: {}", segment.getPath(), e.getMessage());
+            }
+        }
+
+        List<Booking> result = new ArrayList<>(bookings.values());
+        result.sort(Comparator.comparing(Booking::getBookingDate).reversed());
+        return result;
+    }
+
+    @Override
+    public List<Seat> findArchivedSeats(Long busId) {
+        for (ArchiveSegment segment : segments.values()) {
+            if (segment.getKind() != ArchiveSegment.SEATS || !segment.mightContain(busId, null, null)) {
+                continue;
+            }
+            try {
+                List<Seat> seats = segment.readSeats(busId);
+                if (!seats.isEmpty()) {
+                    return seats;
+                }
+            } catch (IOException e) {
+                logger.error("Reading archive segment {} failed: {}", segment.getPath(), e.getMessage());
+            }
+        }
+        return List.of();
+    }
+
+    @Override
+    public Set<Long> findArchivedBusIds() {
+        Set<Long> busIds = new HashSet<>();
+        for (ArchiveSegment segment : segments.values()) {
+            if (segment.getKind() != ArchiveSegment.SEATS) {
+                continue;
+            }
+            try {
+                busIds.addAll(segment.readSeatBusIds());
+            } catch (IOException e) {
+                logger.error("Reading archive segment {} failed: {}", segment.getPath(), e.getMessage());
+            }
+        }
+        return busIds;
+    }
+
+    /**
+     * Opens the headers of segments written since the last scan, including other nodes' segments
+     */
+    @Scheduled(fixedDelayString = "${bus.archive.rescan-interval-ms:60000}")
+    public void refreshSegments() {
+        Path dir = Paths.get(directory);
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*.seg")) {
+            for (Path path : files) {
+                if (!segments.containsKey(path)) {
+                    segments.put(path, ArchiveSegment.open(path));
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Scanning archive directory {} failed: {}", directory, e.getMessage());
+        }
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        long bookingRows = 0;
+        long seatRows = 0;
+        long bytes = 0;
+        for (ArchiveSegment segment : segments.values()) {
+            if (segment.getKind() == ArchiveSegment.BOOKINGS) {
+                bookingRows += segment.getRowCount();
+            } else {
+                seatRows += segment.getRowCount();
+            }
+            try {
+                bytes += Files.size(segment.getPath());
+            } catch (IOException e) {
+                // Segment removed by hand, ignore it in the totals
+            }
+        }
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("segments", segments.size());
+        stats.put("archivedBookings", bookingRows);
+        stats.put("archivedSeats", seatRows);
+        stats.put("bytesOnDisk", bytes);
+        return stats;
+    }
+}
@@ -0,0 +1,119 @@
+package BusManagementBooking.bus.archive;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encodes single columns of an archive segment. Numbers are stored as
+ * zigzag varints (optionally delta coded), strings are dictionary encoded,
+ * and every column block is gzip compressed on its own so readers only
+ * inflate the columns a query needs.
+ */
+final class ColumnCodec {
+
+    private ColumnCodec() {}
+
+    static byte[] encodeLongs(long[] values, boolean delta) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes))) {
+            long previous = 0;
+            for (long value : values) {
+                writeVarLong(out, zigzag(delta ? value - previous : value));
+                previous = value;
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    static long[] decodeLongs(byte[] block, int count, boolean delta) throws IOException {
+        long[] values = new long[count];
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(block)))) {
+            long previous = 0;
+            for (int i = 0; i < count; i++) {
+                long value = unzigzag(readVarLong(in));
+                values[i] = delta ? previous + value : value;
+                previous = values[i];
+            }
+        }
+        return values;
+    }
+
+    static byte[] encodeStrings(String[] values) throws IOException {
+        Map<String, Integer> codes = new HashMap<>();
+        List<String> dictionary = new ArrayList<>();
+        int[] encoded = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            String value = values[i] == null ? "" : values[i];
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = dictionary.size();
+                codes.put(value, code);
+                dictionary.add(value);
+            }
+            encoded[i] = code;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes))) {
+            writeVarLong(out, dictionary.size());
+            for (String value : dictionary) {
+                out.writeUTF(value);
+            }
+            for (int code : encoded) {
+                writeVarLong(out, code);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    static String[] decodeStrings(byte[] block, int count) throws IOException {
+        String[] values = new String[count];
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(block)))) {
+            String[] dictionary = new String[(int) readVarLong(in)];
+            for (int i = 0; i < dictionary.length; i++) {
+                dictionary[i] = in.readUTF();
+            }
+            for (int i = 0; i < count; i++) {
+                values[i] = dictionary[(int) readVarLong(in)];
+            }
+        }
+        return values;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
@@ -0,0 +1,94 @@
+package BusManagementBooking.bus.audit;
+
+import jakarta.persistence.*;
+
+/**
+ * One row of seat_audit. Rows are only ever inserted, by SeatAuditServiceImpl
+ * in JDBC batches, so the entity is read-only in practice.
+ */
+@Entity
+@Table(name = "seat_audit")
+public class SeatAudit {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "bus_id", nullable = false)
+    private Long busId;
+
+    @Column(name = "seat_number")
+    private String seatNumber;
+
+    @Column(name = "action_code", nullable = false)
+    private Short actionCode;
+
+    @Column(name = "booking_id")
+    private Long bookingId;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "occurred_at", nullable = false)
+    private Long occurredAt;
+
+    // Constructors
+    public SeatAudit() {}
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getBusId() {
+        return busId;
+    }
+
+    public void setBusId(Long busId) {
+        this.busId = busId;
+    }
+
+    public String getSeatNumber() {
+        return seatNumber;
+    }
+
+    public void setSeatNumber(String seatNumber) {
+        this.seatNumber = seatNumber;
+    }
+
+    public Short getActionCode() {
+        return actionCode;
+    }
+
+    public void setActionCode(Short actionCode) {
+        this.actionCode = actionCode;
+    }
+
+    public Long getBookingId() {
+        return bookingId;
+    }
+
+    public void setBookingId(Long bookingId) {
+        this.bookingId = bookingId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Long getOccurredAt() {
+        return occurredAt;
+    }
+
+    public void setOccurredAt(Long occurredAt) {
+        this.occurredAt = occurredAt;
+    }
+}
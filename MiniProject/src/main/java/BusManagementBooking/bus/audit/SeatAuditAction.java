@@ -0,0 +1,56 @@
+package BusManagementBooking.bus.audit;
+
+import BusManagementBooking.bus.booking.BookingEvent;
+import BusManagementBooking.bus.seats.Seat;
+
+/**
+ * What happened to a seat. The code is what seat_audit stores, so existing
+ * codes must never change; new actions get new codes.
+ */
+public enum SeatAuditAction {
+    BOOKED(1, Seat.SeatStatus.BOOKED),
+    CANCELLED(2, Seat.SeatStatus.AVAILABLE),
+    TRANSFERRED_OUT(3, Seat.SeatStatus.AVAILABLE),
+    TRANSFERRED_IN(4, Seat.SeatStatus.BOOKED),
+    MARKED_BOOKED(5, Seat.SeatStatus.BOOKED),
+    MARKED_AVAILABLE(6, Seat.SeatStatus.AVAILABLE),
+    // The seat map of the bus was initialized again or removed, seat_number is null
+    SEAT_MAP_REPLACED(7, null);
+
+    private final short code;
+    private final Seat.SeatStatus status;
+
+    SeatAuditAction(int code, Seat.SeatStatus status) {
+        this.code = (short) code;
+        this.status = status;
+    }
+
+    public short getCode() {
+        return code;
+    }
+
+    /**
+     * Returns the status the seat was left in, or null for SEAT_MAP_REPLACED
+     */
+    public Seat.SeatStatus getStatus() {
+        return status;
+    }
+
+    public static SeatAuditAction of(short code) {
+        for (SeatAuditAction action : values()) {
+            if (action.code == code) {
+                return action;
+            }
+        }
+        throw new IllegalArgumentException("Unknown seat audit action code: " + code);
+    }
+
+    public static SeatAuditAction of(BookingEvent.Type type) {
+        return switch (type) {
+            case BOOKED -> BOOKED;
+            case CANCELLED -> CANCELLED;
+            case TRANSFERRED_OUT -> TRANSFERRED_OUT;
+            case TRANSFERRED_IN -> TRANSFERRED_IN;
+        };
+    }
+}
@@ -0,0 +1,52 @@
+package BusManagementBooking.bus.audit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@RestController
+@RequestMapping("audit")
+@CrossOrigin(origins = "http://localhost:5173", allowCredentials = "true")
+public class SeatAuditController {
+
+    @Autowired
+    private SeatAuditService seatAuditService;
+
+    @GetMapping("/health")
+    public String checkAlive() {
+        return "Seat Audit Controller is alive!";
+    }
+
+    @GetMapping("/seats/bus/{busId}")
+    public ResponseEntity<?> getBusHistory(@PathVariable Long busId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Integer limit) {
+        return getHistory(busId, null, from, to, limit);
+    }
+
+    @GetMapping("/seats/bus/{busId}/seat/{seatNumber}")
+    public ResponseEntity<?> getSeatHistory(@PathVariable Long busId, @PathVariable String seatNumber,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Integer limit) {
+        return getHistory(busId, seatNumber, from, to, limit);
+    }
+
+    private ResponseEntity<?> getHistory(Long busId, String seatNumber, LocalDateTime from, LocalDateTime to, Integer limit) {
+        try {
+            return ResponseEntity.ok(seatAuditService.getHistory(busId, seatNumber, from, to, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(seatAuditService.getStats());
+    }
+}
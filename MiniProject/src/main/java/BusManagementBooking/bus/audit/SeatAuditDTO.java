@@ -0,0 +1,97 @@
+package BusManagementBooking.bus.audit;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+public class SeatAuditDTO {
+    private Long id;
+    private Long busId;
+    private String seatNumber;
+    private String action;
+    private String status;
+    private Long bookingId;
+    private Long userId;
+    private LocalDateTime occurredAt;
+
+    public SeatAuditDTO() {}
+
+    public static SeatAuditDTO fromEntity(SeatAudit audit) {
+        SeatAuditAction action = SeatAuditAction.of(audit.getActionCode());
+        SeatAuditDTO dto = new SeatAuditDTO();
+        dto.id = audit.getId();
+        dto.busId = audit.getBusId();
+        dto.seatNumber = audit.getSeatNumber();
+        dto.action = action.name();
+        dto.status = action.getStatus() != null ? action.getStatus().name() : null;
+        dto.bookingId = audit.getBookingId();
+        dto.userId = audit.getUserId();
+        dto.occurredAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(audit.getOccurredAt()), ZoneId.systemDefault());
+        return dto;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getBusId() {
+        return busId;
+    }
+
+    public void setBusId(Long busId) {
+        this.busId = busId;
+    }
+
+    public String getSeatNumber() {
+        return seatNumber;
+    }
+
+    public void setSeatNumber(String seatNumber) {
+        this.seatNumber = seatNumber;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public void setAction(String action) {
+        this.action = action;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Long getBookingId() {
+        return bookingId;
+    }
+
+    public void setBookingId(Long bookingId) {
+        this.bookingId = bookingId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+
+    public void setOccurredAt(LocalDateTime occurredAt) {
+        this.occurredAt = occurredAt;
+    }
+}
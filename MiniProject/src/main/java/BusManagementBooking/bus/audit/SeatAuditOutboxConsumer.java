@@ -0,0 +1,31 @@
+package BusManagementBooking.bus.audit;
+
+import BusManagementBooking.bus.outbox.OutboxConsumer;
+import BusManagementBooking.bus.outbox.OutboxEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Feeds the seat audit trail from the booking outbox, so bookings only pay
+ * for the outbox row they write anyway and the audit rows are inserted in
+ * batches by the relay. Recording is idempotent, so redelivered events do
+ * no harm.
+ */
+@Component
+public class SeatAuditOutboxConsumer implements OutboxConsumer {
+
+    @Autowired
+    private SeatAuditService seatAuditService;
+
+    @Override
+    public String getName() {
+        return "seat-audit";
+    }
+
+    @Override
+    public void accept(List<OutboxEvent> events) {
+        seatAuditService.record(events);
+    }
+}
@@ -0,0 +1,29 @@
+package BusManagementBooking.bus.audit;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SeatAuditRepository extends JpaRepository<SeatAudit, Long> {
+    /**
+     * Transitions of a bus with occurredAt in [from, to), oldest first
+     */
+    @Query("select a from SeatAudit a where a.busId = :busId and a.occurredAt >= :from and a.occurredAt < :to "
+        + "order by a.occurredAt, a.id")
+    List<SeatAudit> findByBus(Long busId, long from, long to, Pageable page);
+
+    @Query("select a from SeatAudit a where a.busId = :busId and a.seatNumber = :seatNumber "
+        + "and a.occurredAt >= :from and a.occurredAt < :to order by a.occurredAt, a.id")
+    List<SeatAudit> findBySeat(Long busId, String seatNumber, long from, long to, Pageable page);
+
+    /**
+     * Booking id and action code of the booking transitions already recorded
+     */
+    @Query("select a.bookingId, a.actionCode from SeatAudit a where a.bookingId in :bookingIds")
+    List<Object[]> findRecordedBookingActions(Collection<Long> bookingIds);
+}
@@ -0,0 +1,22 @@
+package BusManagementBooking.bus.audit;
+
+import BusManagementBooking.bus.outbox.OutboxEvent;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+public interface SeatAuditService {
+    /**
+     * Appends the seat transitions of a batch of outbox events, skipping any
+     * already recorded, so a redelivered batch adds nothing
+     */
+    void record(List<OutboxEvent> events);
+
+    /**
+     * Transitions of a bus, or of one seat when seatNumber is given, that
+     * happened in [from, to), oldest first. Null bounds leave the range open.
+     */
+    List<SeatAuditDTO> getHistory(Long busId, String seatNumber, LocalDateTime from, LocalDateTime to, Integer limit);
+    Map<String, Object> getStats();
+}
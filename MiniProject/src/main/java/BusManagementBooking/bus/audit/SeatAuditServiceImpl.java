@@ -0,0 +1,138 @@
+package BusManagementBooking.bus.audit;
+
+import BusManagementBooking.bus.outbox.OutboxEvent;
+import BusManagementBooking.bus.seats.SeatInventoryEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the append-only seat_audit table. Booking transitions arrive from the
+ * booking outbox (see SeatAuditOutboxConsumer), so they are recorded after
+ * commit, in outbox batches, off the booking's own thread, and are not lost
+ * when a node stops: the outbox row stays until the audit has it. Each
+ * (booking, action) pair is recorded once. Manual status changes and seat map
+ * replacements are rare admin operations and skip the outbox: their audit row
+ * is written in the admin operation's transaction right before it commits,
+ * so the row and the change commit or roll back together. Outside a
+ * transaction the row is written straight away.
+ */
+@Service
+public class SeatAuditServiceImpl implements SeatAuditService {
+
+    private static final String INSERT = "insert into seat_audit (bus_id, seat_number, action_code, booking_id, user_id, occurred_at) "
+        + "values (?, ?, ?, ?, ?, ?)";
+    private static final int[] INSERT_TYPES = {Types.BIGINT, Types.VARCHAR, Types.SMALLINT, Types.BIGINT, Types.BIGINT, Types.BIGINT};
+
+    @Autowired
+    private SeatAuditRepository seatAuditRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${bus.audit.default-limit:100}")
+    private int defaultLimit;
+
+    @Value("${bus.audit.max-limit:1000}")
+    private int maxLimit;
+
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong manual = new AtomicLong();
+    private volatile long lastLagMs;
+
+    @Override
+    @Transactional
+    public void record(List<OutboxEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        Set<Long> bookingIds = new HashSet<>();
+        for (OutboxEvent event : events) {
+            bookingIds.add(event.getBookingId());
+        }
+        Set<String> seen = new HashSet<>();
+        for (Object[] row : seatAuditRepository.findRecordedBookingActions(bookingIds)) {
+            seen.add(row[0] + ":" + row[1]);
+        }
+
+        List<Object[]> rows = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            SeatAuditAction action = SeatAuditAction.of(event.getEventType());
+            if (!seen.add(event.getBookingId() + ":" + action.getCode())) {
+                duplicates.incrementAndGet();
+                continue;
+            }
+            rows.add(new Object[] {event.getBusId(), event.getSeatNumber(), action.getCode(), event.getBookingId(),
+                event.getUserId(), event.getCreatedAt()});
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT, rows, INSERT_TYPES);
+        }
+        batches.incrementAndGet();
+        recorded.addAndGet(rows.size());
+        lastLagMs = System.currentTimeMillis() - events.get(0).getCreatedAt();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onSeatInventoryEvent(SeatInventoryEvent event) {
+        SeatAuditAction action = event.seatType() == null
+            ? SeatAuditAction.SEAT_MAP_REPLACED
+            : event.bookedDelta() > 0 ? SeatAuditAction.MARKED_BOOKED : SeatAuditAction.MARKED_AVAILABLE;
+        jdbcTemplate.update(INSERT, new Object[] {event.busId(), event.seatNumber(), action.getCode(), null, null,
+            System.currentTimeMillis()}, INSERT_TYPES);
+        manual.incrementAndGet();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<SeatAuditDTO> getHistory(Long busId, String seatNumber, LocalDateTime from, LocalDateTime to, Integer limit) {
+        int size = limit != null ? limit : defaultLimit;
+        if (size < 1 || size > maxLimit) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + maxLimit);
+        }
+        long fromMs = from != null ? toEpochMilli(from) : 0L;
+        long toMs = to != null ? toEpochMilli(to) : Long.MAX_VALUE;
+        if (fromMs >= toMs) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+
+        PageRequest page = PageRequest.of(0, size);
+        List<SeatAudit> rows = seatNumber == null || seatNumber.isBlank()
+            ? seatAuditRepository.findByBus(busId, fromMs, toMs, page)
+            : seatAuditRepository.findBySeat(busId, seatNumber.trim(), fromMs, toMs, page);
+        return rows.stream().map(SeatAuditDTO::fromEntity).toList();
+    }
+
+    private static long toEpochMilli(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("batches", batches.get());
+        stats.put("recorded", recorded.get());
+        stats.put("duplicatesSkipped", duplicates.get());
+        stats.put("manualRecorded", manual.get());
+        stats.put("lastLagMs", lastLagMs);
+        return stats;
+    }
+}
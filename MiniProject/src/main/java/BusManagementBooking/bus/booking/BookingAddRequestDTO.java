@@ -10,6 +10,8 @@ public class BookingAddRequestDTO {
     private String seatNumber;
     private BigDecimal amount;
     private String status;
+    // Required for buses in waiting-room mode
+    private String waitingRoomPass;
 
     // Constructors
     public BookingAddRequestDTO() {}
@@ -71,4 +73,12 @@ public class BookingAddRequestDTO {
     public void setStatus(String status) {
         this.status = status;
     }
+
+    public String getWaitingRoomPass() {
+        return waitingRoomPass;
+    }
+
+    public void setWaitingRoomPass(String waitingRoomPass) {
+        this.waitingRoomPass = waitingRoomPass;
+    }
 } 
\ No newline at end of file
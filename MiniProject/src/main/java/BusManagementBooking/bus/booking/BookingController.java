@@ -1,12 +1,27 @@
 package BusManagementBooking.bus.booking;
 
+import BusManagementBooking.bus.admission.AdmissionRejectedException;
+import BusManagementBooking.bus.admission.AdmissionService;
+import BusManagementBooking.bus.archive.ArchiveService;
 import BusManagementBooking.bus.buses.BusRepository;
+import BusManagementBooking.bus.cluster.ClusterRouter;
+import BusManagementBooking.bus.datasource.ReplicaRoutingDataSource;
+import BusManagementBooking.bus.idempotency.IdempotencyService;
+import BusManagementBooking.bus.outbox.BookingOutboxRelay;
+import BusManagementBooking.bus.waitingroom.WaitingRoomPassRequiredException;
+import BusManagementBooking.bus.waitingroom.WaitingRoomService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/booking")
@@ -19,13 +34,49 @@ public class BookingController {
     @Autowired
     private BusRepository busRepository;
 
+    @Autowired
+    private ClusterRouter clusterRouter;
+
+    @Autowired
+    private ArchiveService archiveService;
+
+    @Autowired
+    private AdmissionService admissionService;
+
+    @Autowired
+    private WaitingRoomService waitingRoomService;
+
+    @Autowired
+    private BookingOutboxRelay bookingOutboxRelay;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
     @GetMapping("/health")
     public String checkAlive() {
         return "Booking Controller is alive!";
     }
 
     @PostMapping
-    public ResponseEntity<?> addBooking(@RequestBody BookingAddRequestDTO bookingAddRequestDTO) {
+    public ResponseEntity<?> addBooking(@RequestBody BookingAddRequestDTO bookingAddRequestDTO,
+            @RequestHeader(value = ClusterRouter.FORWARDED_HEADER, required = false) String forwardedFrom,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        // Keys are resolved on the node the client called, before any rate limit is charged
+        if (idempotencyKey == null || forwardedFrom != null) {
+            return placeBooking(bookingAddRequestDTO, forwardedFrom);
+        }
+        try {
+            return idempotencyService.execute("booking", idempotencyKey, bookingAddRequestDTO,
+                () -> placeBooking(bookingAddRequestDTO, null));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("An error occurred while processing your booking: " + e.getMessage());
+        }
+    }
+
+    private ResponseEntity<?> placeBooking(BookingAddRequestDTO bookingAddRequestDTO, String forwardedFrom) {
         try {
             System.out.println("Received booking request: " + bookingAddRequestDTO);
             
@@ -42,13 +93,37 @@ public class BookingController {
                 return ResponseEntity.badRequest().body("Seat number is required");
             }
             
-            // Validate if bus exists
-            if (!busRepository.existsById(bookingAddRequestDTO.getBusId())) {
-                return ResponseEntity.badRequest().body("Bus with ID " + bookingAddRequestDTO.getBusId() + " does not exist");
+            // Rate limits are charged on the node the client called, not again on the owner
+            Long busId = bookingAddRequestDTO.getBusId();
+            if (forwardedFrom == null) {
+                admissionService.acquireTokens(bookingAddRequestDTO.getUserId(), busId);
+            }
+            
+            // Validate if bus exists (findById is served from the second-level cache)
+            if (ReplicaRoutingDataSource.onPrimary(() -> busRepository.findById(busId)).isEmpty()) {
+                return ResponseEntity.badRequest().body("Bus with ID " + busId + " does not exist");
+            }
+            
+            // Bookings are executed by the node owning the bus. Forwarding happens outside the
+            // concurrency limit, which only covers work done here, not waiting on another node
+            if (clusterRouter.shouldForward(busId, forwardedFrom)) {
+                ResponseEntity<String> forwarded = clusterRouter.forward(busId, HttpMethod.POST, "/booking", bookingAddRequestDTO);
+                if (forwarded != null) {
+                    return forwarded;
+                }
             }
             
-            Booking booking = bookingServiceImpl.addBooking(bookingAddRequestDTO);
-            return ResponseEntity.ok(booking);
+            return admissionService.withinLimit(() -> {
+                // Waiting rooms live on the owner, so the pass is checked once the request got here
+                waitingRoomService.checkPass(busId, bookingAddRequestDTO.getUserId(), bookingAddRequestDTO.getWaitingRoomPass());
+                
+                Booking booking = clusterRouter.runAsOwner(busId, () -> bookingServiceImpl.addBooking(bookingAddRequestDTO));
+                return ResponseEntity.ok(booking);
+            });
+        } catch (AdmissionRejectedException e) {
+            return tooManyRequests(e);
+        } catch (WaitingRoomPassRequiredException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
@@ -57,6 +132,27 @@ public class BookingController {
         }
     }
 
+    private ResponseEntity<?> tooManyRequests(AdmissionRejectedException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(e.getMessage());
+    }
+
+    @GetMapping("/admission/stats")
+    public ResponseEntity<Map<String, Object>> getAdmissionStats() {
+        return ResponseEntity.ok(admissionService.getStats());
+    }
+
+    @GetMapping("/idempotency/stats")
+    public ResponseEntity<Map<String, Object>> getIdempotencyStats() {
+        return ResponseEntity.ok(idempotencyService.getStats());
+    }
+
+    @GetMapping("/outbox/stats")
+    public ResponseEntity<Map<String, Object>> getOutboxStats() {
+        return ResponseEntity.ok(bookingOutboxRelay.getStats());
+    }
+
     @GetMapping
     public ResponseEntity<List<Booking>> getBookings() {
         return ResponseEntity.ok(bookingServiceImpl.getBookings());
@@ -67,10 +163,48 @@ public class BookingController {
         return ResponseEntity.ok(bookingServiceImpl.getBookingsByUserId(userId));
     }
     
+    @GetMapping("/user/{userId}/history")
+    public ResponseEntity<List<Booking>> getBookingHistory(
+            @PathVariable Long userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(bookingServiceImpl.getBookingHistory(userId, from, to));
+    }
+    
+    @PostMapping("/archive")
+    public ResponseEntity<?> archiveDepartedTrips() {
+        try {
+            return ResponseEntity.ok(archiveService.archiveDepartedTrips());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Archiving failed: " + e.getMessage());
+        }
+    }
+    
+    @GetMapping("/archive/stats")
+    public ResponseEntity<Map<String, Object>> getArchiveStats() {
+        return ResponseEntity.ok(archiveService.getStats());
+    }
+    
     @PutMapping("/{bookingId}/cancel")
-    public ResponseEntity<?> cancelBooking(@PathVariable Long bookingId) {
+    public ResponseEntity<?> cancelBooking(@PathVariable Long bookingId,
+            @RequestHeader(value = ClusterRouter.FORWARDED_HEADER, required = false) String forwardedFrom) {
         try {
-            boolean cancelled = bookingServiceImpl.cancelBooking(bookingId);
+            Optional<Booking> bookingOpt = bookingServiceImpl.getBookingById(bookingId);
+            if (bookingOpt.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body("Booking with ID " + bookingId + " not found");
+            }
+            
+            Long busId = bookingOpt.get().getBusId();
+            if (clusterRouter.shouldForward(busId, forwardedFrom)) {
+                ResponseEntity<String> forwarded = clusterRouter.forward(busId, HttpMethod.PUT, "/booking/" + bookingId + "/cancel", null);
+                if (forwarded != null) {
+                    return forwarded;
+                }
+            }
+            
+            boolean cancelled = clusterRouter.runAsOwner(busId, () -> bookingServiceImpl.cancelBooking(bookingId));
             if (cancelled) {
                 return ResponseEntity.ok("Booking cancelled successfully");
             } else {
@@ -83,8 +217,48 @@ public class BookingController {
         }
     }
 
+    @PostMapping("/bus/{busId}/evacuate")
+    public ResponseEntity<?> evacuateBus(@PathVariable Long busId, @RequestBody EvacuationRequest evacuationRequest,
+            @RequestHeader(value = ClusterRouter.FORWARDED_HEADER, required = false) String forwardedFrom) {
+        try {
+            // Evacuations are executed by the node owning the broken-down bus
+            if (clusterRouter.shouldForward(busId, forwardedFrom)) {
+                ResponseEntity<String> forwarded = clusterRouter.forward(busId, HttpMethod.POST, "/booking/bus/" + busId + "/evacuate", evacuationRequest);
+                if (forwarded != null) {
+                    return forwarded;
+                }
+            }
+            
+            EvacuationResultDTO result = clusterRouter.runAsOwner(busId,
+                () -> bookingServiceImpl.evacuateBus(busId, evacuationRequest.getTargetBusIds()));
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Evacuation failed: " + e.getMessage());
+        }
+    }
+
     @PostMapping("/transfer")
-    public ResponseEntity<?> transferSeat(@RequestBody TransferRequest transferRequest) {
+    public ResponseEntity<?> transferSeat(@RequestBody TransferRequest transferRequest,
+            @RequestHeader(value = ClusterRouter.FORWARDED_HEADER, required = false) String forwardedFrom,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        if (idempotencyKey == null || forwardedFrom != null) {
+            return performTransfer(transferRequest, forwardedFrom);
+        }
+        try {
+            return idempotencyService.execute("transfer", idempotencyKey, transferRequest,
+                () -> performTransfer(transferRequest, null));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Transfer failed: " + e.getMessage());
+        }
+    }
+
+    private ResponseEntity<?> performTransfer(TransferRequest transferRequest, String forwardedFrom) {
         try {
             System.out.println("=== Transfer Seat Request ===");
             System.out.println("Endpoint: /booking/transfer");
@@ -105,13 +279,51 @@ public class BookingController {
                 return ResponseEntity.badRequest().body("New Seat ID is required");
             }
             
-            bookingServiceImpl.transferSeat(
-                transferRequest.getBookingId(),
-                transferRequest.getNewBusId(),
-                transferRequest.getNewSeatId()
-            );
-            System.out.println("Transfer completed successfully");
-            return ResponseEntity.ok("Seat transferred successfully");
+            // The target bus is charged up front, the user once the booking is loaded
+            if (forwardedFrom == null) {
+                admissionService.acquireTokens(null, transferRequest.getNewBusId());
+            }
+            
+            // Transfers are executed by the node owning the bus of the original booking
+            Optional<Booking> bookingOpt = bookingServiceImpl.getBookingById(transferRequest.getBookingId());
+            if (bookingOpt.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body("Transfer failed: Booking not found with ID: " + transferRequest.getBookingId());
+            }
+            if (forwardedFrom == null) {
+                admissionService.acquireTokens(bookingOpt.get().getUserId(), null);
+            }
+            
+            // Forwarded outside the concurrency limit, like bookings
+            Long busId = bookingOpt.get().getBusId();
+            if (clusterRouter.shouldForward(busId, forwardedFrom)) {
+                ResponseEntity<String> forwarded = clusterRouter.forward(busId, HttpMethod.POST, "/booking/transfer", transferRequest);
+                if (forwarded != null) {
+                    return forwarded;
+                }
+            }
+            
+            return admissionService.withinLimit(() -> {
+                // The transfer runs on the old bus's owner, which may not hold the new bus's room;
+                // passes verify without it, so only an open room on this node is enforced
+                waitingRoomService.checkPass(transferRequest.getNewBusId(), bookingOpt.get().getUserId(),
+                    transferRequest.getWaitingRoomPass());
+                
+                clusterRouter.runAsOwner(busId, () -> {
+                    bookingServiceImpl.transferSeat(
+                        transferRequest.getBookingId(),
+                        transferRequest.getNewBusId(),
+                        transferRequest.getNewSeatId()
+                    );
+                    return null;
+                });
+                System.out.println("Transfer completed successfully");
+                return ResponseEntity.ok("Seat transferred successfully");
+            });
+        } catch (AdmissionRejectedException e) {
+            return tooManyRequests(e);
+        } catch (WaitingRoomPassRequiredException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
         } catch (Exception e) {
             System.err.println("=== Transfer Failed ===");
             System.err.println("Error message: " + e.getMessage());
@@ -0,0 +1,40 @@
+package BusManagementBooking.bus.booking;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Published by BookingServiceImpl for every change of a booking. Listeners
+ * that keep in-memory state should use @TransactionalEventListener so they
+ * only see committed changes. A transfer produces a TRANSFERRED_OUT event
+ * for the old booking and a TRANSFERRED_IN event for the new one.
+ */
+public record BookingEvent(
+        Type type,
+        Long bookingId,
+        Long userId,
+        Long busId,
+        String seatNumber,
+        String seatType,
+        BigDecimal amount,
+        LocalDateTime bookingDate) {
+
+    public enum Type {
+        BOOKED,
+        CANCELLED,
+        TRANSFERRED_OUT,
+        TRANSFERRED_IN
+    }
+
+    public static BookingEvent of(Type type, Booking booking, String seatType) {
+        return new BookingEvent(type, booking.getId(), booking.getUserId(), booking.getBusId(),
+                booking.getSeatNumber(), seatType, booking.getAmount(), booking.getBookingDate());
+    }
+
+    /**
+     * Returns +1 when the event adds a booked seat to its bus and -1 when it frees one
+     */
+    public int seatDelta() {
+        return type == Type.BOOKED || type == Type.TRANSFERRED_IN ? 1 : -1;
+    }
+}
@@ -1,10 +1,47 @@
 package BusManagementBooking.bus.booking;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
     List<Booking> findByUserId(Long userId);
+    List<Booking> findByUserIdAndBookingDateBetween(Long userId, LocalDateTime from, LocalDateTime to);
+
+    @Query("select b from Booking b where b.bus.id in :busIds")
+    List<Booking> findByBusIdIn(Collection<Long> busIds);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from Booking b where b.bus.id in :busIds")
+    List<Booking> lockByBusIdIn(Collection<Long> busIds);
+
+    @Query("select coalesce(min(b.id), 0) from Booking b")
+    Long findMinId();
+
+    @Query("select coalesce(max(b.id), 0) from Booking b")
+    Long findMaxId();
+
+    @Query("select b.id, b.bus.id, b.bookingDate, b.amount, b.status from Booking b where b.id between :fromId and :toId")
+    List<Object[]> findRevenueRows(Long fromId, Long toId);
+
+    @Query("select new BusManagementBooking.bus.booking.EvacuationPassenger(" +
+           "b.id, b.userId, b.seatNumber, s.seatType, b.amount, b.bookingDate) from Booking b " +
+           "left join Seat s on s.bus.id = b.bus.id and s.seatNumber = b.seatNumber " +
+           "where b.bus.id = :busId and b.status = 'CONFIRMED' order by b.seatNumber")
+    List<EvacuationPassenger> findConfirmedWithSeatType(Long busId);
+
+    @Modifying
+    @Query("update Booking b set b.status = 'CANCELLED' where b.id in :ids and b.status = 'CONFIRMED'")
+    int cancelConfirmed(Collection<Long> ids);
+
+    @Modifying
+    @Query("delete from Booking b where b.bus.id in :busIds")
+    int deleteByBusIds(Collection<Long> busIds);
 }
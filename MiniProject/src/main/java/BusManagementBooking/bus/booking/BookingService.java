@@ -1,11 +1,16 @@
 package BusManagementBooking.bus.booking;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 public interface BookingService {
     Booking addBooking(BookingAddRequestDTO bookingAddRequestDTO);
     List<Booking> getBookings();
+    Optional<Booking> getBookingById(Long bookingId);
     List<Booking> getBookingsByUserId(Long userId);
+    List<Booking> getBookingHistory(Long userId, LocalDate from, LocalDate to);
     boolean cancelBooking(Long bookingId);
     void transferSeat(Long bookingId, Long newBusId, Long newSeatId) throws Exception;
+    EvacuationResultDTO evacuateBus(Long busId, List<Long> targetBusIds);
 }
@@ -1,19 +1,46 @@
 package BusManagementBooking.bus.booking;
 
+import BusManagementBooking.bus.archive.ArchiveService;
 import BusManagementBooking.bus.buses.Bus;
 import BusManagementBooking.bus.buses.BusRepository;
+import BusManagementBooking.bus.cache.CacheInvalidationBus;
+import BusManagementBooking.bus.datasource.ReplicaRoutingDataSource;
 import BusManagementBooking.bus.seats.Seat;
 import BusManagementBooking.bus.seats.SeatRepository;
+import BusManagementBooking.bus.user.User;
+import BusManagementBooking.bus.user.UserRepository;
+import BusManagementBooking.bus.waitlist.WaitlistEntry;
+import BusManagementBooking.bus.waitlist.WaitlistService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class BookingServiceImpl implements BookingService {
@@ -28,6 +55,30 @@ public class BookingServiceImpl implements BookingService {
     
     @Autowired
     private BusRepository busRepository;
+    
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+    
+    @Autowired
+    private ArchiveService archiveService;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private WaitlistService waitlistService;
+    
+    // Seat types a passenger may be moved to, in order of preference
+    private static final Map<Seat.SeatType, List<Seat.SeatType>> EVACUATION_SEAT_PREFERENCE = Map.of(
+        Seat.SeatType.PREGNANT, List.of(Seat.SeatType.PREGNANT, Seat.SeatType.ELDER, Seat.SeatType.REGULAR),
+        Seat.SeatType.ELDER, List.of(Seat.SeatType.ELDER, Seat.SeatType.PREGNANT, Seat.SeatType.REGULAR),
+        Seat.SeatType.REGULAR, List.of(Seat.SeatType.REGULAR, Seat.SeatType.ELDER, Seat.SeatType.PREGNANT));
 
     @Override
     @Transactional
@@ -49,12 +100,11 @@ public class BookingServiceImpl implements BookingService {
         Long busId = bookingAddRequestDTO.getBusId();
         String seatNumber = bookingAddRequestDTO.getSeatNumber();
         
-        // Find the seat by bus ID and seat number
-        List<Seat> matchingSeats = seatRepository.findByBusId(busId);
-        Optional<Seat> seatOpt = matchingSeats.stream()
-                .filter(s -> s.getSeatNumber().equals(seatNumber))
-                .findFirst();
-                
+        // The bus comes from the second-level cache, the seat is read and locked in the database:
+        // a cached seat may miss bookings made on other nodes or evacuations still in flight
+        Optional<Bus> busOpt = busRepository.findById(busId);
+        Optional<Seat> seatOpt = seatRepository.lockByBusIdAndSeatNumber(busId, seatNumber);
+
         if (seatOpt.isEmpty()) {
             throw new IllegalArgumentException("Seat " + seatNumber + " not found for bus ID " + busId);
         }
@@ -69,7 +119,6 @@ public class BookingServiceImpl implements BookingService {
         seatRepository.save(seat);
         
         // Update bus available seats
-        Optional<Bus> busOpt = busRepository.findById(busId);
         if (busOpt.isPresent()) {
             Bus bus = busOpt.get();
             Integer availableSeats = bus.getAvailableSeats();
@@ -110,7 +159,10 @@ public class BookingServiceImpl implements BookingService {
                 amount,
                 status
         );
-        return bookingRepository.save(booking);
+        Booking savedBooking = bookingRepository.save(booking);
+        cacheInvalidationBus.publish(CacheInvalidationBus.SEATS, busId);
+        eventPublisher.publishEvent(BookingEvent.of(BookingEvent.Type.BOOKED, savedBooking, seat.getSeatType().toString()));
+        return savedBooking;
     }
 
     @Override
@@ -133,48 +185,87 @@ public class BookingServiceImpl implements BookingService {
         return bookings;
     }
     
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Booking> getBookingById(Long bookingId) {
+        // Used to route cancels and transfers, which may follow the booking immediately
+        return ReplicaRoutingDataSource.onPrimary(() -> bookingRepository.findById(bookingId));
+    }
+    
     @Override
     @Transactional(readOnly = true)
     public List<Booking> getBookingsByUserId(Long userId) {
-        List<Booking> bookings = bookingRepository.findByUserId(userId);
+        // Departed trips have been moved to the archive, users still expect to see them
+        List<Booking> bookings = new ArrayList<>(bookingRepository.findByUserId(userId));
+        bookings.addAll(archiveService.findArchivedBookings(userId, null, null));
         logger.info("Found {} bookings for user ID: {}", bookings.size(), userId);
         
         for (Booking booking : bookings) {
-            try {
-                // Get bus ID from the booking
-                Long busId = booking.getBusId();
-                logger.info("Fetching bus data for booking {} with bus ID: {}", booking.getId(), busId);
-                
-                if (busId != null) {
-                    // Fetch the complete bus object with all fields
-                    Optional<Bus> busOpt = busRepository.findById(busId);
-                    if (busOpt.isPresent()) {
-                        Bus bus = busOpt.get();
-                        // Set all bus fields explicitly
-                        Bus completeBus = new Bus();
-                        completeBus.setId(bus.getId());
-                        completeBus.setName(bus.getName());
-                        completeBus.setRoute(bus.getRoute());
-                        completeBus.setDepartureTime(bus.getDepartureTime());
-                        completeBus.setArrivalTime(bus.getArrivalTime());
-                        completeBus.setAvailableSeats(bus.getAvailableSeats());
-                        completeBus.setTotalSeats(bus.getTotalSeats());
-                        completeBus.setPrice(bus.getPrice());
-                        
-                        booking.setBus(completeBus);
-                        logger.info("Successfully added bus data for booking {}: name={}, route={}, departure={}, arrival={}", 
-                            booking.getId(), bus.getName(), bus.getRoute(), bus.getDepartureTime(), bus.getArrivalTime());
-                    } else {
-                        logger.error("Bus not found for ID: {}", busId);
-                    }
+            attachBusDetails(booking);
+        }
+        return bookings;
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public List<Booking> getBookingHistory(Long userId, LocalDate from, LocalDate to) {
+        LocalDateTime fromTime = from != null ? from.atStartOfDay() : null;
+        LocalDateTime toTime = to != null ? to.plusDays(1).atStartOfDay().minusNanos(1) : null;
+        
+        // Current trips from the hot table, departed trips from the archive
+        List<Booking> bookings = new ArrayList<>();
+        if (fromTime == null && toTime == null) {
+            bookings.addAll(bookingRepository.findByUserId(userId));
+        } else {
+            bookings.addAll(bookingRepository.findByUserIdAndBookingDateBetween(userId,
+                fromTime != null ? fromTime : LocalDateTime.of(1970, 1, 1, 0, 0),
+                toTime != null ? toTime : LocalDateTime.of(9999, 12, 31, 0, 0)));
+        }
+        bookings.addAll(archiveService.findArchivedBookings(userId, fromTime, toTime));
+        logger.info("Found {} history bookings for user ID: {}", bookings.size(), userId);
+        
+        for (Booking booking : bookings) {
+            attachBusDetails(booking);
+        }
+        bookings.sort(Comparator.comparing(Booking::getBookingDate).reversed());
+        return bookings;
+    }
+    
+    private void attachBusDetails(Booking booking) {
+        try {
+            // Get bus ID from the booking
+            Long busId = booking.getBusId();
+            logger.info("Fetching bus data for booking {} with bus ID: {}", booking.getId(), busId);
+            
+            if (busId != null) {
+                // Fetch the complete bus object with all fields
+                Optional<Bus> busOpt = busRepository.findById(busId);
+                if (busOpt.isPresent()) {
+                    Bus bus = busOpt.get();
+                    // Set all bus fields explicitly
+                    Bus completeBus = new Bus();
+                    completeBus.setId(bus.getId());
+                    completeBus.setName(bus.getName());
+                    completeBus.setRoute(bus.getRoute());
+                    completeBus.setDepartureDate(bus.getDepartureDate());
+                    completeBus.setDepartureTime(bus.getDepartureTime());
+                    completeBus.setArrivalTime(bus.getArrivalTime());
+                    completeBus.setAvailableSeats(bus.getAvailableSeats());
+                    completeBus.setTotalSeats(bus.getTotalSeats());
+                    completeBus.setPrice(bus.getPrice());
+                    
+                    booking.setBus(completeBus);
+                    logger.info("Successfully added bus data for booking {}: name={}, route={}, departure={}, arrival={}", 
+                        booking.getId(), bus.getName(), bus.getRoute(), bus.getDepartureTime(), bus.getArrivalTime());
                 } else {
-                    logger.error("Booking {} has no bus ID", booking.getId());
+                    logger.error("Bus not found for ID: {}", busId);
                 }
-            } catch (Exception e) {
-                logger.error("Error fetching bus data for booking {}: {}", booking.getId(), e.getMessage());
+            } else {
+                logger.error("Booking {} has no bus ID", booking.getId());
             }
+        } catch (Exception e) {
+            logger.error("Error fetching bus data for booking {}: {}", booking.getId(), e.getMessage());
         }
-        return bookings;
     }
     
     @Override
@@ -186,6 +277,9 @@ public class BookingServiceImpl implements BookingService {
         }
         
         Booking booking = bookingOpt.get();
+        boolean wasConfirmed = "CONFIRMED".equals(booking.getStatus());
+        // Cancelling again must not free a seat that has been booked since
+        boolean holdsSeat = !"CANCELLED".equals(booking.getStatus());
         
         // Update booking status
         booking.setStatus("CANCELLED");
@@ -200,7 +294,7 @@ public class BookingServiceImpl implements BookingService {
                 .filter(s -> s.getSeatNumber().equals(seatNumber))
                 .findFirst();
                 
-        if (seatOpt.isPresent()) {
+        if (holdsSeat && seatOpt.isPresent()) {
             Seat seat = seatOpt.get();
             seat.setStatus(Seat.SeatStatus.AVAILABLE);
             seatRepository.save(seat);
@@ -215,11 +309,43 @@ public class BookingServiceImpl implements BookingService {
                     busRepository.save(bus);
                 }
             }
+            cacheInvalidationBus.publish(CacheInvalidationBus.SEATS, busId);
+            if (wasConfirmed) {
+                eventPublisher.publishEvent(BookingEvent.of(BookingEvent.Type.CANCELLED, booking, seat.getSeatType().toString()));
+            }
+            
+            // The freed seat goes straight to the head of the bus's waitlist
+            Optional<WaitlistEntry> waiting = waitlistService.pollHead(busId);
+            if (waiting.isPresent()) {
+                bookForWaitlist(waiting.get(), seat, busOpt);
+            }
         }
         
         return true;
     }
 
+    private void bookForWaitlist(WaitlistEntry entry, Seat seat, Optional<Bus> busOpt) {
+        seat.setStatus(Seat.SeatStatus.BOOKED);
+        seatRepository.save(seat);
+        
+        BigDecimal amount = BigDecimal.ZERO;
+        if (busOpt.isPresent()) {
+            Bus bus = busOpt.get();
+            Integer availableSeats = bus.getAvailableSeats();
+            if (availableSeats != null && availableSeats > 0) {
+                bus.setAvailableSeats(availableSeats - 1);
+                busRepository.save(bus);
+            }
+            amount = bus.getPrice();
+        }
+        
+        Booking booking = bookingRepository.save(new Booking(entry.getUserId(), entry.getBusId(), LocalDateTime.now(),
+                seat.getSeatNumber(), amount, "CONFIRMED"));
+        eventPublisher.publishEvent(BookingEvent.of(BookingEvent.Type.BOOKED, booking, seat.getSeatType().toString()));
+        logger.info("Booked freed seat {} of bus {} for waitlisted user {} as booking {}",
+            seat.getSeatNumber(), entry.getBusId(), entry.getUserId(), booking.getId());
+    }
+
     @Override
     @Transactional
     public void transferSeat(Long bookingId, Long newBusId, Long newSeatId) throws Exception {
@@ -236,7 +362,7 @@ public class BookingServiceImpl implements BookingService {
         }
 
         // 2. Validate new seat availability
-        Seat newSeat = seatRepository.findById(newSeatId)
+        Seat newSeat = seatRepository.lockById(newSeatId)
                 .orElseThrow(() -> new Exception("New seat not found with ID: " + newSeatId));
 
         if (newSeat.getStatus() != Seat.SeatStatus.AVAILABLE) {
@@ -295,6 +421,176 @@ public class BookingServiceImpl implements BookingService {
         busRepository.save(newBus);
         logger.info("New bus available seats updated");
 
+        cacheInvalidationBus.publish(CacheInvalidationBus.SEATS, oldBooking.getBusId());
+        cacheInvalidationBus.publish(CacheInvalidationBus.SEATS, newBusId);
+        eventPublisher.publishEvent(BookingEvent.of(BookingEvent.Type.TRANSFERRED_OUT, oldBooking, oldSeat.getSeatType().toString()));
+        eventPublisher.publishEvent(BookingEvent.of(BookingEvent.Type.TRANSFERRED_IN, newBooking, newSeat.getSeatType().toString()));
+
         logger.info("Seat transfer completed successfully");
     }
+
+    /**
+     * Moves every confirmed booking of a bus to free seats on the target buses
+     * in one transaction. Pregnant and elderly passengers are seated first and
+     * keep a priority seat when one is left; everyone else takes regular seats
+     * and only then the remaining priority seats. Passengers that do not fit
+     * keep their booking and are returned as unassigned.
+     */
+    @Override
+    @Transactional
+    public EvacuationResultDTO evacuateBus(Long busId, List<Long> targetBusIds) {
+        if (targetBusIds == null || targetBusIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one target bus is required");
+        }
+        Set<Long> targets = new LinkedHashSet<>(targetBusIds);
+        if (targets.contains(busId)) {
+            throw new IllegalArgumentException("Bus " + busId + " cannot be its own evacuation target");
+        }
+        if (busRepository.findById(busId).isEmpty()) {
+            throw new IllegalArgumentException("Bus with ID " + busId + " does not exist");
+        }
+        if (busRepository.findAllById(targets).size() != targets.size()) {
+            throw new IllegalArgumentException("One or more target buses do not exist: " + targets);
+        }
+
+        EvacuationResultDTO result = new EvacuationResultDTO(busId);
+        List<EvacuationPassenger> passengers = new ArrayList<>(bookingRepository.findConfirmedWithSeatType(busId));
+        if (passengers.isEmpty()) {
+            return result;
+        }
+
+        // A passenger's priority is the seat they held or their profile, whichever is higher
+        Set<Long> userIds = new HashSet<>();
+        passengers.forEach(passenger -> userIds.add(passenger.userId()));
+        Map<Long, Seat.SeatType> profilePriority = new HashMap<>();
+        for (User user : userRepository.findAllById(userIds)) {
+            if (user.isPregnantPriorityEligible()) {
+                profilePriority.put(user.getId(), Seat.SeatType.PREGNANT);
+            } else if (user.isElderlyPriorityEligible()) {
+                profilePriority.put(user.getId(), Seat.SeatType.ELDER);
+            }
+        }
+        Map<Long, Seat.SeatType> priority = new HashMap<>();
+        for (EvacuationPassenger passenger : passengers) {
+            Seat.SeatType held = passenger.seatType() != null ? passenger.seatType() : Seat.SeatType.REGULAR;
+            Seat.SeatType profile = profilePriority.getOrDefault(passenger.userId(), Seat.SeatType.REGULAR);
+            priority.put(passenger.bookingId(), evacuationRank(profile) < evacuationRank(held) ? profile : held);
+        }
+        passengers.sort(Comparator.comparingInt(passenger -> evacuationRank(priority.get(passenger.bookingId()))));
+
+        // Free seats are locked; bookings and transfers lock their seat as well, so one
+        // racing us for a target seat waits for this transaction and then finds it booked
+        List<Long> targetOrder = new ArrayList<>(targets);
+        List<Seat> freeSeats = new ArrayList<>(seatRepository.lockByBusIdInAndStatus(targets, Seat.SeatStatus.AVAILABLE));
+        freeSeats.sort(Comparator.comparingInt((Seat seat) -> targetOrder.indexOf(seat.getBus().getId()))
+            .thenComparing(Seat::getId));
+        Map<Seat.SeatType, Deque<Seat>> freeByType = new EnumMap<>(Seat.SeatType.class);
+        for (Seat.SeatType type : Seat.SeatType.values()) {
+            freeByType.put(type, new ArrayDeque<>());
+        }
+        freeSeats.forEach(seat -> freeByType.get(seat.getSeatType()).add(seat));
+
+        // New seat per booking id, moved passengers in seating order
+        Map<Long, Seat> newSeats = new HashMap<>();
+        List<EvacuationPassenger> moved = new ArrayList<>();
+        for (EvacuationPassenger passenger : passengers) {
+            Seat seat = null;
+            for (Seat.SeatType type : EVACUATION_SEAT_PREFERENCE.get(priority.get(passenger.bookingId()))) {
+                seat = freeByType.get(type).poll();
+                if (seat != null) {
+                    break;
+                }
+            }
+            if (seat == null) {
+                result.getUnassignedBookingIds().add(passenger.bookingId());
+            } else {
+                newSeats.put(passenger.bookingId(), seat);
+                moved.add(passenger);
+            }
+        }
+        if (moved.isEmpty()) {
+            logger.warn("No free seats on buses {} to evacuate bus {}", targets, busId);
+            return result;
+        }
+
+        // Set-based moves: cancel old bookings, free old seats, take new seats
+        List<Long> oldBookingIds = new ArrayList<>();
+        List<String> oldSeatNumbers = new ArrayList<>();
+        List<Long> newSeatIds = new ArrayList<>();
+        Map<Long, Integer> takenPerBus = new LinkedHashMap<>();
+        for (EvacuationPassenger passenger : moved) {
+            Seat seat = newSeats.get(passenger.bookingId());
+            oldBookingIds.add(passenger.bookingId());
+            oldSeatNumbers.add(passenger.seatNumber());
+            newSeatIds.add(seat.getId());
+            takenPerBus.merge(seat.getBus().getId(), 1, Integer::sum);
+        }
+
+        if (bookingRepository.cancelConfirmed(oldBookingIds) != oldBookingIds.size()) {
+            throw new RuntimeException("Bookings of bus " + busId + " changed during evacuation, please retry");
+        }
+        seatRepository.updateStatusByBusIdAndSeatNumbers(busId, oldSeatNumbers, Seat.SeatStatus.AVAILABLE);
+        if (seatRepository.updateStatusByIds(newSeatIds, Seat.SeatStatus.BOOKED) != newSeatIds.size()) {
+            throw new RuntimeException("Target seats changed during evacuation, please retry");
+        }
+        busRepository.adjustAvailableSeats(busId, moved.size());
+        takenPerBus.forEach((targetBusId, taken) -> busRepository.adjustAvailableSeats(targetBusId, -taken));
+
+        List<Long> newBookingIds = insertEvacuationBookings(moved, newSeats);
+
+        for (int i = 0; i < moved.size(); i++) {
+            EvacuationPassenger passenger = moved.get(i);
+            Seat seat = newSeats.get(passenger.bookingId());
+            String oldSeatType = passenger.seatType() != null ? passenger.seatType().toString() : null;
+            result.getAssignments().add(new SeatAssignmentDTO(passenger.userId(), passenger.bookingId(), passenger.seatNumber(),
+                newBookingIds.get(i), seat.getBus().getId(), seat.getSeatNumber(), seat.getSeatType().toString()));
+            eventPublisher.publishEvent(new BookingEvent(BookingEvent.Type.TRANSFERRED_OUT, passenger.bookingId(), passenger.userId(),
+                busId, passenger.seatNumber(), oldSeatType, passenger.amount(), passenger.bookingDate()));
+            eventPublisher.publishEvent(new BookingEvent(BookingEvent.Type.TRANSFERRED_IN, newBookingIds.get(i), passenger.userId(),
+                seat.getBus().getId(), seat.getSeatNumber(), seat.getSeatType().toString(), passenger.amount(), passenger.bookingDate()));
+        }
+
+        cacheInvalidationBus.publish(CacheInvalidationBus.SEATS, busId);
+        takenPerBus.keySet().forEach(targetBusId -> cacheInvalidationBus.publish(CacheInvalidationBus.SEATS, targetBusId));
+        logger.info("Evacuated {} passengers of bus {} to buses {}, {} left unassigned",
+            moved.size(), busId, takenPerBus.keySet(), result.getUnassignedBookingIds().size());
+        return result;
+    }
+
+    private static int evacuationRank(Seat.SeatType type) {
+        return type == Seat.SeatType.PREGNANT ? 0 : type == Seat.SeatType.ELDER ? 1 : 2;
+    }
+
+    // One JDBC batch for all new bookings, returning their generated ids in order
+    private List<Long> insertEvacuationBookings(List<EvacuationPassenger> moved, Map<Long, Seat> newSeats) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+            con -> con.prepareStatement(
+                "insert into bookings (user_id, bus_id, booking_date, seat_number, amount, status) values (?, ?, ?, ?, ?, 'CONFIRMED')",
+                new String[] {"id"}),
+            new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    EvacuationPassenger passenger = moved.get(i);
+                    Seat seat = newSeats.get(passenger.bookingId());
+                    ps.setLong(1, passenger.userId());
+                    ps.setLong(2, seat.getBus().getId());
+                    ps.setTimestamp(3, Timestamp.valueOf(passenger.bookingDate()));
+                    ps.setString(4, seat.getSeatNumber());
+                    ps.setBigDecimal(5, passenger.amount());
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return moved.size();
+                }
+            },
+            keyHolder);
+
+        List<Long> ids = new ArrayList<>();
+        for (Map<String, Object> keys : keyHolder.getKeyList()) {
+            ids.add(((Number) keys.values().iterator().next()).longValue());
+        }
+        return ids;
+    }
 }
@@ -0,0 +1,19 @@
+package BusManagementBooking.bus.booking;
+
+import BusManagementBooking.bus.seats.Seat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A confirmed booking of a bus being evacuated, with the type of the seat it
+ * holds. The seat type is null when the bus has no seat row for the booking.
+ */
+public record EvacuationPassenger(
+        Long bookingId,
+        Long userId,
+        String seatNumber,
+        Seat.SeatType seatType,
+        BigDecimal amount,
+        LocalDateTime bookingDate) {
+}
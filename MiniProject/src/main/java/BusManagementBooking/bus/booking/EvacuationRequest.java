@@ -0,0 +1,23 @@
+package BusManagementBooking.bus.booking;
+
+import java.util.List;
+
+public class EvacuationRequest {
+    private List<Long> targetBusIds;
+
+    // Getters and Setters
+    public List<Long> getTargetBusIds() {
+        return targetBusIds;
+    }
+
+    public void setTargetBusIds(List<Long> targetBusIds) {
+        this.targetBusIds = targetBusIds;
+    }
+
+    @Override
+    public String toString() {
+        return "EvacuationRequest{" +
+                "targetBusIds=" + targetBusIds +
+                '}';
+    }
+}
@@ -0,0 +1,41 @@
+package BusManagementBooking.bus.booking;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class EvacuationResultDTO {
+    private Long busId;
+    private List<SeatAssignmentDTO> assignments = new ArrayList<>();
+    private List<Long> unassignedBookingIds = new ArrayList<>();
+
+    public EvacuationResultDTO() {}
+
+    public EvacuationResultDTO(Long busId) {
+        this.busId = busId;
+    }
+
+    // Getters and Setters
+    public Long getBusId() {
+        return busId;
+    }
+
+    public void setBusId(Long busId) {
+        this.busId = busId;
+    }
+
+    public List<SeatAssignmentDTO> getAssignments() {
+        return assignments;
+    }
+
+    public void setAssignments(List<SeatAssignmentDTO> assignments) {
+        this.assignments = assignments;
+    }
+
+    public List<Long> getUnassignedBookingIds() {
+        return unassignedBookingIds;
+    }
+
+    public void setUnassignedBookingIds(List<Long> unassignedBookingIds) {
+        this.unassignedBookingIds = unassignedBookingIds;
+    }
+}
@@ -0,0 +1,81 @@
+package BusManagementBooking.bus.booking;
+
+public class SeatAssignmentDTO {
+    private Long userId;
+    private Long oldBookingId;
+    private String oldSeatNumber;
+    private Long newBookingId;
+    private Long newBusId;
+    private String newSeatNumber;
+    private String seatType;
+
+    public SeatAssignmentDTO() {}
+
+    public SeatAssignmentDTO(Long userId, Long oldBookingId, String oldSeatNumber,
+                             Long newBookingId, Long newBusId, String newSeatNumber, String seatType) {
+        this.userId = userId;
+        this.oldBookingId = oldBookingId;
+        this.oldSeatNumber = oldSeatNumber;
+        this.newBookingId = newBookingId;
+        this.newBusId = newBusId;
+        this.newSeatNumber = newSeatNumber;
+        this.seatType = seatType;
+    }
+
+    // Getters and Setters
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Long getOldBookingId() {
+        return oldBookingId;
+    }
+
+    public void setOldBookingId(Long oldBookingId) {
+        this.oldBookingId = oldBookingId;
+    }
+
+    public String getOldSeatNumber() {
+        return oldSeatNumber;
+    }
+
+    public void setOldSeatNumber(String oldSeatNumber) {
+        this.oldSeatNumber = oldSeatNumber;
+    }
+
+    public Long getNewBookingId() {
+        return newBookingId;
+    }
+
+    public void setNewBookingId(Long newBookingId) {
+        this.newBookingId = newBookingId;
+    }
+
+    public Long getNewBusId() {
+        return newBusId;
+    }
+
+    public void setNewBusId(Long newBusId) {
+        this.newBusId = newBusId;
+    }
+
+    public String getNewSeatNumber() {
+        return newSeatNumber;
+    }
+
+    public void setNewSeatNumber(String newSeatNumber) {
+        this.newSeatNumber = newSeatNumber;
+    }
+
+    public String getSeatType() {
+        return seatType;
+    }
+
+    public void setSeatType(String seatType) {
+        this.seatType = seatType;
+    }
+}
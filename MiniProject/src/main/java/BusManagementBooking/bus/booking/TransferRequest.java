@@ -4,6 +4,8 @@ public class TransferRequest {
     private Long bookingId;
     private Long newBusId;
     private Long newSeatId;
+    // Required when the new bus is in waiting-room mode
+    private String waitingRoomPass;
 
     // Getters and Setters
     public Long getBookingId() {
@@ -30,6 +32,14 @@ public class TransferRequest {
         this.newSeatId = newSeatId;
     }
 
+    public String getWaitingRoomPass() {
+        return waitingRoomPass;
+    }
+
+    public void setWaitingRoomPass(String waitingRoomPass) {
+        this.waitingRoomPass = waitingRoomPass;
+    }
+
     @Override
     public String toString() {
         return "TransferRequest{" +
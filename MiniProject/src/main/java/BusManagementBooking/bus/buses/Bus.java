@@ -4,6 +4,8 @@ import BusManagementBooking.bus.booking.Booking;
 import BusManagementBooking.bus.seats.Seat;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
@@ -11,6 +13,8 @@ import java.util.List;
 
 @Entity
 @Table(name = "buses")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Bus {
 
     @Id
@@ -43,6 +47,7 @@ public class Bus {
 
     @OneToMany(mappedBy = "bus", cascade = CascadeType.ALL)
     @JsonManagedReference
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private List<Seat> seats = new ArrayList<>();
 
     @OneToMany(mappedBy = "bus", cascade = CascadeType.ALL)
@@ -1,11 +1,19 @@
 package BusManagementBooking.bus.buses;
 
+import BusManagementBooking.bus.cache.BusVersions;
+import BusManagementBooking.bus.cache.RequestCoalescer;
 import BusManagementBooking.bus.config.SeatInitializationConfig;
+import BusManagementBooking.bus.datasource.ReplicaRoutingDataSource;
 import BusManagementBooking.bus.seats.SeatService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import java.util.List;
+import org.springframework.web.context.request.WebRequest;
+import java.io.InputStream;
 
 @RestController
 @RequestMapping("bus")
@@ -17,6 +25,15 @@ public class BusController {
     
     @Autowired
     private SeatInitializationConfig seatInitConfig;
+    
+    @Autowired
+    private BusImportService busImportService;
+    
+    @Autowired
+    private BusVersions busVersions;
+    
+    @Autowired
+    private RequestCoalescer requestCoalescer;
 
     @GetMapping("health")
     public String checkAlive() {
@@ -33,23 +50,76 @@ public class BusController {
         return ResponseEntity.ok(savedBus);
     }
 
+    /**
+     * Streams a CSV (with header) or NDJSON timetable into buses and seats.
+     * The format comes from the format parameter or the Content-Type header.
+     */
+    @PostMapping("/import")
+    public ResponseEntity<?> importBuses(InputStream body,
+            @RequestParam(required = false) String format,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType) {
+        try {
+            BusImportService.Format importFormat = BusImportService.Format.resolve(format != null ? format : contentType);
+            return ResponseEntity.ok(busImportService.importBuses(body, importFormat));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Import failed: " + e.getMessage());
+        }
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<Bus> getBusById(@PathVariable Long id) {
-        return busServiceImpl.getBusById(id)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<byte[]> getBusById(@PathVariable Long id, WebRequest request) {
+        // 304 is answered from the version counter without loading the bus
+        String eTag = busVersions.busETag(id, "bus");
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        // ETag responses are read from the primary so a version is never paired with replica lag
+        byte[] body = requestCoalescer.json(eTag,
+            () -> ReplicaRoutingDataSource.onPrimary(() -> busServiceImpl.getBusById(id)).orElse(null));
+        if (body == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return json(eTag, body);
     }
 
     @GetMapping
-    public ResponseEntity<List<Bus>> getBuses() {
-        return ResponseEntity.ok(busServiceImpl.getBuses());
+    public ResponseEntity<byte[]> getBuses(WebRequest request) {
+        String eTag = busVersions.fleetETag("buses");
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return json(eTag, requestCoalescer.json(eTag, () -> ReplicaRoutingDataSource.onPrimary(busServiceImpl::getBuses)));
     }
     
     @GetMapping("/search")
-    public ResponseEntity<List<Bus>> searchBuses(
+    public ResponseEntity<byte[]> searchBuses(
             @RequestParam(required = false) String name,
-            @RequestParam(required = false) String route) {
-        return ResponseEntity.ok(busServiceImpl.searchBuses(name, route, null, null));
+            @RequestParam(required = false) String route,
+            WebRequest request) {
+        String eTag = busVersions.fleetETag("buses");
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        // Parameters are length-prefixed so no name/route pair can collide with another
+        String key = eTag + "search/" + length(name) + ":" + name + length(route) + ":" + route;
+        return json(eTag, requestCoalescer.json(key,
+            () -> ReplicaRoutingDataSource.onPrimary(() -> busServiceImpl.searchBuses(name, route, null, null))));
+    }
+
+    /**
+     * Bus reads go out as JSON serialized once per version, shared by identical
+     * concurrent requests through the RequestCoalescer
+     */
+    private static ResponseEntity<byte[]> json(String eTag, byte[] body) {
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(eTag)
+                .contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    private static int length(String value) {
+        return value == null ? -1 : value.length();
     }
 
     @DeleteMapping("/{id}")
@@ -0,0 +1,67 @@
+package BusManagementBooking.bus.buses;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.ExitCodeGenerator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Command line import, e.g.
+ * java -jar bus.jar --spring.main.web-application-type=none --bus.import.file=timetable.csv
+ * BusApplication closes the context once the import ran and exits with the
+ * code reported here: 1 when any row failed.
+ */
+@Component
+@ConditionalOnProperty(name = "bus.import.file")
+public class BusImportCommand implements ApplicationRunner, ExitCodeGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(BusImportCommand.class);
+
+    @Autowired
+    private BusImportService busImportService;
+
+    @Value("${bus.import.file}")
+    private String file;
+
+    @Value("${bus.import.format:}")
+    private String format;
+
+    private volatile int exitCode;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        Path path = Paths.get(file);
+        BusImportService.Format importFormat = BusImportService.Format.resolve(format.isEmpty() ? path.getFileName().toString() : format);
+
+        BusImportReport report;
+        try (InputStream input = Files.newInputStream(path)) {
+            report = busImportService.importBuses(input, importFormat);
+        }
+
+        logger.info("Imported {} of {} buses ({} seats) from {} in {} ms",
+            report.getBusesImported(), report.getRowsRead(), report.getSeatsCreated(), path, report.getDurationMs());
+        for (BusImportReport.RowError error : report.getErrors()) {
+            logger.warn("  line {}: {}", error.getLine(), error.getMessage());
+        }
+        if (report.getFailedRows() > report.getErrors().size()) {
+            logger.warn("  ... {} more failed rows", report.getFailedRows() - report.getErrors().size());
+        }
+
+        exitCode = report.getFailedRows() > 0 ? 1 : 0;
+    }
+
+    @Override
+    public int getExitCode() {
+        return exitCode;
+    }
+}
@@ -0,0 +1,105 @@
+package BusManagementBooking.bus.buses;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BusImportReport {
+    private String format;
+    private long rowsRead;
+    private long busesImported;
+    private long seatsCreated;
+    private long failedRows;
+    private long durationMs;
+    private List<RowError> errors = new ArrayList<>();
+
+    public BusImportReport() {}
+
+    public BusImportReport(String format) {
+        this.format = format;
+    }
+
+    public static class RowError {
+        private long line;
+        private String message;
+
+        public RowError() {}
+
+        public RowError(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public void setLine(long line) {
+            this.line = line;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public void setMessage(String message) {
+            this.message = message;
+        }
+    }
+
+    // Getters and Setters
+    public String getFormat() {
+        return format;
+    }
+
+    public void setFormat(String format) {
+        this.format = format;
+    }
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public void setRowsRead(long rowsRead) {
+        this.rowsRead = rowsRead;
+    }
+
+    public long getBusesImported() {
+        return busesImported;
+    }
+
+    public void setBusesImported(long busesImported) {
+        this.busesImported = busesImported;
+    }
+
+    public long getSeatsCreated() {
+        return seatsCreated;
+    }
+
+    public void setSeatsCreated(long seatsCreated) {
+        this.seatsCreated = seatsCreated;
+    }
+
+    public long getFailedRows() {
+        return failedRows;
+    }
+
+    public void setFailedRows(long failedRows) {
+        this.failedRows = failedRows;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public void setDurationMs(long durationMs) {
+        this.durationMs = durationMs;
+    }
+
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<RowError> errors) {
+        this.errors = errors;
+    }
+}
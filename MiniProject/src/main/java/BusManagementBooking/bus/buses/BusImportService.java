@@ -0,0 +1,31 @@
+package BusManagementBooking.bus.buses;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface BusImportService {
+
+    enum Format {
+        CSV,
+        NDJSON;
+
+        /**
+         * Resolves the format from an explicit name, a content type or a file name
+         */
+        public static Format resolve(String hint) {
+            if (hint == null) {
+                throw new IllegalArgumentException("Import format is required: csv or ndjson");
+            }
+            String value = hint.toLowerCase();
+            if (value.contains("csv")) {
+                return CSV;
+            }
+            if (value.contains("ndjson") || value.contains("jsonl") || value.contains("json")) {
+                return NDJSON;
+            }
+            throw new IllegalArgumentException("Unsupported import format: " + hint + ". Valid formats are: csv, ndjson");
+        }
+    }
+
+    BusImportReport importBuses(InputStream input, Format format) throws IOException;
+}
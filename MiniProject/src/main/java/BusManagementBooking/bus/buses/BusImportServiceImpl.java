@@ -0,0 +1,347 @@
+package BusManagementBooking.bus.buses;
+
+import BusManagementBooking.bus.cache.CacheInvalidationBus;
+import BusManagementBooking.bus.seats.Seat;
+import BusManagementBooking.bus.seats.SeatInventoryEvent;
+import BusManagementBooking.bus.seats.SeatLayout;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams a timetable of trips into the buses and seats tables. Rows are read
+ * one line at a time and inserted in JDBC batches together with their seat
+ * maps, so memory stays constant however large the file is. Invalid rows are
+ * reported with their line number and skipped; a batch the database rejects
+ * is retried row by row to find the offending rows.
+ */
+@Service
+public class BusImportServiceImpl implements BusImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BusImportServiceImpl.class);
+
+    private static final String[] REQUIRED_COLUMNS = {
+        "name", "route", "departuredate", "departuretime", "arrivaltime", "totalseats", "price"
+    };
+
+    private static final String INSERT_BUS =
+        "insert into buses (name, route, departure_date, departure_time, arrival_time, available_seats, total_seats, price) " +
+        "values (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_SEAT =
+        "insert into seats (seat_number, seat_type, status, bus_id) values (?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${bus.import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${bus.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    @Value("${bus.import.max-seats-per-bus:100}")
+    private int maxSeatsPerBus;
+
+    @Value("${bus.seats.elder.percentage:10}")
+    private int elderSeatPercentage;
+
+    @Value("${bus.seats.pregnant.percentage:10}")
+    private int pregnantSeatPercentage;
+
+    private record ImportRow(long line, Bus bus) {}
+
+    @Override
+    public BusImportReport importBuses(InputStream input, Format format) throws IOException {
+        long start = System.currentTimeMillis();
+        BusImportReport report = new BusImportReport(format.name());
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        List<ImportRow> batch = new ArrayList<>(batchSize);
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        Map<String, Integer> csvColumns = null;
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (format == Format.CSV && csvColumns == null) {
+                csvColumns = parseHeader(line);
+                continue;
+            }
+
+            report.setRowsRead(report.getRowsRead() + 1);
+            try {
+                Map<String, String> fields = format == Format.CSV ? csvFields(line, csvColumns) : jsonFields(line);
+                batch.add(new ImportRow(lineNumber, toBus(fields)));
+            } catch (IllegalArgumentException e) {
+                addError(report, lineNumber, e.getMessage());
+            }
+
+            if (batch.size() >= batchSize) {
+                flush(batch, report, transactionTemplate);
+            }
+        }
+        flush(batch, report, transactionTemplate);
+
+        report.setDurationMs(System.currentTimeMillis() - start);
+        logger.info("Imported {} of {} buses with {} seats in {} ms, {} rows failed",
+            report.getBusesImported(), report.getRowsRead(), report.getSeatsCreated(), report.getDurationMs(), report.getFailedRows());
+        return report;
+    }
+
+    private void flush(List<ImportRow> batch, BusImportReport report, TransactionTemplate transactionTemplate) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            int seats = transactionTemplate.execute(status -> insertBatch(batch));
+            report.setBusesImported(report.getBusesImported() + batch.size());
+            report.setSeatsCreated(report.getSeatsCreated() + seats);
+        } catch (DataAccessException e) {
+            // Retry row by row so one bad row does not fail its whole batch
+            for (ImportRow row : batch) {
+                try {
+                    int seats = transactionTemplate.execute(status -> insertBatch(List.of(row)));
+                    report.setBusesImported(report.getBusesImported() + 1);
+                    report.setSeatsCreated(report.getSeatsCreated() + seats);
+                } catch (DataAccessException rowError) {
+                    addError(report, row.line(), rowError.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+        batch.clear();
+    }
+
+    private int insertBatch(List<ImportRow> rows) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+            con -> con.prepareStatement(INSERT_BUS, new String[] {"id"}),
+            new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    Bus bus = rows.get(i).bus();
+                    ps.setString(1, bus.getName());
+                    ps.setString(2, bus.getRoute());
+                    ps.setString(3, bus.getDepartureDate());
+                    ps.setString(4, bus.getDepartureTime());
+                    ps.setString(5, bus.getArrivalTime());
+                    ps.setInt(6, bus.getAvailableSeats());
+                    ps.setInt(7, bus.getTotalSeats());
+                    ps.setBigDecimal(8, bus.getPrice());
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return rows.size();
+                }
+            },
+            keyHolder);
+
+        List<Object[]> seats = new ArrayList<>();
+        List<Long> busIds = new ArrayList<>(rows.size());
+        Iterator<Map<String, Object>> keys = keyHolder.getKeyList().iterator();
+        for (ImportRow row : rows) {
+            long busId = ((Number) keys.next().values().iterator().next()).longValue();
+            busIds.add(busId);
+            SeatLayout layout = SeatLayout.forTotalSeats(row.bus().getTotalSeats(), elderSeatPercentage, pregnantSeatPercentage);
+            for (Seat.SeatType seatType : Seat.SeatType.values()) {
+                for (int i = 1; i <= layout.count(seatType); i++) {
+                    seats.add(new Object[] {SeatLayout.seatNumber(seatType, i), seatType.name(), Seat.SeatStatus.AVAILABLE.name(), busId});
+                }
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_SEAT, seats);
+        // Inserted past Hibernate, so cached bus listings must be dropped too
+        cacheInvalidationBus.publishAll(CacheInvalidationBus.BUS, busIds);
+        cacheInvalidationBus.publishAll(CacheInvalidationBus.SEATS, busIds);
+        // Seat counters only learn about JDBC-inserted seat maps from these
+        busIds.forEach(busId -> eventPublisher.publishEvent(SeatInventoryEvent.replaced(busId)));
+        return seats.size();
+    }
+
+    private Map<String, Integer> parseHeader(String line) {
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = parseCsvLine(line);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(normalize(names.get(i)), i);
+        }
+        for (String required : REQUIRED_COLUMNS) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("CSV header is missing column: " + required);
+            }
+        }
+        return columns;
+    }
+
+    private Map<String, String> csvFields(String line, Map<String, Integer> columns) {
+        List<String> values = parseCsvLine(line);
+        Map<String, String> fields = new HashMap<>();
+        columns.forEach((name, index) -> {
+            if (index < values.size()) {
+                fields.put(name, values.get(index));
+            }
+        });
+        return fields;
+    }
+
+    private Map<String, String> jsonFields(String line) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid JSON: " + e.getOriginalMessage());
+        }
+        if (node == null || !node.isObject()) {
+            throw new IllegalArgumentException("Each line must be a JSON object");
+        }
+        Map<String, String> fields = new HashMap<>();
+        node.fields().forEachRemaining(field -> {
+            if (!field.getValue().isNull()) {
+                fields.put(normalize(field.getKey()), field.getValue().asText());
+            }
+        });
+        return fields;
+    }
+
+    // Splits one CSV line, honouring double-quoted fields with "" escapes
+    static List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    private static String normalize(String column) {
+        return column.trim().replace("_", "").toLowerCase();
+    }
+
+    private Bus toBus(Map<String, String> fields) {
+        String name = required(fields, "name", 100);
+        String route = required(fields, "route", 200);
+        LocalDate departureDate = DepartureDates.parse(fields.get(normalize("departureDate")))
+            .orElseThrow(() -> new IllegalArgumentException("departureDate must be dd-MM-yyyy or yyyy-MM-dd"));
+        String departureTime = time(fields, "departureTime");
+        String arrivalTime = time(fields, "arrivalTime");
+
+        int totalSeats;
+        BigDecimal price;
+        try {
+            totalSeats = Integer.parseInt(required(fields, "totalSeats", 10));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("totalSeats must be a whole number");
+        }
+        if (totalSeats <= 0 || totalSeats > maxSeatsPerBus) {
+            throw new IllegalArgumentException("totalSeats must be between 1 and " + maxSeatsPerBus);
+        }
+        try {
+            price = new BigDecimal(required(fields, "price", 20));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("price must be a number");
+        }
+        if (price.signum() < 0) {
+            throw new IllegalArgumentException("price must not be negative");
+        }
+
+        // Imported trips start with every seat available
+        return new Bus(name, route, DepartureDates.format(departureDate), departureTime, arrivalTime,
+            totalSeats, totalSeats, price);
+    }
+
+    private static String required(Map<String, String> fields, String column, int maxLength) {
+        String value = fields.get(normalize(column));
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException(column + " is required");
+        }
+        value = value.trim();
+        if (value.length() > maxLength) {
+            throw new IllegalArgumentException(column + " must be at most " + maxLength + " characters");
+        }
+        return value;
+    }
+
+    private static String time(Map<String, String> fields, String column) {
+        String value = required(fields, column, 50);
+        try {
+            LocalTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(column + " must be HH:mm");
+        }
+        return value;
+    }
+
+    private void addError(BusImportReport report, long line, String message) {
+        report.setFailedRows(report.getFailedRows() + 1);
+        if (report.getErrors().size() < maxReportedErrors) {
+            report.getErrors().add(new BusImportReport.RowError(line, message));
+        }
+    }
+}
@@ -1,17 +1,61 @@
 package BusManagementBooking.bus.buses;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface BusRepository extends JpaRepository<Bus, Long> {
+    // Listing and search finders are served from the Hibernate query cache
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Bus> findAll();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Bus> findByNameContainingIgnoreCase(String name);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Bus> findByRouteContainingIgnoreCase(String route);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Bus> findByDepartureTimeContainingIgnoreCase(String departureTime);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Bus> findByArrivalTimeContainingIgnoreCase(String arrivalTime);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Bus> findByRouteContainingIgnoreCaseAndDepartureTimeContainingIgnoreCase(String route, String departureTime);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Bus> findByRouteContainingIgnoreCaseAndArrivalTimeContainingIgnoreCase(String route, String arrivalTime);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Bus> findByDepartureTimeContainingIgnoreCaseAndArrivalTimeContainingIgnoreCase(String departureTime, String arrivalTime);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Bus> findByRouteContainingIgnoreCaseAndDepartureTimeContainingIgnoreCaseAndArrivalTimeContainingIgnoreCase(String route, String departureTime, String arrivalTime);
+
+    @Query("select b.id, b.departureDate from Bus b")
+    List<Object[]> findAllDepartureDates();
+
+    @Query("select b.id, b.route from Bus b")
+    List<Object[]> findAllRoutes();
+
+    // Timetable columns read by the journey planner
+    @Query("select b.id, b.name, b.route, b.departureDate, b.departureTime, b.arrivalTime, b.price, b.availableSeats from Bus b")
+    List<Object[]> findAllTrips();
+
+    @Query("select b.id, b.name, b.route, b.departureDate, b.departureTime, b.arrivalTime, b.price, b.availableSeats "
+        + "from Bus b where b.id in :busIds")
+    List<Object[]> findTripsByIdIn(Collection<Long> busIds);
+
+    @Modifying
+    @Query("update Bus b set b.availableSeats = b.availableSeats + :delta where b.id = :busId")
+    int adjustAvailableSeats(Long busId, int delta);
+
+    // Serializes the outbox writes of one bus so their ids follow commit order
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b.id from Bus b where b.id in :busIds order by b.id")
+    List<Long> lockForOutbox(Collection<Long> busIds);
 }
@@ -1,5 +1,6 @@
 package BusManagementBooking.bus.buses;
 
+import BusManagementBooking.bus.cache.CacheInvalidationBus;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import java.math.BigDecimal;
@@ -12,6 +13,9 @@ public class BusServiceImpl implements BusService {
     @Autowired
     private BusRepository busRepository;
 
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
     @Override
     public Bus addBus(BusAddRequestDTO busAddRequestDTO) {
         Bus bus = new Bus(
@@ -24,7 +28,9 @@ public class BusServiceImpl implements BusService {
                 busAddRequestDTO.getTotalSeats(),
                 new BigDecimal(busAddRequestDTO.getPrice())
         );
-        return busRepository.save(bus);
+        Bus savedBus = busRepository.save(bus);
+        cacheInvalidationBus.publish(CacheInvalidationBus.BUS, savedBus.getId());
+        return savedBus;
     }
 
     @Override
@@ -67,6 +73,7 @@ public class BusServiceImpl implements BusService {
     @Override
     public void deleteBus(Long busId) {
         busRepository.deleteById(busId);
+        cacheInvalidationBus.publish(CacheInvalidationBus.BUS, busId);
     }
 
     @Override
@@ -82,7 +89,9 @@ public class BusServiceImpl implements BusService {
             bus.setAvailableSeats(busUpdateRequestDTO.getAvailableSeats());
             bus.setTotalSeats(busUpdateRequestDTO.getTotalSeats());
             bus.setPrice(new BigDecimal(busUpdateRequestDTO.getPrice()));
-            return busRepository.save(bus);
+            Bus savedBus = busRepository.save(bus);
+            cacheInvalidationBus.publish(CacheInvalidationBus.BUS, busId);
+            return savedBus;
         }
         return null;
     }
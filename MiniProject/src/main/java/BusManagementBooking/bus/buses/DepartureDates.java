@@ -0,0 +1,38 @@
+package BusManagementBooking.bus.buses;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.util.Optional;
+
+/**
+ * Parses Bus.departureDate, which the frontend sends as dd-MM-yyyy while
+ * older rows use the ISO yyyy-MM-dd default of the V2 migration.
+ */
+public final class DepartureDates {
+
+    private static final DateTimeFormatter FRONTEND_FORMAT = DateTimeFormatter.ofPattern("dd-MM-uuuu")
+        .withResolverStyle(ResolverStyle.STRICT);
+
+    private DepartureDates() {}
+
+    public static Optional<LocalDate> parse(String departureDate) {
+        if (departureDate == null || departureDate.isBlank()) {
+            return Optional.empty();
+        }
+        String value = departureDate.trim();
+        try {
+            if (value.length() == 10 && value.charAt(4) == '-') {
+                return Optional.of(LocalDate.parse(value));
+            }
+            return Optional.of(LocalDate.parse(value, FRONTEND_FORMAT));
+        } catch (DateTimeParseException e) {
+            return Optional.empty();
+        }
+    }
+
+    public static String format(LocalDate date) {
+        return date.format(FRONTEND_FORMAT);
+    }
+}
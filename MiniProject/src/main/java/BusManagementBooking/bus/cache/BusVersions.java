@@ -0,0 +1,59 @@
+package BusManagementBooking.bus.cache;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-bus version counters behind the ETags of the bus and seat endpoints.
+ * CacheInvalidationBus bumps a bus after its listeners have dropped cached
+ * data, so a version is never paired with older content. ETags carry the
+ * node start time and a generation that is bumped when invalidations may
+ * have been lost, so a restart or a lost row never yields a stale 304.
+ */
+@Component
+public class BusVersions {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<Long, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final AtomicLong fleetVersion = new AtomicLong();
+    private final AtomicLong generation = new AtomicLong();
+
+    void bump(Long busId) {
+        versions.computeIfAbsent(busId, id -> new AtomicLong()).incrementAndGet();
+        fleetVersion.incrementAndGet();
+    }
+
+    void bumpAll() {
+        generation.incrementAndGet();
+        fleetVersion.incrementAndGet();
+    }
+
+    /**
+     * Bumped whenever invalidations may have been lost
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    public long version(Long busId) {
+        AtomicLong version = versions.get(busId);
+        return version != null ? version.get() : 0;
+    }
+
+    /**
+     * Strong ETag of one representation of a bus, e.g. variant "seats" or "bus"
+     */
+    public String busETag(Long busId, String variant) {
+        return "\"" + variant + "-" + epoch + "-" + generation.get() + "-" + busId + "-" + version(busId) + "\"";
+    }
+
+    /**
+     * Strong ETag of representations covering every bus, such as the bus list
+     */
+    public String fleetETag(String variant) {
+        return "\"" + variant + "-" + epoch + "-" + generation.get() + "-" + fleetVersion.get() + "\"";
+    }
+}
@@ -0,0 +1,34 @@
+package BusManagementBooking.bus.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("cache")
+@CrossOrigin(origins = "http://localhost:5173", allowCredentials = "true")
+public class CacheController {
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Autowired
+    private RequestCoalescer requestCoalescer;
+
+    @GetMapping("/health")
+    public String checkAlive() {
+        return "Cache Controller is alive!";
+    }
+
+    @GetMapping("/invalidation/stats")
+    public ResponseEntity<Map<String, Object>> getInvalidationStats() {
+        return ResponseEntity.ok(cacheInvalidationBus.getStats());
+    }
+
+    @GetMapping("/coalescing/stats")
+    public ResponseEntity<Map<String, Object>> getCoalescingStats() {
+        return ResponseEntity.ok(requestCoalescer.getStats());
+    }
+}
@@ -0,0 +1,75 @@
+package BusManagementBooking.bus.cache;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "cache_invalidations")
+public class CacheInvalidation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "node_id", nullable = false, length = 64)
+    private String nodeId;
+
+    @Column(name = "region", nullable = false, length = 20)
+    private String region;
+
+    @Column(name = "entity_key", nullable = false)
+    private Long entityKey;
+
+    @Column(name = "created_at", nullable = false)
+    private Long createdAt;
+
+    // Constructors
+    public CacheInvalidation() {}
+
+    public CacheInvalidation(String nodeId, String region, Long entityKey, Long createdAt) {
+        this.nodeId = nodeId;
+        this.region = region;
+        this.entityKey = entityKey;
+        this.createdAt = createdAt;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public void setRegion(String region) {
+        this.region = region;
+    }
+
+    public Long getEntityKey() {
+        return entityKey;
+    }
+
+    public void setEntityKey(Long entityKey) {
+        this.entityKey = entityKey;
+    }
+
+    public Long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Long createdAt) {
+        this.createdAt = createdAt;
+    }
+}
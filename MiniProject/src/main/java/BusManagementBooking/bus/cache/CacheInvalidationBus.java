@@ -0,0 +1,260 @@
+package BusManagementBooking.bus.cache;
+
+import BusManagementBooking.bus.cluster.ClusterMembership;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Broadcasts cache invalidations between instances through the
+ * cache_invalidations table. Publishing inserts a row in the caller's
+ * transaction, so other nodes only see it once the change is committed.
+ * Local listeners are called right after commit, remote nodes pick the row
+ * up on their next poll. Rows that appear out of id order (a transaction
+ * holding a lower id committing late) are caught by re-checking id gaps for
+ * a short window; anything still missed falls back to the cache TTL.
+ * Without clustering there are no other nodes and nothing is polled; rows
+ * are still written because the inventory snapshot reads them back as its
+ * change log on restart.
+ */
+@Component
+public class CacheInvalidationBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    public static final String BUS = "bus";
+    public static final String SEATS = "seats";
+
+    private static final int MAX_TRACKED_GAP = 1000;
+
+    private static final String INSERT =
+        "insert into cache_invalidations (node_id, region, entity_key, created_at) values (?, ?, ?, ?)";
+
+    @Autowired
+    private CacheInvalidationRepository cacheInvalidationRepository;
+
+    @Autowired
+    private ClusterMembership membership;
+
+    @Autowired
+    private BusVersions busVersions;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${bus.cache.invalidation.gap-window-ms:2000}")
+    private long gapWindowMs;
+
+    @Value("${bus.cache.invalidation.retention-ms:600000}")
+    private long retentionMs;
+
+    private final Map<String, List<InvalidationListener>> listeners = new ConcurrentHashMap<>();
+    private final Map<String, List<InvalidationListener>> remoteListeners = new ConcurrentHashMap<>();
+
+    // Poller state, only touched by the scheduler thread
+    private volatile long lastSeenId = -1;
+    private final TreeMap<Long, Long> pendingGaps = new TreeMap<>();
+    private volatile int pendingGapCount;
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong appliedRemote = new AtomicLong();
+    private final AtomicLong lostGaps = new AtomicLong();
+    private final AtomicLong lagTotalMs = new AtomicLong();
+    private volatile long lastLagMs;
+    private volatile long maxLagMs;
+
+    public void register(String region, InvalidationListener listener) {
+        listeners.computeIfAbsent(region, r -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    /**
+     * Registers a listener for changes made by other nodes only, for caches
+     * that local writes already keep up to date
+     */
+    public void registerRemote(String region, InvalidationListener listener) {
+        remoteListeners.computeIfAbsent(region, r -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    /**
+     * Publishes an invalidation for the given key of a region
+     */
+    public void publish(String region, Long key) {
+        if (key == null) {
+            return;
+        }
+        cacheInvalidationRepository.save(new CacheInvalidation(membership.getNodeId(), region, key, System.currentTimeMillis()));
+        published.incrementAndGet();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applyLocally(region, key, false);
+                }
+            });
+        } else {
+            applyLocally(region, key, false);
+        }
+    }
+
+    /**
+     * Publishes invalidations for many keys of a region with one JDBC batch,
+     * for bulk writes such as imports; listeners still see one key at a time
+     */
+    public void publishAll(String region, List<Long> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        String nodeId = membership.getNodeId();
+        long now = System.currentTimeMillis();
+        List<Object[]> rows = new ArrayList<>(keys.size());
+        for (Long key : keys) {
+            rows.add(new Object[] {nodeId, region, key, now});
+        }
+        jdbcTemplate.batchUpdate(INSERT, rows);
+        published.addAndGet(keys.size());
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    keys.forEach(key -> applyLocally(region, key, false));
+                }
+            });
+        } else {
+            keys.forEach(key -> applyLocally(region, key, false));
+        }
+    }
+
+    private void applyLocally(String region, Long key, boolean remote) {
+        notify(listeners, region, key);
+        if (remote) {
+            notify(remoteListeners, region, key);
+        }
+        // Both regions are keyed by bus id; bumped last so ETags never outrun cached data
+        busVersions.bump(key);
+    }
+
+    private void notify(Map<String, List<InvalidationListener>> registered, String region, Long key) {
+        for (InvalidationListener listener : registered.getOrDefault(region, List.of())) {
+            try {
+                listener.invalidate(key);
+            } catch (Exception e) {
+                logger.error("Invalidation listener failed for {} {}: {}", region, key, e.getMessage());
+            }
+        }
+    }
+
+    // First of the startup listeners, so anything catching up from the table afterwards overlaps the poller
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void start() {
+        if (!membership.isEnabled()) {
+            // lastSeenId stays unset, so the poller never queries the table
+            return;
+        }
+        // Everything before startup is irrelevant, caches start empty
+        lastSeenId = cacheInvalidationRepository.findMaxId();
+    }
+
+    @Scheduled(fixedDelayString = "${bus.cache.invalidation.poll-interval-ms:50}")
+    public void poll() {
+        if (lastSeenId < 0) {
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            List<CacheInvalidation> rows = new ArrayList<>(cacheInvalidationRepository.findTop500ByIdGreaterThanOrderByIdAsc(lastSeenId));
+            if (!pendingGaps.isEmpty()) {
+                rows.addAll(cacheInvalidationRepository.findByIdIn(pendingGaps.keySet()));
+            }
+
+            long expected = lastSeenId + 1;
+            for (CacheInvalidation row : rows) {
+                long id = row.getId();
+                if (pendingGaps.remove(id) == null) {
+                    if (id - expected > MAX_TRACKED_GAP) {
+                        // Identity jumps (e.g. after a database restart) are not real gaps
+                        lostGaps.addAndGet(id - expected);
+                        busVersions.bumpAll();
+                    } else {
+                        for (long missing = expected; missing < id; missing++) {
+                            pendingGaps.put(missing, now + gapWindowMs);
+                        }
+                    }
+                    expected = id + 1;
+                    lastSeenId = Math.max(lastSeenId, id);
+                }
+                if (!membership.getNodeId().equals(row.getNodeId())) {
+                    applyLocally(row.getRegion(), row.getEntityKey(), true);
+                    recordLag(now - row.getCreatedAt());
+                }
+            }
+
+            // Gaps still empty after the window were rolled back or lost, TTL covers them
+            Iterator<Map.Entry<Long, Long>> gaps = pendingGaps.entrySet().iterator();
+            while (gaps.hasNext()) {
+                if (gaps.next().getValue() <= now) {
+                    gaps.remove();
+                    lostGaps.incrementAndGet();
+                    busVersions.bumpAll();
+                }
+            }
+            pendingGapCount = pendingGaps.size();
+        } catch (Exception e) {
+            logger.error("Polling cache invalidations failed: {}", e.getMessage());
+        }
+    }
+
+    private void recordLag(long lagMs) {
+        appliedRemote.incrementAndGet();
+        lagTotalMs.addAndGet(lagMs);
+        lastLagMs = lagMs;
+        if (lagMs > maxLagMs) {
+            maxLagMs = lagMs;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${bus.cache.invalidation.cleanup-interval-ms:60000}")
+    public void cleanup() {
+        try {
+            cacheInvalidationRepository.deleteOlderThan(System.currentTimeMillis() - retentionMs);
+        } catch (Exception e) {
+            logger.error("Cleaning up cache invalidations failed: {}", e.getMessage());
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long applied = appliedRemote.get();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("published", published.get());
+        stats.put("appliedRemote", applied);
+        stats.put("lastSeenId", lastSeenId);
+        stats.put("pendingGaps", pendingGapCount);
+        stats.put("lostGaps", lostGaps.get());
+        stats.put("lastLagMs", lastLagMs);
+        stats.put("maxLagMs", maxLagMs);
+        stats.put("avgLagMs", applied == 0 ? 0 : lagTotalMs.get() / applied);
+        return stats;
+    }
+}
@@ -0,0 +1,30 @@
+package BusManagementBooking.bus.cache;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface CacheInvalidationRepository extends JpaRepository<CacheInvalidation, Long> {
+    List<CacheInvalidation> findTop500ByIdGreaterThanOrderByIdAsc(Long id);
+    List<CacheInvalidation> findByIdIn(Collection<Long> ids);
+
+    @Query("select coalesce(max(c.id), 0) from CacheInvalidation c")
+    Long findMaxId();
+
+    // Keys changed after a point in the log, by id and by time (for rows committed out of id order)
+    @Query("select distinct c.entityKey from CacheInvalidation c where c.id > :id")
+    List<Long> findEntityKeysAfterId(Long id);
+    @Query("select distinct c.entityKey from CacheInvalidation c where c.createdAt >= :createdAt")
+    List<Long> findEntityKeysCreatedSince(Long createdAt);
+
+    @Modifying
+    @Transactional
+    @Query("delete from CacheInvalidation c where c.createdAt < :cutoff")
+    int deleteOlderThan(Long cutoff);
+}
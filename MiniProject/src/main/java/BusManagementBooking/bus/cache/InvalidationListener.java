@@ -0,0 +1,10 @@
+package BusManagementBooking.bus.cache;
+
+/**
+ * Receives invalidations for one cache region, both for changes made on this
+ * node (after commit) and for changes published by other nodes.
+ */
+@FunctionalInterface
+public interface InvalidationListener {
+    void invalidate(Long key);
+}
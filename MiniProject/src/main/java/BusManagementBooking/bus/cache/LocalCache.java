@@ -0,0 +1,86 @@
+package BusManagementBooking.bus.cache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Small in-process cache keyed by id with a TTL. Every invalidation bumps a
+ * per-key version, and a value loaded while the version changed is not
+ * stored, so a slow reader can never put back data older than an
+ * invalidation. The TTL bounds staleness when an invalidation is lost.
+ * Concurrent misses for a key share one load, but only with loads started
+ * at the same version, so nobody is handed data from before an invalidation
+ * they already observed.
+ */
+public class LocalCache<V> {
+
+    private final long ttlMillis;
+    private final Map<Long, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final SingleFlight<Load, V> loads = new SingleFlight<>();
+
+    public LocalCache(long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+    }
+
+    public V get(Long key, Function<Long, V> loader) {
+        Entry<V> entry = entries.get(key);
+        long now = System.currentTimeMillis();
+        if (entry != null && entry.expiresAt > now) {
+            hits.incrementAndGet();
+            return entry.value;
+        }
+
+        misses.incrementAndGet();
+        AtomicLong version = versions.computeIfAbsent(key, k -> new AtomicLong());
+        long versionBeforeLoad = version.get();
+        V value = loads.execute(new Load(key, versionBeforeLoad), () -> loader.apply(key));
+        if (value != null && version.get() == versionBeforeLoad) {
+            entries.put(key, new Entry<>(value, now + ttlMillis));
+        }
+        return value;
+    }
+
+    public void put(Long key, V value) {
+        entries.put(key, new Entry<>(value, System.currentTimeMillis() + ttlMillis));
+    }
+
+    public void invalidate(Long key) {
+        versions.computeIfAbsent(key, k -> new AtomicLong()).incrementAndGet();
+        entries.remove(key);
+    }
+
+    public void invalidateAll() {
+        versions.values().forEach(AtomicLong::incrementAndGet);
+        entries.clear();
+    }
+
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        entries.entrySet().removeIf(e -> e.getValue().expiresAt <= now);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public SingleFlight<?, ?> getLoads() {
+        return loads;
+    }
+
+    private record Load(Long key, long version) {}
+
+    private record Entry<V>(V value, long expiresAt) {}
+}
@@ -0,0 +1,78 @@
+package BusManagementBooking.bus.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight front for hot read endpoints. Identical requests that arrive
+ * while one is being answered share its query and its serialized JSON body.
+ * Keys must contain the ETag of the response, which is taken before loading
+ * and changes with every invalidation, so a request never joins a load that
+ * started before a write it could already see. Entities are only touched by
+ * the leading request's thread, followers just get the bytes.
+ */
+@Component
+public class RequestCoalescer {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final SingleFlight<String, byte[]> responses = new SingleFlight<>();
+    private final Map<String, SingleFlight<?, ?>> flights = new ConcurrentHashMap<>(Map.of("responses", responses));
+
+    /**
+     * Registers a flight owned elsewhere (e.g. a LocalCache's loads) for the stats
+     */
+    public void register(String name, SingleFlight<?, ?> flight) {
+        flights.put(name, flight);
+    }
+
+    public byte[] bytes(String key, Supplier<byte[]> body) {
+        return responses.execute(key, body);
+    }
+
+    /**
+     * Serialized body, or null when the supplier found nothing
+     */
+    public byte[] json(String key, Supplier<?> body) {
+        return responses.execute(key, () -> {
+            try {
+                Object value = body.get();
+                return value == null ? null : objectMapper.writeValueAsBytes(value);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Serializing response failed: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long calls = 0;
+        long coalesced = 0;
+        for (Map.Entry<String, SingleFlight<?, ?>> entry : flights.entrySet()) {
+            SingleFlight<?, ?> flight = entry.getValue();
+            Map<String, Object> flightStats = new LinkedHashMap<>();
+            flightStats.put("calls", flight.getCalls());
+            flightStats.put("executions", flight.getExecutions());
+            flightStats.put("coalesced", flight.getCoalesced());
+            flightStats.put("coalescingRatio", ratio(flight.getCoalesced(), flight.getCalls()));
+            flightStats.put("inFlight", flight.getInFlight());
+            stats.put(entry.getKey(), flightStats);
+            calls += flight.getCalls();
+            coalesced += flight.getCoalesced();
+        }
+        stats.put("coalescingRatio", ratio(coalesced, calls));
+        return stats;
+    }
+
+    private static double ratio(long coalesced, long calls) {
+        return calls == 0 ? 0.0 : (double) coalesced / calls;
+    }
+}
@@ -0,0 +1,57 @@
+package BusManagementBooking.bus.cache;
+
+import BusManagementBooking.bus.buses.Bus;
+import BusManagementBooking.bus.datasource.ReplicaRoutingDataSource;
+import BusManagementBooking.bus.seats.Seat;
+import BusManagementBooking.bus.seats.SeatRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the Hibernate second-level cache in step with writes Hibernate does
+ * not see. Local entity writes and bulk JPQL statements are handled by
+ * Hibernate itself (seats added or removed through Seat.bus evict the bus's
+ * seat list via auto_evict_collection_cache), so seat changes, which come
+ * with every booking, leave the cache alone. Bus changes may add, rename or
+ * remove buses past Hibernate (JDBC inserts of bus import and schedules, or
+ * another node), so they drop the cached bus listings. Changes made by other
+ * nodes evict the bus, its seat list and the cached seats of that bus only.
+ */
+@Component
+public class SecondLevelCacheInvalidator {
+
+    private static final String BUS_SEATS_ROLE = Bus.class.getName() + ".seats";
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private SeatRepository seatRepository;
+
+    private Cache cache;
+
+    @PostConstruct
+    public void registerListeners() {
+        cache = entityManagerFactory.getCache().unwrap(Cache.class);
+        cacheInvalidationBus.register(CacheInvalidationBus.BUS, busId -> cache.evictDefaultQueryRegion());
+        cacheInvalidationBus.registerRemote(CacheInvalidationBus.BUS, this::evictBus);
+        cacheInvalidationBus.registerRemote(CacheInvalidationBus.SEATS, busId -> {
+            evictBus(busId);
+            // Seat ids of a bus never change, and a stale seat status is worse than a miss
+            for (Long seatId : ReplicaRoutingDataSource.onPrimary(() -> seatRepository.findIdsByBusId(busId))) {
+                cache.evictEntityData(Seat.class, seatId);
+            }
+        });
+    }
+
+    private void evictBus(Long busId) {
+        cache.evictEntityData(Bus.class, busId);
+        cache.evictCollectionData(BUS_SEATS_ROLE, busId);
+    }
+}
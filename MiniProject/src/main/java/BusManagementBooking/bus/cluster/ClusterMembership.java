@@ -0,0 +1,148 @@
+package BusManagementBooking.bus.cluster;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Tracks the live nodes of the cluster through heartbeats in the shared
+ * cluster_nodes table and keeps the consistent hash ring of bus owners.
+ * When clustering is disabled this node owns every bus.
+ */
+@Component
+public class ClusterMembership {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterMembership.class);
+
+    @Autowired
+    private ClusterNodeRepository clusterNodeRepository;
+
+    @Value("${bus.cluster.enabled:false}")
+    private boolean enabled;
+
+    @Value("${bus.cluster.advertised-url:http://localhost:${server.port:8080}}")
+    private String advertisedUrl;
+
+    @Value("${bus.cluster.heartbeat-timeout-ms:6000}")
+    private long heartbeatTimeoutMs;
+
+    @Value("${bus.cluster.virtual-nodes:64}")
+    private int virtualNodes;
+
+    // Fixed before any heartbeat or invalidation can read it
+    private final String nodeId;
+    private LocalDateTime startedAt;
+    private volatile boolean registered;
+    private volatile ConsistentHashRing ring = ConsistentHashRing.of(java.util.List.of(), 1);
+    private volatile Map<String, String> baseUrls = Map.of();
+
+    public ClusterMembership(@Value("${bus.cluster.node-id:}") String configuredNodeId) {
+        this.nodeId = configuredNodeId.isBlank() ? UUID.randomUUID().toString() : configuredNodeId;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public ConsistentHashRing getRing() {
+        return ring;
+    }
+
+    /**
+     * Returns true when this node should execute writes for the given bus
+     */
+    public boolean isLocal(Long busId) {
+        if (!enabled || busId == null) {
+            return true;
+        }
+        String owner = ring.ownerOf(busId);
+        return owner == null || owner.equals(getNodeId());
+    }
+
+    /**
+     * Ids of the nodes currently alive, this node included
+     */
+    public Set<String> getMemberIds() {
+        return enabled ? baseUrls.keySet() : Set.of(getNodeId());
+    }
+
+    /**
+     * Returns the base URL of the node owning the given bus, or null when it is this node
+     */
+    public String ownerBaseUrl(Long busId) {
+        if (isLocal(busId)) {
+            return null;
+        }
+        return baseUrls.get(ring.ownerOf(busId));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void register() {
+        if (!enabled) {
+            return;
+        }
+        startedAt = LocalDateTime.now();
+        registered = true;
+        heartbeat();
+        logger.info("Node {} joined the cluster at {}", getNodeId(), advertisedUrl);
+    }
+
+    @Scheduled(fixedDelayString = "${bus.cluster.heartbeat-interval-ms:2000}")
+    public void heartbeat() {
+        if (!enabled || !registered) {
+            return;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            clusterNodeRepository.save(new ClusterNode(getNodeId(), advertisedUrl, startedAt, now));
+            refreshMembers(now);
+        } catch (Exception e) {
+            logger.error("Cluster heartbeat failed for node {}: {}", getNodeId(), e.getMessage());
+        }
+    }
+
+    private void refreshMembers(LocalDateTime now) {
+        Map<String, String> members = new TreeMap<>();
+        for (ClusterNode node : clusterNodeRepository.findByLastHeartbeatAfter(now.minusNanos(heartbeatTimeoutMs * 1_000_000))) {
+            members.put(node.getNodeId(), node.getBaseUrl());
+        }
+        members.put(getNodeId(), advertisedUrl);
+
+        if (!members.keySet().equals(baseUrls.keySet())) {
+            // Membership changed, rebuild the ring so bus ownership is rebalanced
+            logger.info("Cluster membership changed from {} to {}, rebalancing bus ownership",
+                baseUrls.keySet(), members.keySet());
+            ring = ConsistentHashRing.of(members.keySet(), virtualNodes);
+        }
+        baseUrls = Map.copyOf(members);
+    }
+
+    @PreDestroy
+    public void leave() {
+        if (!enabled || !registered) {
+            return;
+        }
+        try {
+            clusterNodeRepository.deleteById(getNodeId());
+            logger.info("Node {} left the cluster", getNodeId());
+        } catch (Exception e) {
+            logger.warn("Could not deregister node {}: {}", getNodeId(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package BusManagementBooking.bus.cluster;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ClusterNodeRepository extends JpaRepository<ClusterNode, String> {
+    List<ClusterNode> findByLastHeartbeatAfter(LocalDateTime cutoff);
+}
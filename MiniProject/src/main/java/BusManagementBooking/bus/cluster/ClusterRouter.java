@@ -0,0 +1,92 @@
+package BusManagementBooking.bus.cluster;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Routes booking writes to the node owning the bus and serializes the
+ * writes of one bus inside its owner, so the check-then-book logic of
+ * BookingServiceImpl never races with another request for the same bus.
+ */
+@Component
+public class ClusterRouter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterRouter.class);
+
+    public static final String FORWARDED_HEADER = "X-Bus-Forwarded-From";
+
+    private static final int LOCK_STRIPES = 256;
+
+    @Autowired
+    private ClusterMembership membership;
+
+    private final RestClient restClient = RestClient.create();
+    private final ReentrantLock[] busLocks = new ReentrantLock[LOCK_STRIPES];
+
+    public ClusterRouter() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            busLocks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Returns true when the request has to be sent to another node.
+     * Requests that were already forwarded once are always handled locally.
+     */
+    public boolean shouldForward(Long busId, String forwardedFrom) {
+        return forwardedFrom == null && membership.ownerBaseUrl(busId) != null;
+    }
+
+    /**
+     * Sends the request to the owner of the bus and relays its response.
+     * Returns null when the owner cannot be reached so the caller can fall
+     * back to handling the request locally until membership catches up.
+     */
+    public ResponseEntity<String> forward(Long busId, HttpMethod method, String path, Object body) {
+        String ownerUrl = membership.ownerBaseUrl(busId);
+        try {
+            RestClient.RequestBodySpec request = restClient.method(method)
+                    .uri(ownerUrl + path)
+                    .header(FORWARDED_HEADER, membership.getNodeId());
+            if (body != null) {
+                request.contentType(MediaType.APPLICATION_JSON).body(body);
+            }
+            return request.retrieve().toEntity(String.class);
+        } catch (RestClientResponseException e) {
+            return ResponseEntity.status(e.getStatusCode())
+                    .headers(e.getResponseHeaders())
+                    .body(e.getResponseBodyAsString());
+        } catch (ResourceAccessException e) {
+            logger.warn("Owner {} of bus {} is unreachable, handling locally: {}", ownerUrl, busId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Runs a write for the given bus while holding its ownership lock
+     */
+    public <T> T runAsOwner(Long busId, OwnerCall<T> write) throws Exception {
+        ReentrantLock lock = busLocks[Math.floorMod(Long.hashCode(busId), LOCK_STRIPES)];
+        lock.lock();
+        try {
+            return write.call();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @FunctionalInterface
+    public interface OwnerCall<T> {
+        T call() throws Exception;
+    }
+}
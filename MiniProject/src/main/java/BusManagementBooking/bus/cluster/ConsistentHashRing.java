@@ -0,0 +1,94 @@
+package BusManagementBooking.bus.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable consistent hash ring mapping bus ids to node ids.
+ * Every node is placed on the ring several times (virtual nodes) so that
+ * adding or removing one node only moves roughly 1/N of the buses.
+ */
+public final class ConsistentHashRing {
+
+    private final long[] points;
+    private final String[] owners;
+    private final List<String> nodeIds;
+
+    private ConsistentHashRing(long[] points, String[] owners, List<String> nodeIds) {
+        this.points = points;
+        this.owners = owners;
+        this.nodeIds = nodeIds;
+    }
+
+    public static ConsistentHashRing of(Collection<String> nodeIds, int virtualNodes) {
+        TreeMap<Long, String> ring = new TreeMap<>();
+        for (String nodeId : nodeIds) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(hash(nodeId + "#" + i), nodeId);
+            }
+        }
+
+        long[] points = new long[ring.size()];
+        String[] owners = new String[ring.size()];
+        int index = 0;
+        for (Map.Entry<Long, String> entry : ring.entrySet()) {
+            points[index] = entry.getKey();
+            owners[index] = entry.getValue();
+            index++;
+        }
+
+        List<String> sortedIds = new ArrayList<>(nodeIds);
+        sortedIds.sort(null);
+        return new ConsistentHashRing(points, owners, List.copyOf(sortedIds));
+    }
+
+    public boolean isEmpty() {
+        return points.length == 0;
+    }
+
+    public List<String> getNodeIds() {
+        return nodeIds;
+    }
+
+    /**
+     * Returns the node owning the given bus, or null when the ring is empty
+     */
+    public String ownerOf(long busId) {
+        if (points.length == 0) {
+            return null;
+        }
+        int index = Arrays.binarySearch(points, mix(busId));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    // Spreads sequential bus ids over the whole ring (splitmix64 finalizer)
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static long hash(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(key.getBytes(StandardCharsets.UTF_8));
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (digest[i] & 0xFF);
+            }
+            return value;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 not available", e);
+        }
+    }
+}
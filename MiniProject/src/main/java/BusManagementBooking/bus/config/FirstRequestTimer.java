@@ -0,0 +1,39 @@
+package BusManagementBooking.bus.config;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Logs how long after JVM start the first request was answered, the number
+ * that matters when a new instance joins during a traffic peak
+ */
+@Component
+public class FirstRequestTimer implements Filter {
+
+    private static final Logger logger = LoggerFactory.getLogger(FirstRequestTimer.class);
+
+    private final AtomicBoolean served = new AtomicBoolean();
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (!served.get() && served.compareAndSet(false, true)) {
+                long sinceJvmStart = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+                logger.info("First request served {} ms after JVM start", sinceJvmStart);
+            }
+        }
+    }
+}
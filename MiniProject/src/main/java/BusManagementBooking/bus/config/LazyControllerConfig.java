@@ -0,0 +1,33 @@
+package BusManagementBooking.bus.config;
+
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Marks the controllers listed in bus.startup.lazy-controllers as lazy, so
+ * they and their handler setup are created on the first request instead of
+ * during startup. Their request mappings are still registered eagerly.
+ */
+@Configuration
+@ConditionalOnProperty(name = "bus.startup.lazy-controllers")
+public class LazyControllerConfig {
+
+    @Bean
+    public static BeanFactoryPostProcessor lazyControllers(Environment environment) {
+        String[] beanNames = environment.getProperty("bus.startup.lazy-controllers", String[].class, new String[0]);
+        return beanFactory -> markLazy(beanFactory, beanNames);
+    }
+
+    private static void markLazy(ConfigurableListableBeanFactory beanFactory, String[] beanNames) {
+        for (String beanName : beanNames) {
+            String name = beanName.trim();
+            if (beanFactory.containsBeanDefinition(name)) {
+                beanFactory.getBeanDefinition(name).setLazyInit(true);
+            }
+        }
+    }
+}
@@ -1,15 +1,23 @@
 package BusManagementBooking.bus.config;
 
+import BusManagementBooking.bus.archive.ArchiveService;
 import BusManagementBooking.bus.buses.Bus;
 import BusManagementBooking.bus.buses.BusService;
 import BusManagementBooking.bus.seats.SeatInitRequestDTO;
+import BusManagementBooking.bus.seats.SeatLayout;
+import BusManagementBooking.bus.seats.SeatRepository;
 import BusManagementBooking.bus.seats.SeatService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.context.event.EventListener;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
 @Configuration
 public class SeatInitializationConfig {
 
@@ -19,19 +27,57 @@ public class SeatInitializationConfig {
     @Autowired
     private SeatService seatService;
     
+    @Autowired
+    private SeatRepository seatRepository;
+    
+    @Autowired
+    private ArchiveService archiveService;
+    
     @Value("${bus.seats.elder.percentage:10}")
     private int elderSeatPercentage;
     
     @Value("${bus.seats.pregnant.percentage:10}")
     private int pregnantSeatPercentage;
     
+    @Value("${bus.seats.init-in-background:false}")
+    private boolean initInBackground;
+    
     /**
      * Initialize seats for buses that don't have seat configurations
      */
     @EventListener
     public void onApplicationEvent(ContextRefreshedEvent event) {
         // This will run once when the application starts
-        busService.getBuses().forEach(this::initializeSeatsIfNeeded);
+        if (!initInBackground) {
+            initializeMissingSeats();
+        }
+    }
+    
+    /**
+     * With bus.seats.init-in-background the check runs once the instance is
+     * already serving, so it does not add to startup time
+     */
+    @EventListener
+    public void onApplicationReady(ApplicationReadyEvent event) {
+        if (initInBackground) {
+            Thread thread = new Thread(this::initializeMissingSeats, "seat-init");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+    
+    private void initializeMissingSeats() {
+        // Buses whose seat map already matches their total seats are left alone so bookings survive restarts
+        Map<Long, Long> seatCounts = new HashMap<>();
+        for (Object[] row : seatRepository.countGroupedByBusId()) {
+            seatCounts.put((Long) row[0], (Long) row[1]);
+        }
+        // Departed buses have no seat rows because their seats were moved to the archive
+        Set<Long> archivedBusIds = archiveService.findArchivedBusIds();
+        busService.getBuses().stream()
+            .filter(bus -> !archivedBusIds.contains(bus.getId()))
+            .filter(bus -> bus.getTotalSeats() == null || seatCounts.getOrDefault(bus.getId(), 0L) != bus.getTotalSeats().longValue())
+            .forEach(this::initializeSeatsIfNeeded);
     }
     
     /**
@@ -44,19 +90,15 @@ public class SeatInitializationConfig {
                 return;
             }
             
-            int totalSeats = bus.getTotalSeats();
-            
             // Calculate seats for each category
-            int elderSeats = (totalSeats * elderSeatPercentage) / 100;
-            int pregnantSeats = (totalSeats * pregnantSeatPercentage) / 100;
-            int regularSeats = totalSeats - elderSeats - pregnantSeats;
+            SeatLayout layout = SeatLayout.forTotalSeats(bus.getTotalSeats(), elderSeatPercentage, pregnantSeatPercentage);
             
             // Create a request DTO and initialize seats
             SeatInitRequestDTO initRequest = new SeatInitRequestDTO(
                 bus.getId(),
-                regularSeats,
-                elderSeats,
-                pregnantSeats
+                layout.getRegularSeats(),
+                layout.getElderSeats(),
+                layout.getPregnantSeats()
             );
             
             seatService.initializeSeatsForBus(
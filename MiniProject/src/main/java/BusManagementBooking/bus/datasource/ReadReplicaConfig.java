@@ -0,0 +1,103 @@
+package BusManagementBooking.bus.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read/write splitting, enabled with bus.datasource.read-replicas.enabled.
+ * The primary is the usual spring.datasource; replicas share its driver and
+ * are listed in bus.datasource.read-replicas.urls.
+ */
+@Configuration
+@ConditionalOnProperty(name = "bus.datasource.read-replicas.enabled", havingValue = "true")
+public class ReadReplicaConfig implements WebMvcConfigurer {
+
+    @Value("${bus.datasource.read-replicas.urls}")
+    private List<String> replicaUrls;
+
+    @Value("${bus.datasource.read-replicas.username:${spring.datasource.username:}}")
+    private String replicaUsername;
+
+    @Value("${bus.datasource.read-replicas.password:${spring.datasource.password:}}")
+    private String replicaPassword;
+
+    @Value("${bus.datasource.read-replicas.max-lag-ms:1000}")
+    private long maxLagMs;
+
+    @Value("${bus.datasource.read-replicas.heartbeat-interval-ms:250}")
+    private long heartbeatIntervalMs;
+
+    @Value("${bus.datasource.read-replicas.sticky-max-ms:60000}")
+    private long stickyMaxMs;
+
+    @Value("${bus.cluster.node-id:}")
+    private String nodeId;
+
+    @Autowired
+    private ObjectProvider<ReadYourWrites> readYourWrites;
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public ReplicaLagMonitor replicaLagMonitor(HikariDataSource primaryDataSource, DataSourceProperties properties) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + (i + 1));
+            replica.setJdbcUrl(replicaUrls.get(i).trim());
+            replica.setUsername(replicaUsername);
+            replica.setPassword(replicaPassword);
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setReadOnly(true);
+            replicas.put(replica.getPoolName(), replica);
+        }
+        // Heartbeat rows are per node so each node compares against its own clock
+        String heartbeatId = nodeId.isEmpty() ? ManagementFactory.getRuntimeMXBean().getName() : nodeId;
+        return new ReplicaLagMonitor(primaryDataSource, replicas, heartbeatId, maxLagMs, heartbeatIntervalMs);
+    }
+
+    @Bean
+    public ReadYourWrites readYourWrites(ReplicaLagMonitor replicaLagMonitor) {
+        return new ReadYourWrites(replicaLagMonitor, stickyMaxMs);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaLagMonitor replicaLagMonitor,
+                                 ReadYourWrites readYourWrites) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(replicaLagMonitor, readYourWrites);
+        Map<Object, Object> targets = new HashMap<>(replicaLagMonitor.getReplicas());
+        targets.put(ReplicaRoutingDataSource.PRIMARY, primaryDataSource);
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(primaryDataSource);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(readYourWrites.getObject());
+    }
+}
@@ -0,0 +1,99 @@
+package BusManagementBooking.bus.datasource;
+
+import BusManagementBooking.bus.booking.BookingEvent;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers when each user last changed a booking so their own reads stay on
+ * the primary until the replicas have caught up. The user of a request comes
+ * from a {userId} path variable or the X-User-Id header.
+ */
+public class ReadYourWrites implements HandlerInterceptor {
+
+    public static final String USER_HEADER = "X-User-Id";
+
+    private static final int SWEEP_THRESHOLD = 10_000;
+
+    private final ThreadLocal<Long> currentUser = new ThreadLocal<>();
+    private final Map<Long, Long> lastWriteAt = new ConcurrentHashMap<>();
+    private final ReplicaLagMonitor lagMonitor;
+    private final long stickyMaxMs;
+
+    public ReadYourWrites(ReplicaLagMonitor lagMonitor, long stickyMaxMs) {
+        this.lagMonitor = lagMonitor;
+        this.stickyMaxMs = stickyMaxMs;
+    }
+
+    @TransactionalEventListener
+    public void onBookingEvent(BookingEvent event) {
+        recordWrite(event.userId());
+    }
+
+    public void recordWrite(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        lastWriteAt.put(userId, now);
+        if (lastWriteAt.size() > SWEEP_THRESHOLD) {
+            lastWriteAt.values().removeIf(writtenAt -> now - writtenAt > stickyMaxMs);
+        }
+    }
+
+    /**
+     * Time of the current user's last write while replicas may still miss it, otherwise null
+     */
+    public Long currentUserWriteTime() {
+        Long userId = currentUser.get();
+        if (userId == null) {
+            return null;
+        }
+        Long writtenAt = lastWriteAt.get(userId);
+        if (writtenAt == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() - writtenAt > stickyMaxMs || lagMonitor.allReplicasPast(writtenAt)) {
+            lastWriteAt.remove(userId, writtenAt);
+            return null;
+        }
+        return writtenAt;
+    }
+
+    public void setCurrentUser(Long userId) {
+        if (userId == null) {
+            currentUser.remove();
+        } else {
+            currentUser.set(userId);
+        }
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String userId = request.getHeader(USER_HEADER);
+        if (userId == null) {
+            Object variables = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+            if (variables instanceof Map<?, ?> pathVariables) {
+                Object value = pathVariables.get("userId");
+                userId = value != null ? value.toString() : null;
+            }
+        }
+        try {
+            setCurrentUser(userId != null ? Long.valueOf(userId) : null);
+        } catch (NumberFormatException e) {
+            setCurrentUser(null);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        currentUser.remove();
+    }
+}
@@ -0,0 +1,23 @@
+package BusManagementBooking.bus.datasource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("datasource")
+@CrossOrigin(origins = "http://localhost:5173", allowCredentials = "true")
+@ConditionalOnProperty(name = "bus.datasource.read-replicas.enabled", havingValue = "true")
+public class ReplicaController {
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @GetMapping("/replicas")
+    public ResponseEntity<Map<String, Object>> getReplicaStats() {
+        return ResponseEntity.ok(replicaLagMonitor.getStats());
+    }
+}
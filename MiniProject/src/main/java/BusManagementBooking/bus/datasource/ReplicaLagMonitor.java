@@ -0,0 +1,173 @@
+package BusManagementBooking.bus.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures replica lag with a heartbeat row: every tick this node writes the
+ * current time to replica_heartbeat on the primary and reads it back from
+ * each replica. A replica showing beat b has applied everything committed on
+ * the primary before b, which also tells whether a user's last write has
+ * reached it. Replicas that fail or fall behind max-lag are skipped.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final JdbcTemplate primary;
+    private final Map<String, DataSource> replicas;
+    private final Map<String, JdbcTemplate> replicaJdbc = new LinkedHashMap<>();
+    private final Map<String, ReplicaState> states = new LinkedHashMap<>();
+    private final List<String> replicaKeys;
+    private final String nodeId;
+    private final long maxLagMs;
+    private final long heartbeatIntervalMs;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final AtomicLong primaryReads = new AtomicLong();
+    private ScheduledExecutorService scheduler;
+
+    private static final class ReplicaState {
+        volatile long observedBeat = -1;
+        volatile long lagMs = -1;
+        volatile boolean healthy;
+        volatile String lastError;
+        final AtomicLong reads = new AtomicLong();
+    }
+
+    public ReplicaLagMonitor(DataSource primary, Map<String, DataSource> replicas, String nodeId,
+                             long maxLagMs, long heartbeatIntervalMs) {
+        this.primary = new JdbcTemplate(primary);
+        this.replicas = replicas;
+        this.nodeId = nodeId;
+        this.maxLagMs = maxLagMs;
+        this.heartbeatIntervalMs = heartbeatIntervalMs;
+        replicas.forEach((key, dataSource) -> {
+            replicaJdbc.put(key, new JdbcTemplate(dataSource));
+            states.put(key, new ReplicaState());
+        });
+        this.replicaKeys = new ArrayList<>(replicas.keySet());
+    }
+
+    public void start() {
+        primary.execute("CREATE TABLE IF NOT EXISTS replica_heartbeat (node_id VARCHAR(64) PRIMARY KEY, beat_at BIGINT NOT NULL)");
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::tick, 0, heartbeatIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        for (DataSource dataSource : replicas.values()) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    logger.warn("Closing replica pool failed: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    void tick() {
+        long now = System.currentTimeMillis();
+        try {
+            if (primary.update("UPDATE replica_heartbeat SET beat_at = ? WHERE node_id = ?", now, nodeId) == 0) {
+                primary.update("INSERT INTO replica_heartbeat (node_id, beat_at) VALUES (?, ?)", nodeId, now);
+            }
+        } catch (Exception e) {
+            logger.error("Writing replica heartbeat failed: {}", e.getMessage());
+        }
+
+        replicaJdbc.forEach((key, jdbc) -> {
+            ReplicaState state = states.get(key);
+            try {
+                List<Long> beats = jdbc.queryForList("SELECT beat_at FROM replica_heartbeat WHERE node_id = ?", Long.class, nodeId);
+                if (beats.isEmpty()) {
+                    state.healthy = false;
+                    state.lastError = "no heartbeat replicated yet";
+                    return;
+                }
+                long beat = beats.get(0);
+                state.observedBeat = beat;
+                state.lagMs = Math.max(0, System.currentTimeMillis() - beat);
+                state.healthy = state.lagMs <= maxLagMs;
+                state.lastError = state.healthy ? null : "lag " + state.lagMs + " ms";
+            } catch (Exception e) {
+                state.healthy = false;
+                state.lastError = e.getMessage();
+            }
+        });
+    }
+
+    /**
+     * Picks a healthy replica round robin. With writtenAt set, only replicas
+     * that have replicated a heartbeat written after that time qualify.
+     * Returns null when the primary has to serve the read.
+     */
+    public String pickReplica(Long writtenAt) {
+        int size = replicaKeys.size();
+        int start = Math.floorMod(nextReplica.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            String key = replicaKeys.get((start + i) % size);
+            ReplicaState state = states.get(key);
+            if (state.healthy && (writtenAt == null || state.observedBeat > writtenAt)) {
+                state.reads.incrementAndGet();
+                return key;
+            }
+        }
+        primaryReads.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * True when every healthy replica has caught up with a write made at the given time.
+     * Unhealthy replicas serve no reads, so they do not hold the write back.
+     */
+    public boolean allReplicasPast(long writtenAt) {
+        for (ReplicaState state : states.values()) {
+            if (state.healthy && state.observedBeat <= writtenAt) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public Map<String, DataSource> getReplicas() {
+        return replicas;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        Map<String, Object> replicaStats = new LinkedHashMap<>();
+        states.forEach((key, state) -> {
+            Map<String, Object> s = new HashMap<>();
+            s.put("healthy", state.healthy);
+            s.put("lagMs", state.lagMs);
+            s.put("reads", state.reads.get());
+            s.put("lastError", state.lastError);
+            replicaStats.put(key, s);
+        });
+        stats.put("replicas", replicaStats);
+        stats.put("readsOnPrimary", primaryReads.get());
+        stats.put("maxLagMs", maxLagMs);
+        return stats;
+    }
+}
@@ -0,0 +1,56 @@
+package BusManagementBooking.bus.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * Sends read-only transactions to a replica and everything else to the
+ * primary. A replica is only chosen when it is within the allowed lag and,
+ * for a user who just booked, has already replicated that user's write.
+ * Must sit behind a LazyConnectionDataSourceProxy so the connection is taken
+ * after the transaction has been marked read-only.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    private static final ThreadLocal<Integer> PRIMARY_DEPTH = ThreadLocal.withInitial(() -> 0);
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final ReadYourWrites readYourWrites;
+
+    public ReplicaRoutingDataSource(ReplicaLagMonitor lagMonitor, ReadYourWrites readYourWrites) {
+        this.lagMonitor = lagMonitor;
+        this.readYourWrites = readYourWrites;
+    }
+
+    /**
+     * Runs a read on the primary even inside a read-only transaction. Used by
+     * loaders that refill caches right after an invalidation, where a lagging
+     * replica would cache the old value again.
+     */
+    public static <T> T onPrimary(Supplier<T> read) {
+        PRIMARY_DEPTH.set(PRIMARY_DEPTH.get() + 1);
+        try {
+            return read.get();
+        } finally {
+            int depth = PRIMARY_DEPTH.get() - 1;
+            if (depth == 0) {
+                PRIMARY_DEPTH.remove();
+            } else {
+                PRIMARY_DEPTH.set(depth);
+            }
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || PRIMARY_DEPTH.get() > 0) {
+            return PRIMARY;
+        }
+        String replica = lagMonitor.pickReplica(readYourWrites.currentUserWriteTime());
+        return replica != null ? replica : PRIMARY;
+    }
+}
@@ -0,0 +1,39 @@
+package BusManagementBooking.bus.idempotency;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+    /**
+     * Plain insert, so two nodes claiming the same key race on the primary key
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "insert into idempotency_keys (idempotency_key, fingerprint, created_at) values (:key, :fingerprint, :createdAt)",
+        nativeQuery = true)
+    int claim(String key, String fingerprint, long createdAt);
+
+    @Modifying
+    @Transactional
+    @Query("update IdempotencyRecord r set r.statusCode = :statusCode, r.contentType = :contentType, r.body = :body, "
+        + "r.completedAt = :completedAt where r.key = :key")
+    int complete(String key, int statusCode, String contentType, String body, long completedAt);
+
+    /**
+     * Drops an in-flight claim, either our own after a result that must not be
+     * replayed or one whose node stopped answering before the cutoff
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from IdempotencyRecord r where r.key = :key and r.completedAt is null and r.createdAt <= :cutoff")
+    int release(String key, long cutoff);
+
+    @Modifying
+    @Transactional
+    @Query("delete from IdempotencyRecord r where r.createdAt < :cutoff")
+    int deleteOlderThan(long cutoff);
+}
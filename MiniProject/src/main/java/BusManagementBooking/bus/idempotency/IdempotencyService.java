@@ -0,0 +1,19 @@
+package BusManagementBooking.bus.idempotency;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+public interface IdempotencyService {
+    String HEADER = "Idempotency-Key";
+    String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    /**
+     * Runs the request once per key. Retries with the same key and request get
+     * the stored response; a retry arriving while the first one still runs
+     * waits for it. Reusing a key for a different request answers 422.
+     */
+    ResponseEntity<?> execute(String scope, String key, Object request, Callable<ResponseEntity<?>> action) throws Exception;
+    Map<String, Object> getStats();
+}
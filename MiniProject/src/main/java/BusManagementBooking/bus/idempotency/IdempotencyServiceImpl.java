@@ -0,0 +1,384 @@
+package BusManagementBooking.bus.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps recent responses in a bounded in-memory store that expires entries
+ * in insertion order, backed by the idempotency_keys table for keys that were
+ * evicted or first seen on another node. The table row doubles as a claim:
+ * whoever inserts it runs the request, everyone else waits for its result.
+ * Only outcomes that a retry would repeat are stored (2xx and 400, 404, 410,
+ * 422); rate limits, conflicts, missing waiting-room passes and server errors
+ * release the key so the client can retry for real. Bodies too long for the
+ * table are kept in memory only; the row is still completed, so other nodes
+ * replay the status without the body instead of running the request again.
+ */
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyServiceImpl.class);
+
+    static final int MAX_KEY_LENGTH = 100;
+    private static final int MAX_STORED_BODY = 4000;
+    private static final Set<Integer> FINAL_ERRORS = Set.of(400, 404, 410, 422);
+    // Claim rounds lost to a row that vanished before it could be read
+    private static final int MAX_CLAIM_RETRIES = 5;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${bus.idempotency.memory.max-entries:100000}")
+    private int maxEntries;
+
+    @Value("${bus.idempotency.memory.ttl-ms:600000}")
+    private long memoryTtlMs;
+
+    @Value("${bus.idempotency.retention-ms:86400000}")
+    private long retentionMs;
+
+    @Value("${bus.idempotency.wait-timeout-ms:10000}")
+    private long waitTimeoutMs;
+
+    @Value("${bus.idempotency.abandon-after-ms:60000}")
+    private long abandonAfterMs;
+
+    @Value("${bus.idempotency.poll-ms:50}")
+    private long pollMs;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<String> insertionOrder = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong executed = new AtomicLong();
+    private final AtomicLong memoryReplays = new AtomicLong();
+    private final AtomicLong databaseReplays = new AtomicLong();
+    private final AtomicLong waitedInFlight = new AtomicLong();
+    private final AtomicLong mismatches = new AtomicLong();
+    private final AtomicLong conflicts = new AtomicLong();
+    private final AtomicLong released = new AtomicLong();
+
+    @Override
+    public ResponseEntity<?> execute(String scope, String key, Object request, Callable<ResponseEntity<?>> action) throws Exception {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        String storeKey = scope + ":" + key;
+        String fingerprint = fingerprint(scope, request);
+        long now = System.currentTimeMillis();
+
+        Entry mine = new Entry(fingerprint, now + memoryTtlMs);
+        Entry existing = entries.putIfAbsent(storeKey, mine);
+        if (existing != null && existing.isExpired(now)) {
+            entries.remove(storeKey, existing);
+            existing = entries.putIfAbsent(storeKey, mine);
+        }
+        if (existing != null) {
+            if (!existing.fingerprint.equals(fingerprint)) {
+                mismatches.incrementAndGet();
+                return mismatch();
+            }
+            if (!existing.result.isDone()) {
+                waitedInFlight.incrementAndGet();
+            }
+            StoredResponse stored = await(existing.result);
+            if (stored == null) {
+                conflicts.incrementAndGet();
+                return inProgress();
+            }
+            memoryReplays.incrementAndGet();
+            return replay(stored);
+        }
+
+        insertionOrder.add(storeKey);
+        if (entries.size() > maxEntries) {
+            evict(now);
+        }
+        return lead(storeKey, fingerprint, mine, action);
+    }
+
+    /**
+     * Runs the request for the first caller of a key on this node, unless the
+     * table shows another node ran it or is running it
+     */
+    private ResponseEntity<?> lead(String storeKey, String fingerprint, Entry mine, Callable<ResponseEntity<?>> action) throws Exception {
+        ResponseEntity<?> response;
+        try {
+            Optional<IdempotencyRecord> other;
+            try {
+                other = claim(storeKey, fingerprint);
+            } catch (TimeoutException e) {
+                // Not released: the row that keeps coming back belongs to someone else
+                conflicts.incrementAndGet();
+                forget(storeKey, mine, null);
+                return inProgress();
+            }
+            if (other.isPresent()) {
+                IdempotencyRecord record = other.get();
+                if (!record.getFingerprint().equals(fingerprint)) {
+                    mismatches.incrementAndGet();
+                    forget(storeKey, mine, null);
+                    return mismatch();
+                }
+                if (record.getCompletedAt() == null) {
+                    conflicts.incrementAndGet();
+                    forget(storeKey, mine, null);
+                    return inProgress();
+                }
+                StoredResponse stored = new StoredResponse(record.getStatusCode(), record.getContentType(), record.getBody());
+                mine.result.complete(stored);
+                databaseReplays.incrementAndGet();
+                return replay(stored);
+            }
+
+            executed.incrementAndGet();
+            response = action.call();
+        } catch (Exception | Error e) {
+            release(storeKey);
+            entries.remove(storeKey, mine);
+            mine.result.completeExceptionally(e);
+            throw e;
+        }
+
+        StoredResponse stored = toStored(response);
+        int status = stored.statusCode();
+        boolean storable = (status >= 200 && status < 300) || FINAL_ERRORS.contains(status);
+        if (storable) {
+            boolean bodyFits = stored.body() == null || stored.body().length() <= MAX_STORED_BODY;
+            try {
+                idempotencyRecordRepository.complete(storeKey, status, bodyFits ? stored.contentType() : null,
+                    bodyFits ? stored.body() : null, System.currentTimeMillis());
+            } catch (Exception e) {
+                // Still replayed from memory on this node
+                logger.warn("Storing idempotent response for {} failed: {}", storeKey, e.getMessage());
+            }
+            mine.result.complete(stored);
+        } else {
+            release(storeKey);
+            released.incrementAndGet();
+            forget(storeKey, mine, stored);
+        }
+        return response;
+    }
+
+    /**
+     * Inserts the claim row and returns empty, or returns the row another
+     * request got in first with once it is complete or the wait is over.
+     * Throws TimeoutException when the row keeps disappearing between the
+     * insert and the read.
+     */
+    private Optional<IdempotencyRecord> claim(String storeKey, String fingerprint) throws InterruptedException, TimeoutException {
+        long deadline = System.currentTimeMillis() + waitTimeoutMs;
+        boolean waited = false;
+        int retries = 0;
+        while (true) {
+            long now = System.currentTimeMillis();
+            try {
+                idempotencyRecordRepository.claim(storeKey, fingerprint, now);
+                return Optional.empty();
+            } catch (DataIntegrityViolationException e) {
+                // Claimed before, by us earlier or by another node
+            }
+            Optional<IdempotencyRecord> record = idempotencyRecordRepository.findById(storeKey);
+            if (record.isEmpty()) {
+                // Released in between by the request that held it
+                backOff(storeKey, ++retries);
+                continue;
+            }
+            IdempotencyRecord claimed = record.get();
+            if (claimed.getCompletedAt() != null || !claimed.getFingerprint().equals(fingerprint) || now >= deadline) {
+                return record;
+            }
+            if (claimed.getCreatedAt() < now - abandonAfterMs) {
+                // Its node went away mid-request; the request may or may not have taken effect
+                idempotencyRecordRepository.release(storeKey, now - abandonAfterMs);
+                backOff(storeKey, ++retries);
+                continue;
+            }
+            if (!waited) {
+                waitedInFlight.incrementAndGet();
+                waited = true;
+            }
+            Thread.sleep(pollMs);
+        }
+    }
+
+    private void backOff(String storeKey, int retries) throws InterruptedException, TimeoutException {
+        if (retries > MAX_CLAIM_RETRIES) {
+            throw new TimeoutException("Claim on " + storeKey + " was lost " + retries + " times");
+        }
+        Thread.sleep(Math.min(pollMs, 1L << retries));
+    }
+
+    private void release(String storeKey) {
+        try {
+            idempotencyRecordRepository.release(storeKey, Long.MAX_VALUE);
+        } catch (Exception e) {
+            logger.warn("Releasing idempotency key {} failed: {}", storeKey, e.getMessage());
+        }
+    }
+
+    /**
+     * Hands the result to callers already waiting and drops the entry, so the next retry runs again
+     */
+    private void forget(String storeKey, Entry entry, StoredResponse result) {
+        entries.remove(storeKey, entry);
+        entry.result.complete(result);
+    }
+
+    private StoredResponse await(CompletableFuture<StoredResponse> result) throws Exception {
+        try {
+            return result.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return null;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private StoredResponse toStored(ResponseEntity<?> response) throws Exception {
+        Object body = response.getBody();
+        MediaType contentType = response.getHeaders().getContentType();
+        if (body == null) {
+            return new StoredResponse(response.getStatusCode().value(), null, null);
+        }
+        if (body instanceof String text) {
+            return new StoredResponse(response.getStatusCode().value(),
+                contentType != null ? contentType.toString() : MediaType.TEXT_PLAIN_VALUE, text);
+        }
+        return new StoredResponse(response.getStatusCode().value(),
+            contentType != null ? contentType.toString() : MediaType.APPLICATION_JSON_VALUE, objectMapper.writeValueAsString(body));
+    }
+
+    private static ResponseEntity<?> replay(StoredResponse stored) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(stored.statusCode()).header(REPLAYED_HEADER, "true");
+        if (stored.body() == null) {
+            return builder.build();
+        }
+        return builder.contentType(MediaType.parseMediaType(stored.contentType())).body(stored.body());
+    }
+
+    private static ResponseEntity<?> mismatch() {
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                .body(HEADER + " was already used for a different request");
+    }
+
+    private static ResponseEntity<?> inProgress() {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body("A request with this " + HEADER + " is still being processed, retry later");
+    }
+
+    private String fingerprint(String scope, Object request) throws Exception {
+        byte[] json = objectMapper.writeValueAsBytes(request);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(scope.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest(json));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Drops expired entries oldest first, and the oldest finished ones beyond
+     * the size limit; requests still running are never dropped
+     */
+    private void evict(long now) {
+        int checked = insertionOrder.size();
+        while (checked-- > 0) {
+            String storeKey = insertionOrder.peek();
+            if (storeKey == null) {
+                return;
+            }
+            Entry entry = entries.get(storeKey);
+            if (entry == null) {
+                insertionOrder.poll();
+                continue;
+            }
+            boolean overLimit = entries.size() > maxEntries;
+            if (!entry.isExpired(now) && !overLimit) {
+                return;
+            }
+            insertionOrder.poll();
+            if (entry.result.isDone()) {
+                entries.remove(storeKey, entry);
+            } else {
+                insertionOrder.add(storeKey);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${bus.idempotency.cleanup-interval-ms:60000}")
+    public void cleanup() {
+        long now = System.currentTimeMillis();
+        evict(now);
+        try {
+            idempotencyRecordRepository.deleteOlderThan(now - retentionMs);
+        } catch (Exception e) {
+            logger.error("Cleaning up idempotency keys failed: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("executed", executed.get());
+        stats.put("memoryReplays", memoryReplays.get());
+        stats.put("databaseReplays", databaseReplays.get());
+        stats.put("waitedInFlight", waitedInFlight.get());
+        stats.put("keyMismatches", mismatches.get());
+        stats.put("inProgressConflicts", conflicts.get());
+        stats.put("released", released.get());
+        stats.put("memoryEntries", entries.size());
+        return stats;
+    }
+
+    record StoredResponse(int statusCode, String contentType, String body) {}
+
+    private static final class Entry {
+        private final String fingerprint;
+        private final long expiresAt;
+        private final CompletableFuture<StoredResponse> result = new CompletableFuture<>();
+
+        Entry(String fingerprint, long expiresAt) {
+            this.fingerprint = fingerprint;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return expiresAt <= now && result.isDone();
+        }
+    }
+}
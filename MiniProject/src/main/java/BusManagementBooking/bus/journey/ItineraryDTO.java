@@ -0,0 +1,76 @@
+package BusManagementBooking.bus.journey;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ItineraryDTO {
+    private List<JourneyLegDTO> legs = new ArrayList<>();
+    private LocalDateTime departure;
+    private LocalDateTime arrival;
+    private long durationMinutes;
+    private BigDecimal totalPrice;
+    private int transfers;
+
+    public ItineraryDTO() {}
+
+    public ItineraryDTO(List<JourneyLegDTO> legs) {
+        this.legs = legs;
+        this.departure = legs.get(0).getDeparture();
+        this.arrival = legs.get(legs.size() - 1).getArrival();
+        this.durationMinutes = Duration.between(departure, arrival).toMinutes();
+        this.totalPrice = legs.stream().map(JourneyLegDTO::getPrice).reduce(BigDecimal.ZERO, BigDecimal::add);
+        this.transfers = legs.size() - 1;
+    }
+
+    // Getters and Setters
+    public List<JourneyLegDTO> getLegs() {
+        return legs;
+    }
+
+    public void setLegs(List<JourneyLegDTO> legs) {
+        this.legs = legs;
+    }
+
+    public LocalDateTime getDeparture() {
+        return departure;
+    }
+
+    public void setDeparture(LocalDateTime departure) {
+        this.departure = departure;
+    }
+
+    public LocalDateTime getArrival() {
+        return arrival;
+    }
+
+    public void setArrival(LocalDateTime arrival) {
+        this.arrival = arrival;
+    }
+
+    public long getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    public void setDurationMinutes(long durationMinutes) {
+        this.durationMinutes = durationMinutes;
+    }
+
+    public BigDecimal getTotalPrice() {
+        return totalPrice;
+    }
+
+    public void setTotalPrice(BigDecimal totalPrice) {
+        this.totalPrice = totalPrice;
+    }
+
+    public int getTransfers() {
+        return transfers;
+    }
+
+    public void setTransfers(int transfers) {
+        this.transfers = transfers;
+    }
+}
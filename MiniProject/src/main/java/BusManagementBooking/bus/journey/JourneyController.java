@@ -0,0 +1,61 @@
+package BusManagementBooking.bus.journey;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("journey")
+@CrossOrigin(origins = "http://localhost:5173", allowCredentials = "true")
+public class JourneyController {
+
+    @Autowired
+    private JourneyService journeyService;
+
+    @GetMapping("/health")
+    public String checkAlive() {
+        return "Journey Controller is alive!";
+    }
+
+    @GetMapping
+    public ResponseEntity<?> planJourney(
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime departAfter,
+            @RequestParam(defaultValue = "earliest") String optimize,
+            @RequestParam(defaultValue = "1") int seats,
+            @RequestParam(required = false) Integer minConnectionMinutes) {
+        try {
+            LocalDateTime after = departAfter != null ? departAfter : LocalDateTime.now();
+            Optional<ItineraryDTO> itinerary;
+            switch (optimize) {
+                case "earliest":
+                    itinerary = journeyService.findEarliestArrival(from, to, after, seats, minConnectionMinutes);
+                    break;
+                case "cheapest":
+                    itinerary = journeyService.findCheapest(from, to, after, seats, minConnectionMinutes);
+                    break;
+                default:
+                    return ResponseEntity.badRequest().body("Invalid optimize: " + optimize + ". Valid values are: earliest, cheapest");
+            }
+            if (itinerary.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body("No journey found from " + from + " to " + to);
+            }
+            return ResponseEntity.ok(itinerary.get());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(journeyService.getStats());
+    }
+}
@@ -0,0 +1,356 @@
+package BusManagementBooking.bus.journey;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable timetable of every trip, stored as elementary connections (one
+ * bus between two consecutive stops) in parallel arrays sorted by departure.
+ * Queries run the Connection Scan Algorithm over it: one pass over the
+ * connections departing inside the search window, which makes them linear in
+ * the window instead of in the whole timetable. Updates copy the arrays once
+ * and merge the changed trips in, so queries never see a half-applied change.
+ * Times are minutes since the epoch.
+ */
+final class JourneyGraph {
+
+    static final JourneyGraph EMPTY = new JourneyGraph(new Trip[0], Map.of(), new String[0], Map.of(),
+        new int[0], new int[0], new int[0], new int[0], new int[0]);
+
+    private static final int UNREACHED = Integer.MAX_VALUE;
+
+    private final Trip[] trips;
+    private final Map<Long, Trip> tripsByBus;
+    private final String[] stopNames;
+    private final Map<String, Integer> stopIds;
+
+    // Connection c runs trips[trip[c]] from stop depStop[c] at depTime[c] to arrStop[c] at arrTime[c]
+    private final int[] depStop;
+    private final int[] arrStop;
+    private final int[] depTime;
+    private final int[] arrTime;
+    private final int[] trip;
+
+    private JourneyGraph(Trip[] trips, Map<Long, Trip> tripsByBus, String[] stopNames, Map<String, Integer> stopIds,
+                         int[] depStop, int[] arrStop, int[] depTime, int[] arrTime, int[] trip) {
+        this.trips = trips;
+        this.tripsByBus = tripsByBus;
+        this.stopNames = stopNames;
+        this.stopIds = stopIds;
+        this.depStop = depStop;
+        this.arrStop = arrStop;
+        this.depTime = depTime;
+        this.arrTime = arrTime;
+        this.trip = trip;
+    }
+
+    /**
+     * Returns a graph without the trips of the removed buses and with the
+     * added trips, which replace any earlier trip of the same bus
+     */
+    JourneyGraph update(Set<Long> removedBusIds, Collection<Trip> added) {
+        if (removedBusIds.isEmpty() && added.isEmpty()) {
+            return this;
+        }
+        Map<Long, Trip> addedByBus = new HashMap<>();
+        for (Trip t : added) {
+            addedByBus.put(t.busId, t);
+        }
+
+        // Stops are only ever added, so stop ids stay valid across versions
+        Map<String, Integer> newStopIds = stopIds;
+        List<String> newStopNames = null;
+        for (Trip t : addedByBus.values()) {
+            for (String stop : t.stops) {
+                String key = stopKey(stop);
+                if (!newStopIds.containsKey(key)) {
+                    if (newStopNames == null) {
+                        newStopIds = new HashMap<>(stopIds);
+                        newStopNames = new ArrayList<>(Arrays.asList(stopNames));
+                    }
+                    newStopIds.put(key, newStopNames.size());
+                    newStopNames.add(stop);
+                }
+            }
+        }
+
+        // Surviving trips keep their relative order, added ones go last
+        int[] remap = new int[trips.length];
+        List<Trip> newTrips = new ArrayList<>(trips.length + addedByBus.size());
+        for (int i = 0; i < trips.length; i++) {
+            Long busId = trips[i].busId;
+            if (removedBusIds.contains(busId) || addedByBus.containsKey(busId)) {
+                remap[i] = -1;
+            } else {
+                remap[i] = newTrips.size();
+                newTrips.add(trips[i]);
+            }
+        }
+        int firstAdded = newTrips.size();
+        newTrips.addAll(addedByBus.values());
+
+        // Connections of the added trips, sorted, then merged into the kept ones
+        int addedCount = 0;
+        for (int i = firstAdded; i < newTrips.size(); i++) {
+            addedCount += newTrips.get(i).stops.length - 1;
+        }
+        long[] addedOrder = new long[addedCount];
+        int[][] addedConnections = new int[addedCount][];
+        int n = 0;
+        for (int i = firstAdded; i < newTrips.size(); i++) {
+            Trip t = newTrips.get(i);
+            for (int s = 0; s + 1 < t.stops.length; s++) {
+                addedConnections[n] = new int[] {
+                    newStopIds.get(stopKey(t.stops[s])), newStopIds.get(stopKey(t.stops[s + 1])), t.times[s], t.times[s + 1], i
+                };
+                addedOrder[n] = ((long) t.times[s] << 32) | n;
+                n++;
+            }
+        }
+        Arrays.sort(addedOrder);
+
+        int capacity = depStop.length + addedCount;
+        int[] nDepStop = new int[capacity];
+        int[] nArrStop = new int[capacity];
+        int[] nDepTime = new int[capacity];
+        int[] nArrTime = new int[capacity];
+        int[] nTrip = new int[capacity];
+        int out = 0;
+        int next = 0;
+        for (int c = 0; c <= depStop.length; c++) {
+            int limit = c < depStop.length ? depTime[c] : Integer.MAX_VALUE;
+            while (next < addedCount && (int) (addedOrder[next] >>> 32) <= limit) {
+                int[] connection = addedConnections[(int) addedOrder[next]];
+                nDepStop[out] = connection[0];
+                nArrStop[out] = connection[1];
+                nDepTime[out] = connection[2];
+                nArrTime[out] = connection[3];
+                nTrip[out] = connection[4];
+                out++;
+                next++;
+            }
+            if (c == depStop.length || remap[trip[c]] < 0) {
+                continue;
+            }
+            nDepStop[out] = depStop[c];
+            nArrStop[out] = arrStop[c];
+            nDepTime[out] = depTime[c];
+            nArrTime[out] = arrTime[c];
+            nTrip[out] = remap[trip[c]];
+            out++;
+        }
+
+        Map<Long, Trip> newTripsByBus = new HashMap<>(newTrips.size() * 2);
+        for (Trip t : newTrips) {
+            newTripsByBus.put(t.busId, t);
+        }
+        return new JourneyGraph(newTrips.toArray(new Trip[0]), newTripsByBus,
+            newStopNames != null ? newStopNames.toArray(new String[0]) : stopNames, newStopIds,
+            Arrays.copyOf(nDepStop, out), Arrays.copyOf(nArrStop, out), Arrays.copyOf(nDepTime, out),
+            Arrays.copyOf(nArrTime, out), Arrays.copyOf(nTrip, out));
+    }
+
+    Trip tripOf(Long busId) {
+        return tripsByBus.get(busId);
+    }
+
+    int tripCount() {
+        return trips.length;
+    }
+
+    int connectionCount() {
+        return depStop.length;
+    }
+
+    int stopCount() {
+        return stopNames.length;
+    }
+
+    /**
+     * Itinerary arriving first at the destination. The first bus leaves the
+     * origin between departAfter and departBefore, no connection departs
+     * after horizon. Staying on a bus needs no connection time, changing
+     * buses needs minConnection minutes.
+     */
+    List<Leg> earliestArrival(String from, String to, int departAfter, int departBefore, int horizon, int seats, int minConnection) {
+        Integer origin = stopIds.get(stopKey(from));
+        Integer destination = stopIds.get(stopKey(to));
+        if (origin == null || destination == null || origin.equals(destination)) {
+            return List.of();
+        }
+
+        int[] earliest = new int[stopNames.length];
+        int[] enteredAt = new int[stopNames.length];
+        int[] reachedBy = new int[stopNames.length];
+        int[] boardedAt = new int[trips.length];
+        Arrays.fill(earliest, UNREACHED);
+        Arrays.fill(boardedAt, -1);
+        earliest[origin] = departAfter;
+
+        for (int c = firstDepartingAt(departAfter); c < depStop.length; c++) {
+            if (depTime[c] >= earliest[destination] || depTime[c] > horizon) {
+                break;
+            }
+            int t = trip[c];
+            if (boardedAt[t] < 0) {
+                int stop = depStop[c];
+                if (earliest[stop] == UNREACHED || trips[t].availableSeats < seats) {
+                    continue;
+                }
+                boolean canBoard = stop == origin
+                    ? depTime[c] <= departBefore
+                    : earliest[stop] + minConnection <= depTime[c];
+                if (!canBoard) {
+                    continue;
+                }
+                boardedAt[t] = c;
+            }
+            int stop = arrStop[c];
+            if (arrTime[c] < earliest[stop]) {
+                earliest[stop] = arrTime[c];
+                enteredAt[stop] = boardedAt[t];
+                reachedBy[stop] = c;
+            }
+        }
+        if (earliest[destination] == UNREACHED) {
+            return List.of();
+        }
+
+        List<Leg> legs = new ArrayList<>();
+        for (int stop = destination; stop != origin; stop = depStop[enteredAt[stop]]) {
+            legs.add(leg(enteredAt[stop], reachedBy[stop]));
+        }
+        Collections.reverse(legs);
+        return legs;
+    }
+
+    /**
+     * Itinerary with the lowest total fare (one ticket per bus), earliest
+     * arrival among equally cheap ones, using at most maxLegs buses that all
+     * depart by horizon, leaving the origin between departAfter and
+     * departBefore and connecting with minConnection minutes. Keeps the
+     * Pareto set of (arrival, fare, legs) labels per stop.
+     */
+    List<Leg> cheapest(String from, String to, int departAfter, int departBefore, int horizon, int seats, int minConnection,
+                       int maxLegs) {
+        Integer origin = stopIds.get(stopKey(from));
+        Integer destination = stopIds.get(stopKey(to));
+        if (origin == null || destination == null || origin.equals(destination)) {
+            return List.of();
+        }
+
+        @SuppressWarnings("unchecked")
+        List<Label>[] labels = new List[stopNames.length];
+        Label start = new Label(origin, departAfter, 0, 0, null, -1, -1);
+        labels[origin] = new ArrayList<>(List.of(start));
+        Label[] boardedFrom = new Label[trips.length];
+        int[] boardedAt = new int[trips.length];
+        Label best = null;
+
+        for (int c = firstDepartingAt(departAfter); c < depStop.length && depTime[c] <= horizon; c++) {
+            int t = trip[c];
+            Trip current = trips[t];
+            if (current.availableSeats < seats) {
+                continue;
+            }
+
+            // Boarding here may be cheaper than where this trip was boarded so far
+            List<Label> waiting = labels[depStop[c]];
+            if (waiting != null) {
+                for (Label label : waiting) {
+                    int ready = label.arrival + (label.previous == null ? 0 : minConnection);
+                    if (ready > depTime[c] || label.legs >= maxLegs || label.previous == null && depTime[c] > departBefore) {
+                        continue;
+                    }
+                    long fare = label.fare + current.priceCents;
+                    if (best != null && fare > best.fare) {
+                        continue;
+                    }
+                    if (boardedFrom[t] == null || fare < boardedFrom[t].fare + current.priceCents
+                            || fare == boardedFrom[t].fare + current.priceCents && label.legs < boardedFrom[t].legs) {
+                        boardedFrom[t] = label;
+                        boardedAt[t] = c;
+                    }
+                }
+            }
+            Label boarding = boardedFrom[t];
+            if (boarding == null) {
+                continue;
+            }
+
+            Label arrived = new Label(arrStop[c], arrTime[c], boarding.fare + current.priceCents, boarding.legs + 1,
+                boarding, boardedAt[t], c);
+            if (insert(labels, arrived) && arrived.stop == destination
+                    && (best == null || arrived.fare < best.fare || arrived.fare == best.fare && arrived.arrival < best.arrival)) {
+                best = arrived;
+            }
+        }
+        if (best == null) {
+            return List.of();
+        }
+
+        List<Leg> legs = new ArrayList<>();
+        for (Label label = best; label.previous != null; label = label.previous) {
+            legs.add(leg(label.enteredAt, label.reachedBy));
+        }
+        Collections.reverse(legs);
+        return legs;
+    }
+
+    /**
+     * Adds the label unless one at the same stop is at least as good in
+     * arrival, fare and legs, dropping the ones it beats
+     */
+    private static boolean insert(List<Label>[] labels, Label label) {
+        List<Label> atStop = labels[label.stop];
+        if (atStop == null) {
+            atStop = new ArrayList<>(4);
+            labels[label.stop] = atStop;
+        }
+        for (Label other : atStop) {
+            if (other.arrival <= label.arrival && other.fare <= label.fare && other.legs <= label.legs) {
+                return false;
+            }
+        }
+        atStop.removeIf(other -> label.arrival <= other.arrival && label.fare <= other.fare && label.legs <= other.legs
+            && other.previous != null);
+        atStop.add(label);
+        return true;
+    }
+
+    private Leg leg(int enteredAt, int reachedBy) {
+        return new Leg(trips[trip[enteredAt]], stopNames[depStop[enteredAt]], stopNames[arrStop[reachedBy]],
+            depTime[enteredAt], arrTime[reachedBy]);
+    }
+
+    private int firstDepartingAt(int time) {
+        int low = 0;
+        int high = depTime.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (depTime[mid] < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    static String stopKey(String stop) {
+        return stop.trim().toLowerCase();
+    }
+
+    /**
+     * One bus of an itinerary, from where it is boarded to where it is left
+     */
+    record Leg(Trip trip, String from, String to, int departure, int arrival) {}
+
+    private record Label(int stop, int arrival, long fare, int legs, Label previous, int enteredAt, int reachedBy) {}
+}
@@ -0,0 +1,94 @@
+package BusManagementBooking.bus.journey;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public class JourneyLegDTO {
+    private Long busId;
+    private String busName;
+    private String from;
+    private String to;
+    private LocalDateTime departure;
+    private LocalDateTime arrival;
+    private BigDecimal price;
+    private int availableSeats;
+
+    public JourneyLegDTO() {}
+
+    public JourneyLegDTO(Long busId, String busName, String from, String to, LocalDateTime departure,
+                         LocalDateTime arrival, BigDecimal price, int availableSeats) {
+        this.busId = busId;
+        this.busName = busName;
+        this.from = from;
+        this.to = to;
+        this.departure = departure;
+        this.arrival = arrival;
+        this.price = price;
+        this.availableSeats = availableSeats;
+    }
+
+    // Getters and Setters
+    public Long getBusId() {
+        return busId;
+    }
+
+    public void setBusId(Long busId) {
+        this.busId = busId;
+    }
+
+    public String getBusName() {
+        return busName;
+    }
+
+    public void setBusName(String busName) {
+        this.busName = busName;
+    }
+
+    public String getFrom() {
+        return from;
+    }
+
+    public void setFrom(String from) {
+        this.from = from;
+    }
+
+    public String getTo() {
+        return to;
+    }
+
+    public void setTo(String to) {
+        this.to = to;
+    }
+
+    public LocalDateTime getDeparture() {
+        return departure;
+    }
+
+    public void setDeparture(LocalDateTime departure) {
+        this.departure = departure;
+    }
+
+    public LocalDateTime getArrival() {
+        return arrival;
+    }
+
+    public void setArrival(LocalDateTime arrival) {
+        this.arrival = arrival;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    public int getAvailableSeats() {
+        return availableSeats;
+    }
+
+    public void setAvailableSeats(int availableSeats) {
+        this.availableSeats = availableSeats;
+    }
+}
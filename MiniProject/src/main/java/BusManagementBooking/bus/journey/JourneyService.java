@@ -0,0 +1,15 @@
+package BusManagementBooking.bus.journey;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+
+public interface JourneyService {
+    /**
+     * Itinerary reaching the destination first, changing buses where needed.
+     * A null minConnectionMinutes uses bus.journey.min-connection-minutes.
+     */
+    Optional<ItineraryDTO> findEarliestArrival(String from, String to, LocalDateTime departAfter, int seats, Integer minConnectionMinutes);
+    Optional<ItineraryDTO> findCheapest(String from, String to, LocalDateTime departAfter, int seats, Integer minConnectionMinutes);
+    Map<String, Object> getStats();
+}
@@ -0,0 +1,234 @@
+package BusManagementBooking.bus.journey;
+
+import BusManagementBooking.bus.buses.BusRepository;
+import BusManagementBooking.bus.cache.CacheInvalidationBus;
+import BusManagementBooking.bus.datasource.ReplicaRoutingDataSource;
+import BusManagementBooking.bus.snapshot.InventorySnapshotService;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Plans multi-leg journeys over an in-memory JourneyGraph of every bus.
+ * The graph is built once at startup and then follows the cache invalidation
+ * bus: added, updated and deleted buses are merged in before the change
+ * returns (or on the next poll, for changes made on other nodes), while
+ * seat-count changes are batched and only update the trip's seat count.
+ */
+@Service
+public class JourneyServiceImpl implements JourneyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(JourneyServiceImpl.class);
+
+    @Autowired
+    private BusRepository busRepository;
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Autowired
+    private InventorySnapshotService inventorySnapshotService;
+
+    @Value("${bus.journey.min-connection-minutes:20}")
+    private int defaultMinConnectionMinutes;
+
+    @Value("${bus.journey.departure-window-hours:24}")
+    private int departureWindowHours;
+
+    @Value("${bus.journey.max-journey-hours:48}")
+    private int maxJourneyHours;
+
+    @Value("${bus.journey.max-legs:4}")
+    private int maxLegs;
+
+    private volatile JourneyGraph graph = JourneyGraph.EMPTY;
+    private volatile boolean built;
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+    // Buses whose route or times cannot be planned over
+    private final Set<Long> skipped = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong queries = new AtomicLong();
+    private final AtomicLong queryNanos = new AtomicLong();
+    private volatile long maxQueryNanos;
+    private final AtomicLong updates = new AtomicLong();
+    private final AtomicLong seatUpdates = new AtomicLong();
+    private volatile long lastUpdateMs;
+    private volatile long lastBuildMs;
+
+    @PostConstruct
+    public void init() {
+        cacheInvalidationBus.register(CacheInvalidationBus.BUS, this::busChanged);
+        cacheInvalidationBus.register(CacheInvalidationBus.SEATS, pending::add);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void build() {
+        long start = System.currentTimeMillis();
+        List<Trip> trips = new ArrayList<>();
+        skipped.clear();
+        // Right after a restart the timetable comes from the inventory snapshot
+        List<Object[]> rows = inventorySnapshotService.findTripRows()
+            .orElseGet(() -> ReplicaRoutingDataSource.onPrimary(() -> busRepository.findAllTrips()));
+        for (Object[] row : rows) {
+            Trip.of(row).ifPresentOrElse(trips::add, () -> skipped.add((Long) row[0]));
+        }
+        graph = JourneyGraph.EMPTY.update(Set.of(), trips);
+        built = true;
+        lastBuildMs = System.currentTimeMillis() - start;
+        logger.info("Journey graph built with {} trips, {} connections and {} stops in {} ms",
+            graph.tripCount(), graph.connectionCount(), graph.stopCount(), lastBuildMs);
+        // Changes committed while the timetable was read are reloaded
+        applyPending();
+    }
+
+    private void busChanged(Long busId) {
+        pending.add(busId);
+        applyPending();
+    }
+
+    /**
+     * Reloads every bus changed since the last call and merges them into the
+     * graph in one copy. Concurrent callers wait and usually find their bus
+     * already applied by the caller before them.
+     */
+    @Scheduled(fixedDelayString = "${bus.journey.seat-refresh-interval-ms:500}")
+    public synchronized void applyPending() {
+        if (!built || pending.isEmpty()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        Set<Long> busIds = new HashSet<>(pending);
+        pending.removeAll(busIds);
+        try {
+            List<Object[]> rows = ReplicaRoutingDataSource.onPrimary(() -> busRepository.findTripsByIdIn(busIds));
+            JourneyGraph current = graph;
+            Set<Long> deleted = new HashSet<>(busIds);
+            Set<Long> removed = new HashSet<>();
+            List<Trip> changed = new ArrayList<>();
+            for (Object[] row : rows) {
+                Long busId = (Long) row[0];
+                deleted.remove(busId);
+                Optional<Trip> trip = Trip.of(row);
+                Trip existing = current.tripOf(busId);
+                if (trip.isEmpty()) {
+                    skipped.add(busId);
+                    if (existing != null) {
+                        removed.add(busId);
+                    }
+                } else if (existing != null && existing.signature.equals(trip.get().signature)) {
+                    existing.availableSeats = trip.get().availableSeats;
+                    seatUpdates.incrementAndGet();
+                } else {
+                    skipped.remove(busId);
+                    changed.add(trip.get());
+                }
+            }
+            for (Long busId : deleted) {
+                skipped.remove(busId);
+                if (current.tripOf(busId) != null) {
+                    removed.add(busId);
+                }
+            }
+            if (!removed.isEmpty() || !changed.isEmpty()) {
+                graph = current.update(removed, changed);
+                updates.incrementAndGet();
+                lastUpdateMs = System.currentTimeMillis() - start;
+            }
+        } catch (Exception e) {
+            pending.addAll(busIds);
+            logger.error("Updating journey graph failed: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public Optional<ItineraryDTO> findEarliestArrival(String from, String to, LocalDateTime departAfter, int seats,
+                                                      Integer minConnectionMinutes) {
+        return plan(from, to, departAfter, seats, minConnectionMinutes, false);
+    }
+
+    @Override
+    public Optional<ItineraryDTO> findCheapest(String from, String to, LocalDateTime departAfter, int seats,
+                                               Integer minConnectionMinutes) {
+        return plan(from, to, departAfter, seats, minConnectionMinutes, true);
+    }
+
+    private Optional<ItineraryDTO> plan(String from, String to, LocalDateTime departAfter, int seats,
+                                        Integer minConnectionMinutes, boolean cheapest) {
+        if (from == null || from.isBlank() || to == null || to.isBlank()) {
+            throw new IllegalArgumentException("from and to are required");
+        }
+        if (seats < 1) {
+            throw new IllegalArgumentException("seats must be at least 1");
+        }
+        int minConnection = minConnectionMinutes != null ? minConnectionMinutes : defaultMinConnectionMinutes;
+        if (minConnection < 0) {
+            throw new IllegalArgumentException("minConnectionMinutes must not be negative");
+        }
+
+        long start = System.nanoTime();
+        int after = Trip.toMinutes(departAfter);
+        int before = after + departureWindowHours * 60;
+        int horizon = before + maxJourneyHours * 60;
+        JourneyGraph current = graph;
+        List<JourneyGraph.Leg> legs = cheapest
+            ? current.cheapest(from, to, after, before, horizon, seats, minConnection, maxLegs)
+            : current.earliestArrival(from, to, after, before, horizon, seats, minConnection);
+        recordQuery(System.nanoTime() - start);
+
+        if (legs.isEmpty()) {
+            return Optional.empty();
+        }
+        List<JourneyLegDTO> dtos = new ArrayList<>(legs.size());
+        for (JourneyGraph.Leg leg : legs) {
+            dtos.add(new JourneyLegDTO(leg.trip().busId, leg.trip().name, leg.from(), leg.to(),
+                Trip.fromMinutes(leg.departure()), Trip.fromMinutes(leg.arrival()), leg.trip().price,
+                leg.trip().availableSeats));
+        }
+        return Optional.of(new ItineraryDTO(dtos));
+    }
+
+    private void recordQuery(long nanos) {
+        queries.incrementAndGet();
+        queryNanos.addAndGet(nanos);
+        if (nanos > maxQueryNanos) {
+            maxQueryNanos = nanos;
+        }
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        JourneyGraph current = graph;
+        long count = queries.get();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("trips", current.tripCount());
+        stats.put("connections", current.connectionCount());
+        stats.put("stops", current.stopCount());
+        stats.put("skippedBuses", skipped.size());
+        stats.put("pendingChanges", pending.size());
+        stats.put("graphUpdates", updates.get());
+        stats.put("seatUpdates", seatUpdates.get());
+        stats.put("lastBuildMs", lastBuildMs);
+        stats.put("lastUpdateMs", lastUpdateMs);
+        stats.put("queries", count);
+        stats.put("avgQueryMicros", count == 0 ? 0 : queryNanos.get() / count / 1000);
+        stats.put("maxQueryMicros", maxQueryNanos / 1000);
+        return stats;
+    }
+}
@@ -0,0 +1,111 @@
+package BusManagementBooking.bus.journey;
+
+import BusManagementBooking.bus.buses.DepartureDates;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * One bus as the journey planner sees it: the stops of its route with a time
+ * at each. Bus.route only says where the bus goes ("Kochi-Madurai", or
+ * "Kochi-Thrissur-Palakkad" for a bus with stops), and only the first
+ * departure and the last arrival are known, so intermediate stops get times
+ * spread evenly between them. A bus arriving at or before its departure time
+ * arrives the next day. Only the seat count changes without a new Trip.
+ */
+final class Trip {
+
+    private static final Pattern STOP_SEPARATOR = Pattern.compile("\\s*(?:->|→|–|-|,)\\s*");
+
+    final Long busId;
+    final String name;
+    final String[] stops;
+    final int[] times;
+    final BigDecimal price;
+    final long priceCents;
+    volatile int availableSeats;
+
+    // Everything but the seat count, to tell seat changes from timetable changes
+    final String signature;
+
+    private Trip(Long busId, String name, String[] stops, int[] times, BigDecimal price, int availableSeats, String signature) {
+        this.busId = busId;
+        this.name = name;
+        this.stops = stops;
+        this.times = times;
+        this.price = price;
+        this.priceCents = price.movePointRight(2).longValue();
+        this.availableSeats = availableSeats;
+        this.signature = signature;
+    }
+
+    /**
+     * Builds the trip of a BusRepository.findAllTrips row, or empty if the
+     * route has a single stop or the date or times cannot be read
+     */
+    static Optional<Trip> of(Object[] row) {
+        Long busId = (Long) row[0];
+        String name = (String) row[1];
+        String route = (String) row[2];
+        String departureDate = (String) row[3];
+        String departureTime = (String) row[4];
+        String arrivalTime = (String) row[5];
+        BigDecimal price = (BigDecimal) row[6];
+        Integer availableSeats = (Integer) row[7];
+        if (route == null || price == null) {
+            return Optional.empty();
+        }
+
+        List<String> stops = new ArrayList<>();
+        for (String stop : STOP_SEPARATOR.split(route.trim())) {
+            if (!stop.isEmpty() && (stops.isEmpty() || !JourneyGraph.stopKey(stops.get(stops.size() - 1)).equals(JourneyGraph.stopKey(stop)))) {
+                stops.add(stop);
+            }
+        }
+        Optional<LocalDate> date = DepartureDates.parse(departureDate);
+        if (stops.size() < 2 || date.isEmpty()) {
+            return Optional.empty();
+        }
+
+        int departure;
+        int arrival;
+        try {
+            departure = toMinutes(date.get().atTime(LocalTime.parse(departureTime.trim())));
+            arrival = toMinutes(date.get().atTime(LocalTime.parse(arrivalTime.trim())));
+        } catch (DateTimeParseException | NullPointerException e) {
+            return Optional.empty();
+        }
+        if (arrival <= departure) {
+            arrival += 24 * 60;
+        }
+        int segments = stops.size() - 1;
+        if (arrival - departure < segments) {
+            // Every stop needs a distinct minute for the scan to stay in order
+            return Optional.empty();
+        }
+        int[] times = new int[stops.size()];
+        for (int i = 0; i < times.length; i++) {
+            times[i] = departure + (int) ((long) (arrival - departure) * i / segments);
+        }
+
+        String signature = String.join("\u0000", name, route, departureDate, departureTime, arrivalTime, price.toPlainString());
+        return Optional.of(new Trip(busId, name, stops.toArray(new String[0]), times, price,
+            availableSeats != null ? availableSeats : 0, signature));
+    }
+
+    static int toMinutes(LocalDateTime time) {
+        return (int) (time.toEpochSecond(ZoneOffset.UTC) / 60);
+    }
+
+    static LocalDateTime fromMinutes(int minutes) {
+        return LocalDateTime.ofEpochSecond(minutes * 60L, 0, ZoneOffset.UTC);
+    }
+}
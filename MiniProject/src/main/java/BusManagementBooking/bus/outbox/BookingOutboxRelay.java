@@ -0,0 +1,199 @@
+package BusManagementBooking.bus.outbox;
+
+import BusManagementBooking.bus.cluster.ClusterMembership;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains this node's booking_outbox rows in id order and hands them to every
+ * OutboxConsumer in batches. A row is deleted once all consumers took it; a
+ * consumer that throws gets the same rows again on the next poll and nobody
+ * gets anything newer before that, so the order per bus holds even across
+ * failures. Which consumers already took a row is only remembered in memory,
+ * so after a restart undeleted rows are delivered again. Rows left by nodes
+ * that are no longer alive are taken over by the next relay that notices.
+ */
+@Component
+public class BookingOutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingOutboxRelay.class);
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ClusterMembership membership;
+
+    @Autowired(required = false)
+    private List<OutboxConsumer> consumers = List.of();
+
+    @Value("${bus.outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${bus.outbox.adopt-interval-ms:10000}")
+    private long adoptIntervalMs;
+
+    // Only touched by the scheduler thread
+    private final Map<String, Set<Long>> delivered = new HashMap<>();
+    private long nextAdoptAt;
+    private volatile boolean started;
+
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong deliveredEvents = new AtomicLong();
+    private final AtomicLong adopted = new AtomicLong();
+    private final AtomicLong lagTotalMs = new AtomicLong();
+    private volatile long lastLagMs;
+    private volatile long maxLagMs;
+    private volatile long oldestPendingAgeMs;
+    private final Map<String, AtomicLong> consumerDelivered = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> consumerFailures = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        for (OutboxConsumer consumer : consumers) {
+            delivered.put(consumer.getName(), new HashSet<>());
+            consumerDelivered.put(consumer.getName(), new AtomicLong());
+            consumerFailures.put(consumer.getName(), new AtomicLong());
+        }
+        started = true;
+        logger.info("Booking outbox relay started with consumers {}", delivered.keySet());
+    }
+
+    @Scheduled(fixedDelayString = "${bus.outbox.poll-interval-ms:200}")
+    public void relay() {
+        if (!started) {
+            return;
+        }
+        try {
+            adoptOrphans();
+            String nodeId = membership.getNodeId();
+            List<OutboxEvent> batch;
+            do {
+                batch = outboxEventRepository.findBatch(nodeId, PageRequest.of(0, batchSize));
+                if (batch.isEmpty()) {
+                    oldestPendingAgeMs = 0;
+                    return;
+                }
+                batches.incrementAndGet();
+                oldestPendingAgeMs = System.currentTimeMillis() - batch.get(0).getCreatedAt();
+                List<Long> done = deliver(batch);
+                if (!done.isEmpty()) {
+                    outboxEventRepository.deleteByIds(done);
+                    for (Set<Long> ids : delivered.values()) {
+                        done.forEach(ids::remove);
+                    }
+                }
+                if (done.size() < batch.size()) {
+                    // A consumer failed, it gets this batch again on the next poll
+                    return;
+                }
+            } while (batch.size() == batchSize);
+            oldestPendingAgeMs = 0;
+        } catch (Exception e) {
+            logger.error("Relaying booking outbox failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Offers the batch to every consumer that has not taken it yet and
+     * returns the ids all consumers have now taken
+     */
+    private List<Long> deliver(List<OutboxEvent> batch) {
+        boolean allTaken = true;
+        for (OutboxConsumer consumer : consumers) {
+            Set<Long> taken = delivered.get(consumer.getName());
+            List<OutboxEvent> todo = new ArrayList<>(batch.size());
+            for (OutboxEvent event : batch) {
+                if (!taken.contains(event.getId())) {
+                    todo.add(event);
+                }
+            }
+            if (todo.isEmpty()) {
+                continue;
+            }
+            try {
+                consumer.accept(todo);
+                for (OutboxEvent event : todo) {
+                    taken.add(event.getId());
+                }
+                consumerDelivered.get(consumer.getName()).addAndGet(todo.size());
+            } catch (Exception e) {
+                allTaken = false;
+                consumerFailures.get(consumer.getName()).incrementAndGet();
+                logger.warn("Outbox consumer {} failed on {} events: {}", consumer.getName(), todo.size(), e.getMessage());
+            }
+        }
+        if (!allTaken) {
+            return List.of();
+        }
+
+        long now = System.currentTimeMillis();
+        List<Long> done = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            done.add(event.getId());
+            recordLag(now - event.getCreatedAt());
+        }
+        deliveredEvents.addAndGet(done.size());
+        return done;
+    }
+
+    private void adoptOrphans() {
+        long now = System.currentTimeMillis();
+        Set<String> live = membership.getMemberIds();
+        if (now < nextAdoptAt || !live.contains(membership.getNodeId())) {
+            return;
+        }
+        nextAdoptAt = now + adoptIntervalMs;
+        int rows = outboxEventRepository.adoptOrphans(membership.getNodeId(), live);
+        if (rows > 0) {
+            adopted.addAndGet(rows);
+            logger.info("Took over {} outbox events of nodes that are gone", rows);
+        }
+    }
+
+    private void recordLag(long lagMs) {
+        lagTotalMs.addAndGet(lagMs);
+        lastLagMs = lagMs;
+        if (lagMs > maxLagMs) {
+            maxLagMs = lagMs;
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long count = deliveredEvents.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("batches", batches.get());
+        stats.put("delivered", count);
+        stats.put("adopted", adopted.get());
+        stats.put("pending", outboxEventRepository.countByNodeId(membership.getNodeId()));
+        stats.put("oldestPendingAgeMs", oldestPendingAgeMs);
+        stats.put("lastLagMs", lastLagMs);
+        stats.put("maxLagMs", maxLagMs);
+        stats.put("avgLagMs", count == 0 ? 0 : lagTotalMs.get() / count);
+        Map<String, Object> perConsumer = new LinkedHashMap<>();
+        for (OutboxConsumer consumer : consumers) {
+            perConsumer.put(consumer.getName(), Map.of(
+                "delivered", consumerDelivered.getOrDefault(consumer.getName(), new AtomicLong()).get(),
+                "failures", consumerFailures.getOrDefault(consumer.getName(), new AtomicLong()).get()));
+        }
+        stats.put("consumers", perConsumer);
+        return stats;
+    }
+}
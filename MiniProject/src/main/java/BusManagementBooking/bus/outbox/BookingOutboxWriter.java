@@ -0,0 +1,81 @@
+package BusManagementBooking.bus.outbox;
+
+import BusManagementBooking.bus.booking.BookingEvent;
+import BusManagementBooking.bus.buses.BusRepository;
+import BusManagementBooking.bus.cluster.ClusterMembership;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Writes every BookingEvent to the booking_outbox table in the transaction
+ * that published it. Events are collected while the booking runs and
+ * inserted just before commit, after locking their buses in id order, so
+ * rows of one bus get ids in commit order and the buses stay locked only
+ * for the commit itself.
+ */
+@Component
+public class BookingOutboxWriter {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private BusRepository busRepository;
+
+    @Autowired
+    private ClusterMembership membership;
+
+    @EventListener
+    public void onBookingEvent(BookingEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Not part of a booking transaction, so there is no commit order to keep
+            outboxEventRepository.save(new OutboxEvent(membership.getNodeId(), event, System.currentTimeMillis()));
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<BookingEvent> pending = (List<BookingEvent>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<BookingEvent> events = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, events);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    write(events);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(BookingOutboxWriter.this);
+                }
+            });
+            pending = events;
+        }
+        pending.add(event);
+    }
+
+    private void write(List<BookingEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        TreeSet<Long> busIds = new TreeSet<>();
+        for (BookingEvent event : events) {
+            busIds.add(event.busId());
+        }
+        busRepository.lockForOutbox(busIds);
+
+        long now = System.currentTimeMillis();
+        List<OutboxEvent> rows = new ArrayList<>(events.size());
+        for (BookingEvent event : events) {
+            rows.add(new OutboxEvent(membership.getNodeId(), event, now));
+        }
+        outboxEventRepository.saveAll(rows);
+    }
+}
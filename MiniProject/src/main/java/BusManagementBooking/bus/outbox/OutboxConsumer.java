@@ -0,0 +1,15 @@
+package BusManagementBooking.bus.outbox;
+
+import java.util.List;
+
+/**
+ * In-process consumer of the booking outbox. Every bean implementing this is
+ * fed by BookingOutboxRelay with batches in outbox id order, which is commit
+ * order for the events of one bus. Delivery is at least once: a batch that
+ * throws is offered again, and after a restart events may repeat, so
+ * consumers must tolerate seeing an event twice (the id identifies it).
+ */
+public interface OutboxConsumer {
+    String getName();
+    void accept(List<OutboxEvent> events) throws Exception;
+}
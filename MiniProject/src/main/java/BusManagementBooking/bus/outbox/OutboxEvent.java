@@ -0,0 +1,156 @@
+package BusManagementBooking.bus.outbox;
+
+import BusManagementBooking.bus.booking.BookingEvent;
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "booking_outbox")
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "node_id", nullable = false, length = 64)
+    private String nodeId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false)
+    private BookingEvent.Type eventType;
+
+    @Column(name = "booking_id", nullable = false)
+    private Long bookingId;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "bus_id", nullable = false)
+    private Long busId;
+
+    @Column(name = "seat_number")
+    private String seatNumber;
+
+    @Column(name = "seat_type", length = 20)
+    private String seatType;
+
+    @Column(name = "amount", precision = 10, scale = 2)
+    private BigDecimal amount;
+
+    @Column(name = "booking_date")
+    private LocalDateTime bookingDate;
+
+    @Column(name = "created_at", nullable = false)
+    private Long createdAt;
+
+    // Constructors
+    public OutboxEvent() {}
+
+    public OutboxEvent(String nodeId, BookingEvent event, Long createdAt) {
+        this.nodeId = nodeId;
+        this.eventType = event.type();
+        this.bookingId = event.bookingId();
+        this.userId = event.userId();
+        this.busId = event.busId();
+        this.seatNumber = event.seatNumber();
+        this.seatType = event.seatType();
+        this.amount = event.amount();
+        this.bookingDate = event.bookingDate();
+        this.createdAt = createdAt;
+    }
+
+    public BookingEvent toBookingEvent() {
+        return new BookingEvent(eventType, bookingId, userId, busId, seatNumber, seatType, amount, bookingDate);
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public BookingEvent.Type getEventType() {
+        return eventType;
+    }
+
+    public void setEventType(BookingEvent.Type eventType) {
+        this.eventType = eventType;
+    }
+
+    public Long getBookingId() {
+        return bookingId;
+    }
+
+    public void setBookingId(Long bookingId) {
+        this.bookingId = bookingId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Long getBusId() {
+        return busId;
+    }
+
+    public void setBusId(Long busId) {
+        this.busId = busId;
+    }
+
+    public String getSeatNumber() {
+        return seatNumber;
+    }
+
+    public void setSeatNumber(String seatNumber) {
+        this.seatNumber = seatNumber;
+    }
+
+    public String getSeatType() {
+        return seatType;
+    }
+
+    public void setSeatType(String seatType) {
+        this.seatType = seatType;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public LocalDateTime getBookingDate() {
+        return bookingDate;
+    }
+
+    public void setBookingDate(LocalDateTime bookingDate) {
+        this.bookingDate = bookingDate;
+    }
+
+    public Long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Long createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,33 @@
+package BusManagementBooking.bus.outbox;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    @Query("select e from OutboxEvent e where e.nodeId = :nodeId order by e.id")
+    List<OutboxEvent> findBatch(String nodeId, Pageable page);
+
+    @Query("select count(e) from OutboxEvent e where e.nodeId = :nodeId")
+    long countByNodeId(String nodeId);
+
+    @Modifying
+    @Transactional
+    @Query("delete from OutboxEvent e where e.id in :ids")
+    int deleteByIds(Collection<Long> ids);
+
+    /**
+     * Takes over the rows of nodes that are gone, so their events are still delivered
+     */
+    @Modifying
+    @Transactional
+    @Query("update OutboxEvent e set e.nodeId = :nodeId where e.nodeId not in :liveNodeIds")
+    int adoptOrphans(String nodeId, Collection<String> liveNodeIds);
+}
@@ -0,0 +1,21 @@
+package BusManagementBooking.bus.receipt;
+
+import java.nio.file.Path;
+
+/**
+ * Outcome of a receipt lookup. A READY receipt carries its file and the
+ * content hash it is stored under, which doubles as its ETag.
+ */
+public record Receipt(State state, Path file, String hash) {
+
+    public enum State {
+        READY,
+        PENDING,
+        NOT_FOUND,
+        VOID
+    }
+
+    static Receipt of(State state) {
+        return new Receipt(state, null, null);
+    }
+}
@@ -0,0 +1,124 @@
+package BusManagementBooking.bus.receipt;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+@RestController
+@RequestMapping("receipt")
+@CrossOrigin(origins = "http://localhost:5173", allowCredentials = "true")
+public class ReceiptController {
+
+    // Request attributes of Tomcat's sendfile support (NIO connector, on by default)
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    @Autowired
+    private ReceiptService receiptService;
+
+    private final AtomicLong servedSendfile = new AtomicLong();
+    private final AtomicLong servedTransferTo = new AtomicLong();
+
+    @GetMapping("/health")
+    public String checkAlive() {
+        return "Receipt Controller is alive!";
+    }
+
+    /**
+     * Downloads the PDF receipt of a booking. Answers 202 with Retry-After
+     * while it is still being rendered and 410 once the booking was cancelled
+     * or transferred.
+     */
+    @GetMapping("/booking/{bookingId}")
+    public ResponseEntity<?> getReceipt(@PathVariable Long bookingId, WebRequest webRequest,
+            HttpServletRequest request, HttpServletResponse response) {
+        try {
+            Receipt receipt = receiptService.getReceipt(bookingId);
+            switch (receipt.state()) {
+                case NOT_FOUND:
+                    return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Booking with ID " + bookingId + " not found");
+                case VOID:
+                    return ResponseEntity.status(HttpStatus.GONE).body("Booking " + bookingId + " is no longer confirmed");
+                case PENDING:
+                    return accepted(bookingId);
+                default:
+                    break;
+            }
+
+            String eTag = "\"" + receipt.hash() + "\"";
+            if (webRequest.checkNotModified(eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+            }
+            response.setHeader(HttpHeaders.ETAG, eTag);
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().cachePrivate().getHeaderValue());
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"receipt-" + bookingId + ".pdf\"");
+            response.setContentType("application/pdf");
+            try (FileChannel file = FileChannel.open(receipt.file(), StandardOpenOption.READ)) {
+                send(file, receipt, request, response);
+            }
+            // The body has been written (or handed to the connector) already
+            return null;
+        } catch (NoSuchFileException e) {
+            // Invalidated between lookup and open
+            return accepted(bookingId);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error retrieving receipt: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Tomcat's sendfile copies the file to the socket in the kernel; without
+     * it the file is still moved with FileChannel.transferTo, so no heap
+     * buffer holds the whole receipt
+     */
+    private void send(FileChannel file, Receipt receipt, HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        long size = file.size();
+        response.setContentLengthLong(size);
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, receipt.file().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, size);
+            servedSendfile.incrementAndGet();
+            return;
+        }
+        WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+        long position = 0;
+        while (position < size) {
+            position += file.transferTo(position, size - position, out);
+        }
+        servedTransferTo.incrementAndGet();
+    }
+
+    private ResponseEntity<?> accepted(Long bookingId) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body("Receipt for booking " + bookingId + " is being generated");
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        Map<String, Object> stats = receiptService.getStats();
+        stats.put("servedSendfile", servedSendfile.get());
+        stats.put("servedTransferTo", servedTransferTo.get());
+        return ResponseEntity.ok(stats);
+    }
+}
@@ -0,0 +1,34 @@
+package BusManagementBooking.bus.receipt;
+
+import BusManagementBooking.bus.outbox.OutboxConsumer;
+import BusManagementBooking.bus.outbox.OutboxEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Queues and voids receipts from the booking outbox. Both operations are
+ * idempotent, so redelivered events do no harm.
+ */
+@Component
+public class ReceiptOutboxConsumer implements OutboxConsumer {
+
+    @Autowired
+    private ReceiptService receiptService;
+
+    @Override
+    public String getName() {
+        return "receipts";
+    }
+
+    @Override
+    public void accept(List<OutboxEvent> events) {
+        for (OutboxEvent event : events) {
+            switch (event.getEventType()) {
+                case BOOKED, TRANSFERRED_IN -> receiptService.requestReceipt(event.getBookingId());
+                case CANCELLED, TRANSFERRED_OUT -> receiptService.invalidate(event.getBookingId());
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package BusManagementBooking.bus.receipt;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes a one-page PDF with a title and label/value rows in the standard
+ * Helvetica fonts, so no font files or PDF library are needed. The output
+ * has no timestamps or ids of its own: the same receipt always renders to
+ * the same bytes, which is what makes content addressing work.
+ */
+final class ReceiptPdf {
+
+    private static final int PAGE_WIDTH = 595;
+    private static final int PAGE_HEIGHT = 842;
+    private static final int MARGIN = 56;
+    private static final int ROW_HEIGHT = 22;
+
+    private ReceiptPdf() {
+    }
+
+    static byte[] render(String title, List<String[]> rows) {
+        StringBuilder content = new StringBuilder();
+        int y = PAGE_HEIGHT - MARGIN - 24;
+        content.append("BT /F2 20 Tf ").append(MARGIN).append(' ').append(y).append(" Td ")
+                .append(literal(title)).append(" Tj ET\n");
+        y -= 12;
+        content.append("0.6 G 1 w ").append(MARGIN).append(' ').append(y).append(" m ")
+                .append(PAGE_WIDTH - MARGIN).append(' ').append(y).append(" l S\n");
+        y -= 2 * ROW_HEIGHT;
+        for (String[] row : rows) {
+            content.append("BT /F2 11 Tf ").append(MARGIN).append(' ').append(y).append(" Td ")
+                    .append(literal(row[0])).append(" Tj ET\n");
+            content.append("BT /F1 11 Tf ").append(MARGIN + 150).append(' ').append(y).append(" Td ")
+                    .append(literal(row[1])).append(" Tj ET\n");
+            y -= ROW_HEIGHT;
+        }
+        byte[] stream = content.toString().getBytes(StandardCharsets.ISO_8859_1);
+
+        List<String> objects = new ArrayList<>();
+        objects.add("<< /Type /Catalog /Pages 2 0 R >>");
+        objects.add("<< /Type /Pages /Kids [3 0 R] /Count 1 >>");
+        objects.add("<< /Type /Page /Parent 2 0 R /MediaBox [0 0 " + PAGE_WIDTH + " " + PAGE_HEIGHT + "]"
+                + " /Resources << /Font << /F1 4 0 R /F2 5 0 R >> >> /Contents 6 0 R >>");
+        objects.add("<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica /Encoding /WinAnsiEncoding >>");
+        objects.add("<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica-Bold /Encoding /WinAnsiEncoding >>");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1024 + stream.length);
+        write(out, "%PDF-1.4\n");
+        long[] offsets = new long[objects.size() + 1];
+        for (int i = 0; i < objects.size(); i++) {
+            offsets[i] = out.size();
+            write(out, (i + 1) + " 0 obj\n" + objects.get(i) + "\nendobj\n");
+        }
+        offsets[objects.size()] = out.size();
+        write(out, (objects.size() + 1) + " 0 obj\n<< /Length " + stream.length + " >>\nstream\n");
+        out.writeBytes(stream);
+        write(out, "endstream\nendobj\n");
+
+        long xref = out.size();
+        int size = offsets.length + 1;
+        StringBuilder table = new StringBuilder("xref\n0 " + size + "\n0000000000 65535 f \n");
+        for (long offset : offsets) {
+            table.append(String.format("%010d 00000 n \n", offset));
+        }
+        table.append("trailer\n<< /Size ").append(size).append(" /Root 1 0 R >>\nstartxref\n")
+                .append(xref).append("\n%%EOF\n");
+        write(out, table.toString());
+        return out.toByteArray();
+    }
+
+    /**
+     * PDF string literal; characters outside printable ASCII are replaced,
+     * since the standard fonts are only used with their single-byte encoding
+     */
+    static String literal(String text) {
+        StringBuilder literal = new StringBuilder("(");
+        for (char c : (text == null ? "" : text).toCharArray()) {
+            if (c == '(' || c == ')' || c == '\\') {
+                literal.append('\\').append(c);
+            } else if (c >= 0x20 && c < 0x7f) {
+                literal.append(c);
+            } else {
+                literal.append('?');
+            }
+        }
+        return literal.append(')').toString();
+    }
+
+    private static void write(ByteArrayOutputStream out, String text) {
+        out.writeBytes(text.getBytes(StandardCharsets.ISO_8859_1));
+    }
+}
@@ -0,0 +1,13 @@
+package BusManagementBooking.bus.receipt;
+
+import java.util.Map;
+
+public interface ReceiptService {
+    /**
+     * Queues rendering of the receipt of a confirmed booking unless it is stored or queued already
+     */
+    void requestReceipt(Long bookingId);
+    Receipt getReceipt(Long bookingId);
+    void invalidate(Long bookingId);
+    Map<String, Object> getStats();
+}
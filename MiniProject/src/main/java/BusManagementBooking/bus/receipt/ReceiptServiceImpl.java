@@ -0,0 +1,266 @@
+package BusManagementBooking.bus.receipt;
+
+import BusManagementBooking.bus.booking.Booking;
+import BusManagementBooking.bus.booking.BookingRepository;
+import BusManagementBooking.bus.buses.Bus;
+import BusManagementBooking.bus.buses.BusRepository;
+import BusManagementBooking.bus.datasource.ReplicaRoutingDataSource;
+import BusManagementBooking.bus.user.User;
+import BusManagementBooking.bus.user.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Renders booking receipts on a bounded worker pool once the outbox relays a
+ * confirmed booking (see ReceiptOutboxConsumer) and stores them on disk under
+ * the SHA-256 of their bytes. An index maps each booking to its stored
+ * receipt; cancellations and transfers drop the entry and the file. A render
+ * that finishes after its booking was invalidated loses the race on the index
+ * entry and deletes what it wrote. When the queue is full the booking is not
+ * held up: the receipt is rendered on its first download instead.
+ */
+@Service
+public class ReceiptServiceImpl implements ReceiptService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReceiptServiceImpl.class);
+
+    private static final DateTimeFormatter BOOKED_AT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private BusRepository busRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${bus.receipts.directory:./data/receipts}")
+    private String directory;
+
+    @Value("${bus.receipts.workers:2}")
+    private int workers;
+
+    @Value("${bus.receipts.queue-capacity:1000}")
+    private int queueCapacity;
+
+    private Path root;
+    private ThreadPoolExecutor executor;
+
+    // A pending entry has no hash yet
+    private final Map<Long, Entry> receipts = new ConcurrentHashMap<>();
+
+    private final AtomicLong queued = new AtomicLong();
+    private final AtomicLong rendered = new AtomicLong();
+    private final AtomicLong renderNanos = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong invalidated = new AtomicLong();
+    private final AtomicLong discarded = new AtomicLong();
+
+    @PostConstruct
+    public void start() throws IOException {
+        root = Paths.get(directory);
+        Files.createDirectories(root);
+        AtomicInteger threads = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), task -> {
+                    Thread thread = new Thread(task, "receipt-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public void requestReceipt(Long bookingId) {
+        Entry pending = new Entry(null);
+        if (receipts.putIfAbsent(bookingId, pending) != null) {
+            return;
+        }
+        try {
+            executor.execute(() -> render(bookingId, pending));
+            queued.incrementAndGet();
+        } catch (RejectedExecutionException e) {
+            receipts.remove(bookingId, pending);
+            rejected.incrementAndGet();
+        }
+    }
+
+    @Override
+    public Receipt getReceipt(Long bookingId) {
+        // Checked against the primary on every download, so a receipt voided on another node is never served
+        Optional<Booking> booking = ReplicaRoutingDataSource.onPrimary(() -> bookingRepository.findById(bookingId));
+        if (booking.isEmpty()) {
+            return Receipt.of(Receipt.State.NOT_FOUND);
+        }
+        if (!"CONFIRMED".equals(booking.get().getStatus())) {
+            invalidate(bookingId);
+            return Receipt.of(Receipt.State.VOID);
+        }
+
+        Entry entry = receipts.get(bookingId);
+        if (entry != null && entry.hash() != null) {
+            Path file = pathOf(entry.hash());
+            if (Files.exists(file)) {
+                return new Receipt(Receipt.State.READY, file, entry.hash());
+            }
+            receipts.remove(bookingId, entry);
+        }
+        requestReceipt(bookingId);
+        return Receipt.of(Receipt.State.PENDING);
+    }
+
+    @Override
+    public void invalidate(Long bookingId) {
+        Entry entry = receipts.remove(bookingId);
+        if (entry == null) {
+            return;
+        }
+        invalidated.incrementAndGet();
+        if (entry.hash() != null) {
+            delete(entry.hash());
+        }
+    }
+
+    private void render(Long bookingId, Entry pending) {
+        long started = System.nanoTime();
+        try {
+            Optional<Booking> booking = ReplicaRoutingDataSource.onPrimary(() -> bookingRepository.findById(bookingId));
+            if (booking.isEmpty() || !"CONFIRMED".equals(booking.get().getStatus())) {
+                receipts.remove(bookingId, pending);
+                return;
+            }
+
+            byte[] pdf = ReceiptPdf.render("Booking Receipt", rows(booking.get()));
+            String hash = sha256(pdf);
+            store(hash, pdf);
+            if (receipts.replace(bookingId, pending, new Entry(hash))) {
+                rendered.incrementAndGet();
+                renderNanos.addAndGet(System.nanoTime() - started);
+            } else {
+                // Cancelled or transferred while rendering
+                delete(hash);
+                discarded.incrementAndGet();
+            }
+        } catch (Exception e) {
+            receipts.remove(bookingId, pending);
+            failed.incrementAndGet();
+            logger.error("Rendering receipt for booking {} failed: {}", bookingId, e.getMessage());
+        }
+    }
+
+    private List<String[]> rows(Booking booking) {
+        Optional<Bus> bus = ReplicaRoutingDataSource.onPrimary(() -> busRepository.findById(booking.getBusId()));
+        Optional<User> user = ReplicaRoutingDataSource.onPrimary(() -> userRepository.findById(booking.getUserId()));
+
+        List<String[]> rows = new ArrayList<>();
+        rows.add(new String[] {"Booking ID", String.valueOf(booking.getId())});
+        rows.add(new String[] {"Status", booking.getStatus()});
+        rows.add(new String[] {"Passenger", user.map(User::getName).orElse("User " + booking.getUserId())});
+        rows.add(new String[] {"Bus", bus.map(Bus::getName).orElse("Bus " + booking.getBusId())});
+        bus.ifPresent(b -> {
+            rows.add(new String[] {"Route", b.getRoute()});
+            rows.add(new String[] {"Departure", b.getDepartureDate() + " " + b.getDepartureTime()});
+            rows.add(new String[] {"Arrival", b.getArrivalTime()});
+        });
+        rows.add(new String[] {"Seat", booking.getSeatNumber()});
+        rows.add(new String[] {"Amount", booking.getAmount() != null ? booking.getAmount().toPlainString() : "-"});
+        rows.add(new String[] {"Booked at", booking.getBookingDate() != null ? BOOKED_AT.format(booking.getBookingDate()) : "-"});
+        return rows;
+    }
+
+    private Path pathOf(String hash) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash + ".pdf");
+    }
+
+    private void store(String hash, byte[] pdf) throws IOException {
+        Path target = pathOf(hash);
+        if (Files.exists(target)) {
+            // Same bytes already stored, e.g. rendered before a restart
+            return;
+        }
+        Files.createDirectories(target.getParent());
+        Path temp = target.resolveSibling(hash + "." + Thread.currentThread().getId() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            out.write(pdf);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void delete(String hash) {
+        try {
+            Files.deleteIfExists(pathOf(hash));
+        } catch (IOException e) {
+            logger.warn("Deleting receipt {} failed: {}", hash, e.getMessage());
+        }
+    }
+
+    private static String sha256(byte[] content) throws NoSuchAlgorithmException {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        long count = rendered.get();
+        long ready = receipts.values().stream().filter(entry -> entry.hash() != null).count();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("queued", queued.get());
+        stats.put("rendered", count);
+        stats.put("avgRenderMs", count == 0 ? 0.0 : renderNanos.get() / 1e6 / count);
+        stats.put("rejected", rejected.get());
+        stats.put("failed", failed.get());
+        stats.put("invalidated", invalidated.get());
+        stats.put("discardedAfterInvalidation", discarded.get());
+        stats.put("stored", ready);
+        stats.put("pending", receipts.size() - ready);
+        stats.put("queueDepth", executor.getQueue().size());
+        stats.put("workers", workers);
+        return stats;
+    }
+
+    // Not a record: the index relies on identity, and two pending entries must never be equal
+    private static final class Entry {
+        private final String hash;
+
+        Entry(String hash) {
+            this.hash = hash;
+        }
+
+        String hash() {
+            return hash;
+        }
+    }
+}
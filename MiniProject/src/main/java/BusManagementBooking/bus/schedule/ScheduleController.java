@@ -0,0 +1,92 @@
+package BusManagementBooking.bus.schedule;
+
+import BusManagementBooking.bus.buses.Bus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("schedule")
+@CrossOrigin(origins = "http://localhost:5173", allowCredentials = "true", methods = {RequestMethod.GET, RequestMethod.POST, RequestMethod.DELETE})
+public class ScheduleController {
+
+    @Autowired
+    private ScheduleService scheduleService;
+
+    @GetMapping("/health")
+    public String checkAlive() {
+        return "Schedule Controller is alive!";
+    }
+
+    @PostMapping
+    public ResponseEntity<?> addSchedule(@RequestBody TripScheduleRequestDTO tripScheduleRequestDTO) {
+        try {
+            return ResponseEntity.ok(scheduleService.addSchedule(tripScheduleRequestDTO));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<List<TripSchedule>> getSchedules() {
+        return ResponseEntity.ok(scheduleService.getSchedules());
+    }
+
+    @GetMapping("/{scheduleId}")
+    public ResponseEntity<?> getScheduleById(@PathVariable Long scheduleId) {
+        Optional<TripSchedule> schedule = scheduleService.getScheduleById(scheduleId);
+        if (schedule.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Schedule with ID " + scheduleId + " not found");
+        }
+        return ResponseEntity.ok(schedule.get());
+    }
+
+    @DeleteMapping("/{scheduleId}")
+    public ResponseEntity<?> deleteSchedule(@PathVariable Long scheduleId) {
+        if (scheduleService.getScheduleById(scheduleId).isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Schedule with ID " + scheduleId + " not found");
+        }
+        scheduleService.deleteSchedule(scheduleId);
+        return ResponseEntity.ok("Schedule deleted successfully");
+    }
+
+    /**
+     * The bus of one date of a schedule, to book like any other bus
+     */
+    @GetMapping("/{scheduleId}/departures/{date}")
+    public ResponseEntity<?> getDeparture(@PathVariable Long scheduleId,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        try {
+            Optional<Bus> bus = scheduleService.getDeparture(scheduleId, date);
+            if (bus.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body("Schedule " + scheduleId + " has no departure on " + date);
+            }
+            return ResponseEntity.ok(bus.get());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/departures")
+    public ResponseEntity<?> searchDepartures(@RequestParam(required = false) String route,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        try {
+            return ResponseEntity.ok(scheduleService.searchDepartures(route, date));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(scheduleService.getStats());
+    }
+}
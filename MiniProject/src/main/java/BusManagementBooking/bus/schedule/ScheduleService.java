@@ -0,0 +1,24 @@
+package BusManagementBooking.bus.schedule;
+
+import BusManagementBooking.bus.buses.Bus;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public interface ScheduleService {
+    TripSchedule addSchedule(TripScheduleRequestDTO tripScheduleRequestDTO);
+    List<TripSchedule> getSchedules();
+    Optional<TripSchedule> getScheduleById(Long scheduleId);
+    void deleteSchedule(Long scheduleId);
+
+    /**
+     * Bus of the schedule's departure on the date, created with its seats on
+     * first access. Empty if the schedule does not run that day or the
+     * departure was cancelled by deleting its bus.
+     */
+    Optional<Bus> getDeparture(Long scheduleId, LocalDate date);
+    List<Bus> searchDepartures(String route, LocalDate date);
+    Map<String, Object> getStats();
+}
@@ -0,0 +1,296 @@
+package BusManagementBooking.bus.schedule;
+
+import BusManagementBooking.bus.buses.Bus;
+import BusManagementBooking.bus.buses.BusRepository;
+import BusManagementBooking.bus.buses.DepartureDates;
+import BusManagementBooking.bus.cache.CacheInvalidationBus;
+import BusManagementBooking.bus.cache.SingleFlight;
+import BusManagementBooking.bus.datasource.ReplicaRoutingDataSource;
+import BusManagementBooking.bus.seats.Seat;
+import BusManagementBooking.bus.seats.SeatInventoryEvent;
+import BusManagementBooking.bus.seats.SeatLayout;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Materializes the dates of recurring schedules on demand. A date costs no
+ * rows until it is first searched or booked; then its buses row and seats are
+ * inserted with plain JDBC in one transaction, claimed through the
+ * schedule_departures primary key so concurrent first accesses on different
+ * nodes create it once. Concurrent first accesses on one node share one
+ * materialization, and known dates are answered from memory afterwards.
+ */
+@Service
+public class ScheduleServiceImpl implements ScheduleService {
+
+    private static final String INSERT_DEPARTURE =
+        "insert into schedule_departures (schedule_id, departure_date, bus_id, created_at) values (?, ?, null, ?)";
+
+    private static final String INSERT_BUS =
+        "insert into buses (name, route, departure_date, departure_time, arrival_time, available_seats, total_seats, price) " +
+        "values (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_SEAT =
+        "insert into seats (seat_number, seat_type, status, bus_id) values (?, ?, ?, ?)";
+
+    // Departures whose bus was deleted
+    private static final long CANCELLED = -1L;
+
+    @Autowired
+    private TripScheduleRepository tripScheduleRepository;
+
+    @Autowired
+    private BusRepository busRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${bus.seats.elder.percentage:10}")
+    private int elderSeatPercentage;
+
+    @Value("${bus.seats.pregnant.percentage:10}")
+    private int pregnantSeatPercentage;
+
+    @Value("${bus.schedules.max-seats-per-bus:100}")
+    private int maxSeatsPerBus;
+
+    @Value("${bus.schedules.max-days-ahead:365}")
+    private int maxDaysAhead;
+
+    // "scheduleId:date" to bus id, or CANCELLED; bus id back to its key for invalidation
+    private final Map<String, Long> departures = new ConcurrentHashMap<>();
+    private final Map<Long, String> departureOfBus = new ConcurrentHashMap<>();
+    private final SingleFlight<String, Long> materializations = new SingleFlight<>();
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong loadedExisting = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong createNanos = new AtomicLong();
+    private volatile long maxCreateNanos;
+
+    @PostConstruct
+    public void init() {
+        // A changed or deleted bus is looked up again, so deleting it cancels its date everywhere
+        cacheInvalidationBus.register(CacheInvalidationBus.BUS, busId -> {
+            String key = departureOfBus.remove(busId);
+            if (key != null) {
+                departures.remove(key, busId);
+            }
+        });
+    }
+
+    @Override
+    public TripSchedule addSchedule(TripScheduleRequestDTO dto) {
+        if (dto.getName() == null || dto.getName().isBlank() || dto.getRoute() == null || dto.getRoute().isBlank()) {
+            throw new IllegalArgumentException("name and route are required");
+        }
+        try {
+            LocalTime.parse(dto.getDepartureTime());
+            LocalTime.parse(dto.getArrivalTime());
+        } catch (DateTimeParseException | NullPointerException e) {
+            throw new IllegalArgumentException("departureTime and arrivalTime must be HH:mm");
+        }
+        if (dto.getDaysOfWeek() == null || dto.getDaysOfWeek().isEmpty()) {
+            throw new IllegalArgumentException("daysOfWeek must name at least one day");
+        }
+        if (dto.getValidFrom() == null || dto.getValidTo() != null && dto.getValidTo().isBefore(dto.getValidFrom())) {
+            throw new IllegalArgumentException("validFrom is required and must not be after validTo");
+        }
+        if (dto.getTotalSeats() == null || dto.getTotalSeats() <= 0 || dto.getTotalSeats() > maxSeatsPerBus) {
+            throw new IllegalArgumentException("totalSeats must be between 1 and " + maxSeatsPerBus);
+        }
+        int elder = dto.getElderPercentage() != null ? dto.getElderPercentage() : elderSeatPercentage;
+        int pregnant = dto.getPregnantPercentage() != null ? dto.getPregnantPercentage() : pregnantSeatPercentage;
+        if (elder < 0 || pregnant < 0 || elder + pregnant > 100) {
+            throw new IllegalArgumentException("elderPercentage and pregnantPercentage must add up to at most 100");
+        }
+        if (dto.getPrice() < 0) {
+            throw new IllegalArgumentException("price must not be negative");
+        }
+
+        return tripScheduleRepository.save(new TripSchedule(dto.getName().trim(), dto.getRoute().trim(),
+            dto.getDepartureTime(), dto.getArrivalTime(), dto.getDaysOfWeek(), dto.getValidFrom(), dto.getValidTo(),
+            dto.getTotalSeats(), elder, pregnant, BigDecimal.valueOf(dto.getPrice())));
+    }
+
+    @Override
+    public List<TripSchedule> getSchedules() {
+        return tripScheduleRepository.findAll();
+    }
+
+    @Override
+    public Optional<TripSchedule> getScheduleById(Long scheduleId) {
+        return tripScheduleRepository.findById(scheduleId);
+    }
+
+    @Override
+    public void deleteSchedule(Long scheduleId) {
+        // Materialized buses stay, they may carry bookings
+        tripScheduleRepository.deleteById(scheduleId);
+        departures.keySet().removeIf(key -> key.startsWith(scheduleId + ":"));
+    }
+
+    @Override
+    public Optional<Bus> getDeparture(Long scheduleId, LocalDate date) {
+        return tripScheduleRepository.findById(scheduleId).flatMap(schedule -> departure(schedule, date));
+    }
+
+    @Override
+    public List<Bus> searchDepartures(String route, LocalDate date) {
+        List<TripSchedule> schedules = route == null || route.isBlank()
+            ? tripScheduleRepository.findAll()
+            : tripScheduleRepository.findByRouteContainingIgnoreCase(route.trim());
+        List<Bus> buses = new ArrayList<>();
+        for (TripSchedule schedule : schedules) {
+            departure(schedule, date).ifPresent(buses::add);
+        }
+        return buses;
+    }
+
+    private Optional<Bus> departure(TripSchedule schedule, LocalDate date) {
+        if (date.isAfter(LocalDate.now().plusDays(maxDaysAhead))) {
+            throw new IllegalArgumentException("Departures can be looked up at most " + maxDaysAhead + " days ahead");
+        }
+        if (!schedule.runsOn(date)) {
+            return Optional.empty();
+        }
+
+        String key = schedule.getId() + ":" + date;
+        Long busId = departures.get(key);
+        if (busId != null) {
+            memoryHits.incrementAndGet();
+        } else {
+            busId = materializations.execute(key, () -> materialize(schedule, date));
+            departures.put(key, busId);
+            if (busId != CANCELLED) {
+                departureOfBus.put(busId, key);
+            }
+        }
+        if (busId == CANCELLED) {
+            return Optional.empty();
+        }
+        // Served from the second-level cache once loaded
+        Long id = busId;
+        return ReplicaRoutingDataSource.onPrimary(() -> busRepository.findById(id));
+    }
+
+    /**
+     * Returns the bus of the date, inserting it with its seats if no node has yet
+     */
+    private Long materialize(TripSchedule schedule, LocalDate date) {
+        Optional<Long> existing = findDeparture(schedule.getId(), date);
+        if (existing.isPresent()) {
+            loadedExisting.incrementAndGet();
+            return existing.get();
+        }
+
+        long start = System.nanoTime();
+        Long busId;
+        try {
+            busId = new TransactionTemplate(transactionManager).execute(status -> insertDeparture(schedule, date));
+        } catch (DataIntegrityViolationException e) {
+            // Another node claimed the date first; its insert only failed ours once it committed
+            loadedExisting.incrementAndGet();
+            return findDeparture(schedule.getId(), date).orElseThrow(() -> e);
+        }
+        long nanos = System.nanoTime() - start;
+        created.incrementAndGet();
+        createNanos.addAndGet(nanos);
+        if (nanos > maxCreateNanos) {
+            maxCreateNanos = nanos;
+        }
+        return busId;
+    }
+
+    private Optional<Long> findDeparture(Long scheduleId, LocalDate date) {
+        List<Long> rows = ReplicaRoutingDataSource.onPrimary(() -> jdbcTemplate.query(
+            "select bus_id from schedule_departures where schedule_id = ? and departure_date = ?",
+            (rs, rowNum) -> {
+                long busId = rs.getLong(1);
+                return rs.wasNull() ? CANCELLED : busId;
+            },
+            scheduleId, date));
+        return rows.stream().findFirst();
+    }
+
+    private Long insertDeparture(TripSchedule schedule, LocalDate date) {
+        // Claimed first, so a racing node waits here instead of inserting a bus it throws away
+        jdbcTemplate.update(INSERT_DEPARTURE, schedule.getId(), date, System.currentTimeMillis());
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(INSERT_BUS, new String[] {"id"});
+            ps.setString(1, schedule.getName());
+            ps.setString(2, schedule.getRoute());
+            ps.setString(3, DepartureDates.format(date));
+            ps.setString(4, schedule.getDepartureTime());
+            ps.setString(5, schedule.getArrivalTime());
+            ps.setInt(6, schedule.getTotalSeats());
+            ps.setInt(7, schedule.getTotalSeats());
+            ps.setBigDecimal(8, schedule.getPrice());
+            return ps;
+        }, keyHolder);
+        long busId = keyHolder.getKey().longValue();
+
+        SeatLayout layout = SeatLayout.forTotalSeats(schedule.getTotalSeats(), schedule.getElderPercentage(),
+            schedule.getPregnantPercentage());
+        List<Object[]> seats = new ArrayList<>(schedule.getTotalSeats());
+        for (Seat.SeatType seatType : Seat.SeatType.values()) {
+            for (int i = 1; i <= layout.count(seatType); i++) {
+                seats.add(new Object[] {SeatLayout.seatNumber(seatType, i), seatType.name(), Seat.SeatStatus.AVAILABLE.name(), busId});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_SEAT, seats);
+
+        jdbcTemplate.update("update schedule_departures set bus_id = ? where schedule_id = ? and departure_date = ?",
+            busId, schedule.getId(), date);
+        cacheInvalidationBus.publish(CacheInvalidationBus.BUS, busId);
+        eventPublisher.publishEvent(SeatInventoryEvent.replaced(busId));
+        return busId;
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        long count = created.get();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("knownDepartures", departures.size());
+        stats.put("memoryHits", memoryHits.get());
+        stats.put("loadedExisting", loadedExisting.get());
+        stats.put("materialized", count);
+        stats.put("coalesced", materializations.getCoalesced());
+        stats.put("avgMaterializeMicros", count == 0 ? 0 : createNanos.get() / count / 1000);
+        stats.put("maxMaterializeMicros", maxCreateNanos / 1000);
+        return stats;
+    }
+}
@@ -0,0 +1,193 @@
+package BusManagementBooking.bus.schedule;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.Set;
+
+@Entity
+@Table(name = "trip_schedules")
+public class TripSchedule {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "name", nullable = false, length = 100)
+    private String name;
+
+    @Column(name = "route", nullable = false, length = 200)
+    private String route;
+
+    @Column(name = "departure_time", nullable = false, length = 50)
+    private String departureTime;
+
+    @Column(name = "arrival_time", nullable = false, length = 50)
+    private String arrivalTime;
+
+    // Bit 0 is Monday, bit 6 is Sunday
+    @Column(name = "days_of_week", nullable = false)
+    private int daysMask;
+
+    @Column(name = "valid_from", nullable = false)
+    private LocalDate validFrom;
+
+    @Column(name = "valid_to")
+    private LocalDate validTo;
+
+    @Column(name = "total_seats", nullable = false)
+    private Integer totalSeats;
+
+    @Column(name = "elder_percentage", nullable = false)
+    private Integer elderPercentage;
+
+    @Column(name = "pregnant_percentage", nullable = false)
+    private Integer pregnantPercentage;
+
+    @Column(name = "price", nullable = false, precision = 10, scale = 2)
+    private BigDecimal price;
+
+    // Constructors
+    public TripSchedule() {}
+
+    public TripSchedule(String name, String route, String departureTime, String arrivalTime, Set<DayOfWeek> daysOfWeek,
+                        LocalDate validFrom, LocalDate validTo, Integer totalSeats, Integer elderPercentage,
+                        Integer pregnantPercentage, BigDecimal price) {
+        this.name = name;
+        this.route = route;
+        this.departureTime = departureTime;
+        this.arrivalTime = arrivalTime;
+        setDaysOfWeek(daysOfWeek);
+        this.validFrom = validFrom;
+        this.validTo = validTo;
+        this.totalSeats = totalSeats;
+        this.elderPercentage = elderPercentage;
+        this.pregnantPercentage = pregnantPercentage;
+        this.price = price;
+    }
+
+    /**
+     * Whether a bus of this schedule leaves on the given date
+     */
+    public boolean runsOn(LocalDate date) {
+        return (daysMask & (1 << (date.getDayOfWeek().getValue() - 1))) != 0
+            && !date.isBefore(validFrom)
+            && (validTo == null || !date.isAfter(validTo));
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getRoute() {
+        return route;
+    }
+
+    public void setRoute(String route) {
+        this.route = route;
+    }
+
+    public String getDepartureTime() {
+        return departureTime;
+    }
+
+    public void setDepartureTime(String departureTime) {
+        this.departureTime = departureTime;
+    }
+
+    public String getArrivalTime() {
+        return arrivalTime;
+    }
+
+    public void setArrivalTime(String arrivalTime) {
+        this.arrivalTime = arrivalTime;
+    }
+
+    public Set<DayOfWeek> getDaysOfWeek() {
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            if ((daysMask & (1 << (day.getValue() - 1))) != 0) {
+                days.add(day);
+            }
+        }
+        return days;
+    }
+
+    public void setDaysOfWeek(Set<DayOfWeek> daysOfWeek) {
+        int mask = 0;
+        for (DayOfWeek day : daysOfWeek) {
+            mask |= 1 << (day.getValue() - 1);
+        }
+        this.daysMask = mask;
+    }
+
+    @JsonIgnore
+    public int getDaysMask() {
+        return daysMask;
+    }
+
+    public LocalDate getValidFrom() {
+        return validFrom;
+    }
+
+    public void setValidFrom(LocalDate validFrom) {
+        this.validFrom = validFrom;
+    }
+
+    public LocalDate getValidTo() {
+        return validTo;
+    }
+
+    public void setValidTo(LocalDate validTo) {
+        this.validTo = validTo;
+    }
+
+    public Integer getTotalSeats() {
+        return totalSeats;
+    }
+
+    public void setTotalSeats(Integer totalSeats) {
+        this.totalSeats = totalSeats;
+    }
+
+    public Integer getElderPercentage() {
+        return elderPercentage;
+    }
+
+    public void setElderPercentage(Integer elderPercentage) {
+        this.elderPercentage = elderPercentage;
+    }
+
+    public Integer getPregnantPercentage() {
+        return pregnantPercentage;
+    }
+
+    public void setPregnantPercentage(Integer pregnantPercentage) {
+        this.pregnantPercentage = pregnantPercentage;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+}
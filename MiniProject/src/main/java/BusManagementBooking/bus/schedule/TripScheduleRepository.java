@@ -0,0 +1,11 @@
+package BusManagementBooking.bus.schedule;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface TripScheduleRepository extends JpaRepository<TripSchedule, Long> {
+    List<TripSchedule> findByRouteContainingIgnoreCase(String route);
+}
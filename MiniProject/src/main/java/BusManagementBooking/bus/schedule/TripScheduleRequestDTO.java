@@ -0,0 +1,128 @@
+package BusManagementBooking.bus.schedule;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Set;
+
+public class TripScheduleRequestDTO {
+
+    private String name;
+    private String route;
+    private String departureTime;
+    private String arrivalTime;
+    private Set<DayOfWeek> daysOfWeek;
+    private LocalDate validFrom;
+    private LocalDate validTo;
+    private Integer totalSeats;
+    // Null uses bus.seats.elder.percentage and bus.seats.pregnant.percentage
+    private Integer elderPercentage;
+    private Integer pregnantPercentage;
+    private double price;
+
+    // Default Constructor
+    public TripScheduleRequestDTO() {}
+
+    // Parameterized Constructor
+    public TripScheduleRequestDTO(String name, String route, String departureTime, String arrivalTime,
+                                  Set<DayOfWeek> daysOfWeek, LocalDate validFrom, LocalDate validTo,
+                                  Integer totalSeats, double price) {
+        this.name = name;
+        this.route = route;
+        this.departureTime = departureTime;
+        this.arrivalTime = arrivalTime;
+        this.daysOfWeek = daysOfWeek;
+        this.validFrom = validFrom;
+        this.validTo = validTo;
+        this.totalSeats = totalSeats;
+        this.price = price;
+    }
+
+    // Getters and Setters
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getRoute() {
+        return route;
+    }
+
+    public void setRoute(String route) {
+        this.route = route;
+    }
+
+    public String getDepartureTime() {
+        return departureTime;
+    }
+
+    public void setDepartureTime(String departureTime) {
+        this.departureTime = departureTime;
+    }
+
+    public String getArrivalTime() {
+        return arrivalTime;
+    }
+
+    public void setArrivalTime(String arrivalTime) {
+        this.arrivalTime = arrivalTime;
+    }
+
+    public Set<DayOfWeek> getDaysOfWeek() {
+        return daysOfWeek;
+    }
+
+    public void setDaysOfWeek(Set<DayOfWeek> daysOfWeek) {
+        this.daysOfWeek = daysOfWeek;
+    }
+
+    public LocalDate getValidFrom() {
+        return validFrom;
+    }
+
+    public void setValidFrom(LocalDate validFrom) {
+        this.validFrom = validFrom;
+    }
+
+    public LocalDate getValidTo() {
+        return validTo;
+    }
+
+    public void setValidTo(LocalDate validTo) {
+        this.validTo = validTo;
+    }
+
+    public Integer getTotalSeats() {
+        return totalSeats;
+    }
+
+    public void setTotalSeats(Integer totalSeats) {
+        this.totalSeats = totalSeats;
+    }
+
+    public Integer getElderPercentage() {
+        return elderPercentage;
+    }
+
+    public void setElderPercentage(Integer elderPercentage) {
+        this.elderPercentage = elderPercentage;
+    }
+
+    public Integer getPregnantPercentage() {
+        return pregnantPercentage;
+    }
+
+    public void setPregnantPercentage(Integer pregnantPercentage) {
+        this.pregnantPercentage = pregnantPercentage;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public void setPrice(double price) {
+        this.price = price;
+    }
+}
@@ -1,12 +1,17 @@
 package BusManagementBooking.bus.seats;
 
+import BusManagementBooking.bus.cache.BusVersions;
+import BusManagementBooking.bus.cache.RequestCoalescer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.List;
-import java.util.Map;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("seat")
@@ -15,6 +20,12 @@ public class SeatController {
 
     @Autowired
     private SeatService seatService;
+    
+    @Autowired
+    private BusVersions busVersions;
+    
+    @Autowired
+    private RequestCoalescer requestCoalescer;
 
     @GetMapping("/health")
     public String checkAlive() {
@@ -42,21 +53,44 @@ public class SeatController {
     }
 
     @GetMapping("/bus/{busId}")
-    public ResponseEntity<?> getSeatsByBusId(@PathVariable Long busId) {
+    public ResponseEntity<?> getSeatsByBusId(@PathVariable Long busId, WebRequest request) {
         try {
-            List<SeatDTO> seats = seatService.getSeatsByBusId(busId);
-            return ResponseEntity.ok(seats);
+            return conditional(request, busVersions.busETag(busId, "seats"), "all", () -> seatService.getSeatsByBusId(busId));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Error retrieving seats: " + e.getMessage());
         }
     }
 
+    /**
+     * Same seat map as above in the compact binary form of SeatMapCodec,
+     * selected with Accept: application/vnd.busbooking.seatmap
+     */
+    @GetMapping(value = "/bus/{busId}", produces = SeatMapCodec.MEDIA_TYPE)
+    public ResponseEntity<?> getSeatMapBinary(@PathVariable Long busId, WebRequest request) {
+        try {
+            String eTag = busVersions.busETag(busId, "seatmap");
+            if (request.checkNotModified(eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+            }
+            byte[] seatMap = requestCoalescer.bytes(eTag, () -> SeatMapCodec.encode(busId, seatService.getSeatsByBusId(busId)));
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(SeatMapCodec.MEDIA_TYPE))
+                    .cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .eTag(eTag)
+                    .body(seatMap);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .contentType(MediaType.TEXT_PLAIN)
+                    .body("Error retrieving seats: " + e.getMessage());
+        }
+    }
+
     @GetMapping("/bus/{busId}/available")
-    public ResponseEntity<?> getAvailableSeatsByBusId(@PathVariable Long busId) {
+    public ResponseEntity<?> getAvailableSeatsByBusId(@PathVariable Long busId, WebRequest request) {
         try {
-            List<SeatDTO> seats = seatService.getAvailableSeatsByBusId(busId);
-            return ResponseEntity.ok(seats);
+            return conditional(request, busVersions.busETag(busId, "seats"), "available", () -> seatService.getAvailableSeatsByBusId(busId));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Error retrieving available seats: " + e.getMessage());
@@ -66,10 +100,11 @@ public class SeatController {
     @GetMapping("/bus/{busId}/available/{seatType}")
     public ResponseEntity<?> getAvailableSeatsByTypeAndBusId(
             @PathVariable Long busId,
-            @PathVariable String seatType) {
+            @PathVariable String seatType,
+            WebRequest request) {
         try {
-            List<SeatDTO> seats = seatService.getAvailableSeatsByTypeAndBusId(busId, seatType);
-            return ResponseEntity.ok(seats);
+            return conditional(request, busVersions.busETag(busId, "seats"), "available/" + seatType,
+                () -> seatService.getAvailableSeatsByTypeAndBusId(busId, seatType));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Error retrieving available seats by type: " + e.getMessage());
@@ -77,10 +112,9 @@ public class SeatController {
     }
 
     @GetMapping("/bus/{busId}/count")
-    public ResponseEntity<?> getSeatCountByBusId(@PathVariable Long busId) {
+    public ResponseEntity<?> getSeatCountByBusId(@PathVariable Long busId, WebRequest request) {
         try {
-            Map<String, Integer> seatCounts = seatService.getSeatCountByBusId(busId);
-            return ResponseEntity.ok(seatCounts);
+            return conditional(request, busVersions.busETag(busId, "seats"), "count", () -> seatService.getSeatCountByBusId(busId));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Error retrieving seat counts: " + e.getMessage());
@@ -110,4 +144,19 @@ public class SeatController {
                     .body("Error deleting seats: " + e.getMessage());
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * Answers 304 when the client already holds the current version of the bus,
+     * without loading or serializing anything. The ETag is taken before the body
+     * is loaded, so it can only be older than the data it is sent with.
+     * Concurrent requests for the same view and version share one JSON body.
+     */
+    private ResponseEntity<?> conditional(WebRequest request, String eTag, String view, Supplier<?> body) {
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).varyBy(HttpHeaders.ACCEPT).eTag(eTag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(requestCoalescer.json(eTag + view, body));
+    }
+}
@@ -17,6 +17,13 @@ public class SeatDTO {
         this.busId = busId;
     }
 
+    /**
+     * Returns an independent copy, for handing out DTOs that are also cached
+     */
+    public SeatDTO copy() {
+        return new SeatDTO(id, seatNumber, seatType, status, busId);
+    }
+
     // Static method to convert Seat entity to DTO
     public static SeatDTO fromEntity(Seat seat) {
         Long busId = null;
@@ -0,0 +1,18 @@
+package BusManagementBooking.bus.seats;
+
+/**
+ * Published by SeatServiceImpl for seat changes made outside bookings, so
+ * in-memory seat counters can follow them after commit. A null seatType
+ * (and seatNumber) means the whole seat map of the bus was replaced or removed.
+ */
+public record SeatInventoryEvent(Long busId, String seatNumber, String seatType, int bookedDelta) {
+
+    public static SeatInventoryEvent statusChanged(Seat seat, Seat.SeatStatus newStatus) {
+        return new SeatInventoryEvent(seat.getBus().getId(), seat.getSeatNumber(), seat.getSeatType().name(),
+                newStatus == Seat.SeatStatus.BOOKED ? 1 : -1);
+    }
+
+    public static SeatInventoryEvent replaced(Long busId) {
+        return new SeatInventoryEvent(busId, null, null, 0);
+    }
+}
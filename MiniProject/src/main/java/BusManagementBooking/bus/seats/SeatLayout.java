@@ -0,0 +1,53 @@
+package BusManagementBooking.bus.seats;
+
+/**
+ * Splits the total seats of a bus into regular, elder and pregnant seats and
+ * names them R01.., E01.., P01.. as the seat map in the frontend expects.
+ */
+public final class SeatLayout {
+
+    private final int regularSeats;
+    private final int elderSeats;
+    private final int pregnantSeats;
+
+    private SeatLayout(int regularSeats, int elderSeats, int pregnantSeats) {
+        this.regularSeats = regularSeats;
+        this.elderSeats = elderSeats;
+        this.pregnantSeats = pregnantSeats;
+    }
+
+    public static SeatLayout forTotalSeats(int totalSeats, int elderPercentage, int pregnantPercentage) {
+        int elderSeats = (totalSeats * elderPercentage) / 100;
+        int pregnantSeats = (totalSeats * pregnantPercentage) / 100;
+        return new SeatLayout(totalSeats - elderSeats - pregnantSeats, elderSeats, pregnantSeats);
+    }
+
+    public static String seatNumber(Seat.SeatType seatType, int index) {
+        String prefix = switch (seatType) {
+            case REGULAR -> "R";
+            case ELDER -> "E";
+            case PREGNANT -> "P";
+        };
+        return prefix + String.format("%02d", index);
+    }
+
+    public int count(Seat.SeatType seatType) {
+        return switch (seatType) {
+            case REGULAR -> regularSeats;
+            case ELDER -> elderSeats;
+            case PREGNANT -> pregnantSeats;
+        };
+    }
+
+    public int getRegularSeats() {
+        return regularSeats;
+    }
+
+    public int getElderSeats() {
+        return elderSeats;
+    }
+
+    public int getPregnantSeats() {
+        return pregnantSeats;
+    }
+}
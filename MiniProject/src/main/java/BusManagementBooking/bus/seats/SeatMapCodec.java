@@ -0,0 +1,234 @@
+package BusManagementBooking.bus.seats;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Compact binary form of a seat map for mobile clients, served for
+ * Accept: application/vnd.busbooking.seatmap. Seats are grouped into ranges
+ * of one seat type whose labels follow prefix + two-digit number (R01, R02..)
+ * and whose ids usually increase by one, so a 40 seat bus needs about 40
+ * bytes instead of several kilobytes of JSON.
+ *
+ * Layout (varint = unsigned LEB128):
+ *   'S' 'M' version(1)
+ *   busId varint, seatCount varint, rangeCount varint
+ *   per range:
+ *     flags(1): bits 0-1 seat type ordinal, bit 2 labelled by prefix+number,
+ *               bit 3 ids are consecutive
+ *     count varint, firstSeatId varint
+ *     if not consecutive: count-1 zigzag varint id deltas
+ *     if prefix labels: prefix (varint length + UTF-8), firstNumber varint
+ *     else: count labels (varint length + UTF-8)
+ *   status bitset: ceil(seatCount / 8) bytes, bit i (LSB first) set when seat i is booked
+ */
+public final class SeatMapCodec {
+
+    public static final String MEDIA_TYPE = "application/vnd.busbooking.seatmap";
+
+    static final int VERSION = 1;
+    static final int FLAG_PREFIX_LABELS = 1 << 2;
+    static final int FLAG_CONSECUTIVE_IDS = 1 << 3;
+
+    private SeatMapCodec() {}
+
+    public static byte[] encode(Long busId, List<SeatDTO> seats) {
+        List<SeatDTO> ordered = new ArrayList<>(seats);
+        ordered.sort(Comparator.comparing((SeatDTO seat) -> Seat.SeatType.valueOf(seat.getSeatType()))
+            .thenComparing(SeatDTO::getId));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 + ordered.size() * 2);
+        out.write('S');
+        out.write('M');
+        out.write(VERSION);
+        writeVarLong(out, busId);
+        writeVarLong(out, ordered.size());
+
+        List<int[]> ranges = splitRanges(ordered);
+        writeVarLong(out, ranges.size());
+        for (int[] range : ranges) {
+            writeRange(out, ordered.subList(range[0], range[1]));
+        }
+
+        byte[] booked = new byte[(ordered.size() + 7) / 8];
+        for (int i = 0; i < ordered.size(); i++) {
+            if (Seat.SeatStatus.BOOKED.toString().equals(ordered.get(i).getStatus())) {
+                booked[i >> 3] |= (byte) (1 << (i & 7));
+            }
+        }
+        out.writeBytes(booked);
+        return out.toByteArray();
+    }
+
+    /**
+     * Reads a seat map written by encode, e.g. back out of a snapshot file
+     */
+    public static List<SeatDTO> decode(ByteBuffer in) {
+        if (in.get() != 'S' || in.get() != 'M') {
+            throw new IllegalArgumentException("Not a seat map");
+        }
+        int version = in.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported seat map version " + version);
+        }
+        long busId = readVarLong(in);
+        int seatCount = (int) readVarLong(in);
+        int rangeCount = (int) readVarLong(in);
+
+        List<SeatDTO> seats = new ArrayList<>(seatCount);
+        Seat.SeatType[] types = Seat.SeatType.values();
+        for (int r = 0; r < rangeCount; r++) {
+            int flags = in.get() & 0xFF;
+            String seatType = types[flags & 0x3].toString();
+            int count = (int) readVarLong(in);
+            long[] ids = new long[count];
+            ids[0] = readVarLong(in);
+            for (int i = 1; i < count; i++) {
+                if ((flags & FLAG_CONSECUTIVE_IDS) != 0) {
+                    ids[i] = ids[i - 1] + 1;
+                } else {
+                    long zigzag = readVarLong(in);
+                    ids[i] = ids[i - 1] + ((zigzag >>> 1) ^ -(zigzag & 1));
+                }
+            }
+            if ((flags & FLAG_PREFIX_LABELS) != 0) {
+                Label first = new Label(readString(in), (int) readVarLong(in));
+                for (int i = 0; i < count; i++) {
+                    seats.add(new SeatDTO(ids[i], new Label(first.prefix, first.number + i).format(), seatType, null, busId));
+                }
+            } else {
+                for (int i = 0; i < count; i++) {
+                    seats.add(new SeatDTO(ids[i], readString(in), seatType, null, busId));
+                }
+            }
+        }
+
+        byte[] booked = new byte[(seatCount + 7) / 8];
+        in.get(booked);
+        for (int i = 0; i < seats.size(); i++) {
+            boolean isBooked = (booked[i >> 3] & (1 << (i & 7))) != 0;
+            seats.get(i).setStatus((isBooked ? Seat.SeatStatus.BOOKED : Seat.SeatStatus.AVAILABLE).toString());
+        }
+        return seats;
+    }
+
+    // Start and end index of every run of one seat type with prefix+number labels
+    private static List<int[]> splitRanges(List<SeatDTO> seats) {
+        List<int[]> ranges = new ArrayList<>();
+        int start = 0;
+        for (int i = 1; i <= seats.size(); i++) {
+            if (i == seats.size() || !continuesRange(seats.get(i - 1), seats.get(i))) {
+                ranges.add(new int[] {start, i});
+                start = i;
+            }
+        }
+        return ranges;
+    }
+
+    private static boolean continuesRange(SeatDTO previous, SeatDTO seat) {
+        if (!previous.getSeatType().equals(seat.getSeatType())) {
+            return false;
+        }
+        Label a = Label.parse(previous.getSeatNumber());
+        Label b = Label.parse(seat.getSeatNumber());
+        return a != null && b != null && a.prefix.equals(b.prefix) && b.number == a.number + 1;
+    }
+
+    private static void writeRange(ByteArrayOutputStream out, List<SeatDTO> range) {
+        Label first = Label.parse(range.get(0).getSeatNumber());
+        boolean prefixLabels = first != null;
+        boolean consecutiveIds = true;
+        for (int i = 1; i < range.size(); i++) {
+            if (range.get(i).getId() != range.get(i - 1).getId() + 1) {
+                consecutiveIds = false;
+                break;
+            }
+        }
+
+        int flags = Seat.SeatType.valueOf(range.get(0).getSeatType()).ordinal();
+        if (prefixLabels) {
+            flags |= FLAG_PREFIX_LABELS;
+        }
+        if (consecutiveIds) {
+            flags |= FLAG_CONSECUTIVE_IDS;
+        }
+        out.write(flags);
+        writeVarLong(out, range.size());
+        writeVarLong(out, range.get(0).getId());
+        if (!consecutiveIds) {
+            for (int i = 1; i < range.size(); i++) {
+                long delta = range.get(i).getId() - range.get(i - 1).getId();
+                writeVarLong(out, (delta << 1) ^ (delta >> 63));
+            }
+        }
+        if (prefixLabels) {
+            writeString(out, first.prefix);
+            writeVarLong(out, first.number);
+        } else {
+            for (SeatDTO seat : range) {
+                writeString(out, seat.getSeatNumber());
+            }
+        }
+    }
+
+    /**
+     * A seat label that can be rebuilt as prefix + String.format("%02d", number)
+     */
+    private record Label(String prefix, int number) {
+
+        static Label parse(String seatNumber) {
+            if (seatNumber == null) {
+                return null;
+            }
+            int digits = seatNumber.length();
+            while (digits > 0 && Character.isDigit(seatNumber.charAt(digits - 1))) {
+                digits--;
+            }
+            if (digits == seatNumber.length() || seatNumber.length() - digits > 9) {
+                return null;
+            }
+            Label label = new Label(seatNumber.substring(0, digits), Integer.parseInt(seatNumber.substring(digits)));
+            return label.format().equals(seatNumber) ? label : null;
+        }
+
+        String format() {
+            return prefix + String.format("%02d", number);
+        }
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.writeBytes(bytes);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[(int) readVarLong(in)];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
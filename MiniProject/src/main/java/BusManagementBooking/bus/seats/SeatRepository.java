@@ -1,16 +1,69 @@
 package BusManagementBooking.bus.seats;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface SeatRepository extends JpaRepository<Seat, Long> {
+    // Derived queries on bus.id join buses and filter on buses.id, which keeps the
+    // seats indexes out of the plan; these filter on the seats.bus_id column instead
+    @Query("select s from Seat s where s.bus.id = :busId")
     List<Seat> findByBusId(Long busId);
+    @Query("select s from Seat s where s.bus.id = :busId and s.seatType = :seatType")
     List<Seat> findByBusIdAndSeatType(Long busId, Seat.SeatType seatType);
+    @Query("select s from Seat s where s.bus.id = :busId and s.status = :status")
     List<Seat> findByBusIdAndStatus(Long busId, Seat.SeatStatus status);
+    @Query("select s from Seat s where s.bus.id = :busId and s.seatType = :seatType and s.status = :status")
     List<Seat> findByBusIdAndSeatTypeAndStatus(Long busId, Seat.SeatType seatType, Seat.SeatStatus status);
+    @Query("select s from Seat s where s.bus.id = :busId and s.seatNumber = :seatNumber")
     Optional<Seat> findByBusIdAndSeatNumber(Long busId, String seatNumber);
-    int countByBusIdAndSeatType(Long busId, Seat.SeatType seatType);
+    @Query("select s from Seat s where s.bus.id in :busIds")
+    List<Seat> findByBusIdIn(Collection<Long> busIds);
+    @Query("select s.id from Seat s where s.bus.id = :busId")
+    List<Long> findIdsByBusId(Long busId);
+
+    @Query("select s.bus.id, count(s) from Seat s group by s.bus.id")
+    List<Object[]> countGroupedByBusId();
+
+    @Query("select s.bus.id, s.seatType, s.status, count(s) from Seat s group by s.bus.id, s.seatType, s.status")
+    List<Object[]> countGroupedByBusTypeAndStatus();
+
+    @Query("select s.bus.id, s.seatType, s.status, count(s) from Seat s where s.bus.id = :busId group by s.bus.id, s.seatType, s.status")
+    List<Object[]> countGroupedByBusTypeAndStatus(Long busId);
+
+    // Bookings and transfers take their seat through these, never from the second-level cache
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from Seat s where s.bus.id = :busId and s.seatNumber = :seatNumber")
+    Optional<Seat> lockByBusIdAndSeatNumber(Long busId, String seatNumber);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from Seat s where s.id = :id")
+    Optional<Seat> lockById(Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from Seat s where s.bus.id in :busIds")
+    List<Seat> lockByBusIdIn(Collection<Long> busIds);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from Seat s where s.bus.id in :busIds and s.status = :status order by s.id")
+    List<Seat> lockByBusIdInAndStatus(Collection<Long> busIds, Seat.SeatStatus status);
+
+    @Modifying
+    @Query("update Seat s set s.status = :status where s.id in :ids and s.status <> :status")
+    int updateStatusByIds(Collection<Long> ids, Seat.SeatStatus status);
+
+    @Modifying
+    @Query("update Seat s set s.status = :status where s.bus.id = :busId and s.seatNumber in :seatNumbers")
+    int updateStatusByBusIdAndSeatNumbers(Long busId, Collection<String> seatNumbers, Seat.SeatStatus status);
+
+    @Modifying
+    @Query("delete from Seat s where s.bus.id in :busIds")
+    int deleteByBusIds(Collection<Long> busIds);
 } 
\ No newline at end of file
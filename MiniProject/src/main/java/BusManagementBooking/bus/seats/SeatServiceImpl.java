@@ -1,14 +1,26 @@
 package BusManagementBooking.bus.seats;
 
+import BusManagementBooking.bus.archive.ArchiveService;
 import BusManagementBooking.bus.buses.Bus;
 import BusManagementBooking.bus.buses.BusRepository;
+import BusManagementBooking.bus.cache.CacheInvalidationBus;
+import BusManagementBooking.bus.cache.LocalCache;
+import BusManagementBooking.bus.cache.RequestCoalescer;
+import BusManagementBooking.bus.datasource.ReplicaRoutingDataSource;
+import BusManagementBooking.bus.snapshot.InventorySnapshotService;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import jakarta.transaction.Transactional;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 @Service
@@ -20,6 +32,40 @@ public class SeatServiceImpl implements SeatService {
     @Autowired
     private BusRepository busRepository;
     
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+    
+    @Autowired
+    private RequestCoalescer requestCoalescer;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private InventorySnapshotService inventorySnapshotService;
+    
+    @Autowired
+    private ArchiveService archiveService;
+    
+    @Value("${bus.cache.seats.ttl-ms:30000}")
+    private long seatCacheTtlMs;
+    
+    // Seat map per bus, invalidated on every seat change on any node
+    private LocalCache<List<SeatDTO>> seatMapCache;
+    
+    @PostConstruct
+    public void registerCacheListeners() {
+        seatMapCache = new LocalCache<>(seatCacheTtlMs);
+        requestCoalescer.register("seatMapLoads", seatMapCache.getLoads());
+        cacheInvalidationBus.register(CacheInvalidationBus.SEATS, seatMapCache::invalidate);
+        cacheInvalidationBus.register(CacheInvalidationBus.BUS, seatMapCache::invalidate);
+    }
+    
+    @Scheduled(fixedDelayString = "${bus.cache.seats.ttl-ms:30000}")
+    public void evictExpiredSeatMaps() {
+        seatMapCache.evictExpired();
+    }
+    
     @Override
     @Transactional
     public void initializeSeatsForBus(Long busId, int regularSeats, int elderSeats, int pregnantSeats) {
@@ -35,12 +81,14 @@ public class SeatServiceImpl implements SeatService {
         List<Seat> existingSeats = seatRepository.findByBusId(busId);
         if (!existingSeats.isEmpty()) {
             seatRepository.deleteAll(existingSeats);
+            // Hibernate flushes inserts before deletes, which would trip the unique seat number index
+            seatRepository.flush();
         }
         
         // Create and save regular seats
         for (int i = 1; i <= regularSeats; i++) {
             Seat seat = new Seat(
-                "R" + String.format("%02d", i),
+                SeatLayout.seatNumber(Seat.SeatType.REGULAR, i),
                 Seat.SeatType.REGULAR,
                 Seat.SeatStatus.AVAILABLE,
                 bus
@@ -51,7 +99,7 @@ public class SeatServiceImpl implements SeatService {
         // Create and save elder seats
         for (int i = 1; i <= elderSeats; i++) {
             Seat seat = new Seat(
-                "E" + String.format("%02d", i),
+                SeatLayout.seatNumber(Seat.SeatType.ELDER, i),
                 Seat.SeatType.ELDER,
                 Seat.SeatStatus.AVAILABLE,
                 bus
@@ -62,19 +110,43 @@ public class SeatServiceImpl implements SeatService {
         // Create and save pregnant women seats
         for (int i = 1; i <= pregnantSeats; i++) {
             Seat seat = new Seat(
-                "P" + String.format("%02d", i),
+                SeatLayout.seatNumber(Seat.SeatType.PREGNANT, i),
                 Seat.SeatType.PREGNANT,
                 Seat.SeatStatus.AVAILABLE,
                 bus
             );
             seatRepository.save(seat);
         }
+        
+        cacheInvalidationBus.publish(CacheInvalidationBus.SEATS, busId);
+        eventPublisher.publishEvent(SeatInventoryEvent.replaced(busId));
     }
     
     @Override
-    @Transactional
     public List<SeatDTO> getSeatsByBusId(Long busId) {
-        return seatRepository.findByBusId(busId).stream()
+        return cachedSeats(busId, seat -> true);
+    }
+    
+    // The cached DTOs are shared by every reader, so callers get their own copies
+    private List<SeatDTO> cachedSeats(Long busId, Predicate<SeatDTO> filter) {
+        return seatMapCache.get(busId, this::loadSeatMap).stream()
+            .filter(filter)
+            .map(SeatDTO::copy)
+            .collect(Collectors.toList());
+    }
+    
+    private List<SeatDTO> loadSeatMap(Long busId) {
+        Optional<List<SeatDTO>> restored = inventorySnapshotService.findSeatMap(busId);
+        if (restored.isPresent()) {
+            return List.copyOf(restored.get());
+        }
+        // Loaded right after invalidations, so a lagging replica must not be used
+        List<Seat> seats = ReplicaRoutingDataSource.onPrimary(() -> seatRepository.findByBusId(busId));
+        if (seats.isEmpty()) {
+            // Seats of departed buses only live in the archive
+            seats = archiveService.findArchivedSeats(busId);
+        }
+        return seats.stream()
             .map(seat -> {
                 // Ensure busId is set correctly
                 SeatDTO dto = SeatDTO.fromEntity(seat);
@@ -83,39 +155,22 @@ public class SeatServiceImpl implements SeatService {
                 }
                 return dto;
             })
-            .collect(Collectors.toList());
+            .collect(Collectors.toUnmodifiableList());
     }
     
     @Override
-    @Transactional
     public List<SeatDTO> getAvailableSeatsByBusId(Long busId) {
-        return seatRepository.findByBusIdAndStatus(busId, Seat.SeatStatus.AVAILABLE).stream()
-            .map(seat -> {
-                // Ensure busId is set correctly
-                SeatDTO dto = SeatDTO.fromEntity(seat);
-                if (dto.getBusId() == null) {
-                    dto.setBusId(busId);
-                }
-                return dto;
-            })
-            .collect(Collectors.toList());
+        // Served from the cached seat map of the bus
+        String available = Seat.SeatStatus.AVAILABLE.toString();
+        return cachedSeats(busId, seat -> available.equals(seat.getStatus()));
     }
     
     @Override
-    @Transactional
     public List<SeatDTO> getAvailableSeatsByTypeAndBusId(Long busId, String seatType) {
         try {
-            Seat.SeatType type = Seat.SeatType.valueOf(seatType);
-            return seatRepository.findByBusIdAndSeatTypeAndStatus(busId, type, Seat.SeatStatus.AVAILABLE).stream()
-                .map(seat -> {
-                    // Ensure busId is set correctly
-                    SeatDTO dto = SeatDTO.fromEntity(seat);
-                    if (dto.getBusId() == null) {
-                        dto.setBusId(busId);
-                    }
-                    return dto;
-                })
-                .collect(Collectors.toList());
+            String type = Seat.SeatType.valueOf(seatType).toString();
+            String available = Seat.SeatStatus.AVAILABLE.toString();
+            return cachedSeats(busId, seat -> type.equals(seat.getSeatType()) && available.equals(seat.getStatus()));
         } catch (IllegalArgumentException e) {
             throw new RuntimeException("Invalid seat type: " + seatType + ". Valid types are: REGULAR, ELDER, PREGNANT");
         }
@@ -123,10 +178,14 @@ public class SeatServiceImpl implements SeatService {
     
     @Override
     public Map<String, Integer> getSeatCountByBusId(Long busId) {
+        // One grouped query instead of a count per seat type
         Map<String, Integer> seatCounts = new HashMap<>();
-        seatCounts.put("REGULAR", seatRepository.countByBusIdAndSeatType(busId, Seat.SeatType.REGULAR));
-        seatCounts.put("ELDER", seatRepository.countByBusIdAndSeatType(busId, Seat.SeatType.ELDER));
-        seatCounts.put("PREGNANT", seatRepository.countByBusIdAndSeatType(busId, Seat.SeatType.PREGNANT));
+        for (Seat.SeatType seatType : Seat.SeatType.values()) {
+            seatCounts.put(seatType.toString(), 0);
+        }
+        for (Object[] row : seatRepository.countGroupedByBusTypeAndStatus(busId)) {
+            seatCounts.merge(row[1].toString(), ((Long) row[3]).intValue(), Integer::sum);
+        }
         return seatCounts;
     }
     
@@ -138,8 +197,15 @@ public class SeatServiceImpl implements SeatService {
             Seat seat = seatRepository.findById(seatId)
                 .orElseThrow(() -> new RuntimeException("Seat not found with ID: " + seatId));
             
+            boolean changed = seat.getStatus() != seatStatus;
             seat.setStatus(seatStatus);
             seat = seatRepository.save(seat);
+            if (seat.getBus() != null) {
+                cacheInvalidationBus.publish(CacheInvalidationBus.SEATS, seat.getBus().getId());
+                if (changed) {
+                    eventPublisher.publishEvent(SeatInventoryEvent.statusChanged(seat, seatStatus));
+                }
+            }
             
             // Ensure busId is set correctly
             SeatDTO dto = SeatDTO.fromEntity(seat);
@@ -157,5 +223,7 @@ public class SeatServiceImpl implements SeatService {
     public void deleteSeatsForBus(Long busId) {
         List<Seat> seats = seatRepository.findByBusId(busId);
         seatRepository.deleteAll(seats);
+        cacheInvalidationBus.publish(CacheInvalidationBus.SEATS, busId);
+        eventPublisher.publishEvent(SeatInventoryEvent.replaced(busId));
     }
 } 
\ No newline at end of file
@@ -0,0 +1,248 @@
+package BusManagementBooking.bus.snapshot;
+
+import BusManagementBooking.bus.seats.SeatDTO;
+import BusManagementBooking.bus.seats.SeatMapCodec;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.zip.CRC32;
+
+/**
+ * Memory-mapped file holding the timetable columns and seat map of every
+ * bus, tagged with the cache_invalidations id it is current up to.
+ *
+ * Layout (big-endian): magic, version, high-water mark, taken-at millis and
+ * bus count, then one record per bus in id order: record length, bus id,
+ * name, route, departure date, departure time, arrival time and price as
+ * strings (short length + UTF-8, -1 for null), available seats (-1 for null)
+ * and the SeatMapCodec bytes of its seats (length-prefixed). A CRC32 of
+ * everything before it closes the file.
+ *
+ * Opening a snapshot maps the file and indexes record offsets by bus id;
+ * records are decoded only when asked for, and records of buses that did
+ * not change are copied byte for byte into the next snapshot.
+ */
+final class InventorySnapshot {
+
+    private static final int MAGIC = 0x42555349;
+    private static final short VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 2 + 8 + 8 + 4;
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final long highWaterMark;
+    private final long takenAt;
+    private final Map<Long, Integer> offsets;
+
+    private InventorySnapshot(Path path, MappedByteBuffer buffer, long highWaterMark, long takenAt, Map<Long, Integer> offsets) {
+        this.path = path;
+        this.buffer = buffer;
+        this.highWaterMark = highWaterMark;
+        this.takenAt = takenAt;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Maps a snapshot file, failing if it is truncated or not a snapshot
+     */
+    static InventorySnapshot open(Path path) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE + 4 || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Not an inventory snapshot: " + path);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        int end = buffer.capacity() - 4;
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().limit(end));
+        if (buffer.getInt(0) != MAGIC || buffer.getShort(4) != VERSION || (int) crc.getValue() != buffer.getInt(end)) {
+            throw new IOException("Not an inventory snapshot or corrupt: " + path);
+        }
+
+        long highWaterMark = buffer.getLong(6);
+        long takenAt = buffer.getLong(14);
+        int busCount = buffer.getInt(22);
+        Map<Long, Integer> offsets = new HashMap<>(busCount * 2);
+        int position = HEADER_SIZE;
+        for (int i = 0; i < busCount; i++) {
+            offsets.put(buffer.getLong(position + 4), position);
+            position += 4 + buffer.getInt(position);
+        }
+        if (position != end) {
+            throw new IOException("Inventory snapshot records do not match its length: " + path);
+        }
+        return new InventorySnapshot(path, buffer, highWaterMark, takenAt, offsets);
+    }
+
+    long getHighWaterMark() {
+        return highWaterMark;
+    }
+
+    long getTakenAt() {
+        return takenAt;
+    }
+
+    int getBusCount() {
+        return offsets.size();
+    }
+
+    long getSizeBytes() {
+        return buffer.capacity();
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    Set<Long> busIds() {
+        return offsets.keySet();
+    }
+
+    /**
+     * The bus in the column order of BusRepository.findAllTrips, or null
+     */
+    Object[] tripRow(Long busId) {
+        Integer offset = offsets.get(busId);
+        if (offset == null) {
+            return null;
+        }
+        ByteBuffer in = record(offset);
+        in.getLong();
+        String name = readString(in);
+        String route = readString(in);
+        String departureDate = readString(in);
+        String departureTime = readString(in);
+        String arrivalTime = readString(in);
+        String price = readString(in);
+        int availableSeats = in.getInt();
+        return new Object[] {busId, name, route, departureDate, departureTime, arrivalTime,
+            price != null ? new BigDecimal(price) : null, availableSeats >= 0 ? availableSeats : null};
+    }
+
+    /**
+     * Seats of the bus, or null if the bus is not in the snapshot
+     */
+    List<SeatDTO> seatMap(Long busId) {
+        Integer offset = offsets.get(busId);
+        if (offset == null) {
+            return null;
+        }
+        ByteBuffer in = record(offset);
+        in.getLong();
+        for (int i = 0; i < 6; i++) {
+            skipString(in);
+        }
+        in.getInt();
+        int length = in.getInt();
+        return length == 0 ? List.of() : SeatMapCodec.decode(in.limit(in.position() + length));
+    }
+
+    /**
+     * The encoded record of the bus, for copying into the next snapshot
+     */
+    ByteBuffer rawRecord(Long busId) {
+        Integer offset = offsets.get(busId);
+        return offset == null ? null : buffer.slice(offset, 4 + buffer.getInt(offset));
+    }
+
+    private ByteBuffer record(int offset) {
+        return buffer.slice(offset + 4, buffer.getInt(offset));
+    }
+
+    static ByteBuffer encodeRecord(Object[] tripRow, byte[] seatMap) {
+        byte[][] strings = new byte[6][];
+        int length = 8 + 4 + 4 + seatMap.length;
+        for (int i = 0; i < strings.length; i++) {
+            Object value = tripRow[i + 1];
+            if (value != null) {
+                strings[i] = (value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString())
+                    .getBytes(StandardCharsets.UTF_8);
+                if (strings[i].length > Short.MAX_VALUE) {
+                    throw new IllegalArgumentException("Bus " + tripRow[0] + " has a column too long for a snapshot");
+                }
+            }
+            length += 2 + (strings[i] != null ? strings[i].length : 0);
+        }
+
+        ByteBuffer out = ByteBuffer.allocate(4 + length);
+        out.putInt(length);
+        out.putLong((Long) tripRow[0]);
+        for (byte[] string : strings) {
+            if (string == null) {
+                out.putShort((short) -1);
+            } else {
+                out.putShort((short) string.length);
+                out.put(string);
+            }
+        }
+        out.putInt(tripRow[7] != null ? (Integer) tripRow[7] : -1);
+        out.putInt(seatMap.length);
+        out.put(seatMap);
+        return out.flip();
+    }
+
+    /**
+     * Writes records (keyed by bus id) next to the target through a mapped
+     * buffer and moves the file in place, so readers never see a partial one
+     */
+    static void write(Path target, long highWaterMark, long takenAt, SortedMap<Long, ByteBuffer> records) throws IOException {
+        long size = HEADER_SIZE + 4;
+        for (ByteBuffer record : records.values()) {
+            size += record.remaining();
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Inventory snapshot too large: " + size + " bytes");
+        }
+
+        Files.createDirectories(target.toAbsolutePath().getParent());
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            out.putInt(MAGIC);
+            out.putShort(VERSION);
+            out.putLong(highWaterMark);
+            out.putLong(takenAt);
+            out.putInt(records.size());
+            for (ByteBuffer record : records.values()) {
+                out.put(record.duplicate());
+            }
+            CRC32 crc = new CRC32();
+            crc.update(out.duplicate().flip());
+            out.putInt((int) crc.getValue());
+            out.force();
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static String readString(ByteBuffer in) {
+        short length = in.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void skipString(ByteBuffer in) {
+        short length = in.getShort();
+        if (length > 0) {
+            in.position(in.position() + length);
+        }
+    }
+}
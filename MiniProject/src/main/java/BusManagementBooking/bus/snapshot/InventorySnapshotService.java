@@ -0,0 +1,24 @@
+package BusManagementBooking.bus.snapshot;
+
+import BusManagementBooking.bus.seats.SeatDTO;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public interface InventorySnapshotService {
+    /**
+     * Seat map of the bus from the restored snapshot, while warming up after
+     * a restart and only if the bus has not changed since the snapshot
+     */
+    Optional<List<SeatDTO>> findSeatMap(Long busId);
+
+    /**
+     * Every bus in the column order of BusRepository.findAllTrips, read from
+     * the restored snapshot plus the buses changed since, while warming up
+     */
+    Optional<List<Object[]>> findTripRows();
+
+    Map<String, Object> write();
+    Map<String, Object> getStats();
+}
@@ -0,0 +1,322 @@
+package BusManagementBooking.bus.snapshot;
+
+import BusManagementBooking.bus.buses.BusRepository;
+import BusManagementBooking.bus.cache.BusVersions;
+import BusManagementBooking.bus.cache.CacheInvalidationBus;
+import BusManagementBooking.bus.cache.CacheInvalidationRepository;
+import BusManagementBooking.bus.datasource.ReplicaRoutingDataSource;
+import BusManagementBooking.bus.seats.Seat;
+import BusManagementBooking.bus.seats.SeatDTO;
+import BusManagementBooking.bus.seats.SeatMapCodec;
+import BusManagementBooking.bus.seats.SeatRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Periodically writes bus metadata and seat maps to a memory-mapped
+ * InventorySnapshot, so a restarted node can warm up from it instead of
+ * reloading everything from the database.
+ *
+ * Every invalidation on the cache bus marks its bus as changed. At startup
+ * the snapshot is mapped, and the buses invalidated after its high-water mark
+ * (or within the gap window before it was taken, for rows committed out of
+ * id order) are marked as changed too; only those are read from the
+ * database, the rest is served from the file during the warm-up period.
+ * Writes re-read only the changed buses and copy the other records from the
+ * previous file, unless invalidations may have been lost since, in which
+ * case everything is read again.
+ */
+@Service
+public class InventorySnapshotServiceImpl implements InventorySnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventorySnapshotServiceImpl.class);
+
+    @Autowired
+    private BusRepository busRepository;
+
+    @Autowired
+    private SeatRepository seatRepository;
+
+    @Autowired
+    private CacheInvalidationRepository cacheInvalidationRepository;
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Autowired
+    private BusVersions busVersions;
+
+    @Value("${bus.snapshot.enabled:true}")
+    private boolean enabled;
+
+    @Value("${bus.snapshot.path:./data/snapshot/inventory.snap}")
+    private String path;
+
+    @Value("${bus.snapshot.warm-up-ms:60000}")
+    private long warmUpMs;
+
+    @Value("${bus.snapshot.batch-size:500}")
+    private int batchSize;
+
+    @Value("${bus.cache.invalidation.gap-window-ms:2000}")
+    private long gapWindowMs;
+
+    @Value("${bus.cache.invalidation.retention-ms:600000}")
+    private long retentionMs;
+
+    private volatile InventorySnapshot snapshot;
+    // Buses changed since the snapshot, with the sequence number of their last change
+    private final Map<Long, Long> changed = new ConcurrentHashMap<>();
+    private final AtomicLong changeSequence = new AtomicLong();
+    // The snapshot plus the changed buses describe the database
+    private volatile boolean current;
+    private volatile long currentGeneration;
+    private volatile long warmUntil;
+
+    private final AtomicLong seatMapHits = new AtomicLong();
+    private final AtomicLong writes = new AtomicLong();
+    private volatile String restoreResult = "none";
+    private volatile int restoreChangedBuses;
+    private volatile long restoreMs;
+    private volatile Instant lastWriteAt;
+    private volatile long lastWriteMs;
+    private volatile int lastWriteReloaded;
+    private volatile boolean lastWriteFull;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        // Registered before the caches that read from the snapshot, so a bus is
+        // marked as changed before a reload of it could find the old record
+        cacheInvalidationBus.register(CacheInvalidationBus.BUS, this::markChanged);
+        cacheInvalidationBus.register(CacheInvalidationBus.SEATS, this::markChanged);
+        try {
+            snapshot = InventorySnapshot.open(Paths.get(path));
+        } catch (NoSuchFileException e) {
+            restoreResult = "no snapshot";
+        } catch (IOException e) {
+            restoreResult = "unreadable";
+            logger.warn("Ignoring inventory snapshot {}: {}", path, e.getMessage());
+        }
+    }
+
+    private void markChanged(Long busId) {
+        changed.put(busId, changeSequence.incrementAndGet());
+    }
+
+    /**
+     * Catches the mapped snapshot up with the invalidations made since it was
+     * taken. Runs right after the cache bus has started polling, so every
+     * later change reaches markChanged.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    public void restore() {
+        InventorySnapshot restored = snapshot;
+        if (restored == null) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        if (restored.getTakenAt() < start - retentionMs + gapWindowMs) {
+            // Invalidations since then may have been cleaned up already
+            restoreResult = "expired";
+            logger.info("Inventory snapshot taken at {} is older than the invalidation retention, starting cold",
+                Instant.ofEpochMilli(restored.getTakenAt()));
+            return;
+        }
+        long generation = busVersions.generation();
+        try {
+            if (ReplicaRoutingDataSource.onPrimary(() -> cacheInvalidationRepository.findMaxId()) < restored.getHighWaterMark()) {
+                // The invalidation log is behind the snapshot, so this is not the database it was taken from
+                restoreResult = "other database";
+                logger.info("Inventory snapshot is ahead of the invalidation log, starting cold");
+                return;
+            }
+            Set<Long> busIds = new HashSet<>(ReplicaRoutingDataSource.onPrimary(
+                () -> cacheInvalidationRepository.findEntityKeysAfterId(restored.getHighWaterMark())));
+            busIds.addAll(ReplicaRoutingDataSource.onPrimary(
+                () -> cacheInvalidationRepository.findEntityKeysCreatedSince(restored.getTakenAt() - gapWindowMs)));
+            busIds.forEach(this::markChanged);
+            restoreChangedBuses = busIds.size();
+        } catch (Exception e) {
+            restoreResult = "failed";
+            logger.warn("Catching up the inventory snapshot failed, starting cold: {}", e.getMessage());
+            return;
+        }
+        currentGeneration = generation;
+        current = true;
+        warmUntil = System.currentTimeMillis() + warmUpMs;
+        restoreMs = System.currentTimeMillis() - start;
+        restoreResult = "restored";
+        logger.info("Inventory snapshot with {} buses restored in {} ms, {} buses changed since it was taken",
+            restored.getBusCount(), restoreMs, restoreChangedBuses);
+    }
+
+    private boolean warm() {
+        return current && System.currentTimeMillis() < warmUntil && busVersions.generation() == currentGeneration;
+    }
+
+    @Override
+    public Optional<List<SeatDTO>> findSeatMap(Long busId) {
+        InventorySnapshot restored = snapshot;
+        if (!warm() || changed.containsKey(busId)) {
+            return Optional.empty();
+        }
+        List<SeatDTO> seats = restored.seatMap(busId);
+        if (seats == null) {
+            return Optional.empty();
+        }
+        seatMapHits.incrementAndGet();
+        return Optional.of(seats);
+    }
+
+    @Override
+    public Optional<List<Object[]>> findTripRows() {
+        InventorySnapshot restored = snapshot;
+        if (!warm()) {
+            return Optional.empty();
+        }
+        Set<Long> reload = new HashSet<>(changed.keySet());
+        List<Object[]> rows = new ArrayList<>(restored.getBusCount() + reload.size());
+        for (Long busId : restored.busIds()) {
+            if (!reload.contains(busId)) {
+                rows.add(restored.tripRow(busId));
+            }
+        }
+        for (List<Long> batch : batches(reload)) {
+            rows.addAll(ReplicaRoutingDataSource.onPrimary(() -> busRepository.findTripsByIdIn(batch)));
+        }
+        return Optional.of(rows);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${bus.snapshot.write-interval-ms:120000}",
+               initialDelayString = "${bus.snapshot.write-interval-ms:120000}")
+    public synchronized Map<String, Object> write() {
+        if (!enabled) {
+            return getStats();
+        }
+        long start = System.currentTimeMillis();
+        long generation = busVersions.generation();
+        long sequence = changeSequence.get();
+        InventorySnapshot previous = current && generation == currentGeneration ? snapshot : null;
+        try {
+            long highWaterMark = ReplicaRoutingDataSource.onPrimary(() -> cacheInvalidationRepository.findMaxId());
+            long takenAt = System.currentTimeMillis();
+
+            SortedMap<Long, ByteBuffer> records = new TreeMap<>();
+            List<Object[]> tripRows;
+            if (previous == null) {
+                tripRows = ReplicaRoutingDataSource.onPrimary(() -> busRepository.findAllTrips());
+            } else {
+                Set<Long> reload = new HashSet<>(changed.keySet());
+                for (Long busId : previous.busIds()) {
+                    if (!reload.contains(busId)) {
+                        records.put(busId, previous.rawRecord(busId));
+                    }
+                }
+                tripRows = new ArrayList<>();
+                for (List<Long> batch : batches(reload)) {
+                    tripRows.addAll(ReplicaRoutingDataSource.onPrimary(() -> busRepository.findTripsByIdIn(batch)));
+                }
+            }
+
+            Map<Long, Object[]> byId = new HashMap<>();
+            tripRows.forEach(row -> byId.put((Long) row[0], row));
+            for (List<Long> batch : batches(byId.keySet())) {
+                Map<Long, List<SeatDTO>> seats = new HashMap<>();
+                for (Seat seat : ReplicaRoutingDataSource.onPrimary(() -> seatRepository.findByBusIdIn(batch))) {
+                    SeatDTO dto = SeatDTO.fromEntity(seat);
+                    seats.computeIfAbsent(dto.getBusId(), id -> new ArrayList<>()).add(dto);
+                }
+                for (Long busId : batch) {
+                    List<SeatDTO> busSeats = seats.get(busId);
+                    byte[] seatMap = busSeats != null ? SeatMapCodec.encode(busId, busSeats) : new byte[0];
+                    records.put(busId, InventorySnapshot.encodeRecord(byId.get(busId), seatMap));
+                }
+            }
+
+            Path target = Paths.get(path);
+            InventorySnapshot.write(target, highWaterMark, takenAt, records);
+            snapshot = InventorySnapshot.open(target);
+            // Changes from before this write are in the new file, later ones stay marked
+            changed.values().removeIf(changedAt -> changedAt <= sequence);
+            currentGeneration = generation;
+            current = true;
+
+            writes.incrementAndGet();
+            lastWriteFull = previous == null;
+            lastWriteReloaded = byId.size();
+            lastWriteMs = System.currentTimeMillis() - start;
+            lastWriteAt = Instant.now();
+            logger.debug("Inventory snapshot of {} buses written in {} ms, {} read from the database",
+                records.size(), lastWriteMs, lastWriteReloaded);
+        } catch (Exception e) {
+            logger.error("Writing the inventory snapshot failed: {}", e.getMessage());
+        }
+        return getStats();
+    }
+
+    private List<List<Long>> batches(Collection<Long> busIds) {
+        List<Long> ids = new ArrayList<>(busIds);
+        List<List<Long>> batches = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += batchSize) {
+            batches.add(ids.subList(i, Math.min(ids.size(), i + batchSize)));
+        }
+        return batches;
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        InventorySnapshot restored = snapshot;
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("path", Paths.get(path).toAbsolutePath().toString());
+        stats.put("restore", restoreResult);
+        stats.put("restoreMs", restoreMs);
+        stats.put("restoreChangedBuses", restoreChangedBuses);
+        stats.put("warm", warm());
+        stats.put("seatMapHits", seatMapHits.get());
+        stats.put("changedBuses", changed.size());
+        stats.put("buses", restored != null ? restored.getBusCount() : 0);
+        stats.put("bytes", restored != null ? restored.getSizeBytes() : 0);
+        stats.put("highWaterMark", restored != null ? restored.getHighWaterMark() : null);
+        stats.put("takenAt", restored != null ? Instant.ofEpochMilli(restored.getTakenAt()) : null);
+        stats.put("writes", writes.get());
+        stats.put("lastWriteAt", lastWriteAt);
+        stats.put("lastWriteMs", lastWriteMs);
+        stats.put("lastWriteFull", lastWriteFull);
+        stats.put("lastWriteReloaded", lastWriteReloaded);
+        return stats;
+    }
+}
@@ -0,0 +1,34 @@
+package BusManagementBooking.bus.snapshot;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("snapshot")
+@CrossOrigin(origins = "http://localhost:5173", allowCredentials = "true")
+public class SnapshotController {
+
+    @Autowired
+    private InventorySnapshotService inventorySnapshotService;
+
+    @GetMapping("/health")
+    public String checkAlive() {
+        return "Snapshot Controller is alive!";
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(inventorySnapshotService.getStats());
+    }
+
+    /**
+     * Writes a snapshot now, e.g. right before a planned restart
+     */
+    @PostMapping("/write")
+    public ResponseEntity<Map<String, Object>> write() {
+        return ResponseEntity.ok(inventorySnapshotService.write());
+    }
+}
@@ -6,6 +6,8 @@ import jakarta.persistence.*;
 @Table(name = "users")
 public class User {
 
+    static final int ELDER_PRIORITY_AGE = 60;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -46,11 +48,20 @@ public class User {
 
     // Helper method to determine if user is eligible for elder priority
     public boolean isElderlyPriorityEligible() {
-        return age != null && age >= 60;
+        return isElderlyPriorityEligible(age);
     }
     
     // Helper method to determine if user is eligible for pregnant priority
     public boolean isPregnantPriorityEligible() {
+        return isPregnantPriorityEligible(isPregnant, gender);
+    }
+
+    // Shared with projections that never load the entity
+    static boolean isElderlyPriorityEligible(Integer age) {
+        return age != null && age >= ELDER_PRIORITY_AGE;
+    }
+
+    static boolean isPregnantPriorityEligible(Boolean isPregnant, String gender) {
         return isPregnant != null && isPregnant && "FEMALE".equalsIgnoreCase(gender);
     }
 
@@ -1,9 +1,18 @@
 package BusManagementBooking.bus.user;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import java.util.List;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.Optional;
 
 @RestController
@@ -13,9 +22,12 @@ public class UserController {
 
     private final UserService userService;
 
+    private final ObjectMapper objectMapper;
+
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(UserService userService, ObjectMapper objectMapper) {
         this.userService = userService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping("health")
@@ -29,9 +41,83 @@ public class UserController {
         return ResponseEntity.ok("User added successfully!");
     }
 
+    /**
+     * Directory page of users without passwords. Filter by name or email
+     * prefix, role and priority (ELDER, PREGNANT or REGULAR); pass nextCursor
+     * of a page as cursor to get the next one.
+     */
     @GetMapping
-    public ResponseEntity<List<User>> getAllUsers() {
-        return ResponseEntity.ok(userService.getAllUsers());
+    public ResponseEntity<?> getUsers(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String email,
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) String priority,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(userService.getUserDirectory(name, email, role, priority, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Streams every matching user as NDJSON (default) or CSV, reading the
+     * directory page by page so neither side holds the whole list
+     */
+    @GetMapping("/export")
+    public ResponseEntity<?> exportUsers(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String email,
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) String priority,
+            @RequestParam(defaultValue = "ndjson") String format) {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"ndjson".equalsIgnoreCase(format)) {
+            return ResponseEntity.badRequest().body("Format must be ndjson or csv");
+        }
+        try {
+            // Checks the filters before the response is committed
+            userService.getUserDirectory(name, email, role, priority, null, 1);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+
+        StreamingResponseBody body = out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            if (csv) {
+                writer.write("id,name,email,role,age,gender,elderlyPriorityEligible,pregnantPriorityEligible\n");
+            }
+            userService.exportUsers(name, email, role, priority, user -> {
+                try {
+                    writer.write(csv ? toCsv(user) : objectMapper.writeValueAsString(user));
+                    writer.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8) : MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=users." + (csv ? "csv" : "ndjson"))
+                .body(body);
+    }
+
+    private static String toCsv(UserSummaryDTO user) {
+        return String.join(",", String.valueOf(user.getId()), csvField(user.getName()), csvField(user.getEmail()),
+                csvField(user.getRole()), user.getAge() != null ? user.getAge().toString() : "", csvField(user.getGender()),
+                String.valueOf(user.isElderlyPriorityEligible()), String.valueOf(user.isPregnantPriorityEligible()));
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
     }
 
     @GetMapping("/{email}")
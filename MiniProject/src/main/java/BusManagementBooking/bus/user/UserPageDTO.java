@@ -0,0 +1,33 @@
+package BusManagementBooking.bus.user;
+
+import java.util.List;
+
+public class UserPageDTO {
+    private List<UserSummaryDTO> users;
+    // Pass back as cursor for the next page; null on the last page
+    private String nextCursor;
+
+    public UserPageDTO() {}
+
+    public UserPageDTO(List<UserSummaryDTO> users, String nextCursor) {
+        this.users = users;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters and Setters
+    public List<UserSummaryDTO> getUsers() {
+        return users;
+    }
+
+    public void setUsers(List<UserSummaryDTO> users) {
+        this.users = users;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
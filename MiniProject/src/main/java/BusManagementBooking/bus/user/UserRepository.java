@@ -1,10 +1,41 @@
 package BusManagementBooking.bus.user;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
+
+    // User directory: keyset pages of projections, ordered by the column the prefix filter
+    // runs on so the filter and the page boundary are one index range. Prefixes end in %
+    // and escape their wildcards with !. Role and priority (ELDER, PREGNANT or REGULAR)
+    // are optional and filter within the range.
+    String DIRECTORY_SELECT = "select new BusManagementBooking.bus.user.UserSummaryDTO("
+        + "u.id, u.name, u.email, u.role, u.age, u.gender, u.isPregnant) from User u ";
+    String DIRECTORY_FILTERS = " and (:role is null or u.role = :role)"
+        + " and (:priority is null"
+        + " or (:priority = 'ELDER' and u.age >= " + User.ELDER_PRIORITY_AGE + ")"
+        + " or (:priority = 'PREGNANT' and u.isPregnant = true and upper(u.gender) = 'FEMALE')"
+        + " or (:priority = 'REGULAR' and (u.age is null or u.age < " + User.ELDER_PRIORITY_AGE + ")"
+        + " and (u.isPregnant is null or u.isPregnant = false or u.gender is null or upper(u.gender) <> 'FEMALE')))";
+
+    @Query(DIRECTORY_SELECT + "where u.id > :afterId" + DIRECTORY_FILTERS + " order by u.id")
+    List<UserSummaryDTO> findDirectoryPage(Long afterId, String role, String priority, Pageable page);
+
+    @Query(DIRECTORY_SELECT + "where u.name like :namePrefix escape '!'"
+        + " and (u.name > :afterName or (u.name = :afterName and u.id > :afterId))"
+        + " and (:emailPrefix is null or u.email like :emailPrefix escape '!')"
+        + DIRECTORY_FILTERS + " order by u.name, u.id")
+    List<UserSummaryDTO> findDirectoryPageByName(String namePrefix, String afterName, Long afterId, String emailPrefix,
+                                                 String role, String priority, Pageable page);
+
+    @Query(DIRECTORY_SELECT + "where u.email like :emailPrefix escape '!' and u.email > :afterEmail"
+        + DIRECTORY_FILTERS + " order by u.email")
+    List<UserSummaryDTO> findDirectoryPageByEmail(String emailPrefix, String afterEmail, String role, String priority,
+                                                  Pageable page);
 }
@@ -1,11 +1,23 @@
 package BusManagementBooking.bus.user;
 
-import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface UserService {
     void addUser(UserAddRequestDTO userAddRequestDTO);
-    List<User> getAllUsers();
+    /**
+     * One directory page. Filters are optional; a name or email prefix orders
+     * the page by that column, otherwise by id. The cursor comes from the
+     * previous page and must be used with the same filters.
+     */
+    UserPageDTO getUserDirectory(String namePrefix, String emailPrefix, String role, String priority,
+                                 String cursor, Integer limit);
+
+    /**
+     * Hands every matching user to the sink, one directory page at a time
+     */
+    long exportUsers(String namePrefix, String emailPrefix, String role, String priority,
+                     Consumer<UserSummaryDTO> sink);
     Optional<User> getUserByEmail(String email);
     Optional<User> getUserById(Long userId);
     User authenticateUser(String email, String password) throws Exception;
@@ -1,15 +1,33 @@
 package BusManagementBooking.bus.user;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Service
 public class UserServiceImpl implements UserService {
 
+    private static final Set<String> PRIORITIES = Set.of("ELDER", "PREGNANT", "REGULAR");
+
     private final UserRepository userRepository;
 
+    @Value("${bus.users.directory.default-page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${bus.users.directory.max-page-size:500}")
+    private int maxPageSize;
+
+    @Value("${bus.users.directory.export-batch-size:1000}")
+    private int exportBatchSize;
+
     @Autowired
     public UserServiceImpl(UserRepository userRepository) {
         this.userRepository = userRepository;
@@ -32,8 +50,112 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    public List<User> getAllUsers() {
-        return userRepository.findAll();
+    public UserPageDTO getUserDirectory(String namePrefix, String emailPrefix, String role, String priority,
+                                        String cursor, Integer limit) {
+        int size = limit != null ? limit : defaultPageSize;
+        if (size < 1 || size > maxPageSize) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + maxPageSize);
+        }
+        return page(new DirectoryFilter(namePrefix, emailPrefix, role, priority), cursor, size);
+    }
+
+    @Override
+    public long exportUsers(String namePrefix, String emailPrefix, String role, String priority,
+                            Consumer<UserSummaryDTO> sink) {
+        DirectoryFilter filter = new DirectoryFilter(namePrefix, emailPrefix, role, priority);
+        long exported = 0;
+        String cursor = null;
+        do {
+            UserPageDTO page = page(filter, cursor, exportBatchSize);
+            page.getUsers().forEach(sink);
+            exported += page.getUsers().size();
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return exported;
+    }
+
+    private UserPageDTO page(DirectoryFilter filter, String cursor, int size) {
+        // One extra row tells whether there is a next page
+        PageRequest page = PageRequest.of(0, size + 1);
+        String[] after = filter.decode(cursor);
+        List<UserSummaryDTO> users;
+        if (filter.namePrefix != null) {
+            users = userRepository.findDirectoryPageByName(filter.namePrefix, after[0], Long.parseLong(after[1]),
+                filter.emailPrefix, filter.role, filter.priority, page);
+        } else if (filter.emailPrefix != null) {
+            users = userRepository.findDirectoryPageByEmail(filter.emailPrefix, after[0], filter.role, filter.priority, page);
+        } else {
+            users = userRepository.findDirectoryPage(Long.parseLong(after[0]), filter.role, filter.priority, page);
+        }
+        if (users.size() <= size) {
+            return new UserPageDTO(users, null);
+        }
+        users = users.subList(0, size);
+        return new UserPageDTO(users, filter.encode(users.get(size - 1)));
+    }
+
+    /**
+     * Directory filters, and the cursor format of the order they imply:
+     * "n" + name + NUL + id, "e" + email, or "i" + id, in URL-safe Base64
+     */
+    private static final class DirectoryFilter {
+        final String namePrefix;
+        final String emailPrefix;
+        final String role;
+        final String priority;
+        final char mode;
+
+        DirectoryFilter(String namePrefix, String emailPrefix, String role, String priority) {
+            this.namePrefix = likePrefix(namePrefix);
+            this.emailPrefix = likePrefix(emailPrefix);
+            this.role = role == null || role.isBlank() ? null : role;
+            this.priority = priority == null || priority.isBlank() ? null : priority.toUpperCase(Locale.ROOT);
+            if (this.priority != null && !PRIORITIES.contains(this.priority)) {
+                throw new IllegalArgumentException("Priority must be one of ELDER, PREGNANT, REGULAR");
+            }
+            this.mode = this.namePrefix != null ? 'n' : this.emailPrefix != null ? 'e' : 'i';
+        }
+
+        String encode(UserSummaryDTO last) {
+            String key = switch (mode) {
+                case 'n' -> last.getName() + '\u0000' + last.getId();
+                case 'e' -> last.getEmail();
+                default -> String.valueOf(last.getId());
+            };
+            return Base64.getUrlEncoder().withoutPadding().encodeToString((mode + key).getBytes(StandardCharsets.UTF_8));
+        }
+
+        // Page boundary of the cursor, or the start for a first page
+        String[] decode(String cursor) {
+            if (cursor == null || cursor.isEmpty()) {
+                return switch (mode) {
+                    case 'n' -> new String[] {"", "0"};
+                    case 'e' -> new String[] {""};
+                    default -> new String[] {"0"};
+                };
+            }
+            String key;
+            try {
+                key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            if (key.isEmpty() || key.charAt(0) != mode) {
+                throw new IllegalArgumentException("Cursor does not belong to these filters");
+            }
+            String[] after = mode == 'n' ? key.substring(1).split("\u0000", -1) : new String[] {key.substring(1)};
+            if (mode == 'n' && after.length != 2 || mode != 'e' && !after[after.length - 1].matches("\\d{1,18}")) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return after;
+        }
+
+        private static String likePrefix(String prefix) {
+            if (prefix == null || prefix.isEmpty()) {
+                return null;
+            }
+            return prefix.replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+        }
     }
 
     @Override
@@ -0,0 +1,95 @@
+package BusManagementBooking.bus.user;
+
+/**
+ * A user as listed in the directory: profile columns and priority
+ * eligibility, never the password
+ */
+public class UserSummaryDTO {
+    private Long id;
+    private String name;
+    private String email;
+    private String role;
+    private Integer age;
+    private String gender;
+    private boolean elderlyPriorityEligible;
+    private boolean pregnantPriorityEligible;
+
+    public UserSummaryDTO() {}
+
+    // Used by the UserRepository directory queries
+    public UserSummaryDTO(Long id, String name, String email, String role, Integer age, String gender, Boolean isPregnant) {
+        this.id = id;
+        this.name = name;
+        this.email = email;
+        this.role = role;
+        this.age = age;
+        this.gender = gender;
+        this.elderlyPriorityEligible = User.isElderlyPriorityEligible(age);
+        this.pregnantPriorityEligible = User.isPregnantPriorityEligible(isPregnant, gender);
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public void setRole(String role) {
+        this.role = role;
+    }
+
+    public Integer getAge() {
+        return age;
+    }
+
+    public void setAge(Integer age) {
+        this.age = age;
+    }
+
+    public String getGender() {
+        return gender;
+    }
+
+    public void setGender(String gender) {
+        this.gender = gender;
+    }
+
+    public boolean isElderlyPriorityEligible() {
+        return elderlyPriorityEligible;
+    }
+
+    public void setElderlyPriorityEligible(boolean elderlyPriorityEligible) {
+        this.elderlyPriorityEligible = elderlyPriorityEligible;
+    }
+
+    public boolean isPregnantPriorityEligible() {
+        return pregnantPriorityEligible;
+    }
+
+    public void setPregnantPriorityEligible(boolean pregnantPriorityEligible) {
+        this.pregnantPriorityEligible = pregnantPriorityEligible;
+    }
+}
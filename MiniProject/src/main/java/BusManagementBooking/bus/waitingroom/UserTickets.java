@@ -0,0 +1,86 @@
+package BusManagementBooking.bus.waitingroom;
+
+/**
+ * Open-addressing map from user id to a packed long, kept in two primitive
+ * arrays so a million waiting users cost about 32 MB instead of the ~100 MB
+ * a HashMap of boxed values would. User ids must be positive; 0 marks an
+ * empty slot. Not thread-safe, WaitingRoom guards it.
+ */
+class UserTickets {
+
+    private static final float MAX_LOAD = 0.5f;
+
+    private long[] keys;
+    private long[] values;
+    private int size;
+
+    UserTickets() {
+        this(1024);
+    }
+
+    UserTickets(int initialCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(16, initialCapacity - 1)) << 1;
+        keys = new long[capacity];
+        values = new long[capacity];
+    }
+
+    /**
+     * Returns the value for the user, or -1 when there is none
+     */
+    long get(long userId) {
+        int slot = find(keys, userId);
+        return keys[slot] == userId ? values[slot] : -1;
+    }
+
+    void put(long userId, long value) {
+        if (userId <= 0) {
+            throw new IllegalArgumentException("User ID must be positive");
+        }
+        int slot = find(keys, userId);
+        if (keys[slot] != userId) {
+            if (size + 1 > keys.length * MAX_LOAD) {
+                grow();
+                slot = find(keys, userId);
+            }
+            keys[slot] = userId;
+            size++;
+        }
+        values[slot] = value;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int capacity() {
+        return keys.length;
+    }
+
+    private static int find(long[] table, long key) {
+        int mask = table.length - 1;
+        int slot = mix(key) & mask;
+        while (table[slot] != 0 && table[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new long[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = find(keys, oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package BusManagementBooking.bus.waitingroom;
+
+/**
+ * Queue of one bus. Tickets are consecutive numbers and everything up to
+ * admittedUpTo is admitted, so a position is one subtraction and the only
+ * per-user state is the user's ticket (to hand the same ticket back on a
+ * second join) packed with the second their pass was first issued.
+ */
+class WaitingRoom {
+
+    private final long busId;
+    private final UserTickets tickets = new UserTickets();
+
+    private volatile double admitPerSecond;
+    private volatile long issued;
+    private volatile long admittedUpTo;
+    private volatile boolean soldOut;
+    private double admitCredit;
+
+    WaitingRoom(long busId, double admitPerSecond) {
+        this.busId = busId;
+        this.admitPerSecond = admitPerSecond;
+    }
+
+    /**
+     * Returns the user's ticket, issuing a new one at the back of the queue
+     * unless the user is still waiting or holds a pass that has not expired
+     */
+    synchronized long join(long userId, long nowSeconds, long passTtlSeconds) {
+        long packed = tickets.get(userId);
+        if (packed >= 0) {
+            long ticket = ticketOf(packed);
+            long passIssuedAt = passIssuedAtOf(packed);
+            if (ticket > admittedUpTo || passIssuedAt == 0 || nowSeconds < passIssuedAt + passTtlSeconds) {
+                return ticket;
+            }
+        }
+        long ticket = ++issued;
+        tickets.put(userId, ticket);
+        return ticket;
+    }
+
+    /**
+     * Records the first pass for an admitted ticket and returns when it was
+     * issued, so repeated polls hand out the same expiry. Returns -1 when the
+     * ticket is not the user's current one.
+     */
+    synchronized long issuePass(long userId, long ticket, long nowSeconds) {
+        long packed = tickets.get(userId);
+        if (packed < 0 || ticketOf(packed) != ticket || ticket > admittedUpTo) {
+            return -1;
+        }
+        long passIssuedAt = passIssuedAtOf(packed);
+        if (passIssuedAt == 0) {
+            passIssuedAt = nowSeconds;
+            tickets.put(userId, (passIssuedAt << 32) | ticket);
+        }
+        return passIssuedAt;
+    }
+
+    /**
+     * Admits the users the configured rate allows for the elapsed time.
+     * Unused credit is dropped so an idle room cannot build up a burst.
+     */
+    synchronized void advance(double elapsedSeconds) {
+        admitCredit += admitPerSecond * elapsedSeconds;
+        long admit = (long) admitCredit;
+        admitCredit -= admit;
+        admittedUpTo = Math.min(issued, admittedUpTo + admit);
+        if (admittedUpTo == issued) {
+            admitCredit = 0;
+        }
+    }
+
+    long position(long ticket) {
+        return Math.max(0, ticket - admittedUpTo);
+    }
+
+    private static long ticketOf(long packed) {
+        return packed & 0xFFFFFFFFL;
+    }
+
+    private static long passIssuedAtOf(long packed) {
+        return packed >>> 32;
+    }
+
+    long getBusId() {
+        return busId;
+    }
+
+    double getAdmitPerSecond() {
+        return admitPerSecond;
+    }
+
+    void setAdmitPerSecond(double admitPerSecond) {
+        this.admitPerSecond = admitPerSecond;
+    }
+
+    long getIssued() {
+        return issued;
+    }
+
+    long getAdmittedUpTo() {
+        return admittedUpTo;
+    }
+
+    boolean isSoldOut() {
+        return soldOut;
+    }
+
+    void setSoldOut(boolean soldOut) {
+        this.soldOut = soldOut;
+    }
+
+    synchronized int getTrackedUsers() {
+        return tickets.size();
+    }
+}
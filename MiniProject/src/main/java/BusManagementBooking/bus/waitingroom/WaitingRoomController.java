@@ -0,0 +1,128 @@
+package BusManagementBooking.bus.waitingroom;
+
+import BusManagementBooking.bus.cluster.ClusterMembership;
+import BusManagementBooking.bus.cluster.ClusterRouter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Waiting room endpoints. Rooms are kept by the node owning the bus, so
+ * requests are forwarded there like bookings; streams are redirected since
+ * they cannot be relayed. Tokens are URL-safe base64 and need no escaping.
+ */
+@RestController
+@RequestMapping("waiting-room")
+@CrossOrigin(origins = "http://localhost:5173", allowCredentials = "true")
+public class WaitingRoomController {
+
+    @Autowired
+    private WaitingRoomService waitingRoomService;
+
+    @Autowired
+    private ClusterRouter clusterRouter;
+
+    @Autowired
+    private ClusterMembership membership;
+
+    @GetMapping("/health")
+    public String checkAlive() {
+        return "Waiting Room Controller is alive!";
+    }
+
+    @PutMapping("/bus/{busId}")
+    public ResponseEntity<?> openRoom(@PathVariable Long busId, @RequestBody(required = false) Map<String, Double> settings,
+            @RequestHeader(value = ClusterRouter.FORWARDED_HEADER, required = false) String forwardedFrom) {
+        try {
+            if (clusterRouter.shouldForward(busId, forwardedFrom)) {
+                ResponseEntity<String> forwarded = clusterRouter.forward(busId, HttpMethod.PUT, "/waiting-room/bus/" + busId, settings);
+                if (forwarded != null) {
+                    return forwarded;
+                }
+            }
+            waitingRoomService.open(busId, settings == null ? null : settings.get("admitPerSecond"));
+            return ResponseEntity.ok("Waiting room opened for bus " + busId);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/bus/{busId}")
+    public ResponseEntity<?> closeRoom(@PathVariable Long busId,
+            @RequestHeader(value = ClusterRouter.FORWARDED_HEADER, required = false) String forwardedFrom) {
+        if (clusterRouter.shouldForward(busId, forwardedFrom)) {
+            ResponseEntity<String> forwarded = clusterRouter.forward(busId, HttpMethod.DELETE, "/waiting-room/bus/" + busId, null);
+            if (forwarded != null) {
+                return forwarded;
+            }
+        }
+        if (waitingRoomService.close(busId)) {
+            return ResponseEntity.ok("Waiting room closed for bus " + busId);
+        }
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body("No waiting room for bus " + busId);
+    }
+
+    @PostMapping("/bus/{busId}/join")
+    public ResponseEntity<?> join(@PathVariable Long busId, @RequestParam Long userId,
+            @RequestHeader(value = ClusterRouter.FORWARDED_HEADER, required = false) String forwardedFrom) {
+        try {
+            if (clusterRouter.shouldForward(busId, forwardedFrom)) {
+                ResponseEntity<String> forwarded = clusterRouter.forward(busId, HttpMethod.POST,
+                        "/waiting-room/bus/" + busId + "/join?userId=" + userId, null);
+                if (forwarded != null) {
+                    return forwarded;
+                }
+            }
+            return ResponseEntity.ok(waitingRoomService.join(busId, userId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/status")
+    public ResponseEntity<?> getStatus(@RequestParam String token,
+            @RequestHeader(value = ClusterRouter.FORWARDED_HEADER, required = false) String forwardedFrom) {
+        try {
+            Long busId = waitingRoomService.busIdOf(token);
+            if (clusterRouter.shouldForward(busId, forwardedFrom)) {
+                ResponseEntity<String> forwarded = clusterRouter.forward(busId, HttpMethod.GET,
+                        "/waiting-room/status?token=" + token, null);
+                if (forwarded != null) {
+                    return forwarded;
+                }
+            }
+            return ResponseEntity.ok(waitingRoomService.getStatus(token));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(@RequestParam String token) {
+        // The emitter type has to be visible in the signature for Spring to stream it
+        try {
+            String ownerUrl = membership.ownerBaseUrl(waitingRoomService.busIdOf(token));
+            if (ownerUrl != null) {
+                return ResponseEntity.status(HttpStatus.TEMPORARY_REDIRECT)
+                        .location(URI.create(ownerUrl + "/waiting-room/stream?token=" + token))
+                        .build();
+            }
+            return ResponseEntity.ok(waitingRoomService.stream(token));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<List<Map<String, Object>>> getStats() {
+        return ResponseEntity.ok(waitingRoomService.getStats());
+    }
+}
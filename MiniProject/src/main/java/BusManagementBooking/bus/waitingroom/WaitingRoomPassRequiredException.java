@@ -0,0 +1,12 @@
+package BusManagementBooking.bus.waitingroom;
+
+/**
+ * Thrown when a booking for a bus in waiting-room mode comes without a
+ * valid pass for that bus and user
+ */
+public class WaitingRoomPassRequiredException extends RuntimeException {
+
+    public WaitingRoomPassRequiredException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,30 @@
+package BusManagementBooking.bus.waitingroom;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Map;
+
+public interface WaitingRoomService {
+    /**
+     * Opens (or re-rates) the room of a bus; a null rate uses the configured default
+     */
+    void open(Long busId, Double admitPerSecond);
+    boolean close(Long busId);
+    boolean isActive(Long busId);
+    WaitingRoomStatusDTO join(Long busId, Long userId);
+    WaitingRoomStatusDTO getStatus(String queueToken);
+    SseEmitter stream(String queueToken);
+
+    /**
+     * Passes when the bus has no waiting room or the pass admits this user to it
+     */
+    void checkPass(Long busId, Long userId, String passToken);
+
+    /**
+     * Returns the bus id a queue token belongs to, for routing it to the owner node
+     */
+    Long busIdOf(String queueToken);
+
+    List<Map<String, Object>> getStats();
+}
@@ -0,0 +1,273 @@
+package BusManagementBooking.bus.waitingroom;
+
+import BusManagementBooking.bus.admission.AdmissionService;
+import BusManagementBooking.bus.buses.Bus;
+import BusManagementBooking.bus.buses.BusRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Virtual waiting room for high-demand buses. Joining hands out a signed
+ * queue token with a ticket number; a ticker admits tickets at the room's
+ * rate, pausing while the booking concurrency limit is saturated or the bus
+ * is sold out. Admitted users exchange their queue token for a signed pass,
+ * which addBooking requires for buses with an open room.
+ *
+ * Rooms live on the node owning the bus (the controller forwards to it).
+ * Passes carry their own expiry and verify on any node sharing the secret.
+ */
+@Service
+public class WaitingRoomServiceImpl implements WaitingRoomService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WaitingRoomServiceImpl.class);
+
+    @Autowired
+    private AdmissionService admissionService;
+
+    @Autowired
+    private BusRepository busRepository;
+
+    @Value("${bus.waiting-room.secret:}")
+    private String secret;
+
+    @Value("${bus.waiting-room.bus-ids:}")
+    private List<Long> initialBusIds;
+
+    @Value("${bus.waiting-room.admit-per-second:20}")
+    private double defaultAdmitPerSecond;
+
+    @Value("${bus.waiting-room.pass-ttl-seconds:300}")
+    private long passTtlSeconds;
+
+    @Value("${bus.waiting-room.stream-timeout-ms:600000}")
+    private long streamTimeoutMs;
+
+    private final Map<Long, WaitingRoom> rooms = new ConcurrentHashMap<>();
+    private final Map<Long, List<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    private WaitingRoomTokens tokens;
+    private long lastTick = System.nanoTime();
+    private int ticksSinceSeatCheck;
+
+    private record Subscriber(SseEmitter emitter, String queueToken) {}
+
+    @PostConstruct
+    public void init() {
+        byte[] key;
+        if (secret == null || secret.isBlank()) {
+            key = new byte[32];
+            new SecureRandom().nextBytes(key);
+            logger.warn("bus.waiting-room.secret is not set, passes will only be valid on this node");
+        } else {
+            key = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        tokens = new WaitingRoomTokens(key);
+        initialBusIds.forEach(busId -> open(busId, defaultAdmitPerSecond));
+    }
+
+    @Override
+    public void open(Long busId, Double requestedRate) {
+        double admitPerSecond = requestedRate != null ? requestedRate : defaultAdmitPerSecond;
+        if (admitPerSecond <= 0) {
+            throw new IllegalArgumentException("Admit rate must be positive");
+        }
+        rooms.compute(busId, (id, room) -> {
+            if (room == null) {
+                return new WaitingRoom(id, admitPerSecond);
+            }
+            room.setAdmitPerSecond(admitPerSecond);
+            return room;
+        });
+    }
+
+    @Override
+    public boolean close(Long busId) {
+        List<Subscriber> streams = subscribers.remove(busId);
+        if (streams != null) {
+            streams.forEach(subscriber -> subscriber.emitter().complete());
+        }
+        return rooms.remove(busId) != null;
+    }
+
+    @Override
+    public boolean isActive(Long busId) {
+        return rooms.containsKey(busId);
+    }
+
+    @Override
+    public WaitingRoomStatusDTO join(Long busId, Long userId) {
+        if (userId == null || userId <= 0) {
+            throw new IllegalArgumentException("User ID is required");
+        }
+        WaitingRoom room = rooms.get(busId);
+        if (room == null) {
+            return new WaitingRoomStatusDTO(busId, WaitingRoomStatusDTO.State.CLOSED, 0, 0, null);
+        }
+        long ticket = room.join(userId, nowSeconds(), passTtlSeconds);
+        return statusOf(room, userId, ticket, tokens.encode(WaitingRoomTokens.QUEUE, busId, userId, ticket));
+    }
+
+    @Override
+    public WaitingRoomStatusDTO getStatus(String queueToken) {
+        long[] token = tokens.decode(queueToken, WaitingRoomTokens.QUEUE);
+        WaitingRoom room = rooms.get(token[0]);
+        if (room == null) {
+            return new WaitingRoomStatusDTO(token[0], WaitingRoomStatusDTO.State.CLOSED, 0, 0, queueToken);
+        }
+        return statusOf(room, token[1], token[2], queueToken);
+    }
+
+    @Override
+    public Long busIdOf(String queueToken) {
+        return tokens.decode(queueToken, WaitingRoomTokens.QUEUE)[0];
+    }
+
+    private WaitingRoomStatusDTO statusOf(WaitingRoom room, long userId, long ticket, String queueToken) {
+        long position = room.position(ticket);
+        if (position > 0) {
+            if (room.isSoldOut()) {
+                return new WaitingRoomStatusDTO(room.getBusId(), WaitingRoomStatusDTO.State.SOLD_OUT, position, 0, queueToken);
+            }
+            long waitSeconds = (long) Math.ceil(position / room.getAdmitPerSecond());
+            return new WaitingRoomStatusDTO(room.getBusId(), WaitingRoomStatusDTO.State.WAITING, position, waitSeconds, queueToken);
+        }
+
+        long passIssuedAt = room.issuePass(userId, ticket, nowSeconds());
+        if (passIssuedAt < 0) {
+            throw new IllegalArgumentException("Queue token was replaced by a newer one, join again");
+        }
+        long expiresAt = passIssuedAt + passTtlSeconds;
+        WaitingRoomStatusDTO status = new WaitingRoomStatusDTO(room.getBusId(), WaitingRoomStatusDTO.State.ADMITTED, 0, 0, queueToken);
+        status.setPassToken(tokens.encode(WaitingRoomTokens.PASS, room.getBusId(), userId, expiresAt));
+        status.setPassExpiresAt(expiresAt * 1000);
+        return status;
+    }
+
+    @Override
+    public SseEmitter stream(String queueToken) {
+        Long busId = busIdOf(queueToken);
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, queueToken);
+        List<Subscriber> streams = subscribers.computeIfAbsent(busId, id -> new CopyOnWriteArrayList<>());
+        streams.add(subscriber);
+        emitter.onCompletion(() -> streams.remove(subscriber));
+        emitter.onTimeout(() -> streams.remove(subscriber));
+        emitter.onError(e -> streams.remove(subscriber));
+        // First position right away, then on every broadcast
+        push(subscriber);
+        return emitter;
+    }
+
+    @Override
+    public void checkPass(Long busId, Long userId, String passToken) {
+        if (!rooms.containsKey(busId)) {
+            return;
+        }
+        if (passToken == null || passToken.isBlank()) {
+            throw new WaitingRoomPassRequiredException("Bus " + busId + " is in waiting-room mode, join /waiting-room/bus/" + busId + " first");
+        }
+        long[] pass;
+        try {
+            pass = tokens.decode(passToken, WaitingRoomTokens.PASS);
+        } catch (IllegalArgumentException e) {
+            throw new WaitingRoomPassRequiredException(e.getMessage());
+        }
+        if (pass[0] != busId || pass[1] != userId) {
+            throw new WaitingRoomPassRequiredException("Waiting room pass is for another bus or user");
+        }
+        if (nowSeconds() >= pass[2]) {
+            throw new WaitingRoomPassRequiredException("Waiting room pass has expired, join again");
+        }
+    }
+
+    /**
+     * Admits the next tickets of every room
+     */
+    @Scheduled(fixedDelayString = "${bus.waiting-room.tick-ms:100}")
+    public void tick() {
+        long now = System.nanoTime();
+        double elapsedSeconds = (now - lastTick) / 1e9;
+        lastTick = now;
+        if (rooms.isEmpty()) {
+            return;
+        }
+
+        // Seat counts come from the second-level cache, checked about once a second
+        boolean checkSeats = ++ticksSinceSeatCheck >= 10;
+        if (checkSeats) {
+            ticksSinceSeatCheck = 0;
+        }
+        boolean saturated = admissionService.isSaturated();
+        for (WaitingRoom room : rooms.values()) {
+            if (checkSeats) {
+                Optional<Bus> bus = busRepository.findById(room.getBusId());
+                room.setSoldOut(bus.map(b -> b.getAvailableSeats() != null && b.getAvailableSeats() <= 0).orElse(true));
+            }
+            // Time spent saturated or sold out is not credited, so admissions resume at the normal rate
+            if (!saturated && !room.isSoldOut()) {
+                room.advance(elapsedSeconds);
+            }
+        }
+    }
+
+    /**
+     * Pushes the current position to every open stream; admitted streams get
+     * their pass and are closed
+     */
+    @Scheduled(fixedDelayString = "${bus.waiting-room.stream-interval-ms:1000}")
+    public void broadcast() {
+        subscribers.values().forEach(streams -> streams.forEach(this::push));
+    }
+
+    private void push(Subscriber subscriber) {
+        try {
+            WaitingRoomStatusDTO status = getStatus(subscriber.queueToken());
+            subscriber.emitter().send(SseEmitter.event().name("status").data(status));
+            if (status.getState() != WaitingRoomStatusDTO.State.WAITING) {
+                subscriber.emitter().complete();
+            }
+        } catch (IOException | RuntimeException e) {
+            // Client went away or the room was closed; onError/onCompletion removes it
+            subscriber.emitter().completeWithError(e);
+        }
+    }
+
+    private static long nowSeconds() {
+        return System.currentTimeMillis() / 1000;
+    }
+
+    @Override
+    public List<Map<String, Object>> getStats() {
+        List<Map<String, Object>> stats = new ArrayList<>();
+        for (WaitingRoom room : rooms.values()) {
+            Map<String, Object> roomStats = new HashMap<>();
+            roomStats.put("busId", room.getBusId());
+            roomStats.put("admitPerSecond", room.getAdmitPerSecond());
+            roomStats.put("issued", room.getIssued());
+            roomStats.put("admitted", room.getAdmittedUpTo());
+            roomStats.put("waiting", room.getIssued() - room.getAdmittedUpTo());
+            roomStats.put("trackedUsers", room.getTrackedUsers());
+            roomStats.put("soldOut", room.isSoldOut());
+            roomStats.put("streams", subscribers.getOrDefault(room.getBusId(), List.of()).size());
+            stats.add(roomStats);
+        }
+        return stats;
+    }
+}
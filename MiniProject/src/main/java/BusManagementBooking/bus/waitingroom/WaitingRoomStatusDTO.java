@@ -0,0 +1,86 @@
+package BusManagementBooking.bus.waitingroom;
+
+public class WaitingRoomStatusDTO {
+
+    public enum State {
+        WAITING,
+        ADMITTED,
+        SOLD_OUT,
+        CLOSED
+    }
+
+    private Long busId;
+    private State state;
+    private long position;
+    private long estimatedWaitSeconds;
+    private String queueToken;
+    private String passToken;
+    private Long passExpiresAt;
+
+    public WaitingRoomStatusDTO() {}
+
+    public WaitingRoomStatusDTO(Long busId, State state, long position, long estimatedWaitSeconds, String queueToken) {
+        this.busId = busId;
+        this.state = state;
+        this.position = position;
+        this.estimatedWaitSeconds = estimatedWaitSeconds;
+        this.queueToken = queueToken;
+    }
+
+    // Getters and Setters
+    public Long getBusId() {
+        return busId;
+    }
+
+    public void setBusId(Long busId) {
+        this.busId = busId;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public void setState(State state) {
+        this.state = state;
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    public void setPosition(long position) {
+        this.position = position;
+    }
+
+    public long getEstimatedWaitSeconds() {
+        return estimatedWaitSeconds;
+    }
+
+    public void setEstimatedWaitSeconds(long estimatedWaitSeconds) {
+        this.estimatedWaitSeconds = estimatedWaitSeconds;
+    }
+
+    public String getQueueToken() {
+        return queueToken;
+    }
+
+    public void setQueueToken(String queueToken) {
+        this.queueToken = queueToken;
+    }
+
+    public String getPassToken() {
+        return passToken;
+    }
+
+    public void setPassToken(String passToken) {
+        this.passToken = passToken;
+    }
+
+    public Long getPassExpiresAt() {
+        return passExpiresAt;
+    }
+
+    public void setPassExpiresAt(Long passExpiresAt) {
+        this.passExpiresAt = passExpiresAt;
+    }
+}
@@ -0,0 +1,76 @@
+package BusManagementBooking.bus.waitingroom;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * HMAC-signed tokens: a queue token carries the user's ticket, a pass carries
+ * its expiry. Both are checked without any lookup, so passes verify on every
+ * node that shares the secret.
+ */
+class WaitingRoomTokens {
+
+    static final byte QUEUE = 1;
+    static final byte PASS = 2;
+
+    private static final int PAYLOAD_LENGTH = 1 + 8 + 8 + 8;
+    private static final int MAC_LENGTH = 16;
+
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> macs;
+
+    WaitingRoomTokens(byte[] secret) {
+        this.key = new SecretKeySpec(secret, "HmacSHA256");
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance("HmacSHA256");
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 is not available", e);
+            }
+        });
+    }
+
+    String encode(byte kind, long busId, long userId, long value) {
+        ByteBuffer buffer = ByteBuffer.allocate(PAYLOAD_LENGTH + MAC_LENGTH);
+        buffer.put(kind).putLong(busId).putLong(userId).putLong(value);
+        buffer.put(sign(buffer.array()), 0, MAC_LENGTH);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    /**
+     * Returns busId, userId and value of a valid token of the given kind
+     */
+    long[] decode(String token, byte kind) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(token == null ? "" : token.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed waiting room token");
+        }
+        if (bytes.length != PAYLOAD_LENGTH + MAC_LENGTH) {
+            throw new IllegalArgumentException("Malformed waiting room token");
+        }
+        byte[] expected = Arrays.copyOf(sign(bytes), MAC_LENGTH);
+        if (!MessageDigest.isEqual(expected, Arrays.copyOfRange(bytes, PAYLOAD_LENGTH, bytes.length))) {
+            throw new IllegalArgumentException("Invalid waiting room token");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (buffer.get() != kind) {
+            throw new IllegalArgumentException("Wrong kind of waiting room token");
+        }
+        return new long[] {buffer.getLong(), buffer.getLong(), buffer.getLong()};
+    }
+
+    private byte[] sign(byte[] tokenBytes) {
+        Mac mac = macs.get();
+        mac.update(tokenBytes, 0, PAYLOAD_LENGTH);
+        return mac.doFinal();
+    }
+}
@@ -0,0 +1,58 @@
+package BusManagementBooking.bus.waitlist;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("waitlist")
+@CrossOrigin(origins = "http://localhost:5173", allowCredentials = "true")
+public class WaitlistController {
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    @GetMapping("/health")
+    public String checkAlive() {
+        return "Waitlist Controller is alive!";
+    }
+
+    @PostMapping("/bus/{busId}/user/{userId}")
+    public ResponseEntity<?> join(@PathVariable Long busId, @PathVariable Long userId) {
+        try {
+            return ResponseEntity.ok(waitlistService.join(busId, userId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/bus/{busId}/user/{userId}")
+    public ResponseEntity<?> getEntry(@PathVariable Long busId, @PathVariable Long userId) {
+        Optional<WaitlistEntryDTO> entry = waitlistService.getEntry(busId, userId);
+        if (entry.isPresent()) {
+            return ResponseEntity.ok(entry.get());
+        }
+        return ResponseEntity.notFound().build();
+    }
+
+    @DeleteMapping("/bus/{busId}/user/{userId}")
+    public ResponseEntity<?> leave(@PathVariable Long busId, @PathVariable Long userId) {
+        if (waitlistService.leave(busId, userId)) {
+            return ResponseEntity.ok("User " + userId + " left the waitlist of bus " + busId);
+        }
+        return ResponseEntity.notFound().build();
+    }
+
+    @GetMapping("/bus/{busId}")
+    public ResponseEntity<Map<String, Object>> getBusSummary(@PathVariable Long busId) {
+        return ResponseEntity.ok(waitlistService.getBusSummary(busId));
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(waitlistService.getStats());
+    }
+}
@@ -0,0 +1,76 @@
+package BusManagementBooking.bus.waitlist;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "booking_waitlist")
+public class WaitlistEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "bus_id", nullable = false)
+    private Long busId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // 0 pregnant, 1 elder, 2 everyone else; lower is served first
+    @Column(name = "priority_rank", nullable = false)
+    private Short priorityRank;
+
+    @Column(name = "created_at", nullable = false)
+    private Long createdAt;
+
+    // Constructors
+    public WaitlistEntry() {}
+
+    public WaitlistEntry(Long busId, Long userId, Short priorityRank, Long createdAt) {
+        this.busId = busId;
+        this.userId = userId;
+        this.priorityRank = priorityRank;
+        this.createdAt = createdAt;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getBusId() {
+        return busId;
+    }
+
+    public void setBusId(Long busId) {
+        this.busId = busId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Short getPriorityRank() {
+        return priorityRank;
+    }
+
+    public void setPriorityRank(Short priorityRank) {
+        this.priorityRank = priorityRank;
+    }
+
+    public Long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Long createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,63 @@
+package BusManagementBooking.bus.waitlist;
+
+import java.time.LocalDateTime;
+
+public class WaitlistEntryDTO {
+    private Long busId;
+    private Long userId;
+    private String priority;
+    // 1 for the passenger who gets the next cancelled seat
+    private long position;
+    private LocalDateTime joinedAt;
+
+    public WaitlistEntryDTO() {}
+
+    public WaitlistEntryDTO(Long busId, Long userId, String priority, long position, LocalDateTime joinedAt) {
+        this.busId = busId;
+        this.userId = userId;
+        this.priority = priority;
+        this.position = position;
+        this.joinedAt = joinedAt;
+    }
+
+    // Getters and Setters
+    public Long getBusId() {
+        return busId;
+    }
+
+    public void setBusId(Long busId) {
+        this.busId = busId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getPriority() {
+        return priority;
+    }
+
+    public void setPriority(String priority) {
+        this.priority = priority;
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    public void setPosition(long position) {
+        this.position = position;
+    }
+
+    public LocalDateTime getJoinedAt() {
+        return joinedAt;
+    }
+
+    public void setJoinedAt(LocalDateTime joinedAt) {
+        this.joinedAt = joinedAt;
+    }
+}
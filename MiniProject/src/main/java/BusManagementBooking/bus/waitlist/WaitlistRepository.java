@@ -0,0 +1,34 @@
+package BusManagementBooking.bus.waitlist;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WaitlistRepository extends JpaRepository<WaitlistEntry, Long> {
+    Optional<WaitlistEntry> findByBusIdAndUserId(Long busId, Long userId);
+
+    /**
+     * Locks the first entries of a bus's list in serving order, so two
+     * cancellations on the bus never hand their seats to the same passenger
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select w from WaitlistEntry w where w.busId = :busId order by w.priorityRank, w.id")
+    List<WaitlistEntry> lockHead(Long busId, Pageable page);
+
+    /**
+     * Entries of the bus served before an entry with this rank and id
+     */
+    @Query("select count(w) from WaitlistEntry w where w.busId = :busId "
+        + "and (w.priorityRank < :priorityRank or (w.priorityRank = :priorityRank and w.id < :id))")
+    long countAhead(Long busId, short priorityRank, Long id);
+
+    @Query("select w.priorityRank, count(w) from WaitlistEntry w where w.busId = :busId group by w.priorityRank")
+    List<Object[]> countByBusIdGroupedByPriorityRank(Long busId);
+}
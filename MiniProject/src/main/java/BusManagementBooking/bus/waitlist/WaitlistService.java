@@ -0,0 +1,23 @@
+package BusManagementBooking.bus.waitlist;
+
+import java.util.Map;
+import java.util.Optional;
+
+public interface WaitlistService {
+    /**
+     * Puts the user on the waitlist of a sold-out bus, ranked by the seat
+     * type UserPriorityInfoDTO recommends for them
+     */
+    WaitlistEntryDTO join(Long busId, Long userId);
+    boolean leave(Long busId, Long userId);
+    Optional<WaitlistEntryDTO> getEntry(Long busId, Long userId);
+    Map<String, Object> getBusSummary(Long busId);
+
+    /**
+     * Removes and returns the entry to serve next on the bus, skipping users
+     * that no longer exist. Must run in the transaction that books the seat
+     * for it, so the entry comes back if that booking rolls back.
+     */
+    Optional<WaitlistEntry> pollHead(Long busId);
+    Map<String, Object> getStats();
+}
@@ -0,0 +1,156 @@
+package BusManagementBooking.bus.waitlist;
+
+import BusManagementBooking.bus.buses.Bus;
+import BusManagementBooking.bus.buses.BusRepository;
+import BusManagementBooking.bus.user.User;
+import BusManagementBooking.bus.user.UserPriorityInfoDTO;
+import BusManagementBooking.bus.user.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-bus cancellation waitlists kept in booking_waitlist, so every node
+ * serves the same lists and they can grow to any length. The table's
+ * (bus_id, priority_rank, id) index acts as the priority queue: the head is
+ * its first entry for the bus, so taking it costs one index lookup no matter
+ * how many passengers wait. Pregnant passengers come first, then elders,
+ * then everyone else, each in the order they joined.
+ */
+@Service
+public class WaitlistServiceImpl implements WaitlistService {
+
+    // Indexed by priority_rank
+    private static final String[] PRIORITIES = {"PREGNANT", "ELDER", "REGULAR"};
+
+    @Autowired
+    private WaitlistRepository waitlistRepository;
+
+    @Autowired
+    private BusRepository busRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final AtomicLong joined = new AtomicLong();
+    private final AtomicLong left = new AtomicLong();
+    private final AtomicLong served = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+
+    @Override
+    @Transactional
+    public WaitlistEntryDTO join(Long busId, Long userId) {
+        Bus bus = busRepository.findById(busId)
+            .orElseThrow(() -> new IllegalArgumentException("Bus not found with ID: " + busId));
+        if (bus.getAvailableSeats() != null && bus.getAvailableSeats() > 0) {
+            throw new IllegalArgumentException("Bus " + busId + " still has " + bus.getAvailableSeats() + " available seats, book one instead");
+        }
+        User user = userRepository.findById(userId)
+            .orElseThrow(() -> new IllegalArgumentException("User not found with ID: " + userId));
+        if (waitlistRepository.findByBusIdAndUserId(busId, userId).isPresent()) {
+            throw new IllegalArgumentException("User " + userId + " is already on the waitlist of bus " + busId);
+        }
+
+        WaitlistEntry entry;
+        try {
+            entry = waitlistRepository.saveAndFlush(
+                new WaitlistEntry(busId, userId, rankOf(new UserPriorityInfoDTO(user)), System.currentTimeMillis()));
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("User " + userId + " is already on the waitlist of bus " + busId);
+        }
+        joined.incrementAndGet();
+        return toDTO(entry);
+    }
+
+    @Override
+    @Transactional
+    public boolean leave(Long busId, Long userId) {
+        Optional<WaitlistEntry> entry = waitlistRepository.findByBusIdAndUserId(busId, userId);
+        if (entry.isEmpty()) {
+            return false;
+        }
+        waitlistRepository.delete(entry.get());
+        left.incrementAndGet();
+        return true;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<WaitlistEntryDTO> getEntry(Long busId, Long userId) {
+        return waitlistRepository.findByBusIdAndUserId(busId, userId).map(this::toDTO);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, Object> getBusSummary(Long busId) {
+        Map<String, Long> byPriority = new LinkedHashMap<>();
+        for (String priority : PRIORITIES) {
+            byPriority.put(priority, 0L);
+        }
+        long waiting = 0;
+        for (Object[] row : waitlistRepository.countByBusIdGroupedByPriorityRank(busId)) {
+            long count = ((Number) row[1]).longValue();
+            byPriority.put(PRIORITIES[((Number) row[0]).intValue()], count);
+            waiting += count;
+        }
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("busId", busId);
+        summary.put("waiting", waiting);
+        summary.put("byPriority", byPriority);
+        return summary;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<WaitlistEntry> pollHead(Long busId) {
+        while (true) {
+            List<WaitlistEntry> head = waitlistRepository.lockHead(busId, PageRequest.of(0, 1));
+            if (head.isEmpty()) {
+                return Optional.empty();
+            }
+            WaitlistEntry entry = head.get(0);
+            waitlistRepository.delete(entry);
+            if (userRepository.existsById(entry.getUserId())) {
+                served.incrementAndGet();
+                return Optional.of(entry);
+            }
+            skipped.incrementAndGet();
+        }
+    }
+
+    static short rankOf(UserPriorityInfoDTO priority) {
+        return switch (priority.getRecommendedSeatType()) {
+            case "PREGNANT" -> 0;
+            case "ELDER" -> 1;
+            default -> 2;
+        };
+    }
+
+    private WaitlistEntryDTO toDTO(WaitlistEntry entry) {
+        long ahead = waitlistRepository.countAhead(entry.getBusId(), entry.getPriorityRank(), entry.getId());
+        return new WaitlistEntryDTO(entry.getBusId(), entry.getUserId(), PRIORITIES[entry.getPriorityRank()], ahead + 1,
+            LocalDateTime.ofInstant(Instant.ofEpochMilli(entry.getCreatedAt()), ZoneId.systemDefault()));
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("joined", joined.get());
+        stats.put("left", left.get());
+        stats.put("served", served.get());
+        stats.put("skippedMissingUsers", skipped.get());
+        return stats;
+    }
+}
@@ -0,0 +1,75 @@
+-- Schema as previously created by spring.jpa.hibernate.ddl-auto=update, plus the tables of
+-- clustering, cache invalidation and replica lag. Existing databases are baselined at version 0
+-- (spring.flyway.baseline-on-migrate), so this script also runs against them and, every table
+-- being IF NOT EXISTS, only adds what they lack. Kept to syntax shared by MySQL 8 and H2.
+
+CREATE TABLE IF NOT EXISTS users (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    name VARCHAR(100) NOT NULL,
+    email VARCHAR(100) NOT NULL,
+    age INT,
+    gender VARCHAR(20),
+    role VARCHAR(20) NOT NULL,
+    password VARCHAR(100) NOT NULL,
+    is_pregnant BOOLEAN,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE IF NOT EXISTS buses (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    name VARCHAR(100) NOT NULL,
+    route VARCHAR(200) NOT NULL,
+    departure_date VARCHAR(255) NOT NULL,
+    departure_time VARCHAR(50) NOT NULL,
+    arrival_time VARCHAR(50) NOT NULL,
+    available_seats INT,
+    total_seats INT,
+    price DECIMAL(10, 2) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS seats (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    seat_number VARCHAR(255) NOT NULL,
+    seat_type ENUM('REGULAR', 'ELDER', 'PREGNANT') NOT NULL,
+    status ENUM('AVAILABLE', 'BOOKED') NOT NULL,
+    bus_id BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_seats_bus FOREIGN KEY (bus_id) REFERENCES buses (id)
+);
+
+CREATE TABLE IF NOT EXISTS bookings (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    bus_id BIGINT NOT NULL,
+    booking_date DATETIME(6) NOT NULL,
+    seat_number VARCHAR(255) NOT NULL,
+    amount DECIMAL(10, 2) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_bookings_bus FOREIGN KEY (bus_id) REFERENCES buses (id)
+);
+
+CREATE TABLE IF NOT EXISTS cache_invalidations (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    node_id VARCHAR(64) NOT NULL,
+    region VARCHAR(20) NOT NULL,
+    entity_key BIGINT NOT NULL,
+    created_at BIGINT NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS cluster_nodes (
+    node_id VARCHAR(64) NOT NULL,
+    base_url VARCHAR(200) NOT NULL,
+    started_at DATETIME(6) NOT NULL,
+    last_heartbeat DATETIME(6) NOT NULL,
+    PRIMARY KEY (node_id)
+);
+
+CREATE TABLE IF NOT EXISTS replica_heartbeat (
+    node_id VARCHAR(64) NOT NULL,
+    beat_at BIGINT NOT NULL,
+    PRIMARY KEY (node_id)
+);
@@ -0,0 +1,27 @@
+-- Indexes for the booking hot paths, checked by RepositoryQueryPlanTests.
+
+-- Booking history per user: findByUserId, findByUserIdAndBookingDateBetween
+CREATE INDEX idx_bookings_user_date ON bookings (user_id, booking_date);
+
+-- Confirmed bookings of a bus: evacuation, archiving
+CREATE INDEX idx_bookings_bus_status ON bookings (bus_id, status);
+
+-- Seat map and seat lookup by number; a bus never has two seats with the same number.
+-- Databases from before this index may hold duplicates: keep a booked one if any, else the oldest.
+-- The DISTINCT derived table is materialized, which MySQL needs to delete from the table it reads.
+DELETE FROM seats WHERE id IN (
+    SELECT id FROM (
+        SELECT DISTINCT s1.id
+        FROM seats s1
+        JOIN seats s2 ON s2.bus_id = s1.bus_id AND s2.seat_number = s1.seat_number AND s2.id <> s1.id
+        WHERE (s2.status = 'BOOKED' AND s1.status <> 'BOOKED')
+           OR (s2.id < s1.id AND (s2.status = 'BOOKED' OR s1.status <> 'BOOKED'))
+    ) duplicates
+);
+CREATE UNIQUE INDEX uk_seats_bus_seat_number ON seats (bus_id, seat_number);
+
+-- Free seats of a bus, optionally of one type: findByBusIdAndStatus, findByBusIdAndSeatTypeAndStatus
+CREATE INDEX idx_seats_bus_status_type ON seats (bus_id, status, seat_type);
+
+-- Retention cleanup of the invalidation log
+CREATE INDEX idx_cache_invalidations_created ON cache_invalidations (created_at);
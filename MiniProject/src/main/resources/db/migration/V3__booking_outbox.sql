@@ -0,0 +1,20 @@
+-- Transactional outbox: one row per booking event, inserted in the booking's transaction
+-- and deleted by BookingOutboxRelay once every consumer has handled it.
+
+CREATE TABLE IF NOT EXISTS booking_outbox (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    node_id VARCHAR(64) NOT NULL,
+    event_type ENUM('BOOKED', 'CANCELLED', 'TRANSFERRED_OUT', 'TRANSFERRED_IN') NOT NULL,
+    booking_id BIGINT NOT NULL,
+    user_id BIGINT,
+    bus_id BIGINT NOT NULL,
+    seat_number VARCHAR(255),
+    seat_type VARCHAR(20),
+    amount DECIMAL(10, 2),
+    booking_date DATETIME(6),
+    created_at BIGINT NOT NULL,
+    PRIMARY KEY (id)
+);
+
+-- The relay drains the rows of its own node in id order
+CREATE INDEX idx_booking_outbox_node ON booking_outbox (node_id, id);
@@ -0,0 +1,16 @@
+-- Responses of POST /booking and /booking/transfer by Idempotency-Key, so retries are
+-- answered from here instead of running again. A row without completed_at is in flight.
+
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    idempotency_key VARCHAR(150) NOT NULL,
+    fingerprint VARCHAR(64) NOT NULL,
+    status_code INT,
+    content_type VARCHAR(100),
+    body VARCHAR(4000),
+    created_at BIGINT NOT NULL,
+    completed_at BIGINT,
+    PRIMARY KEY (idempotency_key)
+);
+
+-- Retention cleanup
+CREATE INDEX idx_idempotency_keys_created ON idempotency_keys (created_at);
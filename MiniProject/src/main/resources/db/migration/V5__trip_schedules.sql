@@ -0,0 +1,30 @@
+-- Recurring trips: a schedule is a route, times, running days and seat layout. A date of a
+-- schedule becomes a buses row (with its seats) only when it is first searched or booked.
+
+CREATE TABLE IF NOT EXISTS trip_schedules (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    name VARCHAR(100) NOT NULL,
+    route VARCHAR(200) NOT NULL,
+    departure_time VARCHAR(50) NOT NULL,
+    arrival_time VARCHAR(50) NOT NULL,
+    days_of_week INT NOT NULL,
+    valid_from DATE NOT NULL,
+    valid_to DATE,
+    total_seats INT NOT NULL,
+    elder_percentage INT NOT NULL,
+    pregnant_percentage INT NOT NULL,
+    price DECIMAL(10, 2) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+-- One row per materialized date; the primary key lets only one node create the bus of a date.
+-- A deleted bus leaves its row with a null bus_id, so a cancelled date is not recreated.
+CREATE TABLE IF NOT EXISTS schedule_departures (
+    schedule_id BIGINT NOT NULL,
+    departure_date DATE NOT NULL,
+    bus_id BIGINT,
+    created_at BIGINT NOT NULL,
+    PRIMARY KEY (schedule_id, departure_date),
+    CONSTRAINT fk_schedule_departures_schedule FOREIGN KEY (schedule_id) REFERENCES trip_schedules (id) ON DELETE CASCADE,
+    CONSTRAINT fk_schedule_departures_bus FOREIGN KEY (bus_id) REFERENCES buses (id) ON DELETE SET NULL
+);
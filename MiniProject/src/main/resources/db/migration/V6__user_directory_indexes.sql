@@ -0,0 +1,3 @@
+-- User directory pages filtered by name prefix are read in (name, id) order; email prefixes
+-- use the unique email index and unfiltered pages the primary key, checked by RepositoryQueryPlanTests.
+CREATE INDEX idx_users_name ON users (name, id);
@@ -0,0 +1,21 @@
+-- Append-only history of seat transitions. Booking transitions are copied from the booking
+-- outbox in batches; manual status changes and seat map replacements are written in their
+-- own transaction. Times are epoch milliseconds and actions are SeatAuditAction codes.
+
+CREATE TABLE IF NOT EXISTS seat_audit (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    bus_id BIGINT NOT NULL,
+    seat_number VARCHAR(255),
+    action_code SMALLINT NOT NULL,
+    booking_id BIGINT,
+    user_id BIGINT,
+    occurred_at BIGINT NOT NULL,
+    PRIMARY KEY (id)
+);
+
+-- Per seat and per bus lookups over a time range
+CREATE INDEX idx_seat_audit_seat ON seat_audit (bus_id, seat_number, occurred_at);
+CREATE INDEX idx_seat_audit_bus ON seat_audit (bus_id, occurred_at);
+
+-- A booking is booked and released at most once each, so outbox redeliveries are recognised here
+CREATE UNIQUE INDEX idx_seat_audit_booking ON seat_audit (booking_id, action_code);
@@ -0,0 +1,17 @@
+-- Per-bus cancellation waitlist. A cancelled seat is booked for the head of its bus's list:
+-- lowest priority_rank first (0 pregnant, 1 elder, 2 everyone else), then in order of joining.
+
+CREATE TABLE IF NOT EXISTS booking_waitlist (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    bus_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    priority_rank SMALLINT NOT NULL,
+    created_at BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_booking_waitlist_bus FOREIGN KEY (bus_id) REFERENCES buses (id) ON DELETE CASCADE
+);
+
+-- The head of a bus's list is the first entry of this index, however long the list is
+CREATE INDEX idx_booking_waitlist_head ON booking_waitlist (bus_id, priority_rank, id);
+-- One entry per passenger and bus
+CREATE UNIQUE INDEX idx_booking_waitlist_user ON booking_waitlist (bus_id, user_id);
@@ -0,0 +1,51 @@
+package BusManagementBooking.bus;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Migrates a database shaped like the ones ddl-auto=update created before
+ * Flyway, with the baseline settings of application.properties.
+ */
+class FlywayUpgradeTests {
+
+    @Test
+    void preFlywayDatabaseGetsMissingTablesAndLosesDuplicateSeats() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:pre_flyway;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("create table users (id bigint auto_increment primary key, name varchar(255) not null, "
+                + "email varchar(255) not null unique, age int, gender varchar(255), role varchar(255) not null, "
+                + "password varchar(255) not null, is_pregnant boolean)");
+        jdbc.execute("create table buses (id bigint auto_increment primary key, name varchar(255) not null, "
+                + "route varchar(255) not null, departure_date varchar(255) not null, departure_time varchar(255) not null, "
+                + "arrival_time varchar(255) not null, available_seats int, total_seats int, price decimal(10, 2) not null)");
+        jdbc.execute("create table seats (id bigint auto_increment primary key, seat_number varchar(255) not null, "
+                + "seat_type varchar(255) not null, status varchar(255) not null, bus_id bigint references buses (id))");
+        jdbc.execute("create table bookings (id bigint auto_increment primary key, user_id bigint not null, "
+                + "bus_id bigint not null references buses (id), booking_date timestamp(6) not null, "
+                + "seat_number varchar(255) not null, amount decimal(10, 2) not null, status varchar(255) not null)");
+        jdbc.update("insert into buses (id, name, route, departure_date, departure_time, arrival_time, available_seats, total_seats, price) "
+                + "values (1, 'Old Express', 'Kochi-Madurai', '01-01-2030', '08:00', '18:00', 2, 3, 300)");
+        String seat = "insert into seats (id, seat_number, seat_type, status, bus_id) values (?, ?, 'REGULAR', ?, 1)";
+        jdbc.update(seat, 1, "R01", "AVAILABLE");
+        jdbc.update(seat, 2, "R01", "BOOKED");
+        jdbc.update(seat, 3, "R01", "AVAILABLE");
+        jdbc.update(seat, 4, "R02", "AVAILABLE");
+        jdbc.update(seat, 5, "R02", "AVAILABLE");
+        jdbc.update(seat, 6, "R03", "BOOKED");
+
+        Flyway.configure().dataSource(dataSource).baselineOnMigrate(true).baselineVersion("0").load().migrate();
+
+        assertEquals(List.of(2L, 4L, 6L), jdbc.queryForList("select id from seats order by id", Long.class));
+        assertEquals(0, jdbc.queryForObject("select count(*) from cache_invalidations", Integer.class));
+        assertEquals(0, jdbc.queryForObject("select count(*) from cluster_nodes", Integer.class));
+        assertEquals(0, jdbc.queryForObject("select count(*) from replica_heartbeat", Integer.class));
+        assertEquals(1, jdbc.queryForObject("select count(*) from buses", Integer.class));
+    }
+}
@@ -0,0 +1,253 @@
+package BusManagementBooking.bus;
+
+import BusManagementBooking.bus.audit.SeatAuditRepository;
+import BusManagementBooking.bus.booking.Booking;
+import BusManagementBooking.bus.booking.BookingRepository;
+import BusManagementBooking.bus.buses.Bus;
+import BusManagementBooking.bus.buses.BusRepository;
+import BusManagementBooking.bus.cache.CacheInvalidationRepository;
+import BusManagementBooking.bus.cluster.ClusterNodeRepository;
+import BusManagementBooking.bus.idempotency.IdempotencyRecordRepository;
+import BusManagementBooking.bus.outbox.OutboxEventRepository;
+import BusManagementBooking.bus.schedule.TripScheduleRepository;
+import BusManagementBooking.bus.seats.Seat;
+import BusManagementBooking.bus.seats.SeatRepository;
+import BusManagementBooking.bus.user.UserRepository;
+import BusManagementBooking.bus.waitlist.WaitlistRepository;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Runs every repository query, captures the SQL Hibernate sends and fails if
+ * H2's EXPLAIN shows a full table scan. Queries that read whole tables by
+ * design are listed in FULL_READS.
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector=BusManagementBooking.bus.RepositoryQueryPlanTests$SqlRecorder",
+    "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+    "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+    "bus.cache.invalidation.poll-interval-ms=3600000"
+})
+class RepositoryQueryPlanTests {
+
+    // Fleet-wide listings, aggregates and substring searches (served from the query cache), and the tiny cluster table
+    private static final Set<String> FULL_READS = Set.of(
+        "BusRepository.findAll",
+        "BusRepository.findAllTrips",
+        "BusRepository.findByNameContainingIgnoreCase",
+        "BusRepository.findByRouteContainingIgnoreCase",
+        "BusRepository.findAllDepartureDates",
+        "BusRepository.findAllRoutes",
+        "TripScheduleRepository.findByRouteContainingIgnoreCase",
+        "SeatRepository.countGroupedByBusId",
+        "SeatRepository.countGroupedByBusTypeAndStatus",
+        "ClusterNodeRepository.findByLastHeartbeatAfter"
+    );
+
+    private static final List<String> recorded = new CopyOnWriteArrayList<>();
+
+    public static class SqlRecorder implements StatementInspector {
+        @Override
+        public String inspect(String sql) {
+            recorded.add(sql);
+            return sql;
+        }
+    }
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private SeatRepository seatRepository;
+
+    @Autowired
+    private BusRepository busRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CacheInvalidationRepository cacheInvalidationRepository;
+
+    @Autowired
+    private ClusterNodeRepository clusterNodeRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private TripScheduleRepository tripScheduleRepository;
+
+    @Autowired
+    private SeatAuditRepository seatAuditRepository;
+
+    @Autowired
+    private WaitlistRepository waitlistRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Long busId;
+
+    @BeforeEach
+    void seed() {
+        Bus bus = busRepository.save(new Bus("Plan Express", "Kochi-Chennai", "01-01-2030", "08:00", "18:00",
+                3, 3, new BigDecimal("500.00")));
+        busId = bus.getId();
+        seatRepository.save(new Seat("R01", Seat.SeatType.REGULAR, Seat.SeatStatus.AVAILABLE, bus));
+        seatRepository.save(new Seat("E01", Seat.SeatType.ELDER, Seat.SeatStatus.AVAILABLE, bus));
+        seatRepository.save(new Seat("P01", Seat.SeatType.PREGNANT, Seat.SeatStatus.BOOKED, bus));
+        Booking booking = new Booking();
+        booking.setUserId(1L);
+        booking.setBus(bus);
+        booking.setBookingDate(LocalDateTime.now());
+        booking.setSeatNumber("P01");
+        booking.setAmount(new BigDecimal("500.00"));
+        booking.setStatus("CONFIRMED");
+        bookingRepository.save(booking);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @TestFactory
+    Stream<DynamicTest> repositoryQueriesUseIndexes() {
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        List<Long> busIds = List.of(1L, 2L);
+        LocalDateTime now = LocalDateTime.now();
+
+        queries.put("BookingRepository.findByUserId", () -> bookingRepository.findByUserId(1L));
+        queries.put("BookingRepository.findByUserIdAndBookingDateBetween",
+            () -> bookingRepository.findByUserIdAndBookingDateBetween(1L, now.minusDays(30), now));
+        queries.put("BookingRepository.findByBusIdIn", () -> bookingRepository.findByBusIdIn(busIds));
+        queries.put("BookingRepository.lockByBusIdIn", () -> bookingRepository.lockByBusIdIn(busIds));
+        queries.put("BookingRepository.findMinId", () -> bookingRepository.findMinId());
+        queries.put("BookingRepository.findMaxId", () -> bookingRepository.findMaxId());
+        queries.put("BookingRepository.findRevenueRows", () -> bookingRepository.findRevenueRows(1L, 1000L));
+        queries.put("BookingRepository.findConfirmedWithSeatType", () -> bookingRepository.findConfirmedWithSeatType(1L));
+        queries.put("BookingRepository.cancelConfirmed", () -> bookingRepository.cancelConfirmed(List.of(1L)));
+        queries.put("BookingRepository.deleteByBusIds", () -> bookingRepository.deleteByBusIds(List.of(-1L)));
+
+        queries.put("SeatRepository.findByBusId", () -> seatRepository.findByBusId(1L));
+        queries.put("SeatRepository.findByBusIdAndSeatType", () -> seatRepository.findByBusIdAndSeatType(1L, Seat.SeatType.ELDER));
+        queries.put("SeatRepository.findByBusIdAndStatus", () -> seatRepository.findByBusIdAndStatus(1L, Seat.SeatStatus.AVAILABLE));
+        queries.put("SeatRepository.findByBusIdAndSeatTypeAndStatus",
+            () -> seatRepository.findByBusIdAndSeatTypeAndStatus(1L, Seat.SeatType.ELDER, Seat.SeatStatus.AVAILABLE));
+        queries.put("SeatRepository.findByBusIdAndSeatNumber", () -> seatRepository.findByBusIdAndSeatNumber(1L, "R01"));
+        queries.put("SeatRepository.findByBusIdIn", () -> seatRepository.findByBusIdIn(busIds));
+        queries.put("SeatRepository.findIdsByBusId", () -> seatRepository.findIdsByBusId(1L));
+        queries.put("SeatRepository.countGroupedByBusId", () -> seatRepository.countGroupedByBusId());
+        queries.put("SeatRepository.countGroupedByBusTypeAndStatus", () -> seatRepository.countGroupedByBusTypeAndStatus());
+        queries.put("SeatRepository.countGroupedByBusTypeAndStatus(busId)", () -> seatRepository.countGroupedByBusTypeAndStatus(1L));
+        queries.put("SeatRepository.lockByBusIdIn", () -> seatRepository.lockByBusIdIn(busIds));
+        queries.put("SeatRepository.lockByBusIdAndSeatNumber", () -> seatRepository.lockByBusIdAndSeatNumber(1L, "R01"));
+        queries.put("SeatRepository.lockById", () -> seatRepository.lockById(1L));
+        queries.put("SeatRepository.lockByBusIdInAndStatus",
+            () -> seatRepository.lockByBusIdInAndStatus(busIds, Seat.SeatStatus.AVAILABLE));
+        queries.put("SeatRepository.updateStatusByIds", () -> seatRepository.updateStatusByIds(List.of(-1L), Seat.SeatStatus.BOOKED));
+        queries.put("SeatRepository.updateStatusByBusIdAndSeatNumbers",
+            () -> seatRepository.updateStatusByBusIdAndSeatNumbers(-1L, List.of("R01"), Seat.SeatStatus.BOOKED));
+        queries.put("SeatRepository.deleteByBusIds", () -> seatRepository.deleteByBusIds(List.of(-1L)));
+
+        queries.put("UserRepository.findByEmail", () -> userRepository.findByEmail("nobody@example.com"));
+        queries.put("UserRepository.findDirectoryPage",
+            () -> userRepository.findDirectoryPage(0L, "USER", "ELDER", PageRequest.of(0, 51)));
+        queries.put("UserRepository.findDirectoryPageByName",
+            () -> userRepository.findDirectoryPageByName("Ann%", "Ann", 1L, null, null, "PREGNANT", PageRequest.of(0, 51)));
+        queries.put("UserRepository.findDirectoryPageByEmail",
+            () -> userRepository.findDirectoryPageByEmail("ann%", "ann@", "ADMIN", null, PageRequest.of(0, 51)));
+
+        queries.put("BusRepository.findById", () -> busRepository.findById(1L));
+        queries.put("BusRepository.findAll", () -> busRepository.findAll());
+        queries.put("BusRepository.findByNameContainingIgnoreCase", () -> busRepository.findByNameContainingIgnoreCase("exp"));
+        queries.put("BusRepository.findByRouteContainingIgnoreCase", () -> busRepository.findByRouteContainingIgnoreCase("koc"));
+        queries.put("BusRepository.findAllDepartureDates", () -> busRepository.findAllDepartureDates());
+        queries.put("BusRepository.findAllRoutes", () -> busRepository.findAllRoutes());
+        queries.put("BusRepository.findAllTrips", () -> busRepository.findAllTrips());
+        queries.put("BusRepository.findTripsByIdIn", () -> busRepository.findTripsByIdIn(busIds));
+        queries.put("BusRepository.adjustAvailableSeats", () -> busRepository.adjustAvailableSeats(-1L, 1));
+        queries.put("BusRepository.lockForOutbox", () -> busRepository.lockForOutbox(busIds));
+
+        queries.put("CacheInvalidationRepository.findTop500ByIdGreaterThanOrderByIdAsc",
+            () -> cacheInvalidationRepository.findTop500ByIdGreaterThanOrderByIdAsc(0L));
+        queries.put("CacheInvalidationRepository.findByIdIn", () -> cacheInvalidationRepository.findByIdIn(List.of(1L, 2L)));
+        queries.put("CacheInvalidationRepository.findMaxId", () -> cacheInvalidationRepository.findMaxId());
+        queries.put("CacheInvalidationRepository.findEntityKeysAfterId", () -> cacheInvalidationRepository.findEntityKeysAfterId(Long.MAX_VALUE - 1));
+        queries.put("CacheInvalidationRepository.findEntityKeysCreatedSince",
+            () -> cacheInvalidationRepository.findEntityKeysCreatedSince(Long.MAX_VALUE));
+        queries.put("CacheInvalidationRepository.deleteOlderThan", () -> cacheInvalidationRepository.deleteOlderThan(0L));
+
+        queries.put("ClusterNodeRepository.findByLastHeartbeatAfter", () -> clusterNodeRepository.findByLastHeartbeatAfter(now));
+
+        queries.put("OutboxEventRepository.findBatch", () -> outboxEventRepository.findBatch("node-1", PageRequest.of(0, 200)));
+        queries.put("OutboxEventRepository.countByNodeId", () -> outboxEventRepository.countByNodeId("node-1"));
+        queries.put("OutboxEventRepository.deleteByIds", () -> outboxEventRepository.deleteByIds(List.of(-1L)));
+        queries.put("OutboxEventRepository.adoptOrphans", () -> outboxEventRepository.adoptOrphans("node-1", List.of("node-1")));
+        queries.put("TripScheduleRepository.findByRouteContainingIgnoreCase", () -> tripScheduleRepository.findByRouteContainingIgnoreCase("koc"));
+
+        queries.put("IdempotencyRecordRepository.claim", () -> idempotencyRecordRepository.claim("booking:plan", "f", 1L));
+        queries.put("IdempotencyRecordRepository.complete", () -> idempotencyRecordRepository.complete("booking:plan", 200, "text/plain", "ok", 2L));
+        queries.put("IdempotencyRecordRepository.release", () -> idempotencyRecordRepository.release("booking:plan", 1L));
+        queries.put("IdempotencyRecordRepository.deleteOlderThan", () -> idempotencyRecordRepository.deleteOlderThan(1L));
+
+        queries.put("SeatAuditRepository.findByBus", () -> seatAuditRepository.findByBus(1L, 0L, 1000L, PageRequest.of(0, 100)));
+        queries.put("SeatAuditRepository.findBySeat", () -> seatAuditRepository.findBySeat(1L, "R01", 0L, 1000L, PageRequest.of(0, 100)));
+        queries.put("SeatAuditRepository.findRecordedBookingActions",
+            () -> seatAuditRepository.findRecordedBookingActions(List.of(1L, 2L)));
+
+        queries.put("WaitlistRepository.findByBusIdAndUserId", () -> waitlistRepository.findByBusIdAndUserId(1L, 1L));
+        queries.put("WaitlistRepository.lockHead", () -> waitlistRepository.lockHead(1L, PageRequest.of(0, 1)));
+        queries.put("WaitlistRepository.countAhead", () -> waitlistRepository.countAhead(1L, (short) 1, 100L));
+        queries.put("WaitlistRepository.countByBusIdGroupedByPriorityRank",
+            () -> waitlistRepository.countByBusIdGroupedByPriorityRank(1L));
+
+        return queries.entrySet().stream().map(query -> DynamicTest.dynamicTest(query.getKey(), () -> {
+            List<String> plans = explain(query.getValue());
+            assertFalse(plans.isEmpty(), "no SQL captured");
+            if (!FULL_READS.contains(query.getKey())) {
+                assertFalse(plans.stream().anyMatch(plan -> plan.contains(".tableScan")),
+                    "full table scan:\n" + String.join("\n", plans));
+            }
+        }));
+    }
+
+    /**
+     * Runs the query in a rolled-back transaction and returns H2's plan for
+     * every statement it sent
+     */
+    private List<String> explain(Runnable query) {
+        recorded.clear();
+        transactionTemplate.executeWithoutResult(status -> {
+            query.run();
+            status.setRollbackOnly();
+        });
+        List<String> plans = new ArrayList<>();
+        for (String sql : recorded) {
+            plans.add(jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class));
+        }
+        return plans;
+    }
+}
@@ -0,0 +1,80 @@
+package BusManagementBooking.bus;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time-to-first-request benchmark: starts the given command repeatedly and
+ * measures from process launch until the URL first answers 200. Not a unit
+ * test: scripts/startup-benchmark.sh compares the default and the fast-start
+ * builds with it.
+ *
+ * Usage: StartupBenchmark http://localhost:8090/bus runs logFile command [args...]
+ */
+public class StartupBenchmark {
+
+    private static final long TIMEOUT_MS = 180_000;
+
+    private static final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofMillis(500))
+            .build();
+
+    public static void main(String[] args) throws Exception {
+        URI url = URI.create(args[0]);
+        int runs = Integer.parseInt(args[1]);
+        File log = new File(args[2]);
+        List<String> command = Arrays.asList(args).subList(3, args.length);
+
+        List<Long> times = new ArrayList<>();
+        for (int run = 1; run <= runs; run++) {
+            long start = System.nanoTime();
+            Process process = new ProcessBuilder(command)
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.appendTo(log))
+                    .start();
+            try {
+                long elapsed = waitForFirstResponse(url, process, start);
+                times.add(elapsed);
+                System.out.printf("run %d: first request answered after %d ms%n", run, elapsed);
+            } finally {
+                process.destroy();
+                if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                    process.destroyForcibly().waitFor();
+                }
+            }
+        }
+
+        Collections.sort(times);
+        System.out.printf("time-to-first-request over %d runs: min %d ms, median %d ms, max %d ms%n",
+                runs, times.get(0), times.get(times.size() / 2), times.get(times.size() - 1));
+    }
+
+    private static long waitForFirstResponse(URI url, Process process, long start) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(url).timeout(Duration.ofSeconds(5)).GET().build();
+        while (true) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Application exited with " + process.exitValue() + " before serving");
+            }
+            try {
+                if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                }
+            } catch (java.io.IOException e) {
+                // Not listening yet
+            }
+            if (TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) > TIMEOUT_MS) {
+                throw new IllegalStateException("No response from " + url + " within " + TIMEOUT_MS + " ms");
+            }
+            Thread.sleep(20);
+        }
+    }
+}
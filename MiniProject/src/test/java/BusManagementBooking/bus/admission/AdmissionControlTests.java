@@ -0,0 +1,93 @@
+package BusManagementBooking.bus.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdmissionControlTests {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void tokenBucketAllowsBurstThenRefillsAtRate() {
+        TokenBucket bucket = new TokenBucket(3, 2, 0);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryAcquire(0));
+        }
+        // Two tokens per second: the next one is half a second away
+        assertEquals(SECOND / 2, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(SECOND / 2));
+        assertFalse(bucket.isFull(SECOND / 2));
+        assertTrue(bucket.isFull(2 * SECOND));
+    }
+
+    @Test
+    void limiterBacksOffOnceWhenLatencyExceedsTarget() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(10, 2, 100, 100 * MS, 0.5);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        assertFalse(limiter.tryAcquire());
+
+        // A burst of slow completions within one target interval halves the limit once
+        long now = SECOND;
+        for (int i = 0; i < 10; i++) {
+            limiter.release(500 * MS, now + i * MS);
+        }
+        assertEquals(5, limiter.getLimit());
+
+        // Another slow completion after the interval backs off again, never below the minimum
+        assertTrue(limiter.tryAcquire());
+        limiter.release(500 * MS, now + 200 * MS);
+        assertEquals(2, limiter.getLimit());
+    }
+
+    @Test
+    void limiterGrowsOnlyWhileItsLimitIsUsed() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(4, 2, 100, 100 * MS, 0.5);
+
+        // One request at a time never uses half the limit, so it must not grow
+        for (int i = 0; i < 50; i++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.release(10 * MS, i * MS);
+        }
+        assertEquals(4, limiter.getLimit());
+
+        // Fully loaded with fast completions: +1 per limit's worth of requests
+        for (int round = 0; round < 4; round++) {
+            while (limiter.tryAcquire()) {
+                // fill up to the current limit
+            }
+            int inFlight = limiter.getInFlight();
+            for (int i = 0; i < inFlight; i++) {
+                limiter.release(10 * MS, SECOND);
+            }
+        }
+        assertTrue(limiter.getLimit() > 4, "limit should have grown, was " + limiter.getLimit());
+    }
+
+    @Test
+    void serviceRejectsWithRetryAfterAndRefundsUserTokenOnBusRejection() {
+        AdmissionServiceImpl service = new AdmissionServiceImpl(true, 2, 0.5, 1, 0.1, 10, 2, 100, 250, 0.9);
+
+        service.acquireTokens(1L, 10L);
+        // Bus 10 is empty now; user 1 keeps its remaining token because the bus rejected
+        AdmissionRejectedException busRejection = assertThrows(AdmissionRejectedException.class,
+            () -> service.acquireTokens(1L, 10L));
+        assertEquals(10, busRejection.getRetryAfterSeconds());
+
+        service.acquireTokens(1L, 11L);
+        AdmissionRejectedException userRejection = assertThrows(AdmissionRejectedException.class,
+            () -> service.acquireTokens(1L, 12L));
+        assertEquals(2, userRejection.getRetryAfterSeconds());
+
+        assertEquals(1L, service.getStats().get("rejectedBus"));
+        assertEquals(1L, service.getStats().get("rejectedUser"));
+    }
+}
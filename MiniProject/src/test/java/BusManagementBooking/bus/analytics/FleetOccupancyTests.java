@@ -0,0 +1,135 @@
+package BusManagementBooking.bus.analytics;
+
+import BusManagementBooking.bus.booking.BookingAddRequestDTO;
+import BusManagementBooking.bus.booking.BookingServiceImpl;
+import BusManagementBooking.bus.buses.Bus;
+import BusManagementBooking.bus.buses.BusAddRequestDTO;
+import BusManagementBooking.bus.buses.BusController;
+import BusManagementBooking.bus.buses.BusImportService;
+import BusManagementBooking.bus.buses.BusRepository;
+import BusManagementBooking.bus.schedule.ScheduleService;
+import BusManagementBooking.bus.schedule.TripSchedule;
+import BusManagementBooking.bus.schedule.TripScheduleRequestDTO;
+import BusManagementBooking.bus.seats.SeatDTO;
+import BusManagementBooking.bus.seats.SeatService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Follows a bus through bookings and direct seat changes in the fleet
+ * occupancy counters, then lets verification repair a drift made behind
+ * the service's back. Seat maps written with plain JDBC by the import and
+ * the trip scheduler are counted as well.
+ */
+@SpringBootTest(properties = {
+    "bus.cache.invalidation.poll-interval-ms=3600000",
+    "bus.admission.enabled=false"
+})
+class FleetOccupancyTests {
+
+    @Autowired
+    private BusController busController;
+
+    @Autowired
+    private BookingServiceImpl bookingService;
+
+    @Autowired
+    private SeatService seatService;
+
+    @Autowired
+    private AnalyticsServiceImpl analyticsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BusImportService busImportService;
+
+    @Autowired
+    private BusRepository busRepository;
+
+    @Autowired
+    private ScheduleService scheduleService;
+
+    @Test
+    void countersFollowSeatChangesAndVerificationRepairsDrift() throws Exception {
+        Bus bus = busController.addBus(new BusAddRequestDTO("Fleet Express", "Kochi-Madurai", "01-01-2030",
+                "08:00", "18:00", 40, 40, 300.0)).getBody();
+        Long busId = bus.getId();
+        for (int i = 0; i < 100 && analyticsService.getStatus().get("lastRecomputeAt") == null; i++) {
+            Thread.sleep(100);
+        }
+
+        bookingService.addBooking(new BookingAddRequestDTO(1L, busId, null, "R01", new BigDecimal("300.00"), null));
+        Long elderSeat = seatId(busId, "E01");
+        seatService.updateSeatStatus(elderSeat, "BOOKED");
+        // Setting the same status again is not a change
+        seatService.updateSeatStatus(elderSeat, "BOOKED");
+
+        BusOccupancyDTO occupancy = fleetEntry(busId);
+        assertEquals("Kochi-Madurai", occupancy.getRoute());
+        assertEquals(1, seatType(occupancy, "REGULAR").getBookedSeats());
+        assertEquals(1, seatType(occupancy, "ELDER").getBookedSeats());
+        assertEquals(seatType(occupancy, "ELDER").getTotalSeats() - 1, seatType(occupancy, "ELDER").getAvailableSeats());
+
+        seatService.updateSeatStatus(elderSeat, "AVAILABLE");
+        assertEquals(0, seatType(fleetEntry(busId), "ELDER").getBookedSeats());
+
+        jdbcTemplate.update("UPDATE seats SET status = 'BOOKED' WHERE bus_id = ? AND seat_number = 'R02'", busId);
+        assertEquals(1, seatType(fleetEntry(busId), "REGULAR").getBookedSeats());
+        long correctionsBefore = (Long) analyticsService.getStatus().get("occupancyCorrections");
+        analyticsService.verifyOccupancy();
+        assertEquals(2, seatType(fleetEntry(busId), "REGULAR").getBookedSeats());
+        assertTrue((Long) analyticsService.getStatus().get("occupancyCorrections") > correctionsBefore);
+
+        busController.deleteBus(busId);
+        assertTrue(analyticsService.getFleetOccupancy().stream().noneMatch(entry -> busId.equals(entry.getBusId())));
+    }
+
+    @Test
+    void countersCoverSeatMapsInsertedPastHibernate() throws Exception {
+        String csv = "name,route,departure_date,departure_time,arrival_time,total_seats,price\n"
+            + "Imported Fleet Express,Kochi-Salem,01-01-2030,08:00,12:00,20,300\n";
+        busImportService.importBuses(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), BusImportService.Format.CSV);
+        Long imported = busRepository.findByNameContainingIgnoreCase("Imported Fleet Express").get(0).getId();
+        assertEquals(20, totalSeats(fleetEntry(imported)));
+
+        TripSchedule schedule = scheduleService.addSchedule(new TripScheduleRequestDTO("Scheduled Fleet Express", "Kochi-Trichy",
+            "08:00", "14:00", Set.of(DayOfWeek.TUESDAY), LocalDate.now(), null, 30, 350.0));
+        Long scheduled = scheduleService.getDeparture(schedule.getId(),
+            LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.TUESDAY))).orElseThrow().getId();
+        assertEquals(30, totalSeats(fleetEntry(scheduled)));
+    }
+
+    private Long seatId(Long busId, String seatNumber) {
+        return seatService.getSeatsByBusId(busId).stream()
+                .filter(seat -> seatNumber.equals(seat.getSeatNumber())).map(SeatDTO::getId).findFirst().orElseThrow();
+    }
+
+    private BusOccupancyDTO fleetEntry(Long busId) {
+        return analyticsService.getFleetOccupancy().stream()
+                .filter(entry -> busId.equals(entry.getBusId())).findFirst().orElseThrow();
+    }
+
+    private static long totalSeats(BusOccupancyDTO occupancy) {
+        return occupancy.getSeatTypes().stream().mapToLong(OccupancyDTO::getTotalSeats).sum();
+    }
+
+    private static OccupancyDTO seatType(BusOccupancyDTO occupancy, String seatType) {
+        return occupancy.getSeatTypes().stream()
+                .filter(entry -> seatType.equals(entry.getSeatType())).findFirst().orElseThrow();
+    }
+}
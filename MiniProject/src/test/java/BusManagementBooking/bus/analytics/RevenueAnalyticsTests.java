@@ -0,0 +1,258 @@
+package BusManagementBooking.bus.analytics;
+
+import BusManagementBooking.bus.archive.ArchiveService;
+import BusManagementBooking.bus.booking.Booking;
+import BusManagementBooking.bus.booking.BookingAddRequestDTO;
+import BusManagementBooking.bus.booking.BookingEvent;
+import BusManagementBooking.bus.booking.BookingRepository;
+import BusManagementBooking.bus.booking.BookingServiceImpl;
+import BusManagementBooking.bus.buses.BusAddRequestDTO;
+import BusManagementBooking.bus.buses.BusController;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Revenue kept by booking events against the full recompute, including
+ * archived trips and cancels that commit while the recompute scans, or whose
+ * event only arrives after it. Runs on
+ * its own database because archiving moves every departed bus.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:revenue_analytics;DB_CLOSE_DELAY=-1",
+    "bus.cache.invalidation.poll-interval-ms=3600000",
+    "bus.admission.enabled=false"
+})
+class RevenueAnalyticsTests {
+
+    // Runs inside the revenue scan, right before or right after it reads its id range
+    private static final AtomicReference<Runnable> BEFORE_READ = new AtomicReference<>();
+    private static final AtomicReference<Runnable> AFTER_READ = new AtomicReference<>();
+
+    @DynamicPropertySource
+    static void archiveDirectory(DynamicPropertyRegistry registry) throws Exception {
+        String directory = Files.createTempDirectory("revenue-archive").toString();
+        registry.add("bus.archive.directory", () -> directory);
+    }
+
+    @TestConfiguration
+    static class RevenueScanHook {
+
+        @Bean
+        static BeanPostProcessor hookRevenueRows() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof BookingRepository repository)) {
+                        return bean;
+                    }
+                    return Proxy.newProxyInstance(BookingRepository.class.getClassLoader(), new Class<?>[] {BookingRepository.class},
+                        (proxy, method, args) -> {
+                            boolean scan = method.getName().equals("findRevenueRows");
+                            if (scan) {
+                                runHook(BEFORE_READ);
+                            }
+                            Object result;
+                            try {
+                                result = method.invoke(repository, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                            if (scan) {
+                                runHook(AFTER_READ);
+                            }
+                            return result;
+                        });
+                }
+            };
+        }
+
+        private static void runHook(AtomicReference<Runnable> hook) {
+            Runnable action = hook.getAndSet(null);
+            if (action != null) {
+                action.run();
+            }
+        }
+    }
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private BusController busController;
+
+    @Autowired
+    private BookingServiceImpl bookingService;
+
+    @Autowired
+    private ArchiveService archiveService;
+
+    @Autowired
+    private AnalyticsServiceImpl analyticsService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void awaitStartupRecompute() throws Exception {
+        for (int i = 0; i < 100 && analyticsService.getStatus().get("lastRecomputeAt") == null; i++) {
+            Thread.sleep(100);
+        }
+    }
+
+    @Test
+    void bookingEventsMatchRecompute() {
+        Long busId = addBus("Revenue Express", "01-01-2030");
+        book(busId, "R01", "300.00");
+        Booking cancelled = book(busId, "R02", "250.00");
+        book(busId, "E01", "120.50");
+        bookingService.cancelBooking(cancelled.getId());
+
+        assertRevenue(busId, "420.50", 2);
+        analyticsService.recompute();
+        assertRevenue(busId, "420.50", 2);
+    }
+
+    @Test
+    void recomputeKeepsArchivedTrips() {
+        Long busId = addBus("Departed Express", "01-01-2020");
+        book(busId, "R01", "90.00");
+        book(busId, "R02", "110.00");
+
+        archiveService.archiveDepartedTrips();
+        assertTrue(bookingRepository.findByBusIdIn(List.of(busId)).isEmpty());
+
+        analyticsService.recompute();
+        assertRevenue(busId, "200.00", 2);
+    }
+
+    @Test
+    void cancelCommittingAfterTheScanReadIsReplayed() {
+        Long busId = addBus("Racing Express", "01-01-2030");
+        book(busId, "R01", "300.00");
+        Booking older = book(busId, "R02", "200.00");
+        book(busId, "R03", "100.00");
+
+        // The scan reads the older booking as confirmed, the cancel only arrives as a buffered event
+        AFTER_READ.set(() -> bookingService.cancelBooking(older.getId()));
+        analyticsService.recompute();
+        assertFalse(bookingService.getBookingById(older.getId()).map(booking -> "CONFIRMED".equals(booking.getStatus())).orElse(true));
+        assertRevenue(busId, "400.00", 2);
+    }
+
+    @Test
+    void changesCommittedBeforeTheScanReadAreNotCountedTwice() {
+        Long busId = addBus("Early Express", "01-01-2030");
+        book(busId, "R01", "300.00");
+        Booking older = book(busId, "R02", "200.00");
+
+        BEFORE_READ.set(() -> {
+            bookingService.cancelBooking(older.getId());
+            book(busId, "R03", "75.00");
+        });
+        analyticsService.recompute();
+        assertRevenue(busId, "375.00", 2);
+    }
+
+    @Test
+    void eventArrivingAfterTheRecomputeIsCheckedAgainstTheScan() throws Exception {
+        Long busId = addBus("Late Express", "01-01-2030");
+        book(busId, "R01", "300.00");
+        Booking older = book(busId, "R02", "200.00");
+
+        // The cancel commits before the scan reads it, but its event is held until the recompute is done
+        CountDownLatch committed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<Thread> cancel = new AtomicReference<>();
+        BEFORE_READ.set(() -> {
+            Thread thread = new Thread(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        committed.countDown();
+                        try {
+                            release.await(10, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                });
+                bookingService.cancelBooking(older.getId());
+            }));
+            cancel.set(thread);
+            thread.start();
+            try {
+                assertTrue(committed.await(10, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        long start = System.nanoTime();
+        analyticsService.recompute();
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 2000, "recompute waited for the event");
+        release.countDown();
+        cancel.get().join(10000);
+
+        assertRevenue(busId, "300.00", 1);
+    }
+
+    @Test
+    void scanStateTellsWhichEventsItHasSeen() {
+        BookingEvent booked = event(BookingEvent.Type.BOOKED);
+        BookingEvent cancelled = event(BookingEvent.Type.CANCELLED);
+
+        assertFalse(AnalyticsServiceImpl.seenByScan(booked, null));
+        assertFalse(AnalyticsServiceImpl.seenByScan(cancelled, null));
+        assertTrue(AnalyticsServiceImpl.seenByScan(booked, true));
+        assertFalse(AnalyticsServiceImpl.seenByScan(cancelled, true));
+        assertTrue(AnalyticsServiceImpl.seenByScan(booked, false));
+        assertTrue(AnalyticsServiceImpl.seenByScan(cancelled, false));
+        assertTrue(AnalyticsServiceImpl.seenByScan(event(BookingEvent.Type.TRANSFERRED_IN), true));
+        assertFalse(AnalyticsServiceImpl.seenByScan(event(BookingEvent.Type.TRANSFERRED_OUT), true));
+    }
+
+    private Long addBus(String name, String departureDate) {
+        return busController.addBus(new BusAddRequestDTO(name, "Salem-Erode", departureDate,
+                "08:00", "12:00", 40, 40, 300.0)).getBody().getId();
+    }
+
+    private Booking book(Long busId, String seatNumber, String amount) {
+        return bookingService.addBooking(new BookingAddRequestDTO(1L, busId, null, seatNumber, new BigDecimal(amount), null));
+    }
+
+    private void assertRevenue(Long busId, String revenue, long bookings) {
+        RevenueDTO entry = analyticsService.getRevenueByBus().stream()
+                .filter(dto -> String.valueOf(busId).equals(dto.getKey())).findFirst().orElseThrow();
+        assertEquals(0, new BigDecimal(revenue).compareTo(entry.getRevenue()), "revenue " + entry.getRevenue());
+        assertEquals(bookings, entry.getBookings());
+    }
+
+    private static BookingEvent event(BookingEvent.Type type) {
+        return new BookingEvent(type, 1L, 1L, 1L, "R01", "REGULAR", BigDecimal.TEN, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,162 @@
+package BusManagementBooking.bus.archive;
+
+import BusManagementBooking.bus.booking.Booking;
+import BusManagementBooking.bus.buses.Bus;
+import BusManagementBooking.bus.seats.Seat;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArchiveSegmentTests {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 3, 1, 8, 30);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTripsLongColumns() throws Exception {
+        long[] values = {0, 1, -1, 127, 128, -129, 1_000_000_007L, Long.MAX_VALUE, Long.MIN_VALUE, 42};
+
+        assertArrayEquals(values, ColumnCodec.decodeLongs(ColumnCodec.encodeLongs(values, false), values.length, false));
+        assertArrayEquals(values, ColumnCodec.decodeLongs(ColumnCodec.encodeLongs(values, true), values.length, true));
+        assertArrayEquals(new long[0], ColumnCodec.decodeLongs(ColumnCodec.encodeLongs(new long[0], true), 0, true));
+    }
+
+    @Test
+    void roundTripsStringColumnsThroughTheDictionary() throws Exception {
+        String[] values = {"CONFIRMED", "CANCELLED", "CONFIRMED", null, "", "Sitz-Ä1", "CONFIRMED"};
+
+        String[] decoded = ColumnCodec.decodeStrings(ColumnCodec.encodeStrings(values), values.length);
+
+        // Nulls are stored as the empty string
+        assertArrayEquals(new String[] {"CONFIRMED", "CANCELLED", "CONFIRMED", "", "", "Sitz-Ä1", "CONFIRMED"}, decoded);
+    }
+
+    @Test
+    void roundTripsBookingSegment() throws Exception {
+        List<Booking> bookings = new ArrayList<>();
+        for (long id = 1; id <= 300; id++) {
+            bookings.add(booking(id, 100 + id % 30, 7 + id % 4, START.plusHours(id), id % 5 == 0 ? "CANCELLED" : "CONFIRMED"));
+        }
+        Path path = dir.resolve("bookings.seg");
+        ArchiveSegment.writeBookings(path, bookings);
+
+        ArchiveSegment segment = ArchiveSegment.open(path);
+        assertEquals(ArchiveSegment.BOOKINGS, segment.getKind());
+        assertEquals(300, segment.getRowCount());
+
+        List<Booking> read = segment.readBookings(105L, null, null);
+        List<Booking> expected = bookings.stream().filter(booking -> booking.getUserId() == 105L).toList();
+        assertEquals(expected.size(), read.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertSameBooking(expected.get(i), read.get(i));
+        }
+
+        // Booking date range is applied on the time column
+        long from = ArchiveSegment.toMillis(START.plusHours(100));
+        long to = ArchiveSegment.toMillis(START.plusHours(199));
+        assertEquals(100, segment.readBookings(null, from, to).size());
+        assertTrue(segment.readBookings(999L, null, null).isEmpty());
+    }
+
+    @Test
+    void headerSkipsSegmentsOutsideKeyAndTimeRange() throws Exception {
+        Path path = dir.resolve("bookings.seg");
+        ArchiveSegment.writeBookings(path, List.of(
+            booking(1, 50, 1, START, "CONFIRMED"),
+            booking(2, 60, 1, START.plusDays(1), "CONFIRMED")));
+        ArchiveSegment segment = ArchiveSegment.open(path);
+
+        assertTrue(segment.mightContain(50L, null, null));
+        assertFalse(segment.mightContain(49L, null, null));
+        assertFalse(segment.mightContain(61L, null, null));
+        assertFalse(segment.mightContain(null, ArchiveSegment.toMillis(START.plusDays(2)), null));
+        assertFalse(segment.mightContain(null, null, ArchiveSegment.toMillis(START.minusDays(1))));
+        assertTrue(segment.mightContain(60L, ArchiveSegment.toMillis(START.plusHours(1)), ArchiveSegment.toMillis(START.plusDays(3))));
+    }
+
+    @Test
+    void bloomFilterHasNoFalseNegativesAndFewFalsePositives() throws Exception {
+        // Users with even ids only, so the odd ids in between pass the min/max check and hit the bloom filter
+        List<Booking> bookings = new ArrayList<>();
+        for (long id = 1; id <= 2000; id++) {
+            bookings.add(booking(id, id * 2, 1, START, "CONFIRMED"));
+        }
+        Path path = dir.resolve("bookings.seg");
+        ArchiveSegment.writeBookings(path, bookings);
+        ArchiveSegment segment = ArchiveSegment.open(path);
+
+        int falsePositives = 0;
+        for (long user = 2; user <= 4000; user++) {
+            if (user % 2 == 0) {
+                assertTrue(segment.mightContain(user, null, null), "user " + user);
+            } else if (segment.mightContain(user, null, null)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 200, falsePositives + " false positives out of 1999");
+    }
+
+    @Test
+    void roundTripsSeatSegment() throws Exception {
+        List<Seat> seats = new ArrayList<>();
+        for (long busId : new long[] {12, 3, 40}) {
+            seats.add(seat(busId, "R1", Seat.SeatType.REGULAR, Seat.SeatStatus.BOOKED));
+            seats.add(seat(busId, "R2", Seat.SeatType.REGULAR, Seat.SeatStatus.AVAILABLE));
+            seats.add(seat(busId, "E1", Seat.SeatType.ELDER, Seat.SeatStatus.AVAILABLE));
+            seats.add(seat(busId, "P1", Seat.SeatType.PREGNANT, Seat.SeatStatus.BOOKED));
+        }
+        Path path = dir.resolve("seats.seg");
+        ArchiveSegment.writeSeats(path, seats);
+        assertFalse(Files.exists(dir.resolve("seats.seg.tmp")));
+
+        ArchiveSegment segment = ArchiveSegment.open(path);
+        assertEquals(ArchiveSegment.SEATS, segment.getKind());
+        assertEquals(Set.of(3L, 12L, 40L), segment.readSeatBusIds());
+        assertTrue(segment.mightContain(12L, null, null));
+        assertFalse(segment.mightContain(41L, null, null));
+
+        // Rows come back sorted by seat number
+        List<Seat> read = segment.readSeats(12L);
+        assertEquals(List.of("E1", "P1", "R1", "R2"), read.stream().map(Seat::getSeatNumber).toList());
+        assertEquals(Seat.SeatType.PREGNANT, read.get(1).getSeatType());
+        assertEquals(Seat.SeatStatus.BOOKED, read.get(1).getStatus());
+        assertEquals(Seat.SeatStatus.AVAILABLE, read.get(3).getStatus());
+        assertTrue(segment.readSeats(5L).isEmpty());
+    }
+
+    private static Booking booking(long id, long userId, long busId, LocalDateTime date, String status) {
+        Booking booking = new Booking(userId, busId, date, "R" + id % 40, BigDecimal.valueOf(1250 + id, 2), status);
+        booking.setId(id);
+        return booking;
+    }
+
+    private static Seat seat(long busId, String number, Seat.SeatType type, Seat.SeatStatus status) {
+        Bus bus = new Bus();
+        bus.setId(busId);
+        return new Seat(number, type, status, bus);
+    }
+
+    private static void assertSameBooking(Booking expected, Booking actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getUserId(), actual.getUserId());
+        assertEquals(expected.getBusId(), actual.getBusId());
+        assertEquals(expected.getBookingDate(), actual.getBookingDate());
+        assertEquals(expected.getSeatNumber(), actual.getSeatNumber());
+        assertEquals(0, expected.getAmount().compareTo(actual.getAmount()));
+        assertEquals(expected.getStatus(), actual.getStatus());
+    }
+}
@@ -0,0 +1,140 @@
+package BusManagementBooking.bus.archive;
+
+import BusManagementBooking.bus.analytics.AnalyticsService;
+import BusManagementBooking.bus.booking.BookingAddRequestDTO;
+import BusManagementBooking.bus.booking.BookingRepository;
+import BusManagementBooking.bus.booking.BookingServiceImpl;
+import BusManagementBooking.bus.buses.BusAddRequestDTO;
+import BusManagementBooking.bus.buses.BusController;
+import BusManagementBooking.bus.seats.SeatRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Archives a departed bus while another transaction adds a booking to it
+ * between the archive's read and its delete. Runs on its own database
+ * because archiving moves every departed bus, and without the second-level
+ * cache, which every test context in the JVM shares by entity id.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:archive_service;DB_CLOSE_DELAY=-1",
+    "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+    "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+    "bus.cache.invalidation.poll-interval-ms=3600000",
+    "bus.admission.enabled=false"
+})
+class ArchiveServiceTests {
+
+    // Runs inside the archive transaction, right after it has read and locked the seats
+    private static final AtomicReference<Runnable> AFTER_SEAT_READ = new AtomicReference<>();
+    private static Path archiveDirectory;
+
+    @DynamicPropertySource
+    static void archiveDirectory(DynamicPropertyRegistry registry) throws Exception {
+        archiveDirectory = Files.createTempDirectory("archive-service");
+        registry.add("bus.archive.directory", archiveDirectory::toString);
+    }
+
+    @TestConfiguration
+    static class SeatReadHook {
+
+        @Bean
+        static BeanPostProcessor hookSeatLocks() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof SeatRepository repository)) {
+                        return bean;
+                    }
+                    return Proxy.newProxyInstance(SeatRepository.class.getClassLoader(), new Class<?>[] {SeatRepository.class},
+                        (proxy, method, args) -> {
+                            Object result;
+                            try {
+                                result = method.invoke(repository, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                            if (method.getName().equals("lockByBusIdIn")) {
+                                Runnable action = AFTER_SEAT_READ.getAndSet(null);
+                                if (action != null) {
+                                    action.run();
+                                }
+                            }
+                            return result;
+                        });
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private ArchiveService archiveService;
+
+    @Autowired
+    private BusController busController;
+
+    @Autowired
+    private BookingServiceImpl bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Test
+    void bookingAddedDuringTheArchiveRollsTheChunkBack() throws Exception {
+        Long busId = busController.addBus(new BusAddRequestDTO("Archive Express", "Salem-Erode", "01-01-2020",
+                "08:00", "12:00", 10, 10, 300.0)).getBody().getId();
+        assertTrue(analyticsService.getFleetOccupancy().stream().anyMatch(entry -> busId.equals(entry.getBusId())));
+        bookingService.addBooking(new BookingAddRequestDTO(41L, busId, null, "R01", new BigDecimal("300.00"), null));
+        bookingService.addBooking(new BookingAddRequestDTO(41L, busId, null, "R02", new BigDecimal("300.00"), null));
+
+        // Commits on another connection while the archive holds its read
+        AFTER_SEAT_READ.set(() -> CompletableFuture.runAsync(() -> jdbcTemplate.update(
+                "insert into bookings (user_id, bus_id, booking_date, seat_number, amount, status) values (?, ?, ?, ?, ?, 'CONFIRMED')",
+                41L, busId, Timestamp.valueOf(LocalDateTime.now()), "R03", new BigDecimal("300.00")))
+            .orTimeout(10, TimeUnit.SECONDS).join());
+
+        assertEquals(0, archiveService.archiveDepartedTrips().get("archivedBookings"));
+        assertEquals(3, bookingRepository.findByBusIdIn(List.of(busId)).size());
+        assertTrue(archiveService.findArchivedBookings(41L, null, null).isEmpty());
+        assertTrue(archiveService.findArchivedSeats(busId).isEmpty());
+        try (Stream<Path> files = Files.list(archiveDirectory)) {
+            assertEquals(0, files.count());
+        }
+
+        // The next run archives all three
+        assertEquals(3, archiveService.archiveDepartedTrips().get("archivedBookings"));
+        assertTrue(bookingRepository.findByBusIdIn(List.of(busId)).isEmpty());
+        assertEquals(3, archiveService.findArchivedBookings(41L, null, null).size());
+        assertEquals(10, archiveService.findArchivedSeats(busId).size());
+        assertTrue(analyticsService.getFleetOccupancy().stream().noneMatch(entry -> busId.equals(entry.getBusId())));
+    }
+}
@@ -0,0 +1,108 @@
+package BusManagementBooking.bus.audit;
+
+import BusManagementBooking.bus.booking.Booking;
+import BusManagementBooking.bus.booking.BookingAddRequestDTO;
+import BusManagementBooking.bus.booking.BookingEvent;
+import BusManagementBooking.bus.booking.BookingServiceImpl;
+import BusManagementBooking.bus.buses.BusAddRequestDTO;
+import BusManagementBooking.bus.buses.BusController;
+import BusManagementBooking.bus.outbox.BookingOutboxRelay;
+import BusManagementBooking.bus.outbox.OutboxEvent;
+import BusManagementBooking.bus.seats.SeatDTO;
+import BusManagementBooking.bus.seats.SeatService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Changes seats through bookings and by hand, relays the outbox by hand and
+ * reads the trail back per bus, per seat and by time.
+ */
+@SpringBootTest(properties = {
+    "bus.outbox.poll-interval-ms=3600000",
+    "bus.cache.invalidation.poll-interval-ms=3600000",
+    "bus.admission.enabled=false"
+})
+class SeatAuditTests {
+
+    @Autowired
+    private BusController busController;
+
+    @Autowired
+    private BookingServiceImpl bookingService;
+
+    @Autowired
+    private SeatService seatService;
+
+    @Autowired
+    private BookingOutboxRelay relay;
+
+    @Autowired
+    private SeatAuditService seatAuditService;
+
+    @Test
+    void everySeatTransitionIsRecordedOnce() throws Exception {
+        Long busId = busController.addBus(new BusAddRequestDTO("Audit Express", "Kochi-Madurai", "01-01-2030",
+                "08:00", "18:00", 40, 40, 300.0)).getBody().getId();
+
+        Booking first = book(busId, "R01");
+        Booking second = book(busId, "R02");
+        Thread.sleep(5);
+        LocalDateTime beforeChanges = LocalDateTime.now();
+        Thread.sleep(5);
+        bookingService.cancelBooking(first.getId());
+        bookingService.transferSeat(second.getId(), busId, seatId(busId, "E01"));
+        seatService.updateSeatStatus(seatId(busId, "R03"), "BOOKED");
+        seatService.updateSeatStatus(seatId(busId, "R03"), "AVAILABLE");
+        relay.relay();
+
+        assertEquals(List.of("BOOKED", "CANCELLED"), actions(history(busId, "R01", null, null)));
+        assertEquals(List.of(first.getId(), first.getId()),
+                history(busId, "R01", null, null).stream().map(SeatAuditDTO::getBookingId).toList());
+        assertEquals(List.of("BOOKED", "TRANSFERRED_OUT"), actions(history(busId, "R02", null, null)));
+        assertEquals(List.of("TRANSFERRED_IN"), actions(history(busId, "E01", null, null)));
+        assertEquals("BOOKED", history(busId, "E01", null, null).get(0).getStatus());
+        assertEquals(List.of("MARKED_BOOKED", "MARKED_AVAILABLE"), actions(history(busId, "R03", null, null)));
+        assertEquals(List.of("BOOKED"), actions(history(busId, "R01", null, beforeChanges)));
+        assertEquals(List.of("CANCELLED"), actions(history(busId, "R01", beforeChanges, null)));
+
+        List<SeatAuditDTO> bus = history(busId, null, null, null);
+        assertEquals("SEAT_MAP_REPLACED", bus.get(0).getAction());
+        assertNull(bus.get(0).getSeatNumber());
+        assertEquals(8, bus.size());
+        assertEquals(1, seatAuditService.getHistory(busId, null, null, null, 1).size());
+        assertThrows(IllegalArgumentException.class, () -> seatAuditService.getHistory(busId, null, null, null, 0));
+        assertThrows(IllegalArgumentException.class, () -> history(busId, null, beforeChanges, beforeChanges));
+
+        // Redelivered outbox events, in another batch or twice in one, add nothing
+        OutboxEvent redelivered = new OutboxEvent("node", new BookingEvent(BookingEvent.Type.CANCELLED, first.getId(),
+                1L, busId, "R01", "REGULAR", new BigDecimal("300.00"), first.getBookingDate()), System.currentTimeMillis());
+        seatAuditService.record(List.of(redelivered, redelivered));
+        assertEquals(8, history(busId, null, null, null).size());
+    }
+
+    private Booking book(Long busId, String seatNumber) {
+        return bookingService.addBooking(new BookingAddRequestDTO(1L, busId, null, seatNumber, new BigDecimal("300.00"), null));
+    }
+
+    private Long seatId(Long busId, String seatNumber) {
+        return seatService.getSeatsByBusId(busId).stream()
+                .filter(seat -> seatNumber.equals(seat.getSeatNumber())).map(SeatDTO::getId).findFirst().orElseThrow();
+    }
+
+    private List<SeatAuditDTO> history(Long busId, String seatNumber, LocalDateTime from, LocalDateTime to) {
+        return seatAuditService.getHistory(busId, seatNumber, from, to, null);
+    }
+
+    private static List<String> actions(List<SeatAuditDTO> rows) {
+        return rows.stream().map(SeatAuditDTO::getAction).toList();
+    }
+}
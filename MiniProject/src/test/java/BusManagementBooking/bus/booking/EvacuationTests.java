@@ -0,0 +1,189 @@
+package BusManagementBooking.bus.booking;
+
+import BusManagementBooking.bus.buses.BusAddRequestDTO;
+import BusManagementBooking.bus.buses.BusController;
+import BusManagementBooking.bus.buses.BusRepository;
+import BusManagementBooking.bus.seats.Seat;
+import BusManagementBooking.bus.seats.SeatDTO;
+import BusManagementBooking.bus.seats.SeatService;
+import BusManagementBooking.bus.user.User;
+import BusManagementBooking.bus.user.UserAddRequestDTO;
+import BusManagementBooking.bus.user.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Evacuates small buses with hand-made seat layouts onto targets with too few
+ * seats of each type, to see who gets which seat and who is left behind.
+ */
+@SpringBootTest(properties = {
+    "bus.outbox.poll-interval-ms=3600000",
+    "bus.cache.invalidation.poll-interval-ms=3600000",
+    "bus.admission.enabled=false"
+})
+class EvacuationTests {
+
+    @Autowired
+    private BusController busController;
+
+    @Autowired
+    private BusRepository busRepository;
+
+    @Autowired
+    private BookingServiceImpl bookingService;
+
+    @Autowired
+    private SeatService seatService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void priorityPassengersGoFirstAndTheRestStayUnassigned() {
+        Long source = bus("Broken Express", 4, 0, 0);
+        Long target = bus("Relief Express", 1, 1, 1);
+        Booking regular = book(user("first", 30, "Male", false), source, "R01");
+        Booking elder = book(user("elder", 72, "Male", false), source, "R02");
+        Booking pregnant = book(user("pregnant", 29, "Female", true), source, "R03");
+        Booking leftBehind = book(user("last", 35, "Female", false), source, "R04");
+
+        EvacuationResultDTO result = bookingService.evacuateBus(source, List.of(target));
+
+        assertEquals(Map.of(regular.getId(), "R01", elder.getId(), "E01", pregnant.getId(), "P01"), newSeats(result));
+        assertEquals(List.of(pregnant.getId(), elder.getId(), regular.getId()),
+                result.getAssignments().stream().map(SeatAssignmentDTO::getOldBookingId).toList());
+        assertEquals(List.of(leftBehind.getId()), result.getUnassignedBookingIds());
+
+        // Moved passengers hold confirmed bookings on the target, the one left behind keeps their seat
+        for (SeatAssignmentDTO assignment : result.getAssignments()) {
+            assertEquals("CANCELLED", status(assignment.getOldBookingId()));
+            assertEquals("CONFIRMED", status(assignment.getNewBookingId()));
+            assertEquals(target, assignment.getNewBusId());
+        }
+        assertEquals("CONFIRMED", status(leftBehind.getId()));
+        assertEquals(Seat.SeatStatus.BOOKED.name(), seatStatus(source, "R04"));
+        assertEquals(Seat.SeatStatus.AVAILABLE.name(), seatStatus(source, "R01"));
+        assertEquals(3, availableSeats(source));
+        assertEquals(0, availableSeats(target));
+    }
+
+    @Test
+    void heldPrioritySeatCountsAndRegularsFallBackToPrioritySeats() {
+        Long source = bus("Flat Tyre Express", 2, 1, 0);
+        Long target = bus("Spare Express", 1, 2, 0);
+        // A regular passenger that held an elder seat keeps the elder priority
+        Booking heldElderSeat = book(user("holder", 40, "Male", false), source, "E01");
+        Booking firstRegular = book(user("regular-one", 30, "Male", false), source, "R01");
+        Booking secondRegular = book(user("regular-two", 31, "Female", false), source, "R02");
+
+        EvacuationResultDTO result = bookingService.evacuateBus(source, List.of(target));
+
+        assertEquals(Map.of(heldElderSeat.getId(), "E01", firstRegular.getId(), "R01", secondRegular.getId(), "E02"),
+                newSeats(result));
+        assertEquals(List.of(), result.getUnassignedBookingIds());
+        assertEquals("ELDER", result.getAssignments().stream()
+                .filter(assignment -> assignment.getOldBookingId().equals(secondRegular.getId()))
+                .findFirst().orElseThrow().getSeatType());
+        assertEquals(3, availableSeats(source));
+    }
+
+    @Test
+    void bookingRacingForATargetSeatWaitsAndIsRejected() throws Exception {
+        Long source = bus("Stalled Express", 1, 0, 0);
+        Long target = bus("Rescue Express", 1, 0, 0);
+        Booking evacuee = book(user("evacuee", 30, "Male", false), source, "R01");
+        Long latecomer = user("latecomer", 30, "Female", false);
+
+        CountDownLatch evacuated = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        Thread evacuation = new Thread(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            bookingService.evacuateBus(source, List.of(target));
+            evacuated.countDown();
+            try {
+                commit.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        evacuation.start();
+        assertTrue(evacuated.await(10, TimeUnit.SECONDS));
+
+        // The booking blocks on the seat the uncommitted evacuation took
+        CompletableFuture<Booking> racing = CompletableFuture.supplyAsync(() -> book(latecomer, target, "R01"));
+        Thread.sleep(200);
+        assertFalse(racing.isDone());
+
+        commit.countDown();
+        evacuation.join();
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> racing.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalArgumentException.class, failure.getCause());
+        assertEquals("CANCELLED", status(evacuee.getId()));
+        assertEquals(0, availableSeats(target));
+    }
+
+    @Test
+    void rejectsMissingAndSelfTargets() {
+        Long source = bus("Lonely Express", 2, 0, 0);
+
+        assertThrows(IllegalArgumentException.class, () -> bookingService.evacuateBus(source, List.of()));
+        assertThrows(IllegalArgumentException.class, () -> bookingService.evacuateBus(source, List.of(source)));
+        assertThrows(IllegalArgumentException.class, () -> bookingService.evacuateBus(source, List.of(Long.MAX_VALUE)));
+    }
+
+    private Long bus(String name, int regularSeats, int elderSeats, int pregnantSeats) {
+        int total = regularSeats + elderSeats + pregnantSeats;
+        Long busId = busController.addBus(new BusAddRequestDTO(name, "Trichy-Vellore", "01-01-2030",
+                "08:00", "14:00", total, total, 250.0)).getBody().getId();
+        seatService.initializeSeatsForBus(busId, regularSeats, elderSeats, pregnantSeats);
+        return busId;
+    }
+
+    private Long user(String name, int age, String gender, boolean pregnant) {
+        String email = name + "." + System.nanoTime() + "@evacuation.example.com";
+        userService.addUser(new UserAddRequestDTO(name, email, age, gender, "USER", "secret", pregnant));
+        return userService.getUserByEmail(email).map(User::getId).orElseThrow();
+    }
+
+    private Booking book(Long userId, Long busId, String seatNumber) {
+        return bookingService.addBooking(new BookingAddRequestDTO(userId, busId, null, seatNumber, new BigDecimal("250.00"), null));
+    }
+
+    private static Map<Long, String> newSeats(EvacuationResultDTO result) {
+        return result.getAssignments().stream()
+                .collect(Collectors.toMap(SeatAssignmentDTO::getOldBookingId, SeatAssignmentDTO::getNewSeatNumber));
+    }
+
+    private String status(Long bookingId) {
+        return bookingService.getBookingById(bookingId).map(Booking::getStatus).orElseThrow();
+    }
+
+    private String seatStatus(Long busId, String seatNumber) {
+        return seatService.getSeatsByBusId(busId).stream()
+                .filter(seat -> seatNumber.equals(seat.getSeatNumber())).map(SeatDTO::getStatus).findFirst().orElseThrow();
+    }
+
+    private int availableSeats(Long busId) {
+        return busRepository.findById(busId).orElseThrow().getAvailableSeats();
+    }
+}
@@ -0,0 +1,78 @@
+package BusManagementBooking.bus.buses;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Splits CSV lines by hand and imports a small timetable with quoted names,
+ * blank lines and one broken row.
+ */
+@SpringBootTest(properties = {
+    "bus.cache.invalidation.poll-interval-ms=3600000",
+    "bus.admission.enabled=false"
+})
+class BusImportTests {
+
+    @Autowired
+    private BusImportService busImportService;
+
+    @Autowired
+    private BusRepository busRepository;
+
+    @Test
+    void splitsPlainFields() {
+        assertEquals(List.of("Night Rider", "Chennai-Madurai", "08:00"), BusImportServiceImpl.parseCsvLine("Night Rider,Chennai-Madurai,08:00"));
+        // Empty fields are kept, including a trailing one
+        assertEquals(List.of("a", "", "c", ""), BusImportServiceImpl.parseCsvLine("a,,c,"));
+    }
+
+    @Test
+    void keepsCommasAndEscapedQuotesInsideQuotedFields() {
+        assertEquals(List.of("Express, Deluxe", "Salem-Erode"), BusImportServiceImpl.parseCsvLine("\"Express, Deluxe\",Salem-Erode"));
+        assertEquals(List.of("The \"Blue\" Bus", "x"), BusImportServiceImpl.parseCsvLine("\"The \"\"Blue\"\" Bus\",x"));
+        assertEquals(List.of("", ","), BusImportServiceImpl.parseCsvLine("\"\",\",\""));
+    }
+
+    @Test
+    void blankLineIsOneEmptyField() {
+        assertEquals(List.of(""), BusImportServiceImpl.parseCsvLine(""));
+        assertEquals(List.of("  "), BusImportServiceImpl.parseCsvLine("  "));
+    }
+
+    @Test
+    void rejectsUnterminatedQuotes() {
+        assertThrows(IllegalArgumentException.class, () -> BusImportServiceImpl.parseCsvLine("\"Express, Deluxe,Salem-Erode"));
+    }
+
+    @Test
+    void importSkipsBlankLinesAndReportsBrokenRows() throws Exception {
+        String csv = String.join("\n",
+            "",
+            "name,route,departure_date,departure_time,arrival_time,total_seats,price",
+            "\"Import Express, Deluxe\",Salem-Erode,01-01-2030,08:00,12:00,20,350.00",
+            "",
+            "   ",
+            "\"Import \"\"Night\"\" Rider\",Erode-Salem,2030-01-02,22:00,02:00,10,400",
+            "\"Import Broken,Erode-Salem,2030-01-02,22:00,02:00,10,400",
+            "");
+
+        BusImportReport report = busImportService.importBuses(
+            new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), BusImportService.Format.CSV);
+
+        assertEquals(3, report.getRowsRead());
+        assertEquals(2, report.getBusesImported());
+        assertEquals(30, report.getSeatsCreated());
+        assertEquals(1, report.getFailedRows());
+        assertEquals(7, report.getErrors().get(0).getLine());
+        assertEquals(List.of("Import \"Night\" Rider", "Import Express, Deluxe"),
+            busRepository.findByNameContainingIgnoreCase("Import ").stream().map(Bus::getName).sorted().toList());
+    }
+}
@@ -0,0 +1,129 @@
+package BusManagementBooking.bus.cache;
+
+import BusManagementBooking.bus.cluster.ClusterMembership;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Delivers rows written by another node through the poller, including a row
+ * whose transaction commits after a later one. Runs as a one-node cluster
+ * on its own database, polling by hand.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:invalidation_bus;DB_CLOSE_DELAY=-1",
+    "bus.cluster.enabled=true",
+    "bus.cache.invalidation.poll-interval-ms=3600000",
+    "bus.admission.enabled=false"
+})
+class CacheInvalidationBusTests {
+
+    private static final String OTHER_NODE = "other-node";
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Autowired
+    private CacheInvalidationRepository cacheInvalidationRepository;
+
+    @Autowired
+    private ClusterMembership membership;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<Long> invalidated = new CopyOnWriteArrayList<>();
+    private final List<Long> invalidatedRemotely = new CopyOnWriteArrayList<>();
+    private String region;
+
+    @BeforeEach
+    void registerListeners() {
+        // A fresh region per test, listeners cannot be removed again
+        region = "test-" + System.nanoTime() % 100000;
+        cacheInvalidationBus.register(region, invalidated::add);
+        cacheInvalidationBus.registerRemote(region, invalidatedRemotely::add);
+        cacheInvalidationBus.poll();
+    }
+
+    @Test
+    void deliversOtherNodesRowsToBothListenerKinds() {
+        writeRow(OTHER_NODE, 7L);
+        cacheInvalidationBus.poll();
+
+        assertEquals(List.of(7L), invalidated);
+        assertEquals(List.of(7L), invalidatedRemotely);
+    }
+
+    @Test
+    void ownPublishesAreAppliedLocallyOnce() {
+        cacheInvalidationBus.publish(region, 8L);
+        assertEquals(List.of(8L), invalidated);
+        assertTrue(invalidatedRemotely.isEmpty());
+
+        // The poller skips the row this node wrote itself
+        cacheInvalidationBus.poll();
+        assertEquals(List.of(8L), invalidated);
+        assertEquals(membership.getNodeId(), cacheInvalidationRepository.findTop500ByIdGreaterThanOrderByIdAsc(0L).stream()
+                .filter(row -> region.equals(row.getRegion())).findFirst().orElseThrow().getNodeId());
+    }
+
+    @Test
+    void batchPublishIsAppliedPerKeyAfterCommit() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            cacheInvalidationBus.publishAll(region, List.of(30L, 31L, 32L));
+            assertTrue(invalidated.isEmpty());
+        });
+        assertEquals(List.of(30L, 31L, 32L), invalidated);
+
+        cacheInvalidationBus.poll();
+        assertEquals(List.of(30L, 31L, 32L), invalidated);
+        assertTrue(invalidatedRemotely.isEmpty());
+        assertEquals(List.of(30L, 31L, 32L), cacheInvalidationRepository.findTop500ByIdGreaterThanOrderByIdAsc(0L).stream()
+                .filter(row -> region.equals(row.getRegion()) && membership.getNodeId().equals(row.getNodeId()))
+                .map(CacheInvalidation::getEntityKey).toList());
+    }
+
+    @Test
+    void rowCommittedOutOfIdOrderIsDeliveredOnALaterPoll() throws Exception {
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        Thread late = new Thread(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            // Takes the lower id but commits after the next row
+            writeRow(OTHER_NODE, 20L);
+            inserted.countDown();
+            try {
+                commit.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        late.start();
+        assertTrue(inserted.await(10, TimeUnit.SECONDS));
+
+        writeRow(OTHER_NODE, 21L);
+        cacheInvalidationBus.poll();
+        assertEquals(List.of(21L), invalidatedRemotely);
+        assertEquals(1, cacheInvalidationBus.getStats().get("pendingGaps"));
+
+        commit.countDown();
+        late.join();
+        cacheInvalidationBus.poll();
+        assertEquals(List.of(21L, 20L), invalidatedRemotely);
+        assertEquals(0, cacheInvalidationBus.getStats().get("pendingGaps"));
+    }
+
+    private void writeRow(String nodeId, Long key) {
+        cacheInvalidationRepository.save(new CacheInvalidation(nodeId, region, key, System.currentTimeMillis()));
+    }
+}
@@ -0,0 +1,130 @@
+package BusManagementBooking.bus.cache;
+
+import BusManagementBooking.bus.booking.BookingAddRequestDTO;
+import BusManagementBooking.bus.booking.BookingController;
+import BusManagementBooking.bus.buses.Bus;
+import BusManagementBooking.bus.buses.BusAddRequestDTO;
+import BusManagementBooking.bus.buses.BusController;
+import BusManagementBooking.bus.seats.Seat;
+import BusManagementBooking.bus.seats.SeatRepository;
+import BusManagementBooking.bus.user.UserAddRequestDTO;
+import BusManagementBooking.bus.user.UserRepository;
+import BusManagementBooking.bus.user.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Counts the statements a booking sends to the database with a cold and a
+ * warm second-level cache. Only statements prepared on the booking's own
+ * thread are counted, so background pollers do not disturb the numbers.
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector=BusManagementBooking.bus.cache.SecondLevelCacheRoundTripTests$StatementCounter",
+    "bus.admission.enabled=false"
+})
+class SecondLevelCacheRoundTripTests {
+
+    private static final int BOOKINGS = 10;
+
+    public static class StatementCounter implements StatementInspector {
+        static volatile Thread counted;
+        static final AtomicLong statements = new AtomicLong();
+
+        @Override
+        public String inspect(String sql) {
+            if (Thread.currentThread() == counted) {
+                statements.incrementAndGet();
+            }
+            return sql;
+        }
+    }
+
+    @Autowired
+    private BusController busController;
+
+    @Autowired
+    private BookingController bookingController;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private SeatRepository seatRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void warmCacheSavesRoundTripsPerBooking() {
+        Bus bus = busController.addBus(new BusAddRequestDTO("L2 Express", "Kochi-Chennai", "01-01-2030",
+                "08:00", "18:00", 40, 40, 500.0)).getBody();
+        userService.addUser(new UserAddRequestDTO("L2 Rider", "l2rider@example.com", 30, "male", "user", "secret", false));
+        Long userId = userRepository.findByEmail("l2rider@example.com").orElseThrow().getId();
+
+        org.hibernate.Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+
+        long cold = 0;
+        long warm = 0;
+        for (int i = 1; i <= BOOKINGS; i++) {
+            // Cold: every booking starts from an empty cache
+            cache.evictAllRegions();
+            cold += book(userId, bus.getId(), String.format("R%02d", i));
+        }
+        // Warm: the first booking primes the cache and is not counted
+        book(userId, bus.getId(), "E01");
+        for (int i = BOOKINGS + 1; i <= 2 * BOOKINGS; i++) {
+            warm += book(userId, bus.getId(), String.format("R%02d", i));
+        }
+        assertTrue(warm < cold, "warm cache should need fewer round trips than cold (" + warm + " vs " + cold + ")");
+    }
+
+    @Test
+    void bookingChecksTheSeatInTheDatabase() {
+        Bus bus = busController.addBus(new BusAddRequestDTO("L2 Stale Express", "Kochi-Chennai", "01-01-2030",
+                "08:00", "18:00", 10, 10, 500.0)).getBody();
+        userService.addUser(new UserAddRequestDTO("L2 Late", "l2late@example.com", 30, "male", "user", "secret", false));
+        Long userId = userRepository.findByEmail("l2late@example.com").orElseThrow().getId();
+        book(userId, bus.getId(), "R01");
+
+        // Another node books R02: the database has it, this node's cache still says AVAILABLE
+        Seat cached = seatRepository.findByBusIdAndSeatNumber(bus.getId(), "R02").orElseThrow();
+        assertEquals(Seat.SeatStatus.AVAILABLE, seatRepository.findById(cached.getId()).orElseThrow().getStatus());
+        jdbcTemplate.update("update seats set status = 'BOOKED' where id = ?", cached.getId());
+        assertEquals(Seat.SeatStatus.AVAILABLE, seatRepository.findById(cached.getId()).orElseThrow().getStatus());
+
+        ResponseEntity<?> response = bookingController.addBooking(
+                new BookingAddRequestDTO(userId, bus.getId(), null, "R02", new BigDecimal("500.00"), null), null, null);
+        assertEquals(400, response.getStatusCode().value(), String.valueOf(response.getBody()));
+    }
+
+    private long book(Long userId, Long busId, String seatNumber) {
+        StatementCounter.statements.set(0);
+        StatementCounter.counted = Thread.currentThread();
+        try {
+            ResponseEntity<?> response = bookingController.addBooking(
+                    new BookingAddRequestDTO(userId, busId, null, seatNumber, new BigDecimal("500.00"), null), null, null);
+            assertEquals(200, response.getStatusCode().value(), String.valueOf(response.getBody()));
+        } finally {
+            StatementCounter.counted = null;
+        }
+        return StatementCounter.statements.get();
+    }
+}
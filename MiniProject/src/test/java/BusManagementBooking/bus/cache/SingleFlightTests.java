@@ -0,0 +1,130 @@
+package BusManagementBooking.bus.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTests {
+
+    @Test
+    void concurrentCallersShareOneExecution() throws Exception {
+        SingleFlight<String, Object> flight = new SingleFlight<>();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        Object result = new Object();
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            Future<Object> leader = pool.submit(() -> flight.execute("seats-1", () -> {
+                executions.incrementAndGet();
+                loading.countDown();
+                await(release);
+                return result;
+            }));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+            List<Future<Object>> followers = new ArrayList<>();
+            for (int i = 0; i < 7; i++) {
+                followers.add(pool.submit(() -> flight.execute("seats-1", () -> {
+                    executions.incrementAndGet();
+                    return new Object();
+                })));
+            }
+            // Followers are parked on the leader's future before it is released
+            while (flight.getCalls() < 8) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            assertSame(result, leader.get(5, TimeUnit.SECONDS));
+            for (Future<Object> follower : followers) {
+                assertSame(result, follower.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, executions.get());
+        assertEquals(7, flight.getCoalesced());
+        assertEquals(0, flight.getInFlight());
+    }
+
+    @Test
+    void failureIsSharedButNotRemembered() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> leader = pool.submit(() -> flight.execute("bus-1", () -> {
+                loading.countDown();
+                await(release);
+                throw new IllegalStateException("database down");
+            }));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            Future<String> follower = pool.submit(() -> flight.execute("bus-1", () -> "unexpected"));
+            while (flight.getCalls() < 2) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            for (Future<String> call : List.of(leader, follower)) {
+                Exception e = assertThrows(Exception.class, () -> call.get(5, TimeUnit.SECONDS));
+                assertEquals("database down", e.getCause().getMessage());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        // The next call after the failure loads again
+        assertEquals("loaded", flight.execute("bus-1", () -> "loaded"));
+    }
+
+    @Test
+    void localCacheDoesNotShareLoadsAcrossAnInvalidation() throws Exception {
+        LocalCache<String> cache = new LocalCache<>(60000);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> stale = pool.submit(() -> cache.get(1L, key -> {
+                loading.countDown();
+                await(release);
+                return "before write";
+            }));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+            // A reader arriving after the invalidation must run its own load
+            cache.invalidate(1L);
+            assertEquals("after write", cache.get(1L, key -> "after write"));
+
+            release.countDown();
+            assertEquals("before write", stale.get(5, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(0, cache.getLoads().getCoalesced());
+        assertEquals("after write", cache.get(1L, key -> "reloaded"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package BusManagementBooking.bus.cluster;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Booking throughput benchmark against one or more running instances.
+ * Not a unit test: scripts/cluster-benchmark.sh starts 1 to 4 nodes and
+ * runs this class against each cluster size.
+ *
+ * Usage: ClusterScalingBenchmark http://localhost:8081,http://localhost:8082 [buses] [threads]
+ */
+public class ClusterScalingBenchmark {
+
+    private static final Pattern ID = Pattern.compile("\"id\":(\\d+)");
+    private static final Pattern SEAT_NUMBER = Pattern.compile("\"seatNumber\":\"(\\w+)\"");
+
+    private static final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    public static void main(String[] args) throws Exception {
+        String[] nodes = args[0].split(",");
+        int buses = args.length > 1 ? Integer.parseInt(args[1]) : 40;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : 32;
+
+        // Create the buses on the first node, seats are generated by POST /bus
+        List<long[]> work = new ArrayList<>();
+        List<String> seatNumbers = new ArrayList<>();
+        for (int i = 0; i < buses; i++) {
+            String body = "{\"name\":\"Bench " + i + "\",\"route\":\"A - B\",\"departureDate\":\"01-01-2030\","
+                    + "\"departureTime\":\"08:00\",\"arrivalTime\":\"12:00\",\"availableSeats\":40,"
+                    + "\"totalSeats\":40,\"price\":100}";
+            Matcher idMatcher = ID.matcher(send(nodes[0], "POST", "/bus", body).body());
+            if (!idMatcher.find()) {
+                throw new IllegalStateException("Could not create bus " + i);
+            }
+            long busId = Long.parseLong(idMatcher.group(1));
+
+            Matcher seatMatcher = SEAT_NUMBER.matcher(send(nodes[0], "GET", "/seat/bus/" + busId + "/available", null).body());
+            while (seatMatcher.find()) {
+                work.add(new long[] {busId, seatNumbers.size()});
+                seatNumbers.add(seatMatcher.group(1));
+            }
+        }
+        Collections.shuffle(work);
+
+        ConcurrentLinkedQueue<long[]> queue = new ConcurrentLinkedQueue<>(work);
+        long[] latencies = new long[work.size()];
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(threads);
+
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            int threadIndex = t;
+            new Thread(() -> {
+                try {
+                    long[] item;
+                    int request = threadIndex;
+                    while ((item = queue.poll()) != null) {
+                        String node = nodes[request++ % nodes.length];
+                        String body = "{\"userId\":" + (1 + item[1] % 1000) + ",\"busId\":" + item[0]
+                                + ",\"seatNumber\":\"" + seatNumbers.get((int) item[1]) + "\"}";
+                        long begin = System.nanoTime();
+                        HttpResponse<String> response = send(node, "POST", "/booking", body);
+                        long elapsed = System.nanoTime() - begin;
+                        if (response.statusCode() != 200) {
+                            failed.incrementAndGet();
+                        }
+                        latencies[completed.getAndIncrement()] = elapsed;
+                    }
+                } catch (Exception e) {
+                    System.err.println("Worker failed: " + e.getMessage());
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        done.await();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        int count = completed.get();
+        long[] sorted = java.util.Arrays.copyOf(latencies, count);
+        java.util.Arrays.sort(sorted);
+        System.out.printf("nodes=%d bookings=%d failed=%d time=%.2fs throughput=%.1f/s p50=%.1fms p99=%.1fms%n",
+                nodes.length, count, failed.get(), seconds, count / seconds,
+                sorted[count / 2] / 1e6, sorted[(int) (count * 0.99)] / 1e6);
+    }
+
+    private static HttpResponse<String> send(String node, String method, String path, String body) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(node + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json");
+        if (body == null) {
+            request.method(method, HttpRequest.BodyPublishers.noBody());
+        } else {
+            request.method(method, HttpRequest.BodyPublishers.ofString(body));
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,82 @@
+package BusManagementBooking.bus.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConsistentHashRingTests {
+
+    private static final int BUSES = 30000;
+    private static final int VIRTUAL_NODES = 64;
+
+    @Test
+    void emptyRingHasNoOwner() {
+        ConsistentHashRing ring = ConsistentHashRing.of(List.of(), VIRTUAL_NODES);
+
+        assertTrue(ring.isEmpty());
+        assertNull(ring.ownerOf(42));
+    }
+
+    @Test
+    void ownershipDoesNotDependOnNodeOrder() {
+        ConsistentHashRing ring = ConsistentHashRing.of(List.of("node-a", "node-b", "node-c"), VIRTUAL_NODES);
+        ConsistentHashRing shuffled = ConsistentHashRing.of(List.of("node-c", "node-a", "node-b"), VIRTUAL_NODES);
+
+        assertEquals(List.of("node-a", "node-b", "node-c"), shuffled.getNodeIds());
+        for (long busId = 1; busId <= BUSES; busId++) {
+            assertEquals(ring.ownerOf(busId), shuffled.ownerOf(busId));
+        }
+    }
+
+    @Test
+    void sequentialBusIdsAreSpreadOverAllNodes() {
+        List<String> nodes = List.of("node-a", "node-b", "node-c", "node-d");
+        ConsistentHashRing ring = ConsistentHashRing.of(nodes, VIRTUAL_NODES);
+
+        Map<String, Integer> owned = new HashMap<>();
+        for (long busId = 1; busId <= BUSES; busId++) {
+            owned.merge(ring.ownerOf(busId), 1, Integer::sum);
+        }
+        assertEquals(nodes.size(), owned.size());
+        for (String node : nodes) {
+            double share = owned.get(node) / (double) BUSES;
+            assertTrue(share > 0.15 && share < 0.35, node + " owns " + share);
+        }
+    }
+
+    @Test
+    void addingANodeOnlyMovesBusesToIt() {
+        ConsistentHashRing before = ConsistentHashRing.of(List.of("node-a", "node-b", "node-c"), VIRTUAL_NODES);
+        ConsistentHashRing after = ConsistentHashRing.of(List.of("node-a", "node-b", "node-c", "node-d"), VIRTUAL_NODES);
+
+        int moved = 0;
+        for (long busId = 1; busId <= BUSES; busId++) {
+            String owner = after.ownerOf(busId);
+            if (!owner.equals(before.ownerOf(busId))) {
+                assertEquals("node-d", owner, "bus " + busId);
+                moved++;
+            }
+        }
+        double share = moved / (double) BUSES;
+        assertTrue(share > 0.15 && share < 0.35, "moved " + share);
+    }
+
+    @Test
+    void removingANodeOnlyMovesItsBuses() {
+        ConsistentHashRing before = ConsistentHashRing.of(List.of("node-a", "node-b", "node-c"), VIRTUAL_NODES);
+        ConsistentHashRing after = ConsistentHashRing.of(List.of("node-a", "node-c"), VIRTUAL_NODES);
+
+        for (long busId = 1; busId <= BUSES; busId++) {
+            String owner = before.ownerOf(busId);
+            if (!owner.equals("node-b")) {
+                assertEquals(owner, after.ownerOf(busId), "bus " + busId);
+            }
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package BusManagementBooking.bus.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Routes between two local H2 databases standing in for a primary and its
+ * replica. Replication is simulated by copying the heartbeat row over.
+ */
+class ReplicaRoutingTests {
+
+    private static final String HEARTBEAT_TABLE =
+        "CREATE TABLE IF NOT EXISTS replica_heartbeat (node_id VARCHAR(64) PRIMARY KEY, beat_at BIGINT NOT NULL)";
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+    private ReplicaLagMonitor monitor;
+    private ReadYourWrites readYourWrites;
+    private JdbcTemplate routed;
+    private TransactionTemplate writeTransaction;
+    private TransactionTemplate readOnlyTransaction;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primaryDataSource = h2("routing_primary", "primary");
+        DataSource replicaDataSource = h2("routing_replica", "replica");
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+
+        monitor = new ReplicaLagMonitor(primaryDataSource, Map.of("replica-1", replicaDataSource), "test-node", 200, 50);
+        readYourWrites = new ReadYourWrites(monitor, 60_000);
+
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(monitor, readYourWrites);
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(ReplicaRoutingDataSource.PRIMARY, primaryDataSource);
+        targets.put("replica-1", replicaDataSource);
+        routing.setTargetDataSources(targets);
+        routing.afterPropertiesSet();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+
+        routed = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        writeTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        readYourWrites.setCurrentUser(null);
+        primary.execute("DROP ALL OBJECTS");
+        replica.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void writeTransactionsUsePrimary() {
+        catchUp();
+        assertEquals("primary", writeTransaction.execute(status -> whoami()));
+    }
+
+    @Test
+    void readOnlyTransactionsUseFreshReplica() {
+        catchUp();
+        assertEquals("replica", readOnlyTransaction.execute(status -> whoami()));
+    }
+
+    @Test
+    void replicaWithoutHeartbeatIsSkipped() {
+        monitor.tick();
+        assertEquals("primary", readOnlyTransaction.execute(status -> whoami()));
+    }
+
+    @Test
+    void laggingReplicaIsSkipped() throws InterruptedException {
+        catchUp();
+        Thread.sleep(300);
+        monitor.tick();
+        assertEquals("primary", readOnlyTransaction.execute(status -> whoami()));
+
+        catchUp();
+        assertEquals("replica", readOnlyTransaction.execute(status -> whoami()));
+    }
+
+    @Test
+    void userReadsOwnWritesUntilReplicaCatchesUp() throws InterruptedException {
+        catchUp();
+        readYourWrites.recordWrite(7L);
+
+        readYourWrites.setCurrentUser(7L);
+        assertEquals("primary", readOnlyTransaction.execute(status -> whoami()));
+
+        readYourWrites.setCurrentUser(8L);
+        assertEquals("replica", readOnlyTransaction.execute(status -> whoami()));
+
+        Thread.sleep(5);
+        catchUp();
+        readYourWrites.setCurrentUser(7L);
+        assertEquals("replica", readOnlyTransaction.execute(status -> whoami()));
+    }
+
+    @Test
+    void unhealthyReplicaDoesNotHoldBackAWrite() throws InterruptedException {
+        DataSource staleDataSource = h2("routing_stale", "stale");
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", new DriverManagerDataSource(
+            "jdbc:h2:mem:routing_replica;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", ""));
+        replicas.put("replica-stale", staleDataSource);
+        monitor = new ReplicaLagMonitor(new DriverManagerDataSource(
+            "jdbc:h2:mem:routing_primary;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", ""), replicas, "test-node", 200, 50);
+        try {
+            // The stale replica never receives a heartbeat and stays unhealthy
+            catchUp();
+            long writtenAt = System.currentTimeMillis();
+            assertFalse(monitor.allReplicasPast(writtenAt));
+
+            Thread.sleep(5);
+            catchUp();
+            assertTrue(monitor.allReplicasPast(writtenAt));
+        } finally {
+            new JdbcTemplate(staleDataSource).execute("DROP ALL OBJECTS");
+        }
+    }
+
+    @Test
+    void onPrimaryOverridesReadOnlyRouting() {
+        catchUp();
+        assertEquals("primary", readOnlyTransaction.execute(status -> ReplicaRoutingDataSource.onPrimary(this::whoami)));
+    }
+
+    private String whoami() {
+        return routed.queryForObject("SELECT name FROM whoami", String.class);
+    }
+
+    // Writes a heartbeat, replicates it, and lets the monitor observe the replica
+    private void catchUp() {
+        monitor.tick();
+        Long beat = primary.queryForObject("SELECT beat_at FROM replica_heartbeat WHERE node_id = 'test-node'", Long.class);
+        replica.update("MERGE INTO replica_heartbeat (node_id, beat_at) KEY (node_id) VALUES ('test-node', ?)", beat);
+        monitor.tick();
+    }
+
+    private static DataSource h2(String name, String role) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:" + name + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute(HEARTBEAT_TABLE);
+        jdbc.execute("CREATE TABLE whoami (name VARCHAR(20))");
+        jdbc.update("INSERT INTO whoami VALUES (?)", role);
+        return dataSource;
+    }
+}
@@ -0,0 +1,191 @@
+package BusManagementBooking.bus.idempotency;
+
+import BusManagementBooking.bus.booking.Booking;
+import BusManagementBooking.bus.booking.BookingAddRequestDTO;
+import BusManagementBooking.bus.booking.BookingController;
+import BusManagementBooking.bus.booking.BookingRepository;
+import BusManagementBooking.bus.buses.Bus;
+import BusManagementBooking.bus.buses.BusAddRequestDTO;
+import BusManagementBooking.bus.buses.BusController;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ResponseEntity;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sends bookings with an Idempotency-Key through BookingController and checks
+ * that retries replay the first response instead of booking again. A claim
+ * row that keeps vanishing is retried a bounded number of times.
+ */
+@SpringBootTest(properties = {
+    "bus.cache.invalidation.poll-interval-ms=3600000",
+    "bus.admission.enabled=false"
+})
+class IdempotencyTests {
+
+    // Keys whose claim row is gone whenever it is read back, as if released right after every insert
+    private static final String VANISHING = "test:vanishing-";
+    private static final AtomicInteger VANISHED_CLAIMS = new AtomicInteger();
+
+    @TestConfiguration
+    static class VanishingClaims {
+
+        @Bean
+        static BeanPostProcessor vanishingClaimRows() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof IdempotencyRecordRepository repository)) {
+                        return bean;
+                    }
+                    return Proxy.newProxyInstance(IdempotencyRecordRepository.class.getClassLoader(),
+                        new Class<?>[] {IdempotencyRecordRepository.class},
+                        (proxy, method, args) -> {
+                            if (args != null && args.length > 0 && String.valueOf(args[0]).startsWith(VANISHING)) {
+                                if (method.getName().equals("claim")) {
+                                    VANISHED_CLAIMS.incrementAndGet();
+                                    throw new DataIntegrityViolationException("duplicate key " + args[0]);
+                                }
+                                if (method.getName().equals("findById")) {
+                                    return Optional.empty();
+                                }
+                            }
+                            try {
+                                return method.invoke(repository, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                        });
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private BusController busController;
+
+    @Autowired
+    private BookingController bookingController;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Test
+    void retriesReplayTheFirstResponse() throws Exception {
+        Long busId = addBus("Idempotent Express");
+
+        ResponseEntity<?> first = bookingController.addBooking(request(busId, "R01"), null, "retry-1");
+        assertEquals(200, first.getStatusCode().value(), String.valueOf(first.getBody()));
+        assertNull(first.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        Long bookingId = ((Booking) first.getBody()).getId();
+
+        ResponseEntity<?> retry = bookingController.addBooking(request(busId, "R01"), null, "retry-1");
+        assertEquals(200, retry.getStatusCode().value());
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertTrue(String.valueOf(retry.getBody()).contains("\"id\":" + bookingId));
+        assertEquals(1, bookingRepository.findByBusIdIn(List.of(busId)).size());
+        assertTrue(idempotencyRecordRepository.findById("booking:retry-1").orElseThrow().getCompletedAt() != null);
+
+        ResponseEntity<?> reused = bookingController.addBooking(request(busId, "R02"), null, "retry-1");
+        assertEquals(422, reused.getStatusCode().value());
+        assertEquals(1, bookingRepository.findByBusIdIn(List.of(busId)).size());
+    }
+
+    @Test
+    void concurrentDuplicatesBookOnce() throws Exception {
+        Long busId = addBus("Concurrent Idempotent Express");
+        int clients = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<ResponseEntity<?>>> responses = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                responses.add(pool.submit(() -> {
+                    start.await();
+                    return bookingController.addBooking(request(busId, "R03"), null, "burst-1");
+                }));
+            }
+            start.countDown();
+            for (Future<ResponseEntity<?>> response : responses) {
+                assertEquals(200, response.get().getStatusCode().value(), String.valueOf(response.get().getBody()));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, bookingRepository.findByBusIdIn(List.of(busId)).size());
+    }
+
+    @Test
+    void oversizedResponsesCompleteTheClaimWithoutTheBody() throws Exception {
+        String body = "x".repeat(5000);
+        AtomicInteger runs = new AtomicInteger();
+        Callable<ResponseEntity<?>> action = () -> {
+            runs.incrementAndGet();
+            return ResponseEntity.ok(body);
+        };
+
+        ResponseEntity<?> first = idempotencyService.execute("test", "large-1", "payload", action);
+        assertEquals(body, first.getBody());
+        IdempotencyRecord record = idempotencyRecordRepository.findById("test:large-1").orElseThrow();
+        assertNotNull(record.getCompletedAt());
+        assertEquals(200, record.getStatusCode());
+        assertNull(record.getBody());
+
+        ResponseEntity<?> retry = idempotencyService.execute("test", "large-1", "payload", action);
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertEquals(body, retry.getBody());
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void claimLostOverAndOverGivesUpWithAConflict() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        ResponseEntity<?> response = idempotencyService.execute("test", "vanishing-1", "payload", () -> {
+            runs.incrementAndGet();
+            return ResponseEntity.ok("ran");
+        });
+
+        assertEquals(409, response.getStatusCode().value());
+        assertEquals(0, runs.get());
+        // The first insert plus a bounded number of retries
+        assertTrue(VANISHED_CLAIMS.get() > 1 && VANISHED_CLAIMS.get() <= 10, "claims " + VANISHED_CLAIMS.get());
+    }
+
+    private Long addBus(String name) {
+        Bus bus = busController.addBus(new BusAddRequestDTO(name, "Kochi-Madurai", "01-01-2030",
+                "08:00", "18:00", 40, 40, 300.0)).getBody();
+        return bus.getId();
+    }
+
+    private static BookingAddRequestDTO request(Long busId, String seatNumber) {
+        return new BookingAddRequestDTO(1L, busId, null, seatNumber, new BigDecimal("300.00"), null);
+    }
+}
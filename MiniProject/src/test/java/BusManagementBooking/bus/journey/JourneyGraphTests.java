@@ -0,0 +1,126 @@
+package BusManagementBooking.bus.journey;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Plans over small hand-made timetables, and checks that a graph grown by
+ * incremental updates answers like one built from scratch.
+ */
+class JourneyGraphTests {
+
+    private static final int MORNING = Trip.toMinutes(LocalDateTime.of(2030, 1, 1, 6, 0));
+    private static final int DAY = 24 * 60;
+
+    @Test
+    void earliestAndCheapestRespectConnectionTime() {
+        JourneyGraph graph = JourneyGraph.EMPTY.update(Set.of(), List.of(
+            trip(1L, "A-B", "08:00", "10:00", "100"),
+            trip(2L, "B-C", "10:10", "12:00", "100"),
+            trip(3L, "B-C", "10:30", "12:30", "100"),
+            trip(4L, "A-C", "08:00", "14:00", "500"),
+            trip(5L, "A-C", "07:00", "11:00", "900")));
+
+        assertEquals(List.of(5L), buses(graph.earliestArrival("a", "c", MORNING, MORNING + DAY, MORNING + 3 * DAY, 1, 20)));
+        List<JourneyGraph.Leg> cheapest = graph.cheapest("A", "C", MORNING, MORNING + DAY, MORNING + 3 * DAY, 1, 20, 4);
+        assertEquals(List.of(1L, 3L), buses(cheapest));
+        assertEquals(Trip.toMinutes(LocalDateTime.of(2030, 1, 1, 12, 30)), cheapest.get(1).arrival());
+        // A shorter connection time makes the 10:10 reachable, equally cheap and earlier
+        assertEquals(List.of(1L, 2L), buses(graph.cheapest("A", "C", MORNING, MORNING + DAY, MORNING + 3 * DAY, 1, 5, 4)));
+        // One leg only leaves the direct buses
+        assertEquals(List.of(4L), buses(graph.cheapest("A", "C", MORNING, MORNING + DAY, MORNING + 3 * DAY, 1, 20, 1)));
+
+        graph.tripOf(5L).availableSeats = 0;
+        assertEquals(List.of(1L, 3L), buses(graph.earliestArrival("A", "C", MORNING, MORNING + DAY, MORNING + 3 * DAY, 1, 20)));
+
+        JourneyGraph withoutConnection = graph.update(Set.of(3L), List.of());
+        assertEquals(List.of(4L), buses(withoutConnection.cheapest("A", "C", MORNING, MORNING + DAY, MORNING + 3 * DAY, 1, 20, 4)));
+        assertEquals(List.of(1L, 3L), buses(graph.cheapest("A", "C", MORNING, MORNING + DAY, MORNING + 3 * DAY, 1, 20, 4)));
+    }
+
+    @Test
+    void intermediateStopsAndOvernightTrips() {
+        JourneyGraph graph = JourneyGraph.EMPTY.update(Set.of(), List.of(
+            trip(1L, "Kochi-Thrissur-Palakkad", "09:00", "11:00", "300"),
+            trip(2L, "Palakkad - Chennai", "22:00", "06:00", "700")));
+
+        List<JourneyGraph.Leg> toThrissur = graph.earliestArrival("kochi", "THRISSUR", MORNING, MORNING + DAY, MORNING + 3 * DAY, 1, 20);
+        assertEquals(Trip.toMinutes(LocalDateTime.of(2030, 1, 1, 10, 0)), toThrissur.get(0).arrival());
+
+        List<JourneyGraph.Leg> toChennai = graph.earliestArrival("Thrissur", "Chennai", MORNING, MORNING + DAY, MORNING + 3 * DAY, 1, 20);
+        assertEquals(List.of(1L, 2L), buses(toChennai));
+        assertEquals("Thrissur", toChennai.get(0).from());
+        assertEquals(Trip.toMinutes(LocalDateTime.of(2030, 1, 2, 6, 0)), toChennai.get(1).arrival());
+        assertTrue(graph.earliestArrival("Chennai", "Kochi", MORNING, MORNING + DAY, MORNING + 3 * DAY, 1, 20).isEmpty());
+    }
+
+    @Test
+    void incrementalUpdatesMatchAFullBuild() {
+        Random random = new Random(42);
+        List<Trip> trips = new ArrayList<>();
+        for (long id = 1; id <= 20000; id++) {
+            int stops = 2 + random.nextInt(3);
+            int stop = random.nextInt(300);
+            StringBuilder route = new StringBuilder("S" + stop);
+            for (int s = 1; s < stops; s++) {
+                stop = (stop + 1 + random.nextInt(299)) % 300;
+                route.append("-S").append(stop);
+            }
+            int departure = random.nextInt(22 * 60);
+            int duration = 60 + random.nextInt(8 * 60);
+            trips.add(trip(id, route.toString(), time(departure), time((departure + duration) % DAY),
+                String.valueOf(50 + random.nextInt(950))));
+        }
+
+        Set<Long> deleted = new HashSet<>();
+        for (int i = 0; i < 2000; i++) {
+            deleted.add(1L + random.nextInt(10000));
+        }
+        JourneyGraph incremental = JourneyGraph.EMPTY.update(Set.of(), trips.subList(0, 10000))
+            .update(deleted, trips.subList(10000, 20000));
+        JourneyGraph full = JourneyGraph.EMPTY.update(Set.of(),
+            trips.stream().filter(trip -> !deleted.contains(trip.busId)).toList());
+        assertEquals(full.connectionCount(), incremental.connectionCount());
+
+        for (int i = 0; i < 200; i++) {
+            String from = "S" + random.nextInt(300);
+            String to = "S" + random.nextInt(300);
+            int after = MORNING + random.nextInt(12 * 60);
+            assertEquals(arrival(full.earliestArrival(from, to, after, after + DAY, after + 3 * DAY, 1, 20)),
+                arrival(incremental.earliestArrival(from, to, after, after + DAY, after + 3 * DAY, 1, 20)));
+            assertEquals(fare(full.cheapest(from, to, after, after + DAY, after + 3 * DAY, 1, 20, 3)),
+                fare(incremental.cheapest(from, to, after, after + DAY, after + 3 * DAY, 1, 20, 3)));
+        }
+    }
+
+    private static Trip trip(Long busId, String route, String departure, String arrival, String price) {
+        return Trip.of(new Object[] {busId, "Bus " + busId, route, "01-01-2030", departure, arrival, new BigDecimal(price), 40})
+            .orElseThrow();
+    }
+
+    private static String time(int minutes) {
+        return String.format("%02d:%02d", minutes / 60, minutes % 60);
+    }
+
+    private static List<Long> buses(List<JourneyGraph.Leg> legs) {
+        return legs.stream().map(leg -> leg.trip().busId).toList();
+    }
+
+    private static int arrival(List<JourneyGraph.Leg> legs) {
+        return legs.isEmpty() ? -1 : legs.get(legs.size() - 1).arrival();
+    }
+
+    private static long fare(List<JourneyGraph.Leg> legs) {
+        return legs.stream().mapToLong(leg -> leg.trip().priceCents).sum();
+    }
+}
@@ -0,0 +1,129 @@
+package BusManagementBooking.bus.outbox;
+
+import BusManagementBooking.bus.booking.Booking;
+import BusManagementBooking.bus.booking.BookingAddRequestDTO;
+import BusManagementBooking.bus.booking.BookingEvent;
+import BusManagementBooking.bus.booking.BookingServiceImpl;
+import BusManagementBooking.bus.buses.Bus;
+import BusManagementBooking.bus.buses.BusAddRequestDTO;
+import BusManagementBooking.bus.buses.BusController;
+import BusManagementBooking.bus.cluster.ClusterMembership;
+import BusManagementBooking.bus.seats.SeatDTO;
+import BusManagementBooking.bus.seats.SeatService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Books, cancels and transfers through BookingServiceImpl and checks what
+ * reaches an outbox consumer, with the relay driven by hand.
+ */
+@SpringBootTest(properties = {
+    "bus.outbox.poll-interval-ms=3600000",
+    "bus.cache.invalidation.poll-interval-ms=3600000",
+    "bus.admission.enabled=false"
+})
+class BookingOutboxTests {
+
+    @TestConfiguration
+    static class Consumers {
+        @Bean
+        RecordingConsumer recordingConsumer() {
+            return new RecordingConsumer();
+        }
+    }
+
+    static class RecordingConsumer implements OutboxConsumer {
+        final List<OutboxEvent> received = Collections.synchronizedList(new ArrayList<>());
+        volatile boolean failing;
+
+        @Override
+        public String getName() {
+            return "recording";
+        }
+
+        @Override
+        public void accept(List<OutboxEvent> events) {
+            if (failing) {
+                throw new IllegalStateException("consumer down");
+            }
+            received.addAll(events);
+        }
+    }
+
+    @Autowired
+    private BusController busController;
+
+    @Autowired
+    private BookingServiceImpl bookingService;
+
+    @Autowired
+    private SeatService seatService;
+
+    @Autowired
+    private BookingOutboxRelay relay;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ClusterMembership membership;
+
+    @Autowired
+    private RecordingConsumer consumer;
+
+    @Test
+    void committedChangesReachConsumersInOrderAtLeastOnce() throws Exception {
+        Bus bus = busController.addBus(new BusAddRequestDTO("Outbox Express", "Kochi-Madurai", "01-01-2030",
+                "08:00", "18:00", 40, 40, 300.0)).getBody();
+        Long busId = bus.getId();
+
+        Booking first = book(busId, "R01");
+        Booking second = book(busId, "R02");
+        bookingService.cancelBooking(first.getId());
+        Long elderSeat = seatService.getSeatsByBusId(busId).stream()
+                .filter(seat -> "E01".equals(seat.getSeatNumber())).map(SeatDTO::getId).findFirst().orElseThrow();
+        bookingService.transferSeat(second.getId(), busId, elderSeat);
+        // A rolled back booking leaves no row behind
+        assertThrows(IllegalArgumentException.class, () -> book(busId, "E01"));
+
+        consumer.failing = true;
+        relay.relay();
+        assertTrue(eventsOf(busId).isEmpty());
+        assertTrue(outboxEventRepository.countByNodeId(membership.getNodeId()) >= 5);
+
+        consumer.failing = false;
+        relay.relay();
+        List<OutboxEvent> events = eventsOf(busId);
+        assertEquals(List.of(BookingEvent.Type.BOOKED, BookingEvent.Type.BOOKED, BookingEvent.Type.CANCELLED,
+                BookingEvent.Type.TRANSFERRED_OUT, BookingEvent.Type.TRANSFERRED_IN),
+                events.stream().map(OutboxEvent::getEventType).toList());
+        assertEquals(first.getId(), events.get(2).getBookingId());
+        assertEquals("E01", events.get(4).getSeatNumber());
+        for (int i = 1; i < events.size(); i++) {
+            assertTrue(events.get(i - 1).getId() < events.get(i).getId());
+        }
+        assertEquals(0, outboxEventRepository.countByNodeId(membership.getNodeId()));
+    }
+
+    private Booking book(Long busId, String seatNumber) {
+        return bookingService.addBooking(new BookingAddRequestDTO(1L, busId, null, seatNumber, new BigDecimal("300.00"), null));
+    }
+
+    private List<OutboxEvent> eventsOf(Long busId) {
+        synchronized (consumer.received) {
+            return consumer.received.stream().filter(event -> busId.equals(event.getBusId())).toList();
+        }
+    }
+}
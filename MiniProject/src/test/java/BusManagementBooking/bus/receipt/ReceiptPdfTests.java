@@ -0,0 +1,50 @@
+package BusManagementBooking.bus.receipt;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReceiptPdfTests {
+
+    private static final List<String[]> ROWS = List.of(
+            new String[] {"Booking ID", "42"},
+            new String[] {"Route", "Kochi (North) - Trivandrum \\ Central"},
+            new String[] {"Passenger", "Zoë"});
+
+    @Test
+    void sameReceiptRendersToSameBytes() {
+        assertArrayEquals(ReceiptPdf.render("Booking Receipt", ROWS), ReceiptPdf.render("Booking Receipt", ROWS));
+    }
+
+    @Test
+    void crossReferenceOffsetsPointAtObjects() {
+        String pdf = new String(ReceiptPdf.render("Booking Receipt", ROWS), StandardCharsets.ISO_8859_1);
+        assertTrue(pdf.startsWith("%PDF-1.4\n"));
+        assertTrue(pdf.endsWith("%%EOF\n"));
+
+        int startxref = Integer.parseInt(pdf.substring(pdf.lastIndexOf("startxref\n") + 10, pdf.lastIndexOf("\n%%EOF")));
+        assertTrue(pdf.startsWith("xref\n", startxref));
+
+        Matcher entries = Pattern.compile("(\\d{10}) 00000 n ").matcher(pdf.substring(startxref));
+        int object = 1;
+        while (entries.find()) {
+            assertTrue(pdf.startsWith(object + " 0 obj\n", Integer.parseInt(entries.group(1))));
+            object++;
+        }
+        assertEquals(7, object);
+    }
+
+    @Test
+    void literalsEscapeDelimitersAndReplaceNonAscii() {
+        assertEquals("(Kochi \\(North\\) \\\\ x)", ReceiptPdf.literal("Kochi (North) \\ x"));
+        assertEquals("(Zo?)", ReceiptPdf.literal("Zoë"));
+        assertEquals("()", ReceiptPdf.literal(null));
+    }
+}
@@ -0,0 +1,296 @@
+package BusManagementBooking.bus.receipt;
+
+import BusManagementBooking.bus.booking.Booking;
+import BusManagementBooking.bus.booking.BookingAddRequestDTO;
+import BusManagementBooking.bus.booking.BookingRepository;
+import BusManagementBooking.bus.booking.BookingServiceImpl;
+import BusManagementBooking.bus.buses.BusAddRequestDTO;
+import BusManagementBooking.bus.buses.BusController;
+import BusManagementBooking.bus.outbox.BookingOutboxRelay;
+import BusManagementBooking.bus.seats.SeatService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Receipts rendered from the outbox on a pool of one worker with room for one
+ * more task, stored by content hash, and voided by cancels and transfers,
+ * including a render that finishes after its booking was invalidated. Runs on
+ * its own database and receipt directory, without the second-level cache,
+ * which every test context in the JVM shares by entity id.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:receipt_service;DB_CLOSE_DELAY=-1",
+    "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+    "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+    "bus.outbox.poll-interval-ms=3600000",
+    "bus.cache.invalidation.poll-interval-ms=3600000",
+    "bus.admission.enabled=false",
+    "bus.receipts.workers=1",
+    "bus.receipts.queue-capacity=1"
+})
+@AutoConfigureMockMvc
+class ReceiptServiceTests {
+
+    // Per booking id: runs on the receipt worker, right after the render has read the booking
+    private static final Map<Long, Runnable> AFTER_RENDER_READ = new ConcurrentHashMap<>();
+    private static final List<String> RENDER_THREADS = new CopyOnWriteArrayList<>();
+    private static Path receiptDirectory;
+
+    @DynamicPropertySource
+    static void receiptDirectory(DynamicPropertyRegistry registry) throws Exception {
+        receiptDirectory = Files.createTempDirectory("receipt-service");
+        registry.add("bus.receipts.directory", receiptDirectory::toString);
+    }
+
+    @TestConfiguration
+    static class RenderReadHook {
+
+        @Bean
+        static BeanPostProcessor hookRenderReads() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof BookingRepository repository)) {
+                        return bean;
+                    }
+                    return Proxy.newProxyInstance(BookingRepository.class.getClassLoader(), new Class<?>[] {BookingRepository.class},
+                        (proxy, method, args) -> {
+                            Object result;
+                            try {
+                                result = method.invoke(repository, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                            if (method.getName().equals("findById") && Thread.currentThread().getName().startsWith("receipt-")) {
+                                RENDER_THREADS.add(Thread.currentThread().getName());
+                                Runnable action = AFTER_RENDER_READ.remove((Long) args[0]);
+                                if (action != null) {
+                                    action.run();
+                                }
+                            }
+                            return result;
+                        });
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private ReceiptService receiptService;
+
+    @Autowired
+    private BookingOutboxRelay outboxRelay;
+
+    @Autowired
+    private BusController busController;
+
+    @Autowired
+    private BookingServiceImpl bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private SeatService seatService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void outboxRendersOnTheWorkerIntoTheContentAddressedStore() throws Exception {
+        Long busId = addBus("Receipt Express");
+        Booking booking = book(busId, "R01");
+        RENDER_THREADS.clear();
+
+        outboxRelay.relay();
+        Receipt receipt = awaitReady(booking.getId());
+
+        assertFalse(RENDER_THREADS.isEmpty());
+        assertTrue(RENDER_THREADS.stream().allMatch(name -> name.startsWith("receipt-")));
+        byte[] pdf = Files.readAllBytes(receipt.file());
+        assertEquals(receiptDirectory.resolve(receipt.hash().substring(0, 2)).resolve(receipt.hash() + ".pdf"), receipt.file());
+        assertEquals(receipt.hash(), HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(pdf)));
+
+        // Rendering the same booking again lands on the same file
+        receiptService.invalidate(booking.getId());
+        assertFalse(Files.exists(receipt.file()));
+        Receipt again = awaitReady(booking.getId());
+        assertEquals(receipt.hash(), again.hash());
+        assertArrayEquals(pdf, Files.readAllBytes(again.file()));
+    }
+
+    @Test
+    void fullQueueLeavesTheReceiptToItsDownload() throws Exception {
+        Long busId = addBus("Crowded Express");
+        Booking first = book(busId, "R01");
+        Booking second = book(busId, "R02");
+        Booking third = book(busId, "R03");
+        long rejected = (Long) receiptService.getStats().get("rejected");
+
+        CountDownLatch rendering = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AFTER_RENDER_READ.put(first.getId(), () -> {
+            rendering.countDown();
+            await(release);
+        });
+        try {
+            receiptService.requestReceipt(first.getId());
+            assertTrue(rendering.await(10, TimeUnit.SECONDS));
+            // The worker is busy and the queue holds one task, the third booking does not fit
+            receiptService.requestReceipt(second.getId());
+            receiptService.requestReceipt(third.getId());
+            assertEquals(rejected + 1, receiptService.getStats().get("rejected"));
+        } finally {
+            release.countDown();
+        }
+
+        awaitReady(first.getId());
+        awaitReady(second.getId());
+        // Rendered once it is asked for
+        awaitReady(third.getId());
+    }
+
+    @Test
+    void cancelAndTransferVoidTheStoredReceipt() throws Exception {
+        Long busId = addBus("Voided Express");
+        Booking cancelled = book(busId, "R01");
+        Booking transferred = book(busId, "R02");
+        outboxRelay.relay();
+        Receipt cancelledReceipt = awaitReady(cancelled.getId());
+        Receipt transferredReceipt = awaitReady(transferred.getId());
+
+        bookingService.cancelBooking(cancelled.getId());
+        Long newSeatId = seatService.getSeatsByBusId(busId).stream()
+                .filter(seat -> "R03".equals(seat.getSeatNumber())).findFirst().orElseThrow().getId();
+        bookingService.transferSeat(transferred.getId(), busId, newSeatId);
+        outboxRelay.relay();
+
+        assertFalse(Files.exists(cancelledReceipt.file()));
+        assertFalse(Files.exists(transferredReceipt.file()));
+        assertEquals(Receipt.State.VOID, receiptService.getReceipt(cancelled.getId()).state());
+        assertEquals(Receipt.State.VOID, receiptService.getReceipt(transferred.getId()).state());
+
+        Booking moved = bookingRepository.findByBusIdIn(List.of(busId)).stream()
+                .filter(booking -> "R03".equals(booking.getSeatNumber()) && "CONFIRMED".equals(booking.getStatus()))
+                .findFirst().orElseThrow();
+        awaitReady(moved.getId());
+    }
+
+    @Test
+    void renderFinishingAfterInvalidationDeletesItsFile() throws Exception {
+        Long busId = addBus("Late Receipt Express");
+        Booking booking = book(busId, "R01");
+        long discarded = (Long) receiptService.getStats().get("discardedAfterInvalidation");
+        long stored = countReceiptFiles();
+
+        // The render has read the booking as confirmed when the cancel voids its receipt
+        CountDownLatch rendering = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AFTER_RENDER_READ.put(booking.getId(), () -> {
+            rendering.countDown();
+            await(release);
+        });
+        outboxRelay.relay();
+        assertTrue(rendering.await(10, TimeUnit.SECONDS));
+        bookingService.cancelBooking(booking.getId());
+        outboxRelay.relay();
+        release.countDown();
+
+        for (int i = 0; i < 100 && (Long) receiptService.getStats().get("discardedAfterInvalidation") == discarded; i++) {
+            Thread.sleep(50);
+        }
+        assertEquals(discarded + 1, receiptService.getStats().get("discardedAfterInvalidation"));
+        assertEquals(stored, countReceiptFiles());
+        assertEquals(Receipt.State.VOID, receiptService.getReceipt(booking.getId()).state());
+    }
+
+    @Test
+    void downloadAnswersAcceptedThenThePdfThenGone() throws Exception {
+        Long busId = addBus("Download Express");
+        Booking booking = book(busId, "R01");
+        String path = "/receipt/booking/" + booking.getId();
+
+        // Nothing was relayed yet, so the download queues the render
+        MvcResult pending = mockMvc.perform(get(path)).andReturn();
+        assertEquals(202, pending.getResponse().getStatus());
+        assertEquals("1", pending.getResponse().getHeader(HttpHeaders.RETRY_AFTER));
+
+        Receipt receipt = awaitReady(booking.getId());
+        MvcResult ready = mockMvc.perform(get(path)).andReturn();
+        assertEquals(200, ready.getResponse().getStatus());
+        assertEquals("application/pdf", ready.getResponse().getContentType());
+        assertEquals("\"" + receipt.hash() + "\"", ready.getResponse().getHeader(HttpHeaders.ETAG));
+        assertArrayEquals(Files.readAllBytes(receipt.file()), ready.getResponse().getContentAsByteArray());
+        assertEquals(304, mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, "\"" + receipt.hash() + "\""))
+                .andReturn().getResponse().getStatus());
+
+        bookingService.cancelBooking(booking.getId());
+        assertEquals(410, mockMvc.perform(get(path)).andReturn().getResponse().getStatus());
+        assertFalse(Files.exists(receipt.file()));
+        assertEquals(404, mockMvc.perform(get("/receipt/booking/" + Long.MAX_VALUE)).andReturn().getResponse().getStatus());
+    }
+
+    private Long addBus(String name) {
+        return busController.addBus(new BusAddRequestDTO(name, "Kochi-Trivandrum", "01-01-2030",
+                "08:00", "12:00", 10, 10, 300.0)).getBody().getId();
+    }
+
+    private Booking book(Long busId, String seatNumber) {
+        return bookingService.addBooking(new BookingAddRequestDTO(7L, busId, null, seatNumber, new BigDecimal("300.00"), null));
+    }
+
+    private Receipt awaitReady(Long bookingId) throws InterruptedException {
+        Receipt receipt = receiptService.getReceipt(bookingId);
+        for (int i = 0; i < 100 && receipt.state() != Receipt.State.READY; i++) {
+            Thread.sleep(50);
+            receipt = receiptService.getReceipt(bookingId);
+        }
+        assertEquals(Receipt.State.READY, receipt.state(), "receipt of booking " + bookingId);
+        return receipt;
+    }
+
+    private static long countReceiptFiles() throws Exception {
+        try (Stream<Path> files = Files.walk(receiptDirectory)) {
+            return files.filter(file -> file.toString().endsWith(".pdf")).count();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
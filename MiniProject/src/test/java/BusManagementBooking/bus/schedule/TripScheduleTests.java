@@ -0,0 +1,100 @@
+package BusManagementBooking.bus.schedule;
+
+import BusManagementBooking.bus.buses.Bus;
+import BusManagementBooking.bus.buses.BusRepository;
+import BusManagementBooking.bus.buses.BusService;
+import BusManagementBooking.bus.buses.DepartureDates;
+import BusManagementBooking.bus.seats.SeatRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Creates a schedule and checks that its dates turn into buses only when
+ * looked up, once each, and that deleting such a bus cancels the date.
+ */
+@SpringBootTest(properties = {
+    "bus.cache.invalidation.poll-interval-ms=3600000",
+    "bus.admission.enabled=false"
+})
+class TripScheduleTests {
+
+    @Autowired
+    private ScheduleService scheduleService;
+
+    @Autowired
+    private BusService busService;
+
+    @Autowired
+    private BusRepository busRepository;
+
+    @Autowired
+    private SeatRepository seatRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void datesAreMaterializedOnceOnFirstAccess() throws Exception {
+        long busesBefore = busRepository.count();
+        TripSchedule schedule = scheduleService.addSchedule(new TripScheduleRequestDTO("Weekday Flyer", "Kochi-Madurai",
+            "08:00", "14:00", Set.of(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY), LocalDate.now(), null, 40, 350.0));
+        assertEquals(busesBefore, busRepository.count());
+
+        LocalDate monday = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+        assertTrue(scheduleService.getDeparture(schedule.getId(), monday.plusDays(1)).isEmpty());
+
+        int clients = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        CountDownLatch start = new CountDownLatch(1);
+        Set<Long> busIds = new HashSet<>();
+        try {
+            List<Future<Bus>> buses = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                buses.add(pool.submit(() -> {
+                    start.await();
+                    return scheduleService.getDeparture(schedule.getId(), monday).orElseThrow();
+                }));
+            }
+            start.countDown();
+            for (Future<Bus> bus : buses) {
+                busIds.add(bus.get().getId());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, busIds.size());
+        Long busId = busIds.iterator().next();
+        assertEquals(busesBefore + 1, busRepository.count());
+        assertEquals(40, seatRepository.findByBusId(busId).size());
+        Bus bus = busRepository.findById(busId).orElseThrow();
+        assertEquals("Kochi-Madurai", bus.getRoute());
+        assertEquals(monday, DepartureDates.parse(bus.getDepartureDate()).orElseThrow());
+
+        List<Bus> found = scheduleService.searchDepartures("madurai", monday.plusDays(2));
+        assertEquals(1, found.size());
+        assertEquals(busesBefore + 2, busRepository.count());
+
+        busService.deleteBus(busId);
+        assertTrue(scheduleService.getDeparture(schedule.getId(), monday).isEmpty());
+        assertEquals(1, jdbcTemplate.queryForObject(
+            "select count(*) from schedule_departures where schedule_id = ? and departure_date = ? and bus_id is null",
+            Integer.class, schedule.getId(), monday));
+    }
+}
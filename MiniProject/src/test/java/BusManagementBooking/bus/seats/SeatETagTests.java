@@ -0,0 +1,119 @@
+package BusManagementBooking.bus.seats;
+
+import BusManagementBooking.bus.booking.Booking;
+import BusManagementBooking.bus.booking.BookingAddRequestDTO;
+import BusManagementBooking.bus.booking.BookingServiceImpl;
+import BusManagementBooking.bus.buses.BusAddRequestDTO;
+import BusManagementBooking.bus.buses.BusController;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+/**
+ * Conditional GETs on the seat and bus endpoints: a current ETag is answered
+ * with 304 and no body, and every change to the bus's seats moves the tag.
+ */
+@SpringBootTest(properties = {
+    "bus.cache.invalidation.poll-interval-ms=3600000",
+    "bus.admission.enabled=false"
+})
+@AutoConfigureMockMvc
+class SeatETagTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BusController busController;
+
+    @Autowired
+    private BookingServiceImpl bookingService;
+
+    @Autowired
+    private SeatService seatService;
+
+    @Test
+    void currentTagIsAnsweredWithoutABody() throws Exception {
+        Long busId = addBus("Conditional Express");
+
+        for (String path : new String[] {"/seat/bus/" + busId, "/seat/bus/" + busId + "/available", "/bus/" + busId}) {
+            String eTag = eTag(path, "application/json");
+            MvcResult notModified = mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, eTag)).andReturn();
+            assertEquals(304, notModified.getResponse().getStatus(), path);
+            assertEquals(0, notModified.getResponse().getContentAsByteArray().length, path);
+            assertEquals(eTag, notModified.getResponse().getHeader(HttpHeaders.ETAG), path);
+
+            // Any other tag gets the full response
+            MvcResult stale = mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, "\"stale\"")).andReturn();
+            assertEquals(200, stale.getResponse().getStatus(), path);
+        }
+    }
+
+    @Test
+    void bookingCancelAndSeatUpdateChangeTheTag() throws Exception {
+        Long busId = addBus("Changing Express");
+        String path = "/seat/bus/" + busId;
+        String initial = eTag(path, "application/json");
+
+        Booking booking = bookingService.addBooking(new BookingAddRequestDTO(1L, busId, null, "R01", new BigDecimal("300.00"), null));
+        String booked = eTag(path, "application/json");
+        assertNotEquals(initial, booked);
+        assertEquals(200, mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, initial)).andReturn().getResponse().getStatus());
+
+        bookingService.cancelBooking(booking.getId());
+        String cancelled = eTag(path, "application/json");
+        assertNotEquals(booked, cancelled);
+
+        Long seatId = seatService.getSeatsByBusId(busId).stream()
+                .filter(seat -> "R02".equals(seat.getSeatNumber())).findFirst().orElseThrow().getId();
+        assertEquals(200, mockMvc.perform(put("/seat/" + seatId + "/status").param("status", "BOOKED"))
+                .andReturn().getResponse().getStatus());
+        String updated = eTag(path, "application/json");
+        assertNotEquals(cancelled, updated);
+        assertEquals(200, mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, cancelled)).andReturn().getResponse().getStatus());
+    }
+
+    @Test
+    void binaryAndJsonSeatMapsHaveTheirOwnTags() throws Exception {
+        Long busId = addBus("Binary Express");
+        String path = "/seat/bus/" + busId;
+        String json = eTag(path, "application/json");
+        String binary = eTag(path, SeatMapCodec.MEDIA_TYPE);
+        assertNotEquals(json, binary);
+
+        // A client switching representations never gets a 304 for the other one
+        MvcResult crossed = mockMvc.perform(get(path).accept(SeatMapCodec.MEDIA_TYPE).header(HttpHeaders.IF_NONE_MATCH, json)).andReturn();
+        assertEquals(200, crossed.getResponse().getStatus());
+        assertEquals(SeatMapCodec.MEDIA_TYPE, crossed.getResponse().getContentType());
+        assertEquals(10, SeatMapDecoder.decode(crossed.getResponse().getContentAsByteArray()).size());
+
+        MvcResult notModified = mockMvc.perform(get(path).accept(SeatMapCodec.MEDIA_TYPE).header(HttpHeaders.IF_NONE_MATCH, binary)).andReturn();
+        assertEquals(304, notModified.getResponse().getStatus());
+        assertEquals(0, notModified.getResponse().getContentAsByteArray().length);
+    }
+
+    private Long addBus(String name) {
+        return busController.addBus(new BusAddRequestDTO(name, "Salem-Erode", "01-01-2030",
+                "08:00", "12:00", 10, 10, 300.0)).getBody().getId();
+    }
+
+    private String eTag(String path, String accept) throws Exception {
+        MvcResult result = mockMvc.perform(get(path).accept(accept)).andReturn();
+        assertEquals(200, result.getResponse().getStatus(), path);
+        String eTag = result.getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(eTag, path);
+        return eTag;
+    }
+}
@@ -0,0 +1,67 @@
+package BusManagementBooking.bus.seats;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SeatMapCodecTests {
+
+    @Test
+    void roundTripsGeneratedSeatMap() throws Exception {
+        List<SeatDTO> seats = new ArrayList<>();
+        long id = 1000;
+        SeatLayout layout = SeatLayout.forTotalSeats(40, 15, 15);
+        for (Seat.SeatType type : Seat.SeatType.values()) {
+            for (int i = 1; i <= layout.count(type); i++) {
+                String status = (id % 3 == 0 ? Seat.SeatStatus.BOOKED : Seat.SeatStatus.AVAILABLE).toString();
+                seats.add(new SeatDTO(id++, SeatLayout.seatNumber(type, i), type.toString(), status, 7L));
+            }
+        }
+
+        byte[] binary = SeatMapCodec.encode(7L, seats);
+        assertSameSeats(seats, SeatMapDecoder.decode(binary));
+
+        byte[] json = new ObjectMapper().writeValueAsBytes(seats);
+        assertTrue(binary.length * 10 < json.length, "binary " + binary.length + " bytes vs json " + json.length);
+    }
+
+    @Test
+    void roundTripsIrregularLabelsAndIds() {
+        List<SeatDTO> seats = List.of(
+            new SeatDTO(5L, "R01", "REGULAR", "BOOKED", 3L),
+            new SeatDTO(9L, "R02", "REGULAR", "AVAILABLE", 3L),
+            new SeatDTO(12L, "Front-A", "REGULAR", "AVAILABLE", 3L),
+            new SeatDTO(13L, "R7", "REGULAR", "BOOKED", 3L),
+            new SeatDTO(20L, "E01", "ELDER", "BOOKED", 3L),
+            new SeatDTO(21L, "E03", "ELDER", "AVAILABLE", 3L),
+            new SeatDTO(2L, "P100", "PREGNANT", "AVAILABLE", 3L));
+
+        assertSameSeats(seats, SeatMapDecoder.decode(SeatMapCodec.encode(3L, seats)));
+    }
+
+    @Test
+    void roundTripsEmptySeatMap() {
+        assertEquals(0, SeatMapDecoder.decode(SeatMapCodec.encode(1L, List.of())).size());
+    }
+
+    private static void assertSameSeats(List<SeatDTO> expected, List<SeatDTO> actual) {
+        List<SeatDTO> sorted = new ArrayList<>(expected);
+        sorted.sort(Comparator.comparing(SeatDTO::getId));
+        actual = new ArrayList<>(actual);
+        actual.sort(Comparator.comparing(SeatDTO::getId));
+        assertEquals(sorted.size(), actual.size());
+        for (int i = 0; i < sorted.size(); i++) {
+            assertEquals(sorted.get(i).getId(), actual.get(i).getId());
+            assertEquals(sorted.get(i).getSeatNumber(), actual.get(i).getSeatNumber());
+            assertEquals(sorted.get(i).getSeatType(), actual.get(i).getSeatType());
+            assertEquals(sorted.get(i).getStatus(), actual.get(i).getStatus());
+            assertEquals(sorted.get(i).getBusId(), actual.get(i).getBusId());
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package BusManagementBooking.bus.seats;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reference decoder for the SeatMapCodec wire format, as a mobile client
+ * would implement it.
+ */
+public final class SeatMapDecoder {
+
+    private SeatMapDecoder() {}
+
+    public static List<SeatDTO> decode(byte[] payload) {
+        ByteBuffer in = ByteBuffer.wrap(payload);
+        if (in.get() != 'S' || in.get() != 'M') {
+            throw new IllegalArgumentException("Not a seat map");
+        }
+        int version = in.get();
+        if (version != SeatMapCodec.VERSION) {
+            throw new IllegalArgumentException("Unsupported seat map version " + version);
+        }
+        long busId = readVarLong(in);
+        int seatCount = (int) readVarLong(in);
+        int rangeCount = (int) readVarLong(in);
+
+        List<SeatDTO> seats = new ArrayList<>(seatCount);
+        Seat.SeatType[] types = Seat.SeatType.values();
+        for (int r = 0; r < rangeCount; r++) {
+            int flags = in.get() & 0xFF;
+            String seatType = types[flags & 0x3].toString();
+            int count = (int) readVarLong(in);
+
+            long[] ids = new long[count];
+            ids[0] = readVarLong(in);
+            for (int i = 1; i < count; i++) {
+                if ((flags & SeatMapCodec.FLAG_CONSECUTIVE_IDS) != 0) {
+                    ids[i] = ids[i - 1] + 1;
+                } else {
+                    long zigzag = readVarLong(in);
+                    ids[i] = ids[i - 1] + ((zigzag >>> 1) ^ -(zigzag & 1));
+                }
+            }
+
+            if ((flags & SeatMapCodec.FLAG_PREFIX_LABELS) != 0) {
+                String prefix = readString(in);
+                long firstNumber = readVarLong(in);
+                for (int i = 0; i < count; i++) {
+                    seats.add(new SeatDTO(ids[i], prefix + String.format("%02d", firstNumber + i), seatType, null, busId));
+                }
+            } else {
+                for (int i = 0; i < count; i++) {
+                    seats.add(new SeatDTO(ids[i], readString(in), seatType, null, busId));
+                }
+            }
+        }
+
+        byte[] booked = new byte[(seatCount + 7) / 8];
+        in.get(booked);
+        for (int i = 0; i < seats.size(); i++) {
+            boolean isBooked = (booked[i >> 3] & (1 << (i & 7))) != 0;
+            seats.get(i).setStatus((isBooked ? Seat.SeatStatus.BOOKED : Seat.SeatStatus.AVAILABLE).toString());
+        }
+        return seats;
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[(int) readVarLong(in)];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
@@ -0,0 +1,109 @@
+package BusManagementBooking.bus.snapshot;
+
+import BusManagementBooking.bus.booking.BookingAddRequestDTO;
+import BusManagementBooking.bus.booking.BookingServiceImpl;
+import BusManagementBooking.bus.buses.Bus;
+import BusManagementBooking.bus.buses.BusAddRequestDTO;
+import BusManagementBooking.bus.buses.BusController;
+import BusManagementBooking.bus.seats.SeatDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Writes a snapshot, restores it as a restarted node would and checks that
+ * only buses changed since are read from the database again.
+ */
+@SpringBootTest(properties = {
+    "bus.snapshot.path=target/test-snapshot/inventory.snap",
+    "bus.snapshot.write-interval-ms=3600000",
+    "bus.cache.invalidation.gap-window-ms=100",
+    "bus.cache.invalidation.poll-interval-ms=3600000",
+    "bus.admission.enabled=false"
+})
+class InventorySnapshotTests {
+
+    private static final Path SNAPSHOT = Paths.get("target/test-snapshot/inventory.snap");
+
+    @Autowired
+    private BusController busController;
+
+    @Autowired
+    private BookingServiceImpl bookingService;
+
+    @Autowired
+    private InventorySnapshotServiceImpl snapshotService;
+
+
+    @Test
+    void restoredSnapshotServesUnchangedBusesUntilTheyChange() throws Exception {
+        Long busId = addBus("Snapshot Express");
+        Long otherBusId = addBus("Snapshot Local");
+        book(busId, "R01");
+        // Changes within the gap window before a snapshot are caught up on as well
+        Thread.sleep(200);
+
+        snapshotService.write();
+        InventorySnapshot written = InventorySnapshot.open(SNAPSHOT);
+        assertEquals("Kochi-Madurai", written.tripRow(busId)[2]);
+        assertEquals(new BigDecimal("300.00"), written.tripRow(busId)[6]);
+        assertEquals("BOOKED", status(written.seatMap(busId), "R01"));
+        assertEquals("AVAILABLE", status(written.seatMap(otherBusId), "R01"));
+
+        // A restart after further changes: the snapshot only catches up on the changed bus
+        book(otherBusId, "R02");
+        snapshotService.restore();
+        assertEquals("restored", snapshotService.getStats().get("restore"));
+        assertEquals("BOOKED", status(snapshotService.findSeatMap(busId).orElseThrow(), "R01"));
+        assertTrue(snapshotService.findSeatMap(otherBusId).isEmpty());
+        assertTrue(snapshotService.findTripRows().orElseThrow().stream().anyMatch(row -> otherBusId.equals(row[0])));
+
+        book(busId, "R02");
+        assertTrue(snapshotService.findSeatMap(busId).isEmpty());
+
+        Map<String, Object> stats = snapshotService.write();
+        assertEquals(false, stats.get("lastWriteFull"));
+        assertEquals(2, stats.get("lastWriteReloaded"));
+        assertEquals("BOOKED", status(snapshotService.findSeatMap(busId).orElseThrow(), "R02"));
+        assertEquals("BOOKED", status(snapshotService.findSeatMap(otherBusId).orElseThrow(), "R02"));
+    }
+
+    @Test
+    void damagedFilesAreRejected() throws Exception {
+        snapshotService.write();
+        Path damaged = SNAPSHOT.resolveSibling("damaged.snap");
+        byte[] bytes = Files.readAllBytes(SNAPSHOT);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(damaged, bytes);
+        assertThrows(IOException.class, () -> InventorySnapshot.open(damaged));
+        Files.write(damaged, new byte[] {1, 2, 3});
+        assertThrows(IOException.class, () -> InventorySnapshot.open(damaged));
+    }
+
+    private Long addBus(String name) {
+        Bus bus = busController.addBus(new BusAddRequestDTO(name, "Kochi-Madurai", "01-01-2030",
+                "08:00", "18:00", 40, 40, 300.0)).getBody();
+        return bus.getId();
+    }
+
+    private void book(Long busId, String seatNumber) {
+        bookingService.addBooking(new BookingAddRequestDTO(1L, busId, null, seatNumber, new BigDecimal("300.00"), null));
+    }
+
+    private static String status(List<SeatDTO> seats, String seatNumber) {
+        return seats.stream().filter(seat -> seatNumber.equals(seat.getSeatNumber()))
+                .map(SeatDTO::getStatus).findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,116 @@
+package BusManagementBooking.bus.user;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pages through the user directory with every kind of filter and checks
+ * that pages neither skip nor repeat users, and that exports match them.
+ */
+@SpringBootTest(properties = {
+    "bus.cache.invalidation.poll-interval-ms=3600000",
+    "bus.admission.enabled=false"
+})
+class UserDirectoryTests {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserController userController;
+
+    @Test
+    void keysetPagesFollowTheFilteredOrder() {
+        // Same names on purpose, so pages have to break ties by id
+        add("Dirk", "dirk.b@directory.test", 30, "MALE", "USER", false);
+        add("Dirk", "dirk.a@directory.test", 65, "MALE", "USER", false);
+        add("Dira", "dira@directory.test", 28, "FEMALE", "USER", true);
+        add("Dirt_y", "dirty@directory.test", 70, "FEMALE", "ADMIN", false);
+        add("Dirk", "dirk.c@directory.test", 40, "MALE", "ADMIN", false);
+
+        List<UserSummaryDTO> byName = all("Dir", null, null, null, 2);
+        assertEquals(List.of("Dira", "Dirk", "Dirk", "Dirk", "Dirt_y"), byName.stream().map(UserSummaryDTO::getName).toList());
+        assertEquals(List.of("dirk.b@directory.test", "dirk.a@directory.test", "dirk.c@directory.test"),
+            byName.subList(1, 4).stream().map(UserSummaryDTO::getEmail).toList());
+
+        assertEquals(List.of("dirk.a@directory.test", "dirk.b@directory.test", "dirk.c@directory.test"),
+            all(null, "dirk.", null, null, 1).stream().map(UserSummaryDTO::getEmail).toList());
+        // Wildcards in a prefix are taken literally
+        assertEquals(List.of("Dirt_y"), all("Dirt_", null, null, null, 10).stream().map(UserSummaryDTO::getName).toList());
+        assertEquals(List.of("dirk.c@directory.test", "dirty@directory.test"),
+            all("Dir", null, "ADMIN", null, 1).stream().map(UserSummaryDTO::getEmail).toList());
+        assertEquals(List.of("dirk.a@directory.test", "dirty@directory.test"),
+            all("Dir", null, null, "elder", 1).stream().map(UserSummaryDTO::getEmail).toList());
+        List<UserSummaryDTO> pregnant = all("Dir", null, null, "PREGNANT", 1);
+        assertEquals(1, pregnant.size());
+        assertTrue(pregnant.get(0).isPregnantPriorityEligible());
+        assertEquals(2, all("Dir", null, null, "REGULAR", 1).size());
+
+        List<UserSummaryDTO> byId = all(null, null, null, null, 3);
+        for (int i = 1; i < byId.size(); i++) {
+            assertTrue(byId.get(i - 1).getId() < byId.get(i).getId());
+        }
+    }
+
+    @Test
+    void badRequestsAreRejected() {
+        String cursor = userService.getUserDirectory(null, null, null, null, null, 1).getNextCursor();
+        assertThrows(IllegalArgumentException.class, () -> userService.getUserDirectory("Dir", null, null, null, cursor, 1));
+        assertThrows(IllegalArgumentException.class, () -> userService.getUserDirectory(null, null, null, null, "%%%", 1));
+        assertThrows(IllegalArgumentException.class, () -> userService.getUserDirectory(null, null, null, "VIP", null, 1));
+        assertThrows(IllegalArgumentException.class, () -> userService.getUserDirectory(null, null, null, null, null, 0));
+        assertEquals(400, userController.getUsers(null, null, null, null, null, 100000).getStatusCode().value());
+    }
+
+    @Test
+    void exportStreamsEveryMatchWithoutPasswords() throws Exception {
+        add("Exporter, Jr.", "exporter@directory.test", 61, "MALE", "USER", false);
+        add("Exporter", "exporter2@directory.test", 20, "FEMALE", "USER", false);
+
+        String csv = export("csv");
+        assertEquals("id,name,email,role,age,gender,elderlyPriorityEligible,pregnantPriorityEligible", csv.lines().findFirst().orElseThrow());
+        assertEquals(3, csv.lines().count());
+        assertTrue(csv.contains(",\"Exporter, Jr.\",exporter@directory.test,USER,61,MALE,true,false"));
+
+        String ndjson = export("ndjson");
+        assertEquals(2, ndjson.lines().count());
+        assertFalse(ndjson.contains("password"));
+        assertEquals(400, userController.exportUsers("Exporter", null, null, null, "xml").getStatusCode().value());
+    }
+
+    private String export(String format) throws Exception {
+        ResponseEntity<?> response = userController.exportUsers("Exporter", null, null, null, format);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ((StreamingResponseBody) response.getBody()).writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private List<UserSummaryDTO> all(String name, String email, String role, String priority, int limit) {
+        List<UserSummaryDTO> users = new ArrayList<>();
+        String cursor = null;
+        do {
+            UserPageDTO page = userService.getUserDirectory(name, email, role, priority, cursor, limit);
+            assertTrue(page.getUsers().size() <= limit);
+            users.addAll(page.getUsers());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return users;
+    }
+
+    private void add(String name, String email, int age, String gender, String role, boolean pregnant) {
+        userService.addUser(new UserAddRequestDTO(name, email, age, gender, role, "secret", pregnant));
+    }
+}
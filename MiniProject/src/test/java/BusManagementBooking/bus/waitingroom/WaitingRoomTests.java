@@ -0,0 +1,92 @@
+package BusManagementBooking.bus.waitingroom;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WaitingRoomTests {
+
+    private static final long TTL = 300;
+
+    @Test
+    void ticketsAreIssuedInArrivalOrderAndRejoiningKeepsThePlace() {
+        WaitingRoom room = new WaitingRoom(7, 2);
+        assertEquals(1, room.join(100, 0, TTL));
+        assertEquals(2, room.join(200, 0, TTL));
+        assertEquals(1, room.join(100, 5, TTL));
+        assertEquals(2, room.position(2));
+    }
+
+    @Test
+    void admitsAtTheConfiguredRateWithoutBankingIdleTime() {
+        WaitingRoom room = new WaitingRoom(7, 2);
+        // An idle minute must not turn into a burst for the next arrivals
+        room.advance(60);
+        for (long user = 1; user <= 10; user++) {
+            room.join(user, 0, TTL);
+        }
+        room.advance(1);
+        assertEquals(2, room.getAdmittedUpTo());
+        room.advance(0.25);
+        room.advance(0.25);
+        assertEquals(3, room.getAdmittedUpTo());
+        assertEquals(0, room.position(3));
+        assertEquals(7, room.position(10));
+    }
+
+    @Test
+    void passExpiryIsFixedAtFirstIssueAndAnExpiredPassRequeues() {
+        WaitingRoom room = new WaitingRoom(7, 1);
+        long ticket = room.join(100, 0, TTL);
+        assertEquals(-1, room.issuePass(100, ticket, 10));
+        room.advance(1);
+        assertEquals(10, room.issuePass(100, ticket, 10));
+        assertEquals(10, room.issuePass(100, ticket, 50));
+
+        // Still valid: same ticket; expired: back of the queue
+        assertEquals(ticket, room.join(100, 100, TTL));
+        room.join(200, 100, TTL);
+        long requeued = room.join(100, 10 + TTL, TTL);
+        assertEquals(3, requeued);
+        assertEquals(-1, room.issuePass(100, ticket, 10 + TTL));
+    }
+
+    @Test
+    void tokensRoundTripAndRejectTamperingAndWrongKind() {
+        WaitingRoomTokens tokens = new WaitingRoomTokens("secret".getBytes(StandardCharsets.UTF_8));
+        String queueToken = tokens.encode(WaitingRoomTokens.QUEUE, 7, 100, 42);
+        assertArrayEquals(new long[] {7, 100, 42}, tokens.decode(queueToken, WaitingRoomTokens.QUEUE));
+
+        assertThrows(IllegalArgumentException.class, () -> tokens.decode(queueToken, WaitingRoomTokens.PASS));
+        char[] chars = queueToken.toCharArray();
+        chars[5] = chars[5] == 'A' ? 'B' : 'A';
+        assertThrows(IllegalArgumentException.class, () -> tokens.decode(new String(chars), WaitingRoomTokens.QUEUE));
+
+        WaitingRoomTokens otherNode = new WaitingRoomTokens("other".getBytes(StandardCharsets.UTF_8));
+        assertThrows(IllegalArgumentException.class, () -> otherNode.decode(queueToken, WaitingRoomTokens.QUEUE));
+    }
+
+    @Test
+    void aMillionWaitingUsersFitInPrimitiveArrays() {
+        WaitingRoom room = new WaitingRoom(7, 100);
+        for (long user = 1; user <= 1_000_000; user++) {
+            room.join(user, 0, TTL);
+        }
+        assertEquals(1_000_000, room.getTrackedUsers());
+        assertEquals(1_000_000, room.position(1_000_000));
+
+        UserTickets tickets = new UserTickets();
+        for (long user = 1; user <= 1_000_000; user++) {
+            tickets.put(user * 31, user);
+        }
+        // Two long arrays of 2^21 slots: 32 MB
+        assertTrue(tickets.capacity() <= 1 << 21, "capacity " + tickets.capacity());
+        assertEquals(500_000, tickets.get(500_000L * 31));
+        assertEquals(-1, tickets.get(12345));
+    }
+}
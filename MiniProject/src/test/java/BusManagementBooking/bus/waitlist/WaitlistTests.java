@@ -0,0 +1,130 @@
+package BusManagementBooking.bus.waitlist;
+
+import BusManagementBooking.bus.booking.Booking;
+import BusManagementBooking.bus.booking.BookingAddRequestDTO;
+import BusManagementBooking.bus.booking.BookingServiceImpl;
+import BusManagementBooking.bus.buses.BusAddRequestDTO;
+import BusManagementBooking.bus.buses.BusController;
+import BusManagementBooking.bus.buses.BusRepository;
+import BusManagementBooking.bus.seats.Seat;
+import BusManagementBooking.bus.seats.SeatDTO;
+import BusManagementBooking.bus.seats.SeatService;
+import BusManagementBooking.bus.user.User;
+import BusManagementBooking.bus.user.UserAddRequestDTO;
+import BusManagementBooking.bus.user.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sells out a small bus, queues passengers of every priority and cancels
+ * bookings one by one to see who gets each freed seat.
+ */
+@SpringBootTest(properties = {
+    "bus.outbox.poll-interval-ms=3600000",
+    "bus.cache.invalidation.poll-interval-ms=3600000",
+    "bus.admission.enabled=false"
+})
+class WaitlistTests {
+
+    @Autowired
+    private BusController busController;
+
+    @Autowired
+    private BusRepository busRepository;
+
+    @Autowired
+    private BookingServiceImpl bookingService;
+
+    @Autowired
+    private SeatService seatService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    @Test
+    void freedSeatsGoToPregnantThenElderThenFirstComer() {
+        Long busId = busController.addBus(new BusAddRequestDTO("Waitlist Express", "Kochi-Madurai", "01-01-2030",
+                "08:00", "18:00", 4, 4, 300.0)).getBody().getId();
+        Long holder = user("holder", 30, "Male", false);
+        Long firstRegular = user("first", 30, "Male", false);
+        Long elder = user("elder", 70, "Male", false);
+        Long secondRegular = user("second", 25, "Female", false);
+        Long pregnant = user("pregnant", 28, "Female", true);
+
+        // Nobody waits for a bus with free seats
+        assertThrows(IllegalArgumentException.class, () -> waitlistService.join(busId, firstRegular));
+        List<Booking> held = new ArrayList<>();
+        for (SeatDTO seat : seatService.getSeatsByBusId(busId)) {
+            held.add(bookingService.addBooking(new BookingAddRequestDTO(holder, busId, null, seat.getSeatNumber(),
+                    new BigDecimal("300.00"), null)));
+        }
+
+        assertEquals(1, waitlistService.join(busId, firstRegular).getPosition());
+        assertEquals(1, waitlistService.join(busId, elder).getPosition());
+        assertEquals(3, waitlistService.join(busId, secondRegular).getPosition());
+        assertEquals(1, waitlistService.join(busId, pregnant).getPosition());
+        assertThrows(IllegalArgumentException.class, () -> waitlistService.join(busId, elder));
+        assertEquals(3, waitlistService.getEntry(busId, firstRegular).orElseThrow().getPosition());
+        assertEquals("ELDER", waitlistService.getEntry(busId, elder).orElseThrow().getPriority());
+        assertEquals(4L, waitlistService.getBusSummary(busId).get("waiting"));
+
+        assertEquals(held.get(0).getSeatNumber(), cancelAndFindNewBooking(held.get(0), pregnant).getSeatNumber());
+        assertEquals(2, waitlistService.getEntry(busId, firstRegular).orElseThrow().getPosition());
+        assertTrue(waitlistService.leave(busId, secondRegular));
+        cancelAndFindNewBooking(held.get(1), elder);
+        cancelAndFindNewBooking(held.get(2), firstRegular);
+        assertEquals(0, availableSeats(busId));
+        assertEquals(0L, waitlistService.getBusSummary(busId).get("waiting"));
+
+        // Cancelling again leaves the seat with the passenger who got it from the waitlist
+        bookingService.cancelBooking(held.get(0).getId());
+        assertEquals(Seat.SeatStatus.BOOKED.name(), seatStatus(busId, held.get(0).getSeatNumber()));
+
+        // With nobody waiting the seat is simply free again
+        bookingService.cancelBooking(held.get(3).getId());
+        assertEquals(Seat.SeatStatus.AVAILABLE.name(), seatStatus(busId, held.get(3).getSeatNumber()));
+        assertEquals(1, availableSeats(busId));
+        assertTrue(bookingService.getBookingsByUserId(secondRegular).isEmpty());
+        assertFalse(waitlistService.leave(busId, secondRegular));
+    }
+
+    private Booking cancelAndFindNewBooking(Booking cancelled, Long waitingUserId) {
+        assertTrue(bookingService.cancelBooking(cancelled.getId()));
+        List<Booking> bookings = bookingService.getBookingsByUserId(waitingUserId);
+        assertEquals(1, bookings.size());
+        Booking booking = bookings.get(0);
+        assertEquals("CONFIRMED", booking.getStatus());
+        assertEquals(cancelled.getSeatNumber(), booking.getSeatNumber());
+        assertEquals(Seat.SeatStatus.BOOKED.name(), seatStatus(cancelled.getBusId(), cancelled.getSeatNumber()));
+        assertTrue(waitlistService.getEntry(cancelled.getBusId(), waitingUserId).isEmpty());
+        return booking;
+    }
+
+    private Long user(String name, int age, String gender, boolean pregnant) {
+        String email = name + "@waitlist.example.com";
+        userService.addUser(new UserAddRequestDTO(name, email, age, gender, "USER", "secret", pregnant));
+        return userService.getUserByEmail(email).map(User::getId).orElseThrow();
+    }
+
+    private String seatStatus(Long busId, String seatNumber) {
+        return seatService.getSeatsByBusId(busId).stream()
+                .filter(seat -> seatNumber.equals(seat.getSeatNumber())).map(SeatDTO::getStatus).findFirst().orElseThrow();
+    }
+
+    private int availableSeats(Long busId) {
+        return busRepository.findById(busId).orElseThrow().getAvailableSeats();
+    }
+}